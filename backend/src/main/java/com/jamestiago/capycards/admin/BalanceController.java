@@ -0,0 +1,100 @@
+package com.jamestiago.capycards.admin;
+
+import com.jamestiago.capycards.game.CardBalanceStats;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.service.BalanceSimulationService;
+import com.jamestiago.capycards.service.CardBalanceService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-card balance metrics, served from memory. {@code windowMinutes} limits
+ * them to recent games; 0 means since startup.
+ */
+@RestController
+@RequestMapping("/api/admin/balance")
+public class BalanceController {
+    private static final long WHAT_IF_TIMEOUT_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private final CardBalanceService balanceService;
+    private final BalanceSimulationService simulationService;
+
+    /** A proposed card definition, and how many games to try it in. {@code seed} makes a run repeatable. */
+    public record WhatIfRequest(Card card, Integer games, Long seed) {
+    }
+
+    public BalanceController(CardBalanceService balanceService, BalanceSimulationService simulationService) {
+        this.balanceService = balanceService;
+        this.simulationService = simulationService;
+    }
+
+    @GetMapping("/cards")
+    public Map<String, Object> getCards(@RequestParam(defaultValue = "LIVE") CardBalanceService.Source source,
+            @RequestParam(defaultValue = "0") long windowMinutes) {
+        CardBalanceStats stats = balanceService.stats(source);
+        long window = TimeUnit.MINUTES.toMillis(windowMinutes);
+        Map<String, Object> body = new HashMap<>();
+        body.put("source", source);
+        body.put("finishedGames", stats.finishedGames(window));
+        body.put("cards", stats.snapshot(window));
+        return body;
+    }
+
+    @GetMapping("/cards/{cardId}")
+    public ResponseEntity<CardBalanceStats.CardMetrics> getCard(@PathVariable String cardId,
+            @RequestParam(defaultValue = "LIVE") CardBalanceService.Source source,
+            @RequestParam(defaultValue = "0") long windowMinutes) {
+        CardBalanceStats.CardMetrics metrics = balanceService.stats(source).get(cardId,
+                TimeUnit.MINUTES.toMillis(windowMinutes));
+        return metrics != null ? ResponseEntity.ok(metrics) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Plays {@code games} simulated games of the proposed card against the
+     * current one and streams {@code progress} events as server-sent events,
+     * ending with one that has {@code done} set. Closing the stream cancels
+     * the run. The run's per-card metrics can be read afterwards with
+     * {@code source=SIMULATED}.
+     */
+    @PostMapping(value = "/what-if", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> whatIf(@RequestBody WhatIfRequest request) {
+        SseEmitter emitter = new SseEmitter(WHAT_IF_TIMEOUT_MILLIS);
+        BalanceSimulationService.Run run;
+        try {
+            run = simulationService.start(request.card(), request.games() != null ? request.games() : 1000,
+                    request.seed() != null ? request.seed() : System.nanoTime(), progress -> {
+                        try {
+                            emitter.send(SseEmitter.event().name("progress").data(progress));
+                            if (progress.done()) {
+                                emitter.complete();
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("error", e.getMessage()));
+        }
+        emitter.onTimeout(run::cancel);
+        emitter.onError(error -> run.cancel());
+        return ResponseEntity.ok(emitter);
+    }
+}
@@ -1,31 +1,89 @@
 package com.jamestiago.capycards.admin;
 
+import com.jamestiago.capycards.game.CardCatalog;
+import com.jamestiago.capycards.game.CardIndex;
+import com.jamestiago.capycards.game.EffectGraph;
+import com.jamestiago.capycards.game.effects.EffectTrigger;
 import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.model.Rarity;
 import com.jamestiago.capycards.repository.CardRepository;
+import com.jamestiago.capycards.service.CardCatalogService;
 import com.jamestiago.capycards.service.CardDataSeeder;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/admin/cards")
 public class CardAdminController {
     private final CardRepository cardRepository;
     private final CardDataSeeder cardDataSeeder;
+    private final CardCatalogService catalogService;
 
-    public CardAdminController(CardRepository cardRepository, CardDataSeeder cardDataSeeder) {
+    public CardAdminController(CardRepository cardRepository, CardDataSeeder cardDataSeeder,
+            CardCatalogService catalogService) {
         this.cardRepository = cardRepository;
         this.cardDataSeeder = cardDataSeeder;
+        this.catalogService = catalogService;
     }
 
+    private static final int MAX_PAGE_SIZE = 500;
+
+    /** Every card in the current catalog, by cardId. */
     @GetMapping
     public List<Card> getAllCards() {
-        List<Card> cards = cardRepository.findAll();
-        cards.sort(Comparator.comparing(Card::getCardId));
-        return cards;
+        return catalogService.current().index().search(CardIndex.Query.all()).cards();
+    }
+
+    /**
+     * Searches the current catalog. {@code q} matches words in the name, types
+     * and effect text (the last one as a prefix); every other parameter
+     * narrows the results further. {@code total} counts all matches.
+     */
+    @GetMapping("/search")
+    public Map<String, Object> searchCards(@RequestParam(required = false) String q,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Set<String> type,
+            @RequestParam(required = false) Rarity rarity,
+            @RequestParam(required = false) Boolean playable,
+            @RequestParam(required = false) EffectTrigger trigger,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) Integer minLife, @RequestParam(required = false) Integer maxLife,
+            @RequestParam(required = false) Integer minAttack, @RequestParam(required = false) Integer maxAttack,
+            @RequestParam(required = false) Integer minDefense, @RequestParam(required = false) Integer maxDefense,
+            @RequestParam(defaultValue = "CARD_ID") CardIndex.SortKey sort,
+            @RequestParam(defaultValue = "false") boolean desc,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "50") int limit) {
+        CardCatalog catalog = catalogService.current();
+        CardIndex.Page page = catalog.index().search(new CardIndex.Query(q, name, type, rarity, playable, trigger,
+                action, new CardIndex.Range(minLife, maxLife), new CardIndex.Range(minAttack, maxAttack),
+                new CardIndex.Range(minDefense, maxDefense), sort, desc, offset,
+                Math.max(1, Math.min(limit, MAX_PAGE_SIZE))));
+        Map<String, Object> body = new HashMap<>();
+        body.put("catalogVersion", catalog.getVersion());
+        body.put("total", page.total());
+        body.put("cards", page.cards());
+        return body;
+    }
+
+    /**
+     * The worst-case resolution cost of every card in the current catalog,
+     * dearest first, and the cards whose effects might loop.
+     */
+    @GetMapping("/effect-costs")
+    public Map<String, Object> getEffectCosts() {
+        CardCatalog catalog = catalogService.current();
+        EffectGraph effectGraph = catalog.effectGraph();
+        Map<String, Object> body = new HashMap<>();
+        body.put("catalogVersion", catalog.getVersion());
+        body.put("looping", effectGraph.getLoopingCardIds());
+        body.put("costs", effectGraph.getCosts());
+        return body;
     }
 
     @PostMapping
@@ -33,7 +91,11 @@ public class CardAdminController {
         if (cardRepository.findByCardId(card.getCardId()).isPresent()) {
             throw new IllegalArgumentException("Card with cardId " + card.getCardId() + " already exists.");
         }
-        return cardRepository.save(card);
+        card.setContentHash(null);
+        Card saved = cardRepository.save(card);
+        cardDataSeeder.markModified();
+        catalogService.publish();
+        return saved;
     }
 
     @GetMapping("/{id}")
@@ -58,7 +120,11 @@ public class CardAdminController {
             card.setImageUrl(cardDetails.getImageUrl());
             card.setFlavorText(cardDetails.getFlavorText());
             card.setDirectlyPlayable(cardDetails.isDirectlyPlayable());
+            // No longer matches its definition file, so the next seed puts the file's version back.
+            card.setContentHash(null);
             Card updatedCard = cardRepository.save(card);
+            cardDataSeeder.markModified();
+            catalogService.publish();
             return ResponseEntity.ok(updatedCard);
         }).orElse(ResponseEntity.notFound().build());
     }
@@ -69,14 +135,20 @@ public class CardAdminController {
             return ResponseEntity.notFound().build();
         }
         cardRepository.deleteById(id);
+        cardDataSeeder.markModified();
+        catalogService.publish();
         return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/reload-definitions")
     public ResponseEntity<String> reloadCardDefinitions() {
         try {
-            cardDataSeeder.seedCards();
-            return ResponseEntity.ok("Card definitions reloaded from JSON files successfully.");
+            int written = cardDataSeeder.seed(true);
+            if (written < 0) {
+                return ResponseEntity.status(500).body("Error reloading card definitions: could not read the files.");
+            }
+            return ResponseEntity.ok("Card definitions reloaded from JSON files successfully (" + written
+                    + " cards updated).");
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error reloading card definitions: " + e.getMessage());
         }
@@ -1,23 +1,116 @@
 package com.jamestiago.capycards.admin;
 
-import com.jamestiago.capycards.repository.GameEventLogRepository;
+import com.jamestiago.capycards.game.GameSummary;
+import com.jamestiago.capycards.repository.GameSummaryRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin/games")
 public class GameAdminController {
-    private final GameEventLogRepository eventLogRepository;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private final GameSummaryRepository summaryRepository;
 
-    public GameAdminController(GameEventLogRepository eventLogRepository) {
-        this.eventLogRepository = eventLogRepository;
+    public GameAdminController(GameSummaryRepository summaryRepository) {
+        this.summaryRepository = summaryRepository;
     }
 
+    /**
+     * Game ids, most recently started first. Without {@code after} or
+     * {@code limit} that's every game; otherwise it's a page of at most
+     * {@code limit} ids, and the last id of a page is passed as {@code after}
+     * to get the next one.
+     */
     @GetMapping("/ids")
-    public List<String> getAllGameIds() {
-        return eventLogRepository.findAllDistinctGameIds();
+    public ResponseEntity<?> getAllGameIds(@RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(summaryRepository.findAllGameIds());
+        }
+        Limit pageSize = Limit.of(clamp(limit != null ? limit : DEFAULT_PAGE_SIZE));
+        if (after == null) {
+            return ResponseEntity.ok(summaryRepository.findGameIds(pageSize));
+        }
+        GameSummary last = summaryRepository.findById(after).orElse(null);
+        if (last == null || last.getStartedAt() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Unknown game: " + after));
+        }
+        return ResponseEntity.ok(summaryRepository.findGameIdsBefore(last.getStartedAt(), after, pageSize));
     }
-}
\ No newline at end of file
+
+    /**
+     * Game summaries, most recently started first, optionally filtered by
+     * status, mode or player. The response's {@code nextCursor} is passed
+     * back as {@code cursor} for the next page; it's null on the last page.
+     */
+    @GetMapping
+    public ResponseEntity<?> getGames(@RequestParam(required = false) GameSummary.Status status,
+            @RequestParam(required = false) GameSummary.Mode mode,
+            @RequestParam(required = false) String playerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        Instant beforeStartedAt = null;
+        String beforeGameId = null;
+        if (cursor != null) {
+            String[] position = decodeCursor(cursor);
+            if (position == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid cursor."));
+            }
+            beforeStartedAt = Instant.parse(position[0]);
+            beforeGameId = position[1];
+        }
+        int pageSize = clamp(limit);
+        List<GameSummary> games = summaryRepository.findRecent(status, mode, playerId, beforeStartedAt, beforeGameId,
+                pageSize);
+
+        Map<String, Object> page = new HashMap<>();
+        page.put("games", games);
+        page.put("nextCursor", games.size() < pageSize ? null : encodeCursor(games.get(games.size() - 1)));
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/{gameId}")
+    public ResponseEntity<GameSummary> getGame(@PathVariable String gameId) {
+        return summaryRepository.findById(gameId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private static String encodeCursor(GameSummary last) {
+        String position = last.getStartedAt() + "|" + last.getGameId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns null if the cursor wasn't one of ours.
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\|", 2);
+            if (position.length != 2) {
+                return null;
+            }
+            Instant.parse(position[0]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return null;
+        }
+    }
+}
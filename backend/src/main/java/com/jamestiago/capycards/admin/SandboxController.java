@@ -0,0 +1,90 @@
+package com.jamestiago.capycards.admin;
+
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameNotation;
+import com.jamestiago.capycards.game.commands.GameCommand;
+import com.jamestiago.capycards.service.CardCatalogService;
+import com.jamestiago.capycards.service.SandboxService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * What-if sandboxes for designers: fork a game, try commands on the fork,
+ * throw it away. Nothing done here reaches the real game or its players.
+ */
+@RestController
+@RequestMapping("/api/admin/sandboxes")
+public class SandboxController {
+    private final SandboxService sandboxService;
+    private final CardCatalogService catalogService;
+
+    public SandboxController(SandboxService sandboxService, CardCatalogService catalogService) {
+        this.sandboxService = sandboxService;
+        this.catalogService = catalogService;
+    }
+
+    /**
+     * Forks {@code gameId} after its first {@code atEvent} events, or as it
+     * is now when {@code atEvent} is left out.
+     */
+    @PostMapping
+    public ResponseEntity<?> fork(@RequestParam String gameId, @RequestParam(required = false) Long atEvent) {
+        try {
+            Map<String, Object> sandbox = sandboxService.fork(gameId, atEvent);
+            if (sandbox == null) {
+                return ResponseEntity.status(404).body(Map.of("error", "No events found for game " + gameId + "."));
+            }
+            return ResponseEntity.ok(sandbox);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(429).body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to fork game " + gameId + ".",
+                    "message", String.valueOf(e.getMessage())));
+        }
+    }
+
+    /** Opens a sandbox on a position written in {@link GameNotation}, sent as the request body. */
+    @PostMapping(value = "/position", consumes = "text/plain")
+    public ResponseEntity<?> open(@RequestBody String notation) {
+        Game game;
+        try {
+            game = GameNotation.parse(notation, catalogService.current());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        try {
+            return ResponseEntity.ok(sandboxService.open(game));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(429).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{sandboxId}")
+    public ResponseEntity<?> view(@PathVariable String sandboxId) {
+        try {
+            Map<String, Object> sandbox = sandboxService.view(sandboxId);
+            return sandbox != null ? ResponseEntity.ok(sandbox) : ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    /** Runs a command (same JSON as over the socket) in the sandbox. */
+    @PostMapping("/{sandboxId}/commands")
+    public ResponseEntity<?> execute(@PathVariable String sandboxId, @RequestBody GameCommand command) {
+        try {
+            Map<String, Object> result = sandboxService.execute(sandboxId, command);
+            return result != null ? ResponseEntity.ok(result) : ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    @DeleteMapping("/{sandboxId}")
+    public ResponseEntity<Void> discard(@PathVariable String sandboxId) {
+        return sandboxService.discard(sandboxId) ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.jamestiago.capycards.admin;
+
+import com.jamestiago.capycards.model.CardStats;
+import com.jamestiago.capycards.model.PlayerStats;
+import com.jamestiago.capycards.repository.CardStatsRepository;
+import com.jamestiago.capycards.repository.PlayerStatsRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Player and card statistics, read straight from the projected tables. They
+ * trail the games being played by however far the projections are behind,
+ * usually well under a second.
+ */
+@RestController
+@RequestMapping("/api/admin/stats")
+public class StatsController {
+    private static final int MAX_PAGE_SIZE = 500;
+    private final PlayerStatsRepository playerStatsRepository;
+    private final CardStatsRepository cardStatsRepository;
+
+    public StatsController(PlayerStatsRepository playerStatsRepository, CardStatsRepository cardStatsRepository) {
+        this.playerStatsRepository = playerStatsRepository;
+        this.cardStatsRepository = cardStatsRepository;
+    }
+
+    /** Players with the most wins first. */
+    @GetMapping("/players")
+    public List<PlayerStats> getTopPlayers(@RequestParam(defaultValue = "50") int limit) {
+        return playerStatsRepository.findByOrderByWinsDesc(Limit.of(clamp(limit)));
+    }
+
+    @GetMapping("/players/{playerId}")
+    public ResponseEntity<PlayerStats> getPlayer(@PathVariable String playerId) {
+        return playerStatsRepository.findById(playerId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /** Cards played most often first. */
+    @GetMapping("/cards")
+    public List<CardStats> getCards(@RequestParam(defaultValue = "100") int limit) {
+        return cardStatsRepository.findByOrderByTimesPlayedDesc(Limit.of(clamp(limit)));
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+}
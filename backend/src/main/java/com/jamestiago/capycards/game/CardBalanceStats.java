@@ -0,0 +1,305 @@
+package com.jamestiago.capycards.game;
+
+import com.jamestiago.capycards.game.dto.CardInstanceDTO;
+import com.jamestiago.capycards.game.events.AbilityActivatedEvent;
+import com.jamestiago.capycards.game.events.CardAddedToDeckEvent;
+import com.jamestiago.capycards.game.events.CardDrawnEvent;
+import com.jamestiago.capycards.game.events.CardPlayedEvent;
+import com.jamestiago.capycards.game.events.CardReappearedEvent;
+import com.jamestiago.capycards.game.events.CardTransformedEvent;
+import com.jamestiago.capycards.game.events.CombatDamageDealtEvent;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.game.events.GameOverEvent;
+import com.jamestiago.capycards.game.events.GameStartedEvent;
+import com.jamestiago.capycards.game.events.PlayerDrewCardEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-card balance metrics, aggregated as events go by rather than by
+ * replaying games: how often a card is played, how often its player wins,
+ * the damage it deals and takes, and how often its ability is used.
+ * <p>
+ * Every counter is kept both for all time and in a ring of time buckets, so
+ * any window up to {@code bucketMillis * bucketCount} can be read without
+ * keeping individual events. Safe to feed from many games at once; a game's
+ * own events must arrive in order.
+ */
+public class CardBalanceStats {
+    // Counter slots.
+    private static final int PLAYS = 0;
+    private static final int GAMES = 1;
+    private static final int WINS = 2;
+    private static final int DAMAGE_DEALT = 3;
+    private static final int DAMAGE_TAKEN = 4;
+    private static final int TRIGGERS = 5;
+    private static final int SLOTS = 6;
+
+    /** One card's metrics over some window. Rates are null when there's nothing to divide by. */
+    public record CardMetrics(String cardId, long plays, long gamesPlayed, long gamesWon, Double playRate,
+            Double winRateWhenPlayed, Double avgDamageDealt, Double avgDamageTaken, Double triggersPerPlay) {
+    }
+
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final LongSupplier clock;
+    private final Map<String, Counters> cards = new ConcurrentHashMap<>();
+    // Finished games, in the GAMES slot.
+    private final Counters finishedGames;
+    private final Map<String, Tally> games = new ConcurrentHashMap<>();
+
+    // What's needed from a game in progress to credit its cards once it ends. Only the instance
+    // map can be rebuilt from the game itself, so an idle game keeps the rest.
+    private static final class Tally {
+        final Map<String, String> cardIdByInstance = new HashMap<>();
+        final Map<String, Set<String>> cardsPlayedByPlayer = new HashMap<>();
+        boolean started;
+        volatile long lastEventMillis;
+    }
+
+    // All-time totals plus a ring of buckets; bucketStart says which period each bucket currently holds.
+    private final class Counters {
+        final long[] total = new long[SLOTS];
+        final long[][] buckets = new long[bucketCount][SLOTS];
+        final long[] bucketStart = new long[bucketCount];
+
+        synchronized void add(int slot, long amount, long now) {
+            long start = now - Math.floorMod(now, bucketMillis);
+            int index = (int) Math.floorMod(start / bucketMillis, (long) bucketCount);
+            if (bucketStart[index] != start) {
+                bucketStart[index] = start;
+                Arrays.fill(buckets[index], 0);
+            }
+            buckets[index][slot] += amount;
+            total[slot] += amount;
+        }
+
+        synchronized long[] sum(long since) {
+            if (since == Long.MIN_VALUE) {
+                return total.clone();
+            }
+            long[] sum = new long[SLOTS];
+            for (int i = 0; i < bucketCount; i++) {
+                if (bucketStart[i] + bucketMillis > since) {
+                    for (int slot = 0; slot < SLOTS; slot++) {
+                        sum[slot] += buckets[i][slot];
+                    }
+                }
+            }
+            return sum;
+        }
+    }
+
+    public CardBalanceStats(long bucketMillis, int bucketCount) {
+        this(bucketMillis, bucketCount, System::currentTimeMillis);
+    }
+
+    public CardBalanceStats(long bucketMillis, int bucketCount, LongSupplier clock) {
+        this.bucketMillis = Math.max(1, bucketMillis);
+        this.bucketCount = Math.max(1, bucketCount);
+        this.clock = clock;
+        this.finishedGames = new Counters();
+    }
+
+    /** The longest window {@link #snapshot(long)} can cover. */
+    public long windowMillis() {
+        return bucketMillis * bucketCount;
+    }
+
+    /**
+     * Folds one event in. A game whose start wasn't seen, e.g. one already
+     * under way at startup, counts towards plays, damage and triggers but
+     * not towards games and wins.
+     */
+    public void accept(GameEvent event) {
+        long now = clock.getAsLong();
+        Tally tally = games.computeIfAbsent(event.gameId, id -> new Tally());
+        synchronized (tally) {
+            tally.lastEventMillis = now;
+            switch (event) {
+                case GameStartedEvent start -> tally.started = true;
+                case CardPlayedEvent played -> {
+                    String cardId = remember(tally, played.card);
+                    if (cardId != null) {
+                        counters(cardId).add(PLAYS, 1, now);
+                        if (played.playerId != null) {
+                            tally.cardsPlayedByPlayer.computeIfAbsent(played.playerId, id -> new HashSet<>())
+                                    .add(cardId);
+                        }
+                    }
+                }
+                case CardDrawnEvent drawn -> remember(tally, drawn.card);
+                case PlayerDrewCardEvent drew -> remember(tally, drew.card);
+                case CardReappearedEvent reappeared -> remember(tally, reappeared.card);
+                case CardAddedToDeckEvent added -> remember(tally, added.card);
+                case CardTransformedEvent transformed -> {
+                    if (transformed.newCardDto != null && transformed.newCardDto.getCardId() != null) {
+                        tally.cardIdByInstance.put(transformed.originalInstanceId,
+                                transformed.newCardDto.getCardId());
+                        remember(tally, transformed.newCardDto);
+                    }
+                }
+                case CombatDamageDealtEvent damage -> {
+                    String attacker = tally.cardIdByInstance.get(damage.attackerInstanceId);
+                    String defender = tally.cardIdByInstance.get(damage.defenderInstanceId);
+                    if (attacker != null) {
+                        counters(attacker).add(DAMAGE_DEALT, damage.damageAfterDefense, now);
+                    }
+                    if (defender != null) {
+                        counters(defender).add(DAMAGE_TAKEN, damage.damageAfterDefense, now);
+                    }
+                }
+                case AbilityActivatedEvent activated -> {
+                    String source = tally.cardIdByInstance.get(activated.sourceId);
+                    if (source != null) {
+                        counters(source).add(TRIGGERS, 1, now);
+                    }
+                }
+                case GameOverEvent over -> finish(tally, over, now);
+                default -> {
+                }
+            }
+        }
+    }
+
+    /** Forgets a game that won't be finished, e.g. a simulation cut off at its turn limit. */
+    public void discard(String gameId) {
+        games.remove(gameId);
+    }
+
+    /**
+     * Drops the card instances of games that haven't had an event for
+     * {@code idleMillis}, keeping the cards each player has played so the
+     * game can still be credited when it ends. Call {@link #resume(Game)}
+     * when such a game comes back. Returns how many games were compacted.
+     */
+    public int compactIdle(long idleMillis) {
+        long cutoff = clock.getAsLong() - idleMillis;
+        int compacted = 0;
+        for (Tally tally : games.values()) {
+            synchronized (tally) {
+                if (tally.lastEventMillis < cutoff && !tally.cardIdByInstance.isEmpty()) {
+                    tally.cardIdByInstance.clear();
+                    compacted++;
+                }
+            }
+        }
+        return compacted;
+    }
+
+    /**
+     * Relearns which card every instance in {@code game} is, for a game
+     * rebuilt after going idle or after a restart. A game that wasn't being
+     * tracked is counted as one whose start wasn't seen.
+     */
+    public void resume(Game game) {
+        Tally tally = games.computeIfAbsent(game.getGameId(), id -> new Tally());
+        synchronized (tally) {
+            tally.lastEventMillis = clock.getAsLong();
+            List<CardInstance> cards = new ArrayList<>();
+            for (Player player : Arrays.asList(game.getPlayer1(), game.getPlayer2())) {
+                if (player != null) {
+                    cards.addAll(player.getDeck().getCards());
+                    cards.addAll(player.getHand());
+                    cards.addAll(player.getField());
+                    cards.addAll(player.getDiscardPile());
+                }
+            }
+            game.getCardsInLimbo().values().forEach(entry -> cards.add(entry.getKey()));
+            for (CardInstance card : cards) {
+                if (card != null && card.getDefinition() != null) {
+                    tally.cardIdByInstance.put(card.getInstanceId(), card.getDefinition().getCardId());
+                }
+            }
+        }
+    }
+
+    /** Games in progress being tracked. */
+    public int trackedGames() {
+        return games.size();
+    }
+
+    /**
+     * Every card's metrics over the last {@code windowMillis}, most played
+     * first. Zero or less means all time; windows longer than
+     * {@link #windowMillis()} are cut to it. Bucket granularity means the
+     * oldest bucket in the window counts in full.
+     */
+    public List<CardMetrics> snapshot(long windowMillis) {
+        long since = since(windowMillis);
+        long totalGames = finishedGames.sum(since)[GAMES];
+        List<CardMetrics> metrics = new ArrayList<>(cards.size());
+        cards.forEach((cardId, counters) -> metrics.add(metricsOf(cardId, counters.sum(since), totalGames)));
+        metrics.sort(Comparator.comparingLong(CardMetrics::plays).reversed().thenComparing(CardMetrics::cardId));
+        return metrics;
+    }
+
+    /** One card's metrics, as in {@link #snapshot(long)}; null if it has never been seen. */
+    public CardMetrics get(String cardId, long windowMillis) {
+        Counters counters = cards.get(cardId);
+        if (counters == null) {
+            return null;
+        }
+        long since = since(windowMillis);
+        return metricsOf(cardId, counters.sum(since), finishedGames.sum(since)[GAMES]);
+    }
+
+    /** Finished games counted over the window, as in {@link #snapshot(long)}. */
+    public long finishedGames(long windowMillis) {
+        return finishedGames.sum(since(windowMillis))[GAMES];
+    }
+
+    private long since(long windowMillis) {
+        return windowMillis <= 0 ? Long.MIN_VALUE : clock.getAsLong() - Math.min(windowMillis, windowMillis());
+    }
+
+    private void finish(Tally tally, GameOverEvent over, long now) {
+        if (games.remove(over.gameId) == null || !tally.started) {
+            return;
+        }
+        finishedGames.add(GAMES, 1, now);
+        tally.cardsPlayedByPlayer.forEach((playerId, cardIds) -> {
+            boolean won = playerId.equals(over.winnerPlayerId);
+            for (String cardId : cardIds) {
+                Counters counters = counters(cardId);
+                counters.add(GAMES, 1, now);
+                if (won) {
+                    counters.add(WINS, 1, now);
+                }
+            }
+        });
+    }
+
+    private String remember(Tally tally, CardInstanceDTO card) {
+        if (card == null || card.getInstanceId() == null || card.getCardId() == null) {
+            return null;
+        }
+        tally.cardIdByInstance.put(card.getInstanceId(), card.getCardId());
+        return card.getCardId();
+    }
+
+    private Counters counters(String cardId) {
+        return cards.computeIfAbsent(cardId, id -> new Counters());
+    }
+
+    private static CardMetrics metricsOf(String cardId, long[] sum, long totalGames) {
+        // Each finished game has two players who could have played the card.
+        return new CardMetrics(cardId, sum[PLAYS], sum[GAMES], sum[WINS],
+                ratio(sum[GAMES], 2 * totalGames), ratio(sum[WINS], sum[GAMES]),
+                ratio(sum[DAMAGE_DEALT], sum[PLAYS]), ratio(sum[DAMAGE_TAKEN], sum[PLAYS]),
+                ratio(sum[TRIGGERS], sum[PLAYS]));
+    }
+
+    private static Double ratio(long numerator, long denominator) {
+        return denominator == 0 ? null : (double) numerator / denominator;
+    }
+}
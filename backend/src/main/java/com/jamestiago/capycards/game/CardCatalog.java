@@ -0,0 +1,207 @@
+package com.jamestiago.capycards.game;
+
+import com.jamestiago.capycards.game.effects.CompiledCardEffects;
+import com.jamestiago.capycards.model.Card;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable set of card definitions, together with what's derived from
+ * them: compiled effects, type sets and the directly playable cards. A game
+ * keeps the catalog it was created with, so publishing a new version never
+ * changes a game in progress. The cards must not be modified once they're in
+ * a catalog.
+ */
+public final class CardCatalog {
+    public static final CardCatalog EMPTY = new CardCatalog(0, List.of(), List.of());
+
+    private final long version;
+    private final Map<String, Card> cardsById;
+    private final List<Card> playable;
+    private final Map<String, CompiledCardEffects> effects;
+    // Compiled effects of definitions that are in play but not in the catalog, by identity.
+    private final Map<Card, CompiledCardEffects> unlistedEffects;
+    private final Map<String, Set<String>> typesByCardId;
+    private final Map<String, List<Card>> cardsByType;
+    private final boolean anyPositionDependent;
+    private final Set<String> referencedCardIds;
+    private volatile CardIndex index;
+    private volatile EffectGraph effectGraph;
+
+    private CardCatalog(long version, Collection<Card> cards, Collection<Card> unlisted) {
+        this.version = version;
+        Map<String, Card> byId = new LinkedHashMap<>();
+        for (Card card : cards) {
+            byId.putIfAbsent(card.getCardId(), card);
+        }
+        Map<String, CompiledCardEffects> compiled = new HashMap<>();
+        Map<String, Set<String>> types = new HashMap<>();
+        Map<String, List<Card>> byType = new HashMap<>();
+        List<Card> playableCards = new ArrayList<>();
+        Set<String> referenced = new HashSet<>();
+        boolean positionDependent = false;
+        for (Card card : byId.values()) {
+            CompiledCardEffects cardEffects = CompiledCardEffects.of(card);
+            compiled.put(card.getCardId(), cardEffects);
+            positionDependent |= cardEffects.isPositionDependent();
+            referenced.addAll(cardEffects.getReferencedCardIds());
+            Set<String> cardTypes = parseTypes(card.getType());
+            types.put(card.getCardId(), cardTypes);
+            for (String type : cardTypes) {
+                byType.computeIfAbsent(type, t -> new ArrayList<>()).add(card);
+            }
+            if (card.isDirectlyPlayable()) {
+                playableCards.add(card);
+            }
+        }
+        this.cardsById = Collections.unmodifiableMap(byId);
+        this.effects = Map.copyOf(compiled);
+        this.typesByCardId = Map.copyOf(types);
+        this.cardsByType = byType.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, e -> List.copyOf(e.getValue())));
+        this.playable = List.copyOf(playableCards);
+        this.anyPositionDependent = positionDependent;
+        this.referencedCardIds = Set.copyOf(referenced);
+        Map<Card, CompiledCardEffects> unlistedCompiled = new IdentityHashMap<>();
+        for (Card card : unlisted) {
+            unlistedCompiled.put(card, CompiledCardEffects.of(card));
+        }
+        this.unlistedEffects = Collections.unmodifiableMap(unlistedCompiled);
+    }
+
+    /** @param version 0 for catalogs that weren't published by the catalog service. */
+    public static CardCatalog of(long version, Collection<Card> cards) {
+        return of(version, cards, List.of());
+    }
+
+    /**
+     * As {@link #of(long, Collection)}, also compiling the effects of
+     * {@code unlisted}: definitions that games with this catalog put in play
+     * without them being part of it, such as the current version of a card
+     * a what-if replaces. They can't be looked up by id.
+     */
+    public static CardCatalog of(long version, Collection<Card> cards, Collection<Card> unlisted) {
+        return new CardCatalog(version, cards == null ? List.of() : cards, unlisted);
+    }
+
+    // "Capybara, Fire" -> [CAPYBARA, FIRE]
+    private static Set<String> parseTypes(String type) {
+        if (type == null || type.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(type.split(","))
+                .map(String::trim)
+                .filter(t -> !t.isEmpty())
+                .map(String::toUpperCase)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /** @return the definition, or null if there's no such card in this version. */
+    public Card get(String cardId) {
+        return cardId == null ? null : cardsById.get(cardId);
+    }
+
+    public Collection<Card> getAll() {
+        return cardsById.values();
+    }
+
+    /** Read-only view by cardId. */
+    public Map<String, Card> asMap() {
+        return cardsById;
+    }
+
+    public List<Card> getPlayable() {
+        return playable;
+    }
+
+    public CompiledCardEffects effectsOf(String cardId) {
+        return effects.getOrDefault(cardId, CompiledCardEffects.EMPTY);
+    }
+
+    /**
+     * The compiled effects of a definition. Cards from this catalog and its
+     * unlisted ones share its parse; a definition from anywhere else is
+     * compiled on the spot.
+     */
+    public CompiledCardEffects effectsOf(Card card) {
+        if (card == null) {
+            return CompiledCardEffects.EMPTY;
+        }
+        CompiledCardEffects compiled = effects.get(card.getCardId());
+        if (compiled != null && cardsById.get(card.getCardId()) == card) {
+            return compiled;
+        }
+        compiled = unlistedEffects.get(card);
+        return compiled != null ? compiled : CompiledCardEffects.of(card);
+    }
+
+    /** The card's types, upper-cased. */
+    public Set<String> typesOf(String cardId) {
+        return typesByCardId.getOrDefault(cardId, Set.of());
+    }
+
+    /** @param type upper-cased, e.g. {@code CAPYBARA}. */
+    public List<Card> cardsOfType(String type) {
+        return cardsByType.getOrDefault(type, List.of());
+    }
+
+    /** Whether any card's effects depend on which field slot a card is in. */
+    public boolean isAnyPositionDependent() {
+        return anyPositionDependent;
+    }
+
+    /** Card ids that some card's effects refer to by id. */
+    public Set<String> getReferencedCardIds() {
+        return referencedCardIds;
+    }
+
+    /**
+     * The search index over this version's cards, built on first use. The
+     * catalog service builds it before publishing, so searches never wait.
+     */
+    public CardIndex index() {
+        CardIndex built = index;
+        if (built == null) {
+            // Building it twice in a race is harmless; both are the same.
+            built = new CardIndex(this);
+            index = built;
+        }
+        return built;
+    }
+
+    /**
+     * The analysis of how this version's effects can set each other off,
+     * built on first use. The catalog service builds it before publishing.
+     */
+    public EffectGraph effectGraph() {
+        EffectGraph built = effectGraph;
+        if (built == null) {
+            built = new EffectGraph(this);
+            effectGraph = built;
+        }
+        return built;
+    }
+
+    public int size() {
+        return cardsById.size();
+    }
+
+    public boolean isEmpty() {
+        return cardsById.isEmpty();
+    }
+}
@@ -0,0 +1,228 @@
+package com.jamestiago.capycards.game;
+
+import com.jamestiago.capycards.game.effects.CompiledCardEffects;
+import com.jamestiago.capycards.game.effects.EffectTrigger;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.model.Rarity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over one {@link CardCatalog} version, for searching cards
+ * without going to the database. Every card gets an ordinal (in cardId
+ * order); each term maps to the set of ordinals that have it, and a query
+ * intersects those sets. Immutable, like the catalog it's built from.
+ */
+public final class CardIndex {
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    public enum SortKey {
+        CARD_ID, NAME, RARITY, LIFE, ATTACK, DEFENSE
+    }
+
+    /** Inclusive bounds; either may be null. A card without the stat never matches a range. */
+    public record Range(Integer min, Integer max) {
+
+        boolean isAny() {
+            return min == null && max == null;
+        }
+
+        boolean contains(Integer value) {
+            return value != null && (min == null || value >= min) && (max == null || value <= max);
+        }
+    }
+
+    /**
+     * What to look for; null fields don't filter. {@code text} matches words
+     * in the name, types and effect text, the last word as a prefix;
+     * {@code name} matches whole words of the name; every entry of
+     * {@code types} must be one of the card's types.
+     */
+    public record Query(String text, String name, Set<String> types, Rarity rarity, Boolean playable,
+            EffectTrigger trigger, String action, Range life, Range attack, Range defense, SortKey sort,
+            boolean descending, int offset, int limit) {
+
+        public static Query all() {
+            return new Query(null, null, null, null, null, null, null, null, null, null, SortKey.CARD_ID, false, 0,
+                    Integer.MAX_VALUE);
+        }
+    }
+
+    /** One page of matches, and how many there are in all. */
+    public record Page(List<Card> cards, int total) {
+    }
+
+    private final Card[] cards;
+    private final Map<String, BitSet> nameWords = new HashMap<>();
+    private final Map<String, BitSet> types = new HashMap<>();
+    private final Map<String, BitSet> textWords = new HashMap<>();
+    private final String[] sortedTextWords;
+    private final Map<Rarity, BitSet> rarities = new EnumMap<>(Rarity.class);
+    private final Map<EffectTrigger, BitSet> triggers = new EnumMap<>(EffectTrigger.class);
+    private final Map<String, BitSet> actions = new HashMap<>();
+    private final BitSet playable = new BitSet();
+    private final Map<SortKey, int[]> orders = new EnumMap<>(SortKey.class);
+
+    CardIndex(CardCatalog catalog) {
+        this.cards = catalog.getAll().stream()
+                .sorted(Comparator.comparing(Card::getCardId))
+                .toArray(Card[]::new);
+        for (int ordinal = 0; ordinal < cards.length; ordinal++) {
+            Card card = cards[ordinal];
+            for (String word : words(card.getName())) {
+                post(nameWords, word, ordinal);
+                post(textWords, word, ordinal);
+            }
+            for (String type : catalog.typesOf(card.getCardId())) {
+                post(types, type, ordinal);
+                post(textWords, type.toLowerCase(Locale.ROOT), ordinal);
+            }
+            for (String word : words(card.getEffectText())) {
+                post(textWords, word, ordinal);
+            }
+            if (card.getRarity() != null) {
+                post(rarities, card.getRarity(), ordinal);
+            }
+            CompiledCardEffects effects = catalog.effectsOf(card.getCardId());
+            for (EffectTrigger trigger : effects.getTriggers()) {
+                post(triggers, trigger, ordinal);
+            }
+            for (String action : effects.getActions()) {
+                post(actions, action.toUpperCase(Locale.ROOT), ordinal);
+            }
+            if (card.isDirectlyPlayable()) {
+                playable.set(ordinal);
+            }
+        }
+        this.sortedTextWords = new TreeSet<>(textWords.keySet()).toArray(String[]::new);
+
+        orders.put(SortKey.CARD_ID, order(c -> 0));
+        orders.put(SortKey.NAME, order(c -> c.getName() == null ? "" : c.getName().toLowerCase(Locale.ROOT)));
+        orders.put(SortKey.RARITY, order(c -> c.getRarity() == null ? -1 : c.getRarity().ordinal()));
+        orders.put(SortKey.LIFE, order(c -> c.getInitialLife() == null ? Integer.MIN_VALUE : c.getInitialLife()));
+        orders.put(SortKey.ATTACK, order(c -> c.getAttack() == null ? Integer.MIN_VALUE : c.getAttack()));
+        orders.put(SortKey.DEFENSE, order(c -> c.getDefense() == null ? Integer.MIN_VALUE : c.getDefense()));
+    }
+
+    public int size() {
+        return cards.length;
+    }
+
+    public Page search(Query query) {
+        BitSet matches = new BitSet(cards.length);
+        matches.set(0, cards.length);
+        if (query.text() != null) {
+            List<String> words = words(query.text());
+            for (int i = 0; i < words.size(); i++) {
+                matches.and(i == words.size() - 1 ? prefixed(words.get(i)) : get(textWords, words.get(i)));
+            }
+        }
+        if (query.name() != null) {
+            for (String word : words(query.name())) {
+                matches.and(get(nameWords, word));
+            }
+        }
+        if (query.types() != null) {
+            for (String type : query.types()) {
+                matches.and(get(types, type.trim().toUpperCase(Locale.ROOT)));
+            }
+        }
+        if (query.rarity() != null) {
+            matches.and(get(rarities, query.rarity()));
+        }
+        if (query.trigger() != null) {
+            matches.and(get(triggers, query.trigger()));
+        }
+        if (query.action() != null) {
+            matches.and(get(actions, query.action().toUpperCase(Locale.ROOT)));
+        }
+        if (query.playable() != null) {
+            if (query.playable()) {
+                matches.and(playable);
+            } else {
+                matches.andNot(playable);
+            }
+        }
+        filter(matches, query.life(), Card::getInitialLife);
+        filter(matches, query.attack(), Card::getAttack);
+        filter(matches, query.defense(), Card::getDefense);
+
+        int total = matches.cardinality();
+        int offset = Math.max(0, query.offset());
+        int limit = Math.max(0, query.limit());
+        int[] order = orders.get(query.sort() != null ? query.sort() : SortKey.CARD_ID);
+        List<Card> page = new ArrayList<>(Math.min(limit, Math.max(0, total - offset)));
+        int seen = 0;
+        for (int i = 0; i < order.length && page.size() < limit; i++) {
+            int ordinal = order[query.descending() ? order.length - 1 - i : i];
+            if (matches.get(ordinal) && seen++ >= offset) {
+                page.add(cards[ordinal]);
+            }
+        }
+        return new Page(page, total);
+    }
+
+    // Lower-cased words, in order.
+    static List<String> words(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .toList();
+    }
+
+    // Every card with a text word starting with prefix.
+    private BitSet prefixed(String prefix) {
+        BitSet union = new BitSet(cards.length);
+        int from = Arrays.binarySearch(sortedTextWords, prefix);
+        for (int i = from >= 0 ? from : -from - 1; i < sortedTextWords.length
+                && sortedTextWords[i].startsWith(prefix); i++) {
+            union.or(textWords.get(sortedTextWords[i]));
+        }
+        return union;
+    }
+
+    private void filter(BitSet matches, Range range, Function<Card, Integer> stat) {
+        if (range == null || range.isAny()) {
+            return;
+        }
+        for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+            if (!range.contains(stat.apply(cards[ordinal]))) {
+                matches.clear(ordinal);
+            }
+        }
+    }
+
+    // Ordinals sorted by key, ties in cardId order.
+    private <T extends Comparable<T>> int[] order(Function<Card, T> key) {
+        Integer[] ordinals = new Integer[cards.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = i;
+        }
+        Arrays.sort(ordinals, Comparator.comparing((Integer ordinal) -> key.apply(cards[ordinal]))
+                .thenComparingInt(ordinal -> ordinal));
+        return Arrays.stream(ordinals).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static <K> void post(Map<K, BitSet> postings, K key, int ordinal) {
+        postings.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+    }
+
+    private static <K> BitSet get(Map<K, BitSet> postings, K key) {
+        BitSet found = postings.get(key);
+        return found != null ? found : new BitSet();
+    }
+}
@@ -67,6 +67,23 @@ public class CardInstance {
         this.scheduledActions.remove(turnNumber);
     }
 
+    public boolean hasScheduledActions() {
+        return !this.scheduledActions.isEmpty();
+    }
+
+    Map<Integer, List<Map<String, Object>>> getScheduledActions() {
+        return this.scheduledActions;
+    }
+
+    /**
+     * Sets the current life without clamping it to max life. Only for
+     * restoring a snapshot, where life may legitimately exceed a debuffed
+     * max.
+     */
+    void restoreCurrentLife(int currentLife) {
+        this.currentLife = currentLife;
+    }
+
     // Copy constructor for simulations
     public CardInstance(CardInstance other) {
         this.instanceId = other.instanceId;
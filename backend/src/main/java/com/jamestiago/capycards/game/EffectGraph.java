@@ -0,0 +1,464 @@
+package com.jamestiago.capycards.game;
+
+import com.jamestiago.capycards.game.effects.CompiledCardEffects;
+import com.jamestiago.capycards.game.effects.EffectTrigger;
+import com.jamestiago.capycards.model.Card;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Static analysis of one {@link CardCatalog} version's effects: which effects
+ * can set off which others while {@link GameEngine} resolves a command, which
+ * of those chains might never end, and how many resolution waves each card
+ * can cost at worst. Immutable, like the catalog it's built from.
+ * <p>
+ * The graph follows what the engine re-checks between waves. Deaths fire
+ * {@code ON_DEATH} and {@code ON_DEATH_OF_ANY}; auras are recomputed from
+ * scratch every wave, so they only matter when they can kill (a life buff or
+ * a survive-lethal flag that goes away). Damage triggers fire for combat
+ * only, so effect damage never sets them off again. Every cycle therefore
+ * passes through a death, and there are only so many cards to kill, unless
+ * an effect in the cycle brings a card back: those cycles are the ones that
+ * may loop.
+ */
+public final class EffectGraph {
+    /** A trigger step costs a wave to apply its events and one for the auras and deaths after. */
+    public static final int WAVES_PER_STEP = 2;
+    /** The command's own events, the auras after them and the first deaths. */
+    public static final int BASE_WAVES = 4;
+    /** How many times round a possible loop a resolution is allowed to go. */
+    public static final int LOOP_LAPS = 2;
+    /**
+     * The least a resolution gets unless a card in play may loop, as before
+     * there was any analysis; also used for unknown cards.
+     */
+    public static final int UNKNOWN_CARD_WAVES = 10;
+    // Every card on both fields, each of which might come back once as whatever it transforms into.
+    private static final int DEATH_LAPS = 2 * Player.MAX_FIELD_SIZE * 2;
+    private static final String SURVIVE_LETHAL_FLAG = "can_survive_lethal";
+
+    // Nodes for what effects can change; effect nodes come after these.
+    private static final int DEATH = 0;
+    private static final int BOARD = 1;
+    private static final int LIFE = 2;
+    private static final int ATK = 3;
+    private static final int DEF = 4;
+    private static final int FLAGS = 5;
+    private static final int STATES = 6;
+
+    /**
+     * One card's worst case: how many resolution waves its effects can add,
+     * and whether they're part of a cycle that might never end, in which case
+     * {@code waves} counts {@link #LOOP_LAPS} times round it.
+     */
+    public record CardCost(String cardId, int waves, boolean mayLoop) {
+    }
+
+    /** How many waves a resolution may take, and whether a card in play might loop. */
+    public record Budget(int waves, boolean mayLoop) {
+        /** The larger of the two budgets. */
+        public Budget widen(Budget other) {
+            return new Budget(Math.max(waves, other.waves), mayLoop || other.mayLoop);
+        }
+    }
+
+    private final Map<String, CardCost> costs;
+    private final Set<String> loopingCardIds;
+
+    EffectGraph(CardCatalog catalog) {
+        List<List<Integer>> edges = new ArrayList<>();
+        for (int i = 0; i < STATES; i++) {
+            edges.add(new ArrayList<>());
+        }
+        List<String> nodeCardIds = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        List<Boolean> revives = new ArrayList<>();
+        // A death changes the board.
+        edges.get(DEATH).add(BOARD);
+
+        for (Card card : catalog.getAll()) {
+            for (Map<String, Object> config : catalog.effectsOf(card.getCardId()).getConfigs()) {
+                EffectTrigger trigger = triggerOf(config);
+                if (trigger == null) {
+                    continue;
+                }
+                Set<Integer> writes = new HashSet<>();
+                boolean revive = false;
+                for (Map<String, Object> action : actionsOf(config)) {
+                    revive |= effectsOf(action, writes, catalog);
+                }
+                int node = STATES + nodeCardIds.size();
+                List<Integer> out = new ArrayList<>(writes);
+                switch (trigger) {
+                    case ON_DEATH, ON_DEATH_OF_ANY -> {
+                        edges.get(DEATH).add(node);
+                        weights.add(WAVES_PER_STEP);
+                        // Only a card's own ON_DEATH can save it; checkForDeaths looks right after.
+                        revives.add(trigger == EffectTrigger.ON_DEATH ? revive : revive && revivesOthers(config));
+                    }
+                    case CONTINUOUS_AURA -> {
+                        if (!out.contains(DEATH)) {
+                            // Recomputed from the same inputs every wave, so it can't set anything off.
+                            continue;
+                        }
+                        edges.get(BOARD).add(node);
+                        for (int read : readsOf(config)) {
+                            edges.get(read).add(node);
+                        }
+                        out.retainAll(List.of(DEATH));
+                        weights.add(0);
+                        revives.add(false);
+                    }
+                    case CONTINUOUS_DEFENSIVE, CONTINUOUS_OFFENSIVE -> {
+                        // Worked out inside a damage calculation; never produces events of its own.
+                        continue;
+                    }
+                    default -> {
+                        // Fired by the command itself, before resolution starts.
+                        weights.add(0);
+                        revives.add(revive && revivesOthers(config));
+                    }
+                }
+                nodeCardIds.add(card.getCardId());
+                edges.add(out);
+            }
+        }
+
+        int[] component = new int[edges.size()];
+        List<List<Integer>> components = components(edges, component);
+        int[] componentWaves = new int[components.size()];
+        boolean[] componentLoops = new boolean[components.size()];
+        // Tarjan's algorithm finishes a component only after everything it reaches.
+        for (int c = 0; c < components.size(); c++) {
+            List<Integer> members = components.get(c);
+            boolean cyclic = members.size() > 1 || edges.get(members.get(0)).contains(members.get(0));
+            int steps = 0;
+            boolean revive = false;
+            int next = 0;
+            for (int node : members) {
+                if (node >= STATES) {
+                    steps += weights.get(node - STATES);
+                    revive |= revives.get(node - STATES);
+                }
+                for (int target : edges.get(node)) {
+                    if (component[target] != c) {
+                        next = Math.max(next, componentWaves[component[target]]);
+                    }
+                }
+            }
+            int own = steps;
+            if (cyclic) {
+                componentLoops[c] = revive;
+                own = (revive ? LOOP_LAPS : DEATH_LAPS) * Math.max(WAVES_PER_STEP, steps);
+            }
+            componentWaves[c] = own + next;
+        }
+
+        Map<String, CardCost> byCardId = new HashMap<>();
+        Set<String> looping = new TreeSet<>();
+        for (Card card : catalog.getAll()) {
+            byCardId.put(card.getCardId(), new CardCost(card.getCardId(), 0, false));
+        }
+        for (int i = 0; i < nodeCardIds.size(); i++) {
+            String cardId = nodeCardIds.get(i);
+            int c = component[STATES + i];
+            CardCost cost = byCardId.get(cardId);
+            boolean mayLoop = cost.mayLoop() || componentLoops[c];
+            byCardId.put(cardId, new CardCost(cardId, Math.max(cost.waves(), componentWaves[c]), mayLoop));
+            if (mayLoop) {
+                looping.add(cardId);
+            }
+        }
+        this.costs = Map.copyOf(byCardId);
+        this.loopingCardIds = Set.copyOf(looping);
+    }
+
+    /** @return the card's cost, or null if there's no such card in the catalog. */
+    public CardCost costOf(String cardId) {
+        return cardId == null ? null : costs.get(cardId);
+    }
+
+    /** Every card's cost, dearest first. */
+    public List<CardCost> getCosts() {
+        return costs.values().stream()
+                .sorted(Comparator.comparingInt(CardCost::waves).reversed().thenComparing(CardCost::cardId))
+                .toList();
+    }
+
+    /** Cards whose effects might keep setting each other off forever, in cardId order. */
+    public Set<String> getLoopingCardIds() {
+        return loopingCardIds;
+    }
+
+    public boolean isLoopFree() {
+        return loopingCardIds.isEmpty();
+    }
+
+    /**
+     * The budget for resolving a command in {@code game}: enough waves for
+     * the dearest card on either field or in limbo. That's never fewer than
+     * {@link #UNKNOWN_CARD_WAVES} unless a card in play may loop, which keeps
+     * its tight {@link #LOOP_LAPS} budget; an unknown card gets the floor
+     * regardless. Only the cards in play now are counted, so the engine asks
+     * again as the resolution brings others into play.
+     */
+    public Budget budget(Game game) {
+        int waves = 0;
+        boolean mayLoop = false;
+        boolean unknown = false;
+        List<CardInstance> inPlay = new ArrayList<>();
+        for (Player player : Arrays.asList(game.getPlayer1(), game.getPlayer2())) {
+            if (player != null) {
+                inPlay.addAll(player.getFieldInternal());
+            }
+        }
+        game.getCardsInLimbo().values().forEach(entry -> inPlay.add(entry.getKey()));
+        for (CardInstance card : inPlay) {
+            if (card == null) {
+                continue;
+            }
+            CardCost cost = costOf(card.getDefinition().getCardId());
+            if (cost == null) {
+                unknown = true;
+                continue;
+            }
+            waves = Math.max(waves, cost.waves());
+            mayLoop |= cost.mayLoop();
+        }
+        if (mayLoop && !unknown) {
+            return new Budget(BASE_WAVES + waves, true);
+        }
+        return new Budget(Math.max(UNKNOWN_CARD_WAVES, BASE_WAVES + waves), mayLoop || unknown);
+    }
+
+    private static EffectTrigger triggerOf(Map<String, Object> config) {
+        if (config.get("trigger") instanceof String name) {
+            try {
+                return EffectTrigger.valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                // Unknown triggers never fire.
+            }
+        }
+        return null;
+    }
+
+    // The config's action and every action nested in it, except those scheduled for a later turn.
+    private static List<Map<String, Object>> actionsOf(Map<String, Object> config) {
+        List<Map<String, Object>> actions = new ArrayList<>();
+        collectActions(config, actions);
+        return actions;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void collectActions(Object node, List<Map<String, Object>> actions) {
+        if (node instanceof Map<?, ?> map) {
+            if (map.get("action") instanceof String) {
+                actions.add((Map<String, Object>) map);
+            }
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!"scheduledEffect".equals(entry.getKey())) {
+                    collectActions(entry.getValue(), actions);
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object item : list) {
+                collectActions(item, actions);
+            }
+        }
+    }
+
+    /**
+     * Adds the nodes for what the action can change to {@code writes}; returns
+     * true if it can put a dead card back in play.
+     */
+    private static boolean effectsOf(Map<String, Object> action, Set<Integer> writes, CardCatalog catalog) {
+        String name = ((String) action.get("action")).toUpperCase(Locale.ROOT);
+        Map<?, ?> params = action.get("params") instanceof Map<?, ?> map ? map : Map.of();
+        switch (name) {
+            case "DEAL_DAMAGE" -> {
+                writes.add(LIFE);
+                writes.add(DEATH);
+            }
+            case "DESTROY_CARD" -> writes.add(DEATH);
+            case "HEAL_TARGET" -> {
+                writes.add(LIFE);
+                // TargetResolver skips dead cards today, but err on the side of a loop.
+                return true;
+            }
+            case "BUFF_STAT", "DEBUFF_STAT", "SET_STAT" -> {
+                int stat = statOf(params.get("stat"));
+                if (stat < 0) {
+                    writes.addAll(List.of(LIFE, ATK, DEF));
+                } else {
+                    writes.add(stat);
+                }
+                // A buff can't kill and a debuff can't save; setting can do either.
+                boolean lethal = stat != ATK && !name.equals("BUFF_STAT");
+                if (lethal) {
+                    writes.add(DEATH);
+                }
+                return stat != ATK && !name.equals("DEBUFF_STAT");
+            }
+            case "APPLY_FLAG", "REMOVE_FLAG", "MODIFY_FLAG" -> {
+                writes.add(FLAGS);
+                if (params.get("flagName") instanceof String flag && flag.startsWith(SURVIVE_LETHAL_FLAG)) {
+                    writes.add(DEATH);
+                    return true;
+                }
+            }
+            case "APPLY_AURA_BUFF" -> {
+                if (params.get("buffs") instanceof List<?> buffs) {
+                    for (Object buff : buffs) {
+                        int stat = buff instanceof Map<?, ?> b ? statOf(b.get("stat")) : -1;
+                        if (stat != ATK) {
+                            // Losing a life or defence buff when the aura goes away can kill.
+                            writes.add(DEATH);
+                        }
+                    }
+                }
+                if (params.get("flags") instanceof Map<?, ?> flags && flags.keySet().stream()
+                        .anyMatch(flag -> String.valueOf(flag).startsWith(SURVIVE_LETHAL_FLAG))) {
+                    writes.add(DEATH);
+                }
+            }
+            case "VANISH" -> writes.add(BOARD);
+            case "REAPPEAR" -> {
+                writes.add(BOARD);
+                return true;
+            }
+            case "TRANSFORM_CARD" -> {
+                writes.add(BOARD);
+                // A new body, which counts towards DEATH_LAPS unless it can transform or reappear in turn.
+                Card into = catalog.get(params.get("newCardId") instanceof String id ? id : null);
+                if (into != null) {
+                    CompiledCardEffects next = catalog.effectsOf(into.getCardId());
+                    return next.getActions().contains("TRANSFORM_CARD") || next.getActions().contains("REAPPEAR");
+                }
+            }
+            default -> {
+                // Draws, schedules, deck changes and log messages don't touch the field.
+            }
+        }
+        return false;
+    }
+
+    // Only a card's own ON_DEATH runs before the engine decides whether it's still dead.
+    private static boolean revivesOthers(Map<String, Object> config) {
+        return actionsOf(config).stream()
+                .anyMatch(action -> "REAPPEAR".equalsIgnoreCase((String) action.get("action")));
+    }
+
+    // What an aura's condition and amounts read, besides which cards are on the board.
+    private static Set<Integer> readsOf(Map<String, Object> config) {
+        Set<Integer> reads = new HashSet<>();
+        collectReads(config, reads);
+        return reads;
+    }
+
+    private static void collectReads(Object node, Set<Integer> reads) {
+        if (node instanceof Map<?, ?> map) {
+            if (map.get("statName") instanceof String stat && !stat.toUpperCase(Locale.ROOT).startsWith("BASE_")) {
+                int read = statOf(stat);
+                if (read < 0) {
+                    reads.addAll(List.of(LIFE, ATK, DEF));
+                } else {
+                    reads.add(read);
+                }
+            }
+            if ("FLAG_VALUE".equals(map.get("source")) || "SELF_HAS_FLAG".equals(map.get("type"))) {
+                reads.add(FLAGS);
+            }
+            if (map.get("countType") instanceof String count && count.contains("LIFE")) {
+                reads.add(LIFE);
+            }
+            map.values().forEach(value -> collectReads(value, reads));
+        } else if (node instanceof List<?> list) {
+            list.forEach(item -> collectReads(item, reads));
+        }
+    }
+
+    // The node for a stat name, or -1 if it isn't one we know.
+    private static int statOf(Object stat) {
+        if (!(stat instanceof String name)) {
+            return -1;
+        }
+        return switch (name.toUpperCase(Locale.ROOT)) {
+            case "LIFE", "MAX_LIFE" -> LIFE;
+            case "ATK", "ATTACK" -> ATK;
+            case "DEF", "DEFENSE" -> DEF;
+            default -> -1;
+        };
+    }
+
+    /**
+     * Strongly connected components by Tarjan's algorithm, without recursion.
+     * Fills {@code component} with each node's component and returns the
+     * members of each, in the order they were finished.
+     */
+    static List<List<Integer>> components(List<List<Integer>> edges, int[] component) {
+        int n = edges.size();
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] nextEdge = new int[n];
+        boolean[] onStack = new boolean[n];
+        Arrays.fill(index, -1);
+        int[] stack = new int[n];
+        int stackSize = 0;
+        int[] callStack = new int[n];
+        int counter = 0;
+        List<List<Integer>> components = new ArrayList<>();
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            callStack[depth++] = root;
+            index[root] = low[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            while (depth > 0) {
+                int node = callStack[depth - 1];
+                List<Integer> out = edges.get(node);
+                if (nextEdge[node] < out.size()) {
+                    int target = out.get(nextEdge[node]++);
+                    if (index[target] < 0) {
+                        index[target] = low[target] = counter++;
+                        stack[stackSize++] = target;
+                        onStack[target] = true;
+                        callStack[depth++] = target;
+                    } else if (onStack[target]) {
+                        low[node] = Math.min(low[node], index[target]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+                if (low[node] == index[node]) {
+                    List<Integer> members = new ArrayList<>();
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                        component[member] = components.size();
+                        members.add(member);
+                    } while (member != node);
+                    components.add(members);
+                }
+            }
+        }
+        return components;
+    }
+}
@@ -5,12 +5,12 @@ import com.jamestiago.capycards.game.events.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.AbstractMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 public class Game {
     private static final Logger logger = LoggerFactory.getLogger(Game.class);
@@ -21,11 +21,21 @@ public class Game {
     private GameState gameState;
     private int turnNumber;
     private final Map<String, Object> gameFlags = new ConcurrentHashMap<>();
-    private transient final Map<String, Card> allCardDefinitions;
+    // The catalog version the game started with; later versions don't affect it.
+    private transient final CardCatalog catalog;
     // A card in limbo now stores its owner's ID
     private final Map<String, Map.Entry<CardInstance, String>> cardsInLimbo = new ConcurrentHashMap<>();
     private long eventSequenceCounter = 0;
 
+    // Events that apply() doesn't act on: they only exist for clients and the
+    // game log. Replay can skip them by type without decoding them.
+    private static final Set<String> NON_STATE_EVENT_TYPES = Set.of(
+            AbilityActivatedEvent.class.getSimpleName(),
+            CardDrawnEvent.class.getSimpleName(),
+            CardStatsChangedEvent.class.getSimpleName(),
+            GameLogMessageEvent.class.getSimpleName(),
+            PlayerOverdrewCardEvent.class.getSimpleName());
+
     public enum GameState {
         WAITING_FOR_PLAYERS,
         INITIAL_DRAW,
@@ -40,17 +50,16 @@ public class Game {
      * Original constructor for creating a new game instance.
      */
     public Game(Player p1, Player p2, List<Card> allCardDefinitions) {
+        this(p1, p2, CardCatalog.of(0, allCardDefinitions));
+    }
+
+    public Game(Player p1, Player p2, CardCatalog catalog) {
         this.gameId = UUID.randomUUID().toString();
         this.player1 = p1;
         this.player2 = p2;
         this.gameState = GameState.WAITING_FOR_PLAYERS;
         this.turnNumber = 0;
-        if (allCardDefinitions != null) {
-            this.allCardDefinitions = allCardDefinitions.stream()
-                    .collect(Collectors.toConcurrentMap(Card::getCardId, Function.identity()));
-        } else {
-            this.allCardDefinitions = new ConcurrentHashMap<>();
-        }
+        this.catalog = catalog;
         logger.trace("[{}] New Game instance created. P1: {}, P2: {}", gameId, p1.getDisplayName(),
                 p2.getDisplayName());
     }
@@ -59,10 +68,14 @@ public class Game {
      * New constructor for reconstructing a game from events.
      */
     public Game(String gameId, Map<String, Card> allCardDefinitions) {
+        this(gameId, CardCatalog.of(0, allCardDefinitions.values()));
+    }
+
+    public Game(String gameId, CardCatalog catalog) {
         this.gameId = gameId;
         this.gameState = GameState.WAITING_FOR_PLAYERS;
         this.turnNumber = 0;
-        this.allCardDefinitions = allCardDefinitions;
+        this.catalog = catalog;
         // Players will be initialized by the GameStartedEvent when it is applied
         logger.trace("[{}] Game shell created for reconstruction.", gameId);
     }
@@ -74,7 +87,7 @@ public class Game {
         this.gameId = other.gameId;
         this.turnNumber = other.turnNumber;
         this.gameState = other.gameState;
-        this.allCardDefinitions = other.allCardDefinitions;
+        this.catalog = other.catalog;
         this.eventSequenceCounter = other.eventSequenceCounter;
 
         // Deep copy limbo
@@ -137,6 +150,31 @@ public class Game {
         return this.eventSequenceCounter;
     }
 
+    /**
+     * @return false if applying an event of this type (the simple class name,
+     *         as stored in the event log) would only advance the sequence.
+     */
+    public static boolean changesState(String eventType) {
+        return !NON_STATE_EVENT_TYPES.contains(eventType);
+    }
+
+    /**
+     * Accounts for an event that doesn't change state without applying it;
+     * equivalent to {@link #apply} for the types {@link #changesState} rejects.
+     */
+    public void skipEvent() {
+        this.eventSequenceCounter++;
+    }
+
+    void setNextEventSequence(long eventSequenceCounter) {
+        this.eventSequenceCounter = eventSequenceCounter;
+    }
+
+    void setPlayers(Player player1, Player player2) {
+        this.player1 = player1;
+        this.player2 = player2;
+    }
+
     public void addCardToLimbo(CardInstance card, String ownerId) {
         if (card != null && ownerId != null) {
             this.cardsInLimbo.put(card.getInstanceId(), new AbstractMap.SimpleEntry<>(card, ownerId));
@@ -151,8 +189,11 @@ public class Game {
     // The core method for mutating game state. It trusts the event completely.
     public void apply(GameEvent event) {
         this.eventSequenceCounter++;
-        logger.trace("[{}] APPLYING event (seq {}): {} | Content: {}", gameId, this.eventSequenceCounter, event.getClass().getSimpleName(),
-                event.toString());
+        boolean trace = logger.isTraceEnabled();
+        if (trace) {
+            logger.trace("[{}] APPLYING event (seq {}): {} | Content: {}", gameId, this.eventSequenceCounter,
+                    event.getClass().getSimpleName(), event.toString());
+        }
         if (event instanceof GameStartedEvent e) {
             applyGameStarted(e);
         } else if (event instanceof TurnStartedEvent e) {
@@ -191,9 +232,11 @@ public class Game {
             applyCardAddedToDeck(e);
         }
         updateInternalGameState();
-        logger.trace("[{}] FINISHED applying event: {}. Current turn: {}, Current player: {}, Game state: {}", gameId,
-                event.getClass().getSimpleName(), this.turnNumber,
-                this.currentPlayer != null ? this.currentPlayer.getDisplayName() : "None", this.gameState);
+        if (trace) {
+            logger.trace("[{}] FINISHED applying event: {}. Current turn: {}, Current player: {}, Game state: {}",
+                    gameId, event.getClass().getSimpleName(), this.turnNumber,
+                    this.currentPlayer != null ? this.currentPlayer.getDisplayName() : "None", this.gameState);
+        }
     }
 
     private void applyCardVanished(CardVanishedEvent event) {
@@ -384,7 +427,7 @@ public class Game {
         Player owner = getOwnerOfCardInstance(originalCard);
         if (owner == null)
             return;
-        Card newCardDefinition = allCardDefinitions.get(event.newCardDto.getCardId());
+        Card newCardDefinition = catalog.get(event.newCardDto.getCardId());
         if (newCardDefinition == null) {
             logger.error("TRANSFORM FAILED: Card definition for '{}' not found.", event.newCardDto.getCardId());
             return;
@@ -420,7 +463,7 @@ public class Game {
         if (p == null || event.card == null) {
             return;
         }
-        Card definition = allCardDefinitions.get(event.card.getCardId());
+        Card definition = catalog.get(event.card.getCardId());
         if (definition != null) {
             CardInstance newCard = new CardInstance(definition);
             newCard.setInstanceId(event.card.getInstanceId()); // Ensure consistent ID
@@ -455,6 +498,14 @@ public class Game {
         return cardsInLimbo;
     }
 
+    public Collection<Card> getAllCardDefinitions() {
+        return catalog.getAll();
+    }
+
+    public CardCatalog getCatalog() {
+        return catalog;
+    }
+
     public CardInstance findCardInstanceFromAnyField(String instanceId) {
         if (instanceId == null)
             return null;
@@ -30,14 +30,32 @@ public class GameEngine {
         }
     }
 
+    /**
+     * What a command produced: its events, and the copy of the game they were
+     * resolved on, which has every one of them applied. It also has the auras
+     * and scheduled actions that effects set without an event. The game is
+     * null if the command was invalid.
+     */
+    public record Resolution(List<GameEvent> events, Game game) {
+    }
+
     public List<GameEvent> processCommand(Game game, GameCommand command) {
+        return processCommandOnCopy(game, command).events();
+    }
+
+    /**
+     * As {@link #processCommand(Game, GameCommand)}, also handing back the
+     * resolved copy, for callers that want the position after the command
+     * without copying the game and applying the events again.
+     */
+    public Resolution processCommandOnCopy(Game game, GameCommand command) {
         logger.trace("[{}] Processing command: {} from player {}", game.getGameId(), command.getCommandType(),
                 command.playerId);
         if (!isCommandValid(game, command)) {
             logger.warn("[{}] Invalid command received: {} by {} for game {}. Current player is {}.",
                     game.getGameId(), command.getCommandType(), command.playerId, game.getGameId(),
                     game.getCurrentPlayer() != null ? game.getCurrentPlayer().getPlayerId() : "N/A");
-            return List.of();
+            return new Resolution(List.of(), null);
         }
 
         // --- START OF MODIFICATION ---
@@ -63,7 +81,7 @@ public class GameEngine {
 
         logger.trace("[{}] Command {} resulted in {} total events.", game.getGameId(), command.getCommandType(),
                 allEvents.size());
-        return allEvents;
+        return new Resolution(allEvents, tempGame);
     }
 
     /**
@@ -71,21 +89,28 @@ public class GameEngine {
      * deaths,
      * adding any new events to the queue and repeating until no new events are
      * generated.
+     * <p>
+     * The number of waves is capped by the catalog's {@link EffectGraph}: the
+     * worst case it worked out for the cards in play, which only guards
+     * against the analysis being wrong. It's worked out again after every
+     * wave, since a wave can bring a dearer card into play, and never shrinks.
      */
     private List<GameEvent> applyAndResolve(Game simulatedGame, List<GameEvent> newEvents) {
         List<GameEvent> resolvedEvents = new ArrayList<>(newEvents);
         List<GameEvent> eventsToProcess = new ArrayList<>(newEvents);
 
-        int maxIterations = 10; // Safety break for catastrophic loops
+        EffectGraph effectGraph = simulatedGame.getCatalog().effectGraph();
+        EffectGraph.Budget budget = effectGraph.budget(simulatedGame);
         int currentIteration = 0;
 
-        while (!eventsToProcess.isEmpty() && currentIteration < maxIterations) {
+        while (!eventsToProcess.isEmpty() && currentIteration < budget.waves()) {
             currentIteration++;
 
             // Apply the latest batch of events
             for (GameEvent event : eventsToProcess) {
                 simulatedGame.apply(event);
             }
+            budget = budget.widen(effectGraph.budget(simulatedGame));
 
             // Clear the queue for the next wave
             eventsToProcess.clear();
@@ -108,11 +133,21 @@ public class GameEngine {
             }
         }
 
-        if (currentIteration >= maxIterations) {
-            logger.error("[{}] Maximum resolution depth reached. Game may be in an unstable state. Forcing resolution.",
-                    simulatedGame.getGameId());
-            resolvedEvents.add(new GameLogMessageEvent(simulatedGame.getGameId(), simulatedGame.getTurnNumber(),
-                    "ERROR: Unstable effect loop detected.", "ERROR"));
+        if (!eventsToProcess.isEmpty()) {
+            if (budget.mayLoop()) {
+                logger.warn("[{}] Effect loop cut off after {} resolution waves. Forcing resolution.",
+                        simulatedGame.getGameId(), budget.waves());
+            } else {
+                logger.error("[{}] Resolution went past the {} waves the effect analysis allows for the cards "
+                        + "in play. Game may be in an unstable state. Forcing resolution.",
+                        simulatedGame.getGameId(), budget.waves());
+            }
+            GameLogMessageEvent unstable = new GameLogMessageEvent(simulatedGame.getGameId(),
+                    simulatedGame.getTurnNumber(), "ERROR: Unstable effect loop detected.", "ERROR");
+            resolvedEvents.add(unstable);
+            // Callers apply every returned event, so the simulated game does too.
+            eventsToProcess.add(unstable);
+            eventsToProcess.forEach(simulatedGame::apply);
         }
 
         return resolvedEvents;
@@ -188,14 +223,16 @@ public class GameEngine {
                 cmd.targetFieldSlot,
                 player.getHand().size() - 1);
         events.add(playedEvent);
-        tempGame.apply(playedEvent); // Apply immediately to get the card on the board for triggers
+        // A copy with the card on the board for its triggers; tempGame gets the event with the rest.
+        Game gameAfterPlay = new Game(tempGame);
+        gameAfterPlay.apply(playedEvent);
 
-        CardInstance cardInTempState = tempGame.findCardInstanceFromAnyField(cardToPlay.getInstanceId());
+        CardInstance cardInTempState = gameAfterPlay.findCardInstanceFromAnyField(cardToPlay.getInstanceId());
         if (cardInTempState != null) {
             Map<String, Object> context = new HashMap<>();
             context.put("eventTarget", cardInTempState);
-            events.addAll(
-                    effectProcessor.processTrigger(tempGame, EffectTrigger.ON_PLAY, cardInTempState, player, context));
+            events.addAll(effectProcessor.processTrigger(gameAfterPlay, EffectTrigger.ON_PLAY, cardInTempState,
+                    gameAfterPlay.getPlayerById(cmd.playerId), context));
         }
 
         return events;
@@ -320,7 +357,9 @@ public class GameEngine {
         Player nextPlayer = tempGame.getOpponent(endingPlayer);
         int currentTurnNumber = tempGame.getTurnNumber();
 
-        Player.DrawOutcome outcome = nextPlayer.drawCardWithOutcome();
+        // Drawn on a copy; tempGame gets the draw from its event, like everything else.
+        Player drawer = new Game(tempGame).getPlayerById(nextPlayer.getPlayerId());
+        Player.DrawOutcome outcome = drawer.drawCardWithOutcome();
         switch (outcome.result()) {
             case DECK_EMPTY:
                 String reason = nextPlayer.getDisplayName() + " cannot draw a card and has lost.";
@@ -332,14 +371,14 @@ public class GameEngine {
                 events.add(new PlayerDrewCardEvent(
                         tempGame.getGameId(), currentTurnNumber + 1, nextPlayer.getPlayerId(),
                         GameStateMapper.mapCardInstanceToDTO(outcome.cardDrawn()),
-                        nextPlayer.getHand().size(), nextPlayer.getDeck().size()));
+                        drawer.getHand().size(), drawer.getDeck().size()));
                 break;
             case HAND_FULL:
                 events.add(new TurnStartedEvent(tempGame.getGameId(), currentTurnNumber, nextPlayer.getPlayerId()));
                 events.add(new PlayerOverdrewCardEvent(
                         tempGame.getGameId(), currentTurnNumber + 1, nextPlayer.getPlayerId(),
                         GameStateMapper.mapCardInstanceToDTO(outcome.cardDrawn()),
-                        nextPlayer.getDeck().size(), nextPlayer.getDiscardPile().size()));
+                        drawer.getDeck().size(), drawer.getDiscardPile().size()));
                 break;
         }
 
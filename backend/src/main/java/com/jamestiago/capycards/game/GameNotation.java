@@ -0,0 +1,580 @@
+package com.jamestiago.capycards.game;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.ai.AIPlayer;
+import com.jamestiago.capycards.model.Card;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A one-line text notation for a complete {@link Game} position, in the
+ * spirit of FEN: everything {@link GameSnapshotCodec} captures, readable
+ * enough to paste into a bug report or a test. Maps are written in key order,
+ * so a position always has exactly one notation.
+ * <pre>
+ * cpn1 &lt;gameId&gt; &lt;nextEventSequence&gt; &lt;state&gt; &lt;turn&gt; &lt;current: 1, 2 or -&gt; {flags} &lt;player1&gt; &lt;player2&gt; [limbo]
+ *
+ * player: id:name:h|ai:attacksDeclared/[deck]/[hand]/[field]/[discard]   (or - before the game starts)
+ * card:   cardId@instanceId:life/baseLife,baseAttack,baseDefense
+ *         then, if set: * exhausted, {effect flags}, +{temporary buffs}, &amp;{aura buffs},
+ *         &lt;lastDamageSourceInstanceId, ~{turn='[scheduled actions as JSON]',...}
+ * field:  _ for an empty slot
+ * limbo:  [ownerId&gt;card,...]
+ * value:  null, true, false, 3 (int), 3L (long), 1.5D (double), 'text', j'{"any":"json"}'
+ * </pre>
+ * Ids, names and keys escape reserved characters as {@code %XX}; quoted text
+ * only escapes {@code '}, {@code %} and control characters.
+ */
+public final class GameNotation {
+    public static final String VERSION = "cpn1";
+    private static final String RESERVED = "%,:/[]{}=@*+&<>~;'_| ";
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private GameNotation() {
+    }
+
+    public static String write(Game game) {
+        StringBuilder out = new StringBuilder(2048);
+        out.append(VERSION).append(' ');
+        bare(out, game.getGameId());
+        out.append(' ').append(game.getNextEventSequence())
+                .append(' ').append(game.getGameState().name())
+                .append(' ').append(game.getTurnNumber())
+                .append(' ');
+        Player current = game.getCurrentPlayer();
+        if (current == null || game.getPlayer1() == null) {
+            out.append('-');
+        } else {
+            out.append(current.getPlayerId().equals(game.getPlayer1().getPlayerId()) ? '1' : '2');
+        }
+        out.append(' ');
+        writeValueMap(out, game.getGameFlags());
+        out.append(' ');
+        writePlayer(out, game.getPlayer1());
+        out.append(' ');
+        writePlayer(out, game.getPlayer2());
+        out.append(" [");
+        boolean first = true;
+        // By instanceId, so the same position is always written the same way.
+        for (Map.Entry<CardInstance, String> entry : new TreeMap<>(game.getCardsInLimbo()).values()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            bare(out, entry.getValue());
+            out.append('>');
+            writeCard(out, entry.getKey());
+        }
+        return out.append(']').toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the notation is malformed or refers
+     *                                  to a card that isn't in the catalog.
+     */
+    public static Game parse(String notation, CardCatalog catalog) {
+        Reader in = new Reader(notation.strip());
+        if (!VERSION.equals(in.bare())) {
+            throw in.error("expected " + VERSION);
+        }
+        in.expect(' ');
+        Game game = new Game(in.bare(), catalog);
+        in.expect(' ');
+        game.setNextEventSequence(in.longValue());
+        in.expect(' ');
+        Game.GameState state;
+        try {
+            state = Game.GameState.valueOf(in.word());
+        } catch (IllegalArgumentException e) {
+            throw in.error("unknown game state");
+        }
+        in.expect(' ');
+        game.setTurnNumber(in.intValue());
+        in.expect(' ');
+        String current = in.bare();
+        in.expect(' ');
+        game.getGameFlags().putAll(readValueMap(in));
+
+        Map<String, CardInstance> cardsById = new HashMap<>();
+        Map<CardInstance, String> damageSources = new HashMap<>();
+        in.expect(' ');
+        Player player1 = readPlayer(in, catalog, cardsById, damageSources);
+        in.expect(' ');
+        Player player2 = readPlayer(in, catalog, cardsById, damageSources);
+        if (player1 != null && player2 != null) {
+            game.setPlayers(player1, player2);
+            game.setCurrentPlayer(switch (current) {
+                case "1" -> player1;
+                case "2" -> player2;
+                default -> null;
+            });
+        }
+
+        in.expect(' ');
+        in.expect('[');
+        while (!in.tryConsume(']')) {
+            String ownerId = in.bare();
+            in.expect('>');
+            game.addCardToLimbo(readCard(in, catalog, cardsById, damageSources), ownerId);
+            in.tryConsume(',');
+        }
+        if (!in.atEnd()) {
+            throw in.error("unexpected trailing text");
+        }
+
+        damageSources.forEach((card, sourceId) -> card.setLastDamageSourceCard(cardsById.get(sourceId)));
+        game.setGameState(state);
+        return game;
+    }
+
+    private static void writePlayer(StringBuilder out, Player player) {
+        if (player == null) {
+            out.append('-');
+            return;
+        }
+        bare(out, player.getPlayerId());
+        out.append(':');
+        bare(out, player.getDisplayName());
+        out.append(':').append(player.isAi() ? "ai" : "h")
+                .append(':').append(player.getAttacksDeclaredThisTurn())
+                .append('/');
+        writeCards(out, player.getDeck().getCards());
+        out.append('/');
+        writeCards(out, player.getHandInternal());
+        out.append('/');
+        writeCards(out, player.getFieldInternal());
+        out.append('/');
+        writeCards(out, player.getDiscardPileInternal());
+    }
+
+    private static Player readPlayer(Reader in, CardCatalog catalog, Map<String, CardInstance> cardsById,
+            Map<CardInstance, String> damageSources) {
+        if (in.tryConsumeToken("-")) {
+            return null;
+        }
+        String playerId = in.bare();
+        in.expect(':');
+        String displayName = in.bare();
+        in.expect(':');
+        String kind = in.bare();
+        if (!kind.equals("h") && !kind.equals("ai")) {
+            throw in.error("expected h or ai");
+        }
+        Player player = kind.equals("ai") ? new AIPlayer(displayName, List.of(), playerId)
+                : new Player(displayName, List.of(), playerId);
+        in.expect(':');
+        player.setAttacksDeclaredThisTurn(in.intValue());
+        in.expect('/');
+        for (CardInstance card : readCards(in, catalog, cardsById, damageSources)) {
+            if (card != null) {
+                player.getDeck().addCardToBottom(card);
+            }
+        }
+        in.expect('/');
+        readCards(in, catalog, cardsById, damageSources).stream()
+                .filter(card -> card != null)
+                .forEach(player.getHandInternal()::add);
+        in.expect('/');
+        List<CardInstance> field = readCards(in, catalog, cardsById, damageSources);
+        for (int slot = 0; slot < field.size() && slot < Player.MAX_FIELD_SIZE; slot++) {
+            player.getFieldInternal().set(slot, field.get(slot));
+        }
+        in.expect('/');
+        readCards(in, catalog, cardsById, damageSources).stream()
+                .filter(card -> card != null)
+                .forEach(player.getDiscardPileInternal()::add);
+        return player;
+    }
+
+    private static void writeCards(StringBuilder out, List<CardInstance> cards) {
+        out.append('[');
+        if (cards != null) {
+            for (int i = 0; i < cards.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                if (cards.get(i) == null) {
+                    out.append('_');
+                } else {
+                    writeCard(out, cards.get(i));
+                }
+            }
+        }
+        out.append(']');
+    }
+
+    private static List<CardInstance> readCards(Reader in, CardCatalog catalog, Map<String, CardInstance> cardsById,
+            Map<CardInstance, String> damageSources) {
+        List<CardInstance> cards = new ArrayList<>();
+        in.expect('[');
+        while (!in.tryConsume(']')) {
+            cards.add(in.tryConsume('_') ? null : readCard(in, catalog, cardsById, damageSources));
+            in.tryConsume(',');
+        }
+        return cards;
+    }
+
+    private static void writeCard(StringBuilder out, CardInstance card) {
+        bare(out, card.getDefinition().getCardId());
+        out.append('@');
+        bare(out, card.getInstanceId());
+        out.append(':').append(card.getCurrentLife())
+                .append('/').append(card.getBaseLife())
+                .append(',').append(card.getBaseAttack())
+                .append(',').append(card.getBaseDefense());
+        if (card.isExhausted()) {
+            out.append('*');
+        }
+        if (!card.getAllEffectFlags().isEmpty()) {
+            writeValueMap(out, card.getAllEffectFlags());
+        }
+        if (!card.temporaryStatBuffs.isEmpty()) {
+            out.append('+');
+            writeIntMap(out, card.temporaryStatBuffs);
+        }
+        if (!card.auraStatBuffs.isEmpty()) {
+            out.append('&');
+            writeIntMap(out, card.auraStatBuffs);
+        }
+        if (card.getLastDamageSourceCard() != null) {
+            out.append('<');
+            bare(out, card.getLastDamageSourceCard().getInstanceId());
+        }
+        Map<Integer, List<Map<String, Object>>> scheduled = card.getScheduledActions();
+        if (!scheduled.isEmpty()) {
+            out.append("~{");
+            boolean first = true;
+            for (Map.Entry<Integer, List<Map<String, Object>>> entry : new TreeMap<>(scheduled).entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                out.append(entry.getKey()).append('=');
+                quoted(out, toJson(entry.getValue()));
+            }
+            out.append('}');
+        }
+    }
+
+    private static CardInstance readCard(Reader in, CardCatalog catalog, Map<String, CardInstance> cardsById,
+            Map<CardInstance, String> damageSources) {
+        String cardId = in.bare();
+        Card definition = catalog.get(cardId);
+        if (definition == null) {
+            throw in.error("unknown card definition '" + cardId + "'");
+        }
+        CardInstance card = new CardInstance(definition);
+        in.expect('@');
+        card.setInstanceId(in.bare());
+        in.expect(':');
+        int currentLife = in.intValue();
+        in.expect('/');
+        card.baseLife = in.intValue();
+        in.expect(',');
+        card.baseAttack = in.intValue();
+        in.expect(',');
+        card.baseDefense = in.intValue();
+        card.restoreCurrentLife(currentLife);
+        card.setExhausted(in.tryConsume('*'));
+        if (in.peek() == '{') {
+            card.getAllEffectFlags().putAll(readValueMap(in));
+        }
+        if (in.tryConsume('+')) {
+            card.temporaryStatBuffs.putAll(readIntMap(in));
+        }
+        if (in.tryConsume('&')) {
+            card.auraStatBuffs.putAll(readIntMap(in));
+        }
+        if (in.tryConsume('<')) {
+            damageSources.put(card, in.bare());
+        }
+        if (in.tryConsume('~')) {
+            in.expect('{');
+            while (!in.tryConsume('}')) {
+                int turn = in.intValue();
+                in.expect('=');
+                List<Map<String, Object>> actions = fromJson(in, in.quoted(),
+                        new TypeReference<List<Map<String, Object>>>() {
+                        });
+                for (Map<String, Object> action : actions) {
+                    card.addScheduledAction(turn, action);
+                }
+                in.tryConsume(',');
+            }
+        }
+        cardsById.put(card.getInstanceId(), card);
+        return card;
+    }
+
+    private static void writeIntMap(StringBuilder out, Map<String, Integer> map) {
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Integer> entry : new TreeMap<>(map).entrySet()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            bare(out, entry.getKey());
+            out.append('=').append(entry.getValue());
+        }
+        out.append('}');
+    }
+
+    private static Map<String, Integer> readIntMap(Reader in) {
+        Map<String, Integer> map = new HashMap<>();
+        in.expect('{');
+        while (!in.tryConsume('}')) {
+            String key = in.bare();
+            in.expect('=');
+            map.put(key, in.intValue());
+            in.tryConsume(',');
+        }
+        return map;
+    }
+
+    private static void writeValueMap(StringBuilder out, Map<String, Object> map) {
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : new TreeMap<>(map).entrySet()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            bare(out, entry.getKey());
+            out.append('=');
+            writeValue(out, entry.getValue());
+        }
+        out.append('}');
+    }
+
+    private static Map<String, Object> readValueMap(Reader in) {
+        Map<String, Object> map = new HashMap<>();
+        in.expect('{');
+        while (!in.tryConsume('}')) {
+            String key = in.bare();
+            in.expect('=');
+            Object value = readValue(in);
+            if (value != null) {
+                map.put(key, value); // The live maps are ConcurrentHashMaps and can't hold nulls.
+            }
+            in.tryConsume(',');
+        }
+        return map;
+    }
+
+    private static void writeValue(StringBuilder out, Object value) {
+        switch (value) {
+            case null -> out.append("null");
+            case Boolean b -> out.append(b);
+            case Integer i -> out.append(i);
+            case Long l -> out.append(l).append('L');
+            case Double d -> out.append(d).append('D');
+            case String s -> quoted(out, s);
+            default -> {
+                out.append('j');
+                quoted(out, toJson(value));
+            }
+        }
+    }
+
+    private static Object readValue(Reader in) {
+        if (in.peek() == '\'') {
+            return in.quoted();
+        }
+        if (in.tryConsume('j')) {
+            return fromJson(in, in.quoted(), new TypeReference<Object>() {
+            });
+        }
+        String token = in.bare();
+        try {
+            return switch (token) {
+                case "null" -> null;
+                case "true" -> true;
+                case "false" -> false;
+                default -> {
+                    if (token.endsWith("L")) {
+                        yield Long.parseLong(token.substring(0, token.length() - 1));
+                    } else if (token.endsWith("D")) {
+                        yield Double.parseDouble(token.substring(0, token.length() - 1));
+                    }
+                    yield Integer.parseInt(token);
+                }
+            };
+        } catch (NumberFormatException e) {
+            throw in.error("bad value '" + token + "'");
+        }
+    }
+
+    private static String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Value can't be written as JSON: " + value, e);
+        }
+    }
+
+    private static <T> T fromJson(Reader in, String json, TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw in.error("bad JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static void bare(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == 0x7F || RESERVED.indexOf(c) >= 0) {
+                escape(out, c);
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    private static void quoted(StringBuilder out, String value) {
+        out.append('\'');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c == 0x7F || c == '\'' || c == '%') {
+                escape(out, c);
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('\'');
+    }
+
+    private static void escape(StringBuilder out, char c) {
+        out.append('%').append(Character.toUpperCase(Character.forDigit(c >> 4, 16)))
+                .append(Character.toUpperCase(Character.forDigit(c & 0xF, 16)));
+    }
+
+    private static final class Reader {
+        private final String text;
+        private int pos;
+
+        Reader(String text) {
+            this.text = text;
+        }
+
+        boolean atEnd() {
+            return pos >= text.length();
+        }
+
+        char peek() {
+            return atEnd() ? '\0' : text.charAt(pos);
+        }
+
+        boolean tryConsume(char c) {
+            if (peek() == c && !atEnd()) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        /** Consumes {@code token} only if it's followed by a space or the end. */
+        boolean tryConsumeToken(String token) {
+            int end = pos + token.length();
+            if (text.startsWith(token, pos) && (end == text.length() || text.charAt(end) == ' ')) {
+                pos = end;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char c) {
+            if (!tryConsume(c)) {
+                throw error("expected '" + c + "'");
+            }
+        }
+
+        /** Reads up to the next space, unescaped; for enum names. */
+        String word() {
+            int end = text.indexOf(' ', pos);
+            String word = text.substring(pos, end < 0 ? text.length() : end);
+            pos += word.length();
+            return word;
+        }
+
+        /** Reads up to the next reserved character. */
+        String bare() {
+            StringBuilder value = new StringBuilder();
+            while (!atEnd()) {
+                char c = text.charAt(pos);
+                if (c == '%') {
+                    value.append(unescape());
+                } else if (RESERVED.indexOf(c) >= 0) {
+                    break;
+                } else {
+                    value.append(c);
+                    pos++;
+                }
+            }
+            return value.toString();
+        }
+
+        String quoted() {
+            expect('\'');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                if (atEnd()) {
+                    throw error("unterminated quoted text");
+                }
+                char c = text.charAt(pos);
+                if (c == '\'') {
+                    pos++;
+                    return value.toString();
+                }
+                if (c == '%') {
+                    value.append(unescape());
+                } else {
+                    value.append(c);
+                    pos++;
+                }
+            }
+        }
+
+        int intValue() {
+            String token = bare();
+            try {
+                return Integer.parseInt(token);
+            } catch (NumberFormatException e) {
+                throw error("expected a number, found '" + token + "'");
+            }
+        }
+
+        long longValue() {
+            String token = bare();
+            try {
+                return Long.parseLong(token);
+            } catch (NumberFormatException e) {
+                throw error("expected a number, found '" + token + "'");
+            }
+        }
+
+        private char unescape() {
+            if (pos + 3 > text.length()) {
+                throw error("truncated escape");
+            }
+            int high = Character.digit(text.charAt(pos + 1), 16);
+            int low = Character.digit(text.charAt(pos + 2), 16);
+            if (high < 0 || low < 0) {
+                throw error("bad escape");
+            }
+            pos += 3;
+            return (char) (high << 4 | low);
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Bad position at column " + (pos + 1) + ": " + message + ".");
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.jamestiago.capycards.game;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * A full copy of a game's state after its first {@code eventSequence}
+ * events, encoded by {@link GameSnapshotCodec}. Reconstruction loads the
+ * latest snapshot and only replays the events logged after it.
+ */
+@Entity
+@Table(name = "game_snapshot", indexes = {
+        @Index(name = "idx_game_snapshot_game_id_sequence", columnList = "gameId, eventSequence")
+})
+public class GameSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private String gameId;
+
+    // Number of events already applied; replay resumes at this sequence.
+    @Column(nullable = false, updatable = false)
+    private long eventSequence;
+
+    @Column(nullable = false, updatable = false)
+    private int turnNumber;
+
+    @Column(nullable = false, updatable = false)
+    private int formatVersion;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(columnDefinition = "bytea", nullable = false, updatable = false)
+    private byte[] snapshotData;
+
+    public GameSnapshot() {
+    }
+
+    public GameSnapshot(String gameId, long eventSequence, int turnNumber, int formatVersion, Instant createdAt,
+            byte[] snapshotData) {
+        this.gameId = gameId;
+        this.eventSequence = eventSequence;
+        this.turnNumber = turnNumber;
+        this.formatVersion = formatVersion;
+        this.createdAt = createdAt;
+        this.snapshotData = snapshotData;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public long getEventSequence() {
+        return eventSequence;
+    }
+
+    public int getTurnNumber() {
+        return turnNumber;
+    }
+
+    public int getFormatVersion() {
+        return formatVersion;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public byte[] getSnapshotData() {
+        return snapshotData;
+    }
+}
@@ -0,0 +1,375 @@
+package com.jamestiago.capycards.game;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.ai.AIPlayer;
+import com.jamestiago.capycards.model.Card;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary encoding of a complete {@link Game} for the snapshot store. Unlike
+ * replaying events, a snapshot also captures deck contents and the AI flag,
+ * which the event log alone can't restore.
+ * <p>
+ * Layout: a magic number and format version, the version of the card
+ * catalog the game is played with, the game header, both players
+ * (deck, hand, field, discard) and limbo. Cards are written as their
+ * definition id plus instance state. Flag values and scheduled actions are
+ * arbitrary objects, so they are tagged by type and fall back to JSON.
+ * Bump {@link #FORMAT_VERSION} whenever the layout changes; older snapshots
+ * are then ignored and the game is rebuilt from events instead.
+ */
+public final class GameSnapshotCodec {
+    public static final int FORMAT_VERSION = 2;
+    private static final int MAGIC = 0x43534E50; // "CSNP"
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_BOOLEAN = 1;
+    private static final byte VALUE_INT = 2;
+    private static final byte VALUE_LONG = 3;
+    private static final byte VALUE_DOUBLE = 4;
+    private static final byte VALUE_STRING = 5;
+    private static final byte VALUE_JSON = 6;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private GameSnapshotCodec() {
+    }
+
+    public static byte[] encode(Game game) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(FORMAT_VERSION);
+            out.writeLong(game.getCatalog().getVersion());
+            out.writeUTF(game.getGameId());
+            out.writeLong(game.getNextEventSequence());
+            out.writeUTF(game.getGameState().name());
+            out.writeInt(game.getTurnNumber());
+            writeNullableString(out, game.getCurrentPlayer() != null ? game.getCurrentPlayer().getPlayerId() : null);
+            writeValueMap(out, game.getGameFlags());
+
+            out.writeBoolean(game.getPlayer1() != null && game.getPlayer2() != null);
+            if (game.getPlayer1() != null && game.getPlayer2() != null) {
+                writePlayer(out, game.getPlayer1());
+                writePlayer(out, game.getPlayer2());
+            }
+
+            Map<String, Map.Entry<CardInstance, String>> limbo = game.getCardsInLimbo();
+            out.writeInt(limbo.size());
+            for (Map.Entry<CardInstance, String> entry : limbo.values()) {
+                out.writeUTF(entry.getValue());
+                writeCard(out, entry.getKey());
+            }
+        } catch (IOException e) {
+            // Only the in-memory stream is involved, so this can't really happen.
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * The version of the card catalog the snapshotted game was played with,
+     * read from the header without decoding the rest.
+     *
+     * @throws IOException if the data isn't a snapshot of this format version.
+     */
+    public static long catalogVersion(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            return readHeader(in);
+        }
+    }
+
+    /**
+     * @param catalog the catalog to play the game with, normally the one
+     *                {@link #catalogVersion(byte[])} names.
+     * @throws IOException if the data is corrupt, from another format version,
+     *                     or refers to a card that isn't in the catalog.
+     */
+    public static Game decode(byte[] data, CardCatalog catalog) throws IOException {
+        Map<String, Card> allCardDefinitions = catalog.asMap();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            readHeader(in);
+
+            Game game = new Game(in.readUTF(), catalog);
+            game.setNextEventSequence(in.readLong());
+            Game.GameState state;
+            try {
+                state = Game.GameState.valueOf(in.readUTF());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unknown game state in snapshot.", e);
+            }
+            game.setTurnNumber(in.readInt());
+            String currentPlayerId = readNullableString(in);
+            game.getGameFlags().putAll(readValueMap(in));
+
+            Map<String, CardInstance> cardsById = new HashMap<>();
+            Map<CardInstance, String> damageSources = new HashMap<>();
+            if (in.readBoolean()) {
+                Player player1 = readPlayer(in, allCardDefinitions, cardsById, damageSources);
+                Player player2 = readPlayer(in, allCardDefinitions, cardsById, damageSources);
+                game.setPlayers(player1, player2);
+                game.setCurrentPlayer(game.getPlayerById(currentPlayerId));
+            }
+
+            int limboSize = in.readInt();
+            for (int i = 0; i < limboSize; i++) {
+                String ownerId = in.readUTF();
+                game.addCardToLimbo(readCard(in, allCardDefinitions, cardsById, damageSources), ownerId);
+            }
+
+            damageSources.forEach((card, sourceId) -> card.setLastDamageSourceCard(cardsById.get(sourceId)));
+            game.setGameState(state);
+            return game;
+        }
+    }
+
+    // Checks the magic number and format version; returns the catalog version.
+    private static long readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a game snapshot.");
+        }
+        int version = in.readUnsignedShort();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot format version " + version + ".");
+        }
+        return in.readLong();
+    }
+
+    private static void writePlayer(DataOutputStream out, Player player) throws IOException {
+        out.writeUTF(player.getPlayerId());
+        out.writeUTF(player.getDisplayName());
+        out.writeBoolean(player.isAi());
+        out.writeInt(player.getAttacksDeclaredThisTurn());
+        writeCards(out, player.getDeck().getCards());
+        writeCards(out, player.getHandInternal());
+        writeCards(out, player.getFieldInternal());
+        writeCards(out, player.getDiscardPileInternal());
+    }
+
+    private static Player readPlayer(DataInputStream in, Map<String, Card> definitions,
+            Map<String, CardInstance> cardsById, Map<CardInstance, String> damageSources) throws IOException {
+        String playerId = in.readUTF();
+        String displayName = in.readUTF();
+        boolean ai = in.readBoolean();
+        Player player = ai ? new AIPlayer(displayName, List.of(), playerId)
+                : new Player(displayName, List.of(), playerId);
+        player.setAttacksDeclaredThisTurn(in.readInt());
+
+        for (CardInstance card : readCards(in, definitions, cardsById, damageSources)) {
+            player.getDeck().addCardToBottom(card);
+        }
+        player.getHandInternal().addAll(readCards(in, definitions, cardsById, damageSources));
+        List<CardInstance> field = readCards(in, definitions, cardsById, damageSources);
+        for (int slot = 0; slot < field.size() && slot < Player.MAX_FIELD_SIZE; slot++) {
+            player.getFieldInternal().set(slot, field.get(slot));
+        }
+        player.getDiscardPileInternal().addAll(readCards(in, definitions, cardsById, damageSources));
+        return player;
+    }
+
+    private static void writeCards(DataOutputStream out, List<CardInstance> cards) throws IOException {
+        out.writeInt(cards == null ? 0 : cards.size());
+        if (cards == null) {
+            return;
+        }
+        for (CardInstance card : cards) {
+            out.writeBoolean(card != null);
+            if (card != null) {
+                writeCard(out, card);
+            }
+        }
+    }
+
+    private static List<CardInstance> readCards(DataInputStream in, Map<String, Card> definitions,
+            Map<String, CardInstance> cardsById, Map<CardInstance, String> damageSources) throws IOException {
+        int size = in.readInt();
+        List<CardInstance> cards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            cards.add(in.readBoolean() ? readCard(in, definitions, cardsById, damageSources) : null);
+        }
+        return cards;
+    }
+
+    private static void writeCard(DataOutputStream out, CardInstance card) throws IOException {
+        out.writeUTF(card.getDefinition().getCardId());
+        out.writeUTF(card.getInstanceId());
+        out.writeInt(card.getBaseLife());
+        out.writeInt(card.getBaseAttack());
+        out.writeInt(card.getBaseDefense());
+        out.writeInt(card.getCurrentLife());
+        out.writeBoolean(card.isExhausted());
+        writeValueMap(out, card.getAllEffectFlags());
+        writeIntMap(out, card.temporaryStatBuffs);
+        writeIntMap(out, card.auraStatBuffs);
+        writeNullableString(out,
+                card.getLastDamageSourceCard() != null ? card.getLastDamageSourceCard().getInstanceId() : null);
+
+        Map<Integer, List<Map<String, Object>>> scheduled = card.getScheduledActions();
+        out.writeInt(scheduled.size());
+        for (Map.Entry<Integer, List<Map<String, Object>>> entry : scheduled.entrySet()) {
+            out.writeInt(entry.getKey());
+            writeLongUTF(out, objectMapper.writeValueAsString(entry.getValue()));
+        }
+    }
+
+    private static CardInstance readCard(DataInputStream in, Map<String, Card> definitions,
+            Map<String, CardInstance> cardsById, Map<CardInstance, String> damageSources) throws IOException {
+        String cardId = in.readUTF();
+        Card definition = definitions.get(cardId);
+        if (definition == null) {
+            throw new IOException("Snapshot refers to unknown card definition '" + cardId + "'.");
+        }
+        CardInstance card = new CardInstance(definition);
+        card.setInstanceId(in.readUTF());
+        card.baseLife = in.readInt();
+        card.baseAttack = in.readInt();
+        card.baseDefense = in.readInt();
+        card.restoreCurrentLife(in.readInt());
+        card.setExhausted(in.readBoolean());
+        card.getAllEffectFlags().putAll(readValueMap(in));
+        card.temporaryStatBuffs.putAll(readIntMap(in));
+        card.auraStatBuffs.putAll(readIntMap(in));
+        String damageSourceId = readNullableString(in);
+        if (damageSourceId != null) {
+            damageSources.put(card, damageSourceId);
+        }
+
+        int scheduledTurns = in.readInt();
+        for (int i = 0; i < scheduledTurns; i++) {
+            int turn = in.readInt();
+            List<Map<String, Object>> actions = objectMapper.readValue(readLongUTF(in),
+                    new TypeReference<List<Map<String, Object>>>() {
+                    });
+            for (Map<String, Object> action : actions) {
+                card.addScheduledAction(turn, action);
+            }
+        }
+
+        cardsById.put(card.getInstanceId(), card);
+        return card;
+    }
+
+    private static void writeIntMap(DataOutputStream out, Map<String, Integer> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, Integer> entry : map.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    private static Map<String, Integer> readIntMap(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        Map<String, Integer> map = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            map.put(in.readUTF(), in.readInt());
+        }
+        return map;
+    }
+
+    private static void writeValueMap(DataOutputStream out, Map<String, Object> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    private static Map<String, Object> readValueMap(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        Map<String, Object> map = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            String key = in.readUTF();
+            Object value = readValue(in);
+            if (value != null) {
+                map.put(key, value); // The live maps are ConcurrentHashMaps and can't hold nulls.
+            }
+        }
+        return map;
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        switch (value) {
+            case null -> out.writeByte(VALUE_NULL);
+            case Boolean b -> {
+                out.writeByte(VALUE_BOOLEAN);
+                out.writeBoolean(b);
+            }
+            case Integer i -> {
+                out.writeByte(VALUE_INT);
+                out.writeInt(i);
+            }
+            case Long l -> {
+                out.writeByte(VALUE_LONG);
+                out.writeLong(l);
+            }
+            case Double d -> {
+                out.writeByte(VALUE_DOUBLE);
+                out.writeDouble(d);
+            }
+            case String s -> {
+                out.writeByte(VALUE_STRING);
+                writeLongUTF(out, s);
+            }
+            default -> {
+                out.writeByte(VALUE_JSON);
+                writeLongUTF(out, objectMapper.writeValueAsString(value));
+            }
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case VALUE_NULL -> null;
+            case VALUE_BOOLEAN -> in.readBoolean();
+            case VALUE_INT -> in.readInt();
+            case VALUE_LONG -> in.readLong();
+            case VALUE_DOUBLE -> in.readDouble();
+            case VALUE_STRING -> readLongUTF(in);
+            case VALUE_JSON -> objectMapper.readValue(readLongUTF(in), Object.class);
+            default -> throw new IOException("Unknown value type " + type + " in snapshot.");
+        };
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    // writeUTF is limited to 64KB, which JSON payloads could in theory exceed.
+    private static void writeLongUTF(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readLongUTF(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Corrupt snapshot: negative string length.");
+        }
+        byte[] utf8 = in.readNBytes(length);
+        if (utf8.length != length) {
+            throw new IOException("Corrupt snapshot: truncated string.");
+        }
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -6,6 +6,7 @@ import com.jamestiago.capycards.game.dto.AbilityInfoDTO;
 import com.jamestiago.capycards.game.dto.CardInstanceDTO;
 import com.jamestiago.capycards.game.dto.PlayerStateDTO;
 import com.jamestiago.capycards.game.dto.GameStateResponse;
+import com.jamestiago.capycards.model.Card;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -93,6 +94,30 @@ public class GameStateMapper {
         return dto;
     }
 
+    /**
+     * Fills in the display data of a card that was decoded as a bare
+     * reference, from its definition: the name, text and art, and its base
+     * stats as current ones (only the current life is stored). Does nothing
+     * if the definition is unknown or the card is already described.
+     */
+    public static void describe(CardInstanceDTO dto, CardCatalog catalog) {
+        Card def = catalog.get(dto.getCardId());
+        if (def == null || dto.getName() != null) {
+            return;
+        }
+        dto.setName(def.getName());
+        dto.setType(def.getType());
+        dto.setEffectText(def.getEffectText());
+        dto.setRarity(def.getRarity());
+        dto.setImageUrl(def.getImageUrl());
+        dto.setAbilities(parseAbilities(def.getEffectConfiguration()));
+        dto.setBaseLife(def.getInitialLife());
+        dto.setBaseAttack(def.getAttack());
+        dto.setBaseDefense(def.getDefense());
+        dto.setCurrentAttack(def.getAttack());
+        dto.setCurrentDefense(def.getDefense());
+    }
+
     public static List<AbilityInfoDTO> parseAbilities(String effectConfiguration) {
         if (effectConfiguration == null || effectConfiguration.trim().isEmpty()) {
             return Collections.emptyList();
@@ -0,0 +1,168 @@
+package com.jamestiago.capycards.game;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+/**
+ * One row per game with its players, lifecycle status and a few totals, kept
+ * up to date as events are stored. Lets startup find the unfinished games
+ * with an index lookup instead of scanning the event log, and backs the admin
+ * game listings.
+ */
+@Entity
+@Table(name = "game_summary", indexes = {
+        @Index(name = "idx_game_summary_status", columnList = "status"),
+        @Index(name = "idx_game_summary_started", columnList = "startedAt, gameId"),
+        @Index(name = "idx_game_summary_player1", columnList = "player1Id"),
+        @Index(name = "idx_game_summary_player2", columnList = "player2Id"),
+        @Index(name = "idx_game_summary_ended", columnList = "endedAt")
+})
+public class GameSummary {
+
+    public enum Status {
+        ACTIVE, FINISHED
+    }
+
+    public enum Mode {
+        PVP, AI
+    }
+
+    @Id
+    private String gameId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    // Not in the event log; filled in by the game service once the game has started.
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Mode mode;
+
+    private String player1Id;
+
+    private String player2Id;
+
+    private String player1Name;
+
+    private String player2Name;
+
+    // The card catalog version the game is played with; null for games from before it was recorded.
+    private Long catalogVersion;
+
+    // Null for a draw, and for games that aren't over.
+    private String winnerPlayerId;
+
+    @ColumnDefault("0")
+    private int turnCount;
+
+    @ColumnDefault("0")
+    private long eventCount;
+
+    private Instant startedAt;
+
+    private Instant endedAt;
+
+    // When the game's events were moved to game_archive; null while they're in the event log.
+    private Instant archivedAt;
+
+    public GameSummary() {
+    }
+
+    public GameSummary(String gameId, Status status, Instant startedAt) {
+        this.gameId = gameId;
+        this.status = status;
+        this.startedAt = startedAt;
+    }
+
+    public void start(String player1Id, String player2Id, Instant startedAt) {
+        this.player1Id = player1Id;
+        this.player2Id = player2Id;
+        this.startedAt = startedAt;
+        this.turnCount = Math.max(turnCount, 1);
+    }
+
+    public void describe(Mode mode, String player1Name, String player2Name, Long catalogVersion) {
+        this.mode = mode;
+        this.player1Name = player1Name;
+        this.player2Name = player2Name;
+        this.catalogVersion = catalogVersion;
+    }
+
+    public void finish(Instant endedAt) {
+        this.status = Status.FINISHED;
+        this.endedAt = endedAt;
+    }
+
+    public void finish(Instant endedAt, String winnerPlayerId) {
+        finish(endedAt);
+        this.winnerPlayerId = winnerPlayerId;
+    }
+
+    public void markArchived(Instant archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+
+    public void countEvents(long events, int turns) {
+        this.eventCount += events;
+        this.turnCount += turns;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public String getPlayer1Id() {
+        return player1Id;
+    }
+
+    public String getPlayer2Id() {
+        return player2Id;
+    }
+
+    public String getPlayer1Name() {
+        return player1Name;
+    }
+
+    public String getPlayer2Name() {
+        return player2Name;
+    }
+
+    public Long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public String getWinnerPlayerId() {
+        return winnerPlayerId;
+    }
+
+    public int getTurnCount() {
+        return turnCount;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getEndedAt() {
+        return endedAt;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+}
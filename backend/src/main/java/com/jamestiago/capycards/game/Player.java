@@ -174,6 +174,10 @@ public class Player {
         this.attacksDeclaredThisTurn++;
     }
 
+    void setAttacksDeclaredThisTurn(int attacksDeclaredThisTurn) {
+        this.attacksDeclaredThisTurn = attacksDeclaredThisTurn;
+    }
+
     public void startOfTurnReset() {
         this.attacksDeclaredThisTurn = 0;
         for (CardInstance card : field) {
@@ -232,6 +236,10 @@ public class Player {
         return this.field;
     }
 
+    List<CardInstance> getDiscardPileInternal() {
+        return this.discardPile;
+    }
+
     @Override
     public String toString() {
         return "Player{" +
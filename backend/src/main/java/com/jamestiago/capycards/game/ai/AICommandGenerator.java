@@ -1,25 +1,38 @@
 package com.jamestiago.capycards.game.ai;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.CardCatalog;
 import com.jamestiago.capycards.game.CardInstance;
 import com.jamestiago.capycards.game.Game;
 import com.jamestiago.capycards.game.Player;
 import com.jamestiago.capycards.game.commands.*;
 import com.jamestiago.capycards.game.dto.AbilityInfoDTO;
+import com.jamestiago.capycards.game.effects.CompiledCardEffects;
 import com.jamestiago.capycards.game.effects.EffectProcessor;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.BiConsumer;
 
+/**
+ * Generates the AI's legal moves, with equivalent moves collapsed so a search
+ * doesn't expand the same position several times:
+ * <ul>
+ * <li>Field slots are interchangeable unless a card in the pool is position
+ * dependent, or the played card has a same-id copy on the field that a
+ * {@code *_WITH_ID} selector could tell apart. Otherwise only the first empty
+ * slot is offered.</li>
+ * <li>Hand cards, attackers, defenders and ability targets in identical states
+ * are offered once, again unless a {@code *_WITH_ID} selector names them.</li>
+ * </ul>
+ * The rules are read from {@link CompiledCardEffects}, so new cards that
+ * depend on position are picked up without touching this class.
+ */
 public class AICommandGenerator {
-    // A single ObjectMapper instance can be reused.
-    private static final ObjectMapper objectMapper = new ObjectMapper();
     // The EffectProcessor is now needed to check conditions. It's stateless, so we
     // can make it static.
     private static final EffectProcessor effectProcessor = new EffectProcessor();
@@ -33,27 +46,46 @@ public class AICommandGenerator {
             return commands; // Not AI's turn or invalid state
         }
 
+        PositionRules rules = PositionRules.of(game);
+        List<CardInstance> aiField = aiPlayer.getFieldInternal();
+        List<CardInstance> opponentField = opponent.getFieldInternal();
+
         // 1. Generate PlayCardCommands
-        for (int handIndex = 0; handIndex < aiPlayer.getHand().size(); handIndex++) {
-            CardInstance cardInHand = aiPlayer.getHand().get(handIndex);
-            if (cardInHand.getDefinition().isDirectlyPlayable()) {
-                for (int fieldIndex = 0; fieldIndex < Player.MAX_FIELD_SIZE; fieldIndex++) {
-                    if (aiPlayer.getField().get(fieldIndex) == null) {
-                        commands.add(new PlayCardCommand(game.getGameId(), aiPlayerId, handIndex, fieldIndex));
+        int firstEmptySlot = aiField.indexOf(null);
+        if (firstEmptySlot >= 0) {
+            Set<String> seenHandCards = new HashSet<>();
+            List<CardInstance> hand = aiPlayer.getHandInternal();
+            for (int handIndex = 0; handIndex < hand.size(); handIndex++) {
+                CardInstance cardInHand = hand.get(handIndex);
+                if (!cardInHand.getDefinition().isDirectlyPlayable()
+                        || (!rules.anyPositionDependent() && !seenHandCards.add(stateKey(cardInHand)))) {
+                    continue;
+                }
+                if (rules.slotMatters(cardInHand, aiField)) {
+                    for (int fieldIndex = 0; fieldIndex < Player.MAX_FIELD_SIZE; fieldIndex++) {
+                        if (aiField.get(fieldIndex) == null) {
+                            commands.add(new PlayCardCommand(game.getGameId(), aiPlayerId, handIndex, fieldIndex));
+                        }
                     }
+                } else {
+                    commands.add(new PlayCardCommand(game.getGameId(), aiPlayerId, handIndex, firstEmptySlot));
                 }
             }
         }
 
         // 2. Generate AttackCommands
         if (aiPlayer.canDeclareAttack()) {
-            for (int attackerIndex = 0; attackerIndex < aiPlayer.getField().size(); attackerIndex++) {
-                CardInstance attacker = aiPlayer.getField().get(attackerIndex);
+            Set<String> seenAttackers = new HashSet<>();
+            for (int attackerIndex = 0; attackerIndex < aiField.size(); attackerIndex++) {
+                CardInstance attacker = aiField.get(attackerIndex);
                 if (attacker != null && !attacker.isExhausted()
-                        && !attacker.getBooleanEffectFlag("status_cannot_attack_AURA")) {
-                    for (int defenderIndex = 0; defenderIndex < opponent.getField().size(); defenderIndex++) {
-                        CardInstance defender = opponent.getField().get(defenderIndex);
-                        if (defender != null && !defender.getBooleanEffectFlag("status_cannot_be_targeted_AURA")) {
+                        && !attacker.getBooleanEffectFlag("status_cannot_attack_AURA")
+                        && rules.isFirstOfKind(attacker, seenAttackers)) {
+                    Set<String> seenDefenders = new HashSet<>();
+                    for (int defenderIndex = 0; defenderIndex < opponentField.size(); defenderIndex++) {
+                        CardInstance defender = opponentField.get(defenderIndex);
+                        if (defender != null && !defender.getBooleanEffectFlag("status_cannot_be_targeted_AURA")
+                                && rules.isFirstOfKind(defender, seenDefenders)) {
                             commands.add(new AttackCommand(game.getGameId(), aiPlayerId, attackerIndex, defenderIndex));
                         }
                     }
@@ -62,66 +94,53 @@ public class AICommandGenerator {
         }
 
         // 3. Generate ActivateAbilityCommands
-        for (int fieldIndex = 0; fieldIndex < aiPlayer.getField().size(); fieldIndex++) {
-            CardInstance sourceCard = aiPlayer.getField().get(fieldIndex);
-            if (sourceCard != null && !sourceCard.isExhausted()) {
-                String jsonConfig = sourceCard.getDefinition().getEffectConfiguration();
-                if (jsonConfig == null || jsonConfig.isBlank())
-                    continue;
-
-                try {
-                    List<Map<String, Object>> effectConfigs = objectMapper.readValue(jsonConfig, new TypeReference<>() {
-                    });
+        Set<String> seenSources = new HashSet<>();
+        for (CardInstance sourceCard : aiField) {
+            if (sourceCard == null || sourceCard.isExhausted()) {
+                continue;
+            }
+            List<Map<String, Object>> activatedAbilities = game.getCatalog().effectsOf(sourceCard.getDefinition())
+                    .getActivatedAbilities();
+            if (activatedAbilities.isEmpty() || !rules.isFirstOfKind(sourceCard, seenSources)) {
+                continue;
+            }
 
-                    for (Map<String, Object> effectConfig : effectConfigs) {
-                        if (!"ACTIVATED".equalsIgnoreCase((String) effectConfig.get("trigger"))) {
-                            continue;
-                        }
+            for (Map<String, Object> effectConfig : activatedAbilities) {
+                AbilityInfoDTO ability = new AbilityInfoDTO(
+                        (Integer) effectConfig.get("abilityOptionIndex"),
+                        (String) effectConfig.get("name"),
+                        (String) effectConfig.get("description"),
+                        (String) effectConfig.get("requiresTarget"));
+
+                String requiresTarget = ability.getRequiresTarget();
+
+                // Helper function to check condition and add command
+                BiConsumer<String, Integer> checkAndAdd = (targetId, abilityIndex) -> {
+                    Map<String, Object> context = new HashMap<>();
+                    context.put("game", game); // Add game object to context
+                    context.put("abilityOptionIndex", abilityIndex);
+                    if (targetId != null) {
+                        context.put("targetCardInstanceId", targetId);
+                    }
 
-                        AbilityInfoDTO ability = new AbilityInfoDTO(
-                                (Integer) effectConfig.get("abilityOptionIndex"),
-                                (String) effectConfig.get("name"),
-                                (String) effectConfig.get("description"),
-                                (String) effectConfig.get("requiresTarget"));
-
-                        String requiresTarget = ability.getRequiresTarget();
-
-                        // Helper function to check condition and add command
-                        BiConsumer<String, Integer> checkAndAdd = (targetId, abilityIndex) -> {
-                            Map<String, Object> context = new HashMap<>();
-                            context.put("game", game); // Add game object to context
-                            context.put("abilityOptionIndex", abilityIndex);
-                            if (targetId != null) {
-                                context.put("targetCardInstanceId", targetId);
-                            }
-
-                            // Directly call the now-public method in EffectProcessor
-                            if (effectProcessor.checkCondition(game, effectConfig, sourceCard, aiPlayer, context)) {
-                                commands.add(new ActivateAbilityCommand(game.getGameId(), aiPlayerId,
-                                        sourceCard.getInstanceId(), targetId, abilityIndex));
-                            }
-                        };
-
-                        if (requiresTarget == null || requiresTarget.equalsIgnoreCase("NONE")) {
-                            checkAndAdd.accept(null, ability.getIndex());
-                        } else {
-                            if (requiresTarget.equalsIgnoreCase("ANY_FIELD_CARD")
-                                    || requiresTarget.equalsIgnoreCase("OPPONENT_FIELD_CARD")) {
-                                opponent.getField().stream().filter(Objects::nonNull)
-                                        .forEach(targetCard -> checkAndAdd.accept(targetCard.getInstanceId(),
-                                                ability.getIndex()));
-                            }
-                            if (requiresTarget.equalsIgnoreCase("ANY_FIELD_CARD")
-                                    || requiresTarget.equalsIgnoreCase("OWN_FIELD_CARD")) {
-                                aiPlayer.getField().stream().filter(Objects::nonNull)
-                                        .forEach(targetCard -> checkAndAdd.accept(targetCard.getInstanceId(),
-                                                ability.getIndex()));
-                            }
-                        }
+                    // Directly call the now-public method in EffectProcessor
+                    if (effectProcessor.checkCondition(game, effectConfig, sourceCard, aiPlayer, context)) {
+                        commands.add(new ActivateAbilityCommand(game.getGameId(), aiPlayerId,
+                                sourceCard.getInstanceId(), targetId, abilityIndex));
+                    }
+                };
+
+                if (requiresTarget == null || requiresTarget.equalsIgnoreCase("NONE")) {
+                    checkAndAdd.accept(null, ability.getIndex());
+                } else {
+                    if (requiresTarget.equalsIgnoreCase("ANY_FIELD_CARD")
+                            || requiresTarget.equalsIgnoreCase("OPPONENT_FIELD_CARD")) {
+                        addDistinctTargets(opponentField, rules, checkAndAdd, ability.getIndex());
+                    }
+                    if (requiresTarget.equalsIgnoreCase("ANY_FIELD_CARD")
+                            || requiresTarget.equalsIgnoreCase("OWN_FIELD_CARD")) {
+                        addDistinctTargets(aiField, rules, checkAndAdd, ability.getIndex());
                     }
-                } catch (IOException e) {
-                    // Log error or handle it, for now we just skip this card's abilities
-                    continue;
                 }
             }
         }
@@ -131,4 +150,84 @@ public class AICommandGenerator {
 
         return commands;
     }
-}
\ No newline at end of file
+
+    private static void addDistinctTargets(List<CardInstance> field, PositionRules rules,
+            BiConsumer<String, Integer> checkAndAdd, Integer abilityIndex) {
+        Set<String> seenTargets = new HashSet<>();
+        for (CardInstance targetCard : field) {
+            if (targetCard != null && rules.isFirstOfKind(targetCard, seenTargets)) {
+                checkAndAdd.accept(targetCard.getInstanceId(), abilityIndex);
+            }
+        }
+    }
+
+    /**
+     * Everything about a card instance that can influence the game, except its
+     * instance id. Two cards with the same key on the same side are
+     * interchangeable. Cards with scheduled actions get a unique key, since the
+     * scheduled effect maps aren't worth comparing.
+     */
+    static String stateKey(CardInstance card) {
+        if (card.hasScheduledActions()) {
+            return card.getInstanceId();
+        }
+        StringBuilder key = new StringBuilder(64);
+        key.append(card.getDefinition().getCardId())
+                .append('|').append(card.getBaseAttack())
+                .append('|').append(card.getBaseDefense())
+                .append('|').append(card.getBaseLife())
+                .append('|').append(card.getCurrentLife())
+                .append('|').append(card.isExhausted())
+                .append('|').append(new TreeMap<>(card.getAllEffectFlags()))
+                .append('|').append(new TreeMap<>(card.temporaryStatBuffs))
+                .append('|').append(new TreeMap<>(card.auraStatBuffs));
+        CardInstance lastDamageSource = card.getLastDamageSourceCard();
+        if (lastDamageSource != null) {
+            key.append('|').append(lastDamageSource.getInstanceId());
+        }
+        return key.toString();
+    }
+
+    /**
+     * Which positional distinctions matter for the card pool of a game.
+     */
+    record PositionRules(boolean anyPositionDependent, Set<String> idReferencedCards) {
+        static PositionRules of(Game game) {
+            // Worked out once per catalog version rather than once per search.
+            CardCatalog catalog = game.getCatalog();
+            return new PositionRules(catalog.isAnyPositionDependent(), catalog.getReferencedCardIds());
+        }
+
+        /**
+         * True if playing {@code card} into different empty slots can lead to
+         * different games.
+         */
+        boolean slotMatters(CardInstance card, List<CardInstance> field) {
+            if (anyPositionDependent) {
+                return true;
+            }
+            String cardId = card.getDefinition().getCardId();
+            if (!idReferencedCards.contains(cardId)) {
+                return false;
+            }
+            // Field order only decides which copy a *_WITH_ID selector finds first.
+            for (CardInstance fieldCard : field) {
+                if (fieldCard != null && fieldCard.getDefinition().getCardId().equals(cardId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Records {@code card} in {@code seen} and returns false if an
+         * interchangeable card was already offered.
+         */
+        boolean isFirstOfKind(CardInstance card, Set<String> seen) {
+            if (anyPositionDependent || idReferencedCards.contains(card.getDefinition().getCardId())) {
+                return true;
+            }
+            return seen.add(stateKey(card));
+        }
+    }
+}
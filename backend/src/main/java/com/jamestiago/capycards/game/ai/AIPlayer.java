@@ -10,6 +10,13 @@ public class AIPlayer extends Player {
         super("OloBot", cardDefinitionsForDeck);
     }
 
+    /**
+     * Constructor used when restoring an AI player from a snapshot.
+     */
+    public AIPlayer(String displayName, List<Card> cardDefinitionsForDeck, String playerId) {
+        super(displayName, cardDefinitionsForDeck, playerId);
+    }
+
     @Override
     public boolean isAi() {
         return true;
@@ -3,11 +3,15 @@ package com.jamestiago.capycards.game.ai;
 import com.jamestiago.capycards.game.CardInstance;
 import com.jamestiago.capycards.game.Game;
 import com.jamestiago.capycards.game.Player;
-import java.util.Objects;
+import java.util.List;
 
 public class BoardEvaluator {
     // A higher score is better for the AI.
     public static double evaluate(Game game, String aiPlayerId) {
+        return evaluate(game, aiPlayerId, EvaluationWeights.defaults());
+    }
+
+    public static double evaluate(Game game, String aiPlayerId, EvaluationWeights weights) {
         Player aiPlayer = game.getPlayerById(aiPlayerId);
         Player opponent = game.getOpponent(aiPlayer);
 
@@ -15,9 +19,43 @@ public class BoardEvaluator {
             return 0.0;
         }
 
-        // --- MODIFICATION: Check for immediate win/loss conditions ---
-        boolean opponentHasField = opponent.getField().stream().anyMatch(Objects::nonNull);
-        boolean opponentHasHand = opponent.getHand().size() > 0;
+        Double terminal = terminalScore(aiPlayer, opponent);
+        if (terminal != null) {
+            return terminal;
+        }
+
+        double[] features = new double[BoardFeatures.COUNT];
+        BoardFeatures.extract(game, aiPlayerId, features, 0);
+        return weights.score(features, 0);
+    }
+
+    /**
+     * Scores {@code rows} positions at once. {@code features} is a row-major
+     * matrix of {@link BoardFeatures#COUNT} columns, as filled by
+     * {@link BoardFeatures#extract(Game, String, double[], int)}. The inner loop
+     * is a plain dense multiply-add that C2 auto-vectorizes.
+     */
+    public static void scoreBatch(double[] features, int rows, EvaluationWeights weights, double[] out) {
+        final int width = BoardFeatures.COUNT;
+        double[] w = weights.toArray();
+        for (int row = 0; row < rows; row++) {
+            int base = row * width;
+            double score = 0;
+            for (int col = 0; col < width; col++) {
+                score += w[col] * features[base + col];
+            }
+            out[row] = score;
+        }
+    }
+
+    /**
+     * Checks for immediate win/loss conditions.
+     *
+     * @return +/-{@link Double#MAX_VALUE} for a decided position, or null.
+     */
+    static Double terminalScore(Player aiPlayer, Player opponent) {
+        boolean opponentHasField = hasFieldCard(opponent);
+        boolean opponentHasHand = !opponent.getHandInternal().isEmpty();
         boolean opponentHasDeck = !opponent.getDeck().isEmpty();
 
         // If opponent has no cards on field, no cards in hand, and no deck, it's a
@@ -26,58 +64,20 @@ public class BoardEvaluator {
             return Double.MAX_VALUE;
         }
 
-        boolean aiHasField = aiPlayer.getField().stream().anyMatch(Objects::nonNull);
         // If AI has no cards and no way to play any, it's a loss.
-        if (!aiHasField && aiPlayer.getHand().isEmpty()) {
+        if (!hasFieldCard(aiPlayer) && aiPlayer.getHandInternal().isEmpty()) {
             return -Double.MAX_VALUE;
         }
-
-        double aiScore = calculatePlayerScore(aiPlayer);
-        double opponentScore = calculatePlayerScore(opponent);
-
-        // --- MODIFICATION: Add bonus for having more board control ---
-        // Having more cards than the opponent is a significant advantage.
-        long cardAdvantage = aiPlayer.getField().stream().filter(Objects::nonNull).count() -
-                opponent.getField().stream().filter(Objects::nonNull).count();
-
-        return (aiScore - opponentScore) + (cardAdvantage * 10.0);
+        return null;
     }
 
-    private static double calculatePlayerScore(Player player) {
-        double score = 0;
-
-        // Score for cards on the field
-        for (CardInstance card : player.getField()) {
-            if (card != null) {
-                // MODIFICATION: Weighting changed to be more aggressive.
-                // Life is valuable, but threat (Attack) is more so.
-                score += card.getCurrentLife() * 1.2;
-                score += card.getCurrentAttack() * 1.8; // Attack is a higher priority.
-                score += card.getCurrentDefense() * 0.8; // Defense is less important than life.
-
-                // Bonus for having special abilities or positive flags
-                if (card.getDefinition().getEffectConfiguration() != null
-                        && !card.getDefinition().getEffectConfiguration().isBlank()) {
-                    score += 3;
-                }
-                if (!card.getAllEffectFlags().isEmpty()) {
-                    score += 2;
-                }
-
-                if (!card.isExhausted()) {
-                    score += 2;
-                }
+    private static boolean hasFieldCard(Player player) {
+        List<CardInstance> field = player.getFieldInternal();
+        for (int i = 0; i < field.size(); i++) {
+            if (field.get(i) != null) {
+                return true;
             }
         }
-
-        // Score for cards in hand (represents future potential).
-        score += player.getHand().size() * 3.0;
-
-        // A significant penalty for having an empty deck, representing fatigue risk.
-        if (player.getDeck().isEmpty()) {
-            score -= 50;
-        }
-
-        return score;
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package com.jamestiago.capycards.game.ai;
+
+import com.jamestiago.capycards.game.CardInstance;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.Player;
+
+import java.util.List;
+
+/**
+ * Extracts a fixed-size primitive feature vector from a game position.
+ * Every feature is the difference "perspective player minus opponent", so the
+ * evaluation stays antisymmetric and a single weight vector serves both sides.
+ */
+public final class BoardFeatures {
+    public static final int FIELD_LIFE = 0;
+    public static final int FIELD_ATTACK = 1;
+    public static final int FIELD_DEFENSE = 2;
+    public static final int CARDS_WITH_EFFECTS = 3;
+    public static final int CARDS_WITH_FLAGS = 4;
+    public static final int READY_CARDS = 5;
+    public static final int HAND_SIZE = 6;
+    public static final int EMPTY_DECK = 7;
+    public static final int FIELD_COUNT = 8;
+
+    public static final int COUNT = 9;
+
+    static final String[] NAMES = {
+            "fieldLife", "fieldAttack", "fieldDefense", "cardsWithEffects", "cardsWithFlags",
+            "readyCards", "handSize", "emptyDeck", "fieldCount"
+    };
+
+    private BoardFeatures() {
+    }
+
+    /**
+     * Writes the features of {@code game} seen from {@code perspectivePlayerId}
+     * into {@code out} starting at {@code offset}. Lets callers fill a flat
+     * row-major matrix for batch scoring without allocating per state.
+     *
+     * @return false if either player is missing, in which case nothing is written.
+     */
+    public static boolean extract(Game game, String perspectivePlayerId, double[] out, int offset) {
+        Player self = game.getPlayerById(perspectivePlayerId);
+        Player opponent = game.getOpponent(self);
+        if (self == null || opponent == null) {
+            return false;
+        }
+        for (int i = 0; i < COUNT; i++) {
+            out[offset + i] = 0;
+        }
+        accumulate(self, out, offset, 1);
+        accumulate(opponent, out, offset, -1);
+        return true;
+    }
+
+    public static double[] extract(Game game, String perspectivePlayerId) {
+        double[] features = new double[COUNT];
+        extract(game, perspectivePlayerId, features, 0);
+        return features;
+    }
+
+    private static void accumulate(Player player, double[] out, int offset, int sign) {
+        // Index loop over the backing list; avoids the unmodifiable wrapper and iterator.
+        List<CardInstance> field = player.getFieldInternal();
+        for (int i = 0; i < field.size(); i++) {
+            CardInstance card = field.get(i);
+            if (card == null) {
+                continue;
+            }
+            out[offset + FIELD_LIFE] += sign * card.getCurrentLife();
+            out[offset + FIELD_ATTACK] += sign * card.getCurrentAttack();
+            out[offset + FIELD_DEFENSE] += sign * card.getCurrentDefense();
+            if (card.getDefinition().hasEffects()) {
+                out[offset + CARDS_WITH_EFFECTS] += sign;
+            }
+            if (!card.getAllEffectFlags().isEmpty()) {
+                out[offset + CARDS_WITH_FLAGS] += sign;
+            }
+            if (!card.isExhausted()) {
+                out[offset + READY_CARDS] += sign;
+            }
+            out[offset + FIELD_COUNT] += sign;
+        }
+        out[offset + HAND_SIZE] += sign * player.getHandInternal().size();
+        if (player.getDeck().isEmpty()) {
+            out[offset + EMPTY_DECK] += sign;
+        }
+    }
+}
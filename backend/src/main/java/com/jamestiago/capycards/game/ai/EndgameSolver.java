@@ -0,0 +1,222 @@
+package com.jamestiago.capycards.game.ai;
+
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.Player;
+import com.jamestiago.capycards.game.commands.ActivateAbilityCommand;
+import com.jamestiago.capycards.game.commands.AttackCommand;
+import com.jamestiago.capycards.game.commands.EndTurnCommand;
+import com.jamestiago.capycards.game.commands.GameCommand;
+import com.jamestiago.capycards.game.events.GameEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exact alpha-beta search for small endgames. The only way a game ends is a
+ * player failing to draw from an empty deck, and every turn draws a card, so
+ * once both decks are small the game tree is finite and shallow. Positions
+ * are memoized by {@link PositionKey}.
+ * <p>
+ * Only used when the total number of cards in both decks and hands is at most
+ * {@code maxStateSize}. A search that exceeds its node or time budget gives
+ * up and returns null, so callers can fall back to their normal policy. The
+ * time budget keeps a slow engine from holding up the AI's turn. Effects with
+ * random outcomes are treated as if the engine's roll were certain.
+ */
+public class EndgameSolver {
+    private static final Logger logger = LoggerFactory.getLogger(EndgameSolver.class);
+
+    public static final int DEFAULT_MAX_STATE_SIZE = 8;
+    public static final int DEFAULT_NODE_BUDGET = 50_000;
+    public static final long DEFAULT_TIME_BUDGET_MS = 250;
+    // Activated abilities don't exhaust, so limit how many commands a turn may
+    // take before only ending the turn is considered.
+    private static final int MAX_COMMANDS_PER_TURN = 6;
+
+    private static final int WIN = 1;
+    private static final int DRAW = 0;
+    private static final int LOSS = -1;
+
+    public record Solution(int value, GameCommand bestCommand, int nodes) {
+        public boolean isWin() {
+            return value == WIN;
+        }
+
+        public boolean isLoss() {
+            return value == LOSS;
+        }
+    }
+
+    private enum Bound {
+        EXACT, LOWER, UPPER
+    }
+
+    private record Entry(int value, Bound bound) {
+    }
+
+    private record MemoKey(PositionKey position, int commandsThisTurn) {
+    }
+
+    private static final class BudgetExceededException extends RuntimeException {
+        BudgetExceededException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final GameEngine gameEngine;
+    private final int maxStateSize;
+    private final int nodeBudget;
+    private final long timeBudgetNanos;
+
+    public EndgameSolver(GameEngine gameEngine, int maxStateSize) {
+        this(gameEngine, maxStateSize, DEFAULT_NODE_BUDGET, DEFAULT_TIME_BUDGET_MS);
+    }
+
+    public EndgameSolver(GameEngine gameEngine, int maxStateSize, int nodeBudget, long timeBudgetMillis) {
+        this.gameEngine = gameEngine;
+        this.maxStateSize = maxStateSize;
+        this.nodeBudget = nodeBudget;
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+    }
+
+    /**
+     * Cards that are still to be drawn or played. Field cards aren't counted:
+     * they bound the moves per turn, not the number of turns.
+     */
+    public static int stateSize(Game game) {
+        int size = 0;
+        for (Player player : List.of(game.getPlayer1(), game.getPlayer2())) {
+            size += player.getDeck().size() + player.getHandInternal().size();
+        }
+        return size;
+    }
+
+    public boolean isApplicable(Game game) {
+        return game.getPlayer1() != null && game.getPlayer2() != null && !HeadlessMatch.isOver(game)
+                && stateSize(game) <= maxStateSize;
+    }
+
+    /**
+     * Solves the position for {@code playerId}, who must be the player to move.
+     *
+     * @return the game-theoretic value and a move achieving it, or null if the
+     *         position is too large or the node budget ran out.
+     */
+    public Solution solve(Game game, String playerId) {
+        if (!isApplicable(game) || game.getCurrentPlayer() == null
+                || !game.getCurrentPlayer().getPlayerId().equals(playerId)) {
+            return null;
+        }
+        Search search = new Search(playerId);
+        try {
+            GameCommand[] best = new GameCommand[1];
+            int value = search.alphaBeta(game, 0, LOSS, WIN, best);
+            logger.debug("[{}] Endgame solved: value {} after {} nodes.", game.getGameId(), value, search.nodes);
+            return new Solution(value, best[0], search.nodes);
+        } catch (BudgetExceededException e) {
+            logger.debug("[{}] Endgame search gave up after {} nodes in {} ms.", game.getGameId(), search.nodes,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - search.startNanos));
+            return null;
+        }
+    }
+
+    private class Search {
+        private final String rootPlayerId;
+        private final Map<MemoKey, Entry> memo = new HashMap<>();
+        private final long startNanos = System.nanoTime();
+        private int nodes;
+
+        Search(String rootPlayerId) {
+            this.rootPlayerId = rootPlayerId;
+        }
+
+        /**
+         * @return the value of {@code position} for the root player.
+         */
+        int alphaBeta(Game position, int commandsThisTurn, int alpha, int beta, GameCommand[] bestOut) {
+            if (++nodes > nodeBudget || System.nanoTime() - startNanos > timeBudgetNanos) {
+                throw new BudgetExceededException();
+            }
+            if (HeadlessMatch.isOver(position)) {
+                String winner = HeadlessMatch.winnerOf(position);
+                return winner == null ? DRAW : winner.equals(rootPlayerId) ? WIN : LOSS;
+            }
+
+            MemoKey key = new MemoKey(PositionKey.of(position), commandsThisTurn);
+            Entry cached = bestOut == null ? memo.get(key) : null;
+            if (cached != null) {
+                if (cached.bound == Bound.EXACT
+                        || (cached.bound == Bound.LOWER && cached.value >= beta)
+                        || (cached.bound == Bound.UPPER && cached.value <= alpha)) {
+                    return cached.value;
+                }
+            }
+
+            String mover = position.getCurrentPlayer().getPlayerId();
+            boolean maximizing = mover.equals(rootPlayerId);
+            int originalAlpha = alpha;
+            int originalBeta = beta;
+            int best = maximizing ? LOSS - 1 : WIN + 1;
+
+            for (GameCommand command : orderedCommands(position, mover, commandsThisTurn)) {
+                List<GameEvent> events = gameEngine.processCommand(position, command);
+                if (events.isEmpty()) {
+                    continue;
+                }
+                Game next = new Game(position);
+                for (GameEvent event : events) {
+                    next.apply(event);
+                }
+                int nextCommands = command instanceof EndTurnCommand ? 0 : commandsThisTurn + 1;
+                int value = alphaBeta(next, nextCommands, alpha, beta, null);
+
+                if (maximizing ? value > best : value < best) {
+                    best = value;
+                    if (bestOut != null) {
+                        bestOut[0] = command;
+                    }
+                }
+                if (maximizing) {
+                    alpha = Math.max(alpha, best);
+                } else {
+                    beta = Math.min(beta, best);
+                }
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+
+            if (best < LOSS || best > WIN) {
+                best = DRAW; // No legal command at all; shouldn't happen.
+            }
+            Bound bound = best <= originalAlpha ? Bound.UPPER : best >= originalBeta ? Bound.LOWER : Bound.EXACT;
+            memo.put(key, new Entry(best, bound));
+            return best;
+        }
+
+        private List<GameCommand> orderedCommands(Game position, String mover, int commandsThisTurn) {
+            if (commandsThisTurn >= MAX_COMMANDS_PER_TURN) {
+                return List.of(new EndTurnCommand(position.getGameId(), mover));
+            }
+            // Attacks and abilities first: they are the moves that decide endgames.
+            List<GameCommand> commands = AICommandGenerator.generateValidCommands(position, mover);
+            List<GameCommand> ordered = new ArrayList<>(commands.size());
+            List<GameCommand> rest = new ArrayList<>();
+            for (GameCommand command : commands) {
+                if (command instanceof AttackCommand || command instanceof ActivateAbilityCommand) {
+                    ordered.add(command);
+                } else {
+                    rest.add(command);
+                }
+            }
+            ordered.addAll(rest);
+            return ordered;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.jamestiago.capycards.game.ai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Immutable weight vector for {@link BoardFeatures}. The shipped weights live in
+ * {@code ai/evaluation-weights.properties} and are produced offline by
+ * {@link com.jamestiago.capycards.game.ai.tuning.SelfPlayTuner}.
+ */
+public final class EvaluationWeights {
+    private static final Logger logger = LoggerFactory.getLogger(EvaluationWeights.class);
+    public static final String RESOURCE = "ai/evaluation-weights.properties";
+
+    /** The hand-written weights the evaluator used before tuning existed. */
+    public static final EvaluationWeights HAND_TUNED = new EvaluationWeights(new double[] {
+            1.2, // fieldLife
+            1.8, // fieldAttack
+            0.8, // fieldDefense
+            3.0, // cardsWithEffects
+            2.0, // cardsWithFlags
+            2.0, // readyCards
+            3.0, // handSize
+            -50.0, // emptyDeck
+            10.0 // fieldCount
+    });
+
+    private static final EvaluationWeights DEFAULT = loadDefault();
+
+    private final double[] weights;
+
+    public EvaluationWeights(double[] weights) {
+        if (weights.length != BoardFeatures.COUNT) {
+            throw new IllegalArgumentException(
+                    "Expected " + BoardFeatures.COUNT + " weights but got " + weights.length);
+        }
+        this.weights = weights.clone();
+    }
+
+    public static EvaluationWeights defaults() {
+        return DEFAULT;
+    }
+
+    public double get(int feature) {
+        return weights[feature];
+    }
+
+    public double[] toArray() {
+        return weights.clone();
+    }
+
+    public EvaluationWeights with(int feature, double value) {
+        double[] copy = weights.clone();
+        copy[feature] = value;
+        return new EvaluationWeights(copy);
+    }
+
+    /** Dot product of the weights with one feature row. */
+    public double score(double[] features, int offset) {
+        double score = 0;
+        for (int i = 0; i < weights.length; i++) {
+            score += weights[i] * features[offset + i];
+        }
+        return score;
+    }
+
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        for (int i = 0; i < weights.length; i++) {
+            properties.setProperty(BoardFeatures.NAMES[i], Double.toString(weights[i]));
+        }
+        return properties;
+    }
+
+    /**
+     * Reads weights by feature name; features missing from the file keep the
+     * value from {@code fallback}.
+     */
+    public static EvaluationWeights fromProperties(Properties properties, EvaluationWeights fallback) {
+        double[] values = fallback.toArray();
+        for (int i = 0; i < values.length; i++) {
+            String value = properties.getProperty(BoardFeatures.NAMES[i]);
+            if (value != null) {
+                values[i] = Double.parseDouble(value.trim());
+            }
+        }
+        return new EvaluationWeights(values);
+    }
+
+    private static EvaluationWeights loadDefault() {
+        try (InputStream in = EvaluationWeights.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                logger.warn("No {} on the classpath. Using hand-tuned evaluation weights.", RESOURCE);
+                return HAND_TUNED;
+            }
+            Properties properties = new Properties();
+            properties.load(in);
+            return fromProperties(properties, HAND_TUNED);
+        } catch (IOException | NumberFormatException e) {
+            logger.error("Failed to read {}. Using hand-tuned evaluation weights.", RESOURCE, e);
+            return HAND_TUNED;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EvaluationWeights" + Arrays.toString(weights);
+    }
+}
@@ -0,0 +1,162 @@
+package com.jamestiago.capycards.game.ai;
+
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.Player;
+import com.jamestiago.capycards.game.commands.EndTurnCommand;
+import com.jamestiago.capycards.game.commands.GameCommand;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * One-ply greedy AI: simulates every valid command with the engine, scores the
+ * resulting positions in one batch and picks the best. Ending the turn is the
+ * baseline and wins ties, so the AI never burns actions that change nothing.
+ * <p>
+ * Optionally, an {@link EndgameSolver} plays small endgames perfectly, and a
+ * {@link LethalDetector} finds lines that clear the opponent's field this turn.
+ * A lethal line is followed when the position it ends in scores at least as
+ * well as the greedy choice; clearing the field doesn't end the game by itself.
+ */
+public class GreedyPolicy {
+    private static final Logger logger = LoggerFactory.getLogger(GreedyPolicy.class);
+
+    private final GameEngine gameEngine;
+    private final EvaluationWeights weights;
+    private final EndgameSolver endgameSolver;
+    private final LethalDetector lethalDetector;
+
+    public GreedyPolicy(GameEngine gameEngine, EvaluationWeights weights) {
+        this(gameEngine, weights, null, null);
+    }
+
+    /**
+     * @param endgameSolver  may be null to disable endgame solving.
+     * @param lethalDetector may be null to disable the lethal check.
+     */
+    public GreedyPolicy(GameEngine gameEngine, EvaluationWeights weights, EndgameSolver endgameSolver,
+            LethalDetector lethalDetector) {
+        this.gameEngine = gameEngine;
+        this.weights = weights;
+        this.endgameSolver = endgameSolver;
+        this.lethalDetector = lethalDetector;
+    }
+
+    public EvaluationWeights getWeights() {
+        return weights;
+    }
+
+    public GameCommand chooseCommand(Game game, String playerId) {
+        if (endgameSolver != null) {
+            EndgameSolver.Solution solution = endgameSolver.solve(game, playerId);
+            // A proven loss is left to the heuristic, which at least keeps the game going.
+            if (solution != null && solution.bestCommand() != null && !solution.isLoss()) {
+                logger.debug("Endgame solver picked {} (value {}).", solution.bestCommand().getCommandType(),
+                        solution.value());
+                return solution.bestCommand();
+            }
+        }
+        Scored greedy = chooseGreedyCommand(game, playerId);
+        if (lethalDetector != null && greedy.score < Double.MAX_VALUE) {
+            LethalDetector.Lethal lethal = lethalDetector.findLethal(game, playerId);
+            if (lethal != null && scorePosition(lethal.result(), playerId) >= greedy.score) {
+                logger.debug("Following lethal line of {} commands.", lethal.commands().size());
+                return lethal.commands().get(0);
+            }
+        }
+        return greedy.command;
+    }
+
+    private record Scored(GameCommand command, double score) {
+    }
+
+    private Scored chooseGreedyCommand(Game game, String playerId) {
+        List<GameCommand> candidates = AICommandGenerator.generateValidCommands(game, playerId);
+        GameCommand endTurn = new EndTurnCommand(game.getGameId(), playerId);
+
+        // Row 0 is the current position, i.e. the value of ending the turn now.
+        int rows = candidates.size() + 1;
+        double[] features = new double[rows * BoardFeatures.COUNT];
+        double[] fixedScores = new double[rows];
+        boolean[] hasFixedScore = new boolean[rows];
+
+        fillRow(game, playerId, 0, features, fixedScores, hasFixedScore);
+        for (int i = 0; i < candidates.size(); i++) {
+            GameCommand command = candidates.get(i);
+            if (command instanceof EndTurnCommand) {
+                fixedScores[i + 1] = -Double.MAX_VALUE;
+                hasFixedScore[i + 1] = true;
+                continue;
+            }
+            Game simulation = simulate(game, command);
+            if (simulation == null) {
+                fixedScores[i + 1] = -Double.MAX_VALUE;
+                hasFixedScore[i + 1] = true;
+                continue;
+            }
+            fillRow(simulation, playerId, i + 1, features, fixedScores, hasFixedScore);
+        }
+
+        double[] scores = new double[rows];
+        BoardEvaluator.scoreBatch(features, rows, weights, scores);
+
+        GameCommand bestCommand = endTurn;
+        double bestScore = hasFixedScore[0] ? fixedScores[0] : scores[0];
+        for (int row = 1; row < rows; row++) {
+            double score = hasFixedScore[row] ? fixedScores[row] : scores[row];
+            logger.trace("AI simulation: Command {} -> Score {}", candidates.get(row - 1).getCommandType(), score);
+            if (score > bestScore) {
+                bestScore = score;
+                bestCommand = candidates.get(row - 1);
+            }
+        }
+        return new Scored(bestCommand, bestScore);
+    }
+
+    private double scorePosition(Game position, String playerId) {
+        double[] features = new double[BoardFeatures.COUNT];
+        double[] fixedScore = new double[1];
+        boolean[] hasFixedScore = new boolean[1];
+        fillRow(position, playerId, 0, features, fixedScore, hasFixedScore);
+        return hasFixedScore[0] ? fixedScore[0] : weights.score(features, 0);
+    }
+
+    /**
+     * Runs a command through the engine on a copy of the game.
+     *
+     * @return the resulting position, or null if the command produced no events.
+     */
+    public Game simulate(Game game, GameCommand command) {
+        GameEngine.Resolution resolution = gameEngine.processCommandOnCopy(game, command);
+        return resolution.events().isEmpty() ? null : resolution.game();
+    }
+
+    private void fillRow(Game position, String playerId, int row, double[] features, double[] fixedScores,
+            boolean[] hasFixedScore) {
+        Player self = position.getPlayerById(playerId);
+        Player opponent = position.getOpponent(self);
+        if (self == null || opponent == null) {
+            hasFixedScore[row] = true;
+            return;
+        }
+        if (position.getGameState().name().contains("GAME_OVER")) {
+            boolean won = (position.getGameState() == Game.GameState.GAME_OVER_PLAYER_1_WINS
+                    && position.getPlayer1() == self)
+                    || (position.getGameState() == Game.GameState.GAME_OVER_PLAYER_2_WINS
+                            && position.getPlayer2() == self);
+            boolean lost = !won && position.getGameState() != Game.GameState.GAME_OVER_DRAW;
+            fixedScores[row] = won ? Double.MAX_VALUE : lost ? -Double.MAX_VALUE : 0.0;
+            hasFixedScore[row] = true;
+            return;
+        }
+        Double terminal = BoardEvaluator.terminalScore(self, opponent);
+        if (terminal != null) {
+            fixedScores[row] = terminal;
+            hasFixedScore[row] = true;
+            return;
+        }
+        BoardFeatures.extract(position, playerId, features, row * BoardFeatures.COUNT);
+    }
+}
@@ -0,0 +1,135 @@
+package com.jamestiago.capycards.game.ai;
+
+import com.jamestiago.capycards.game.CardCatalog;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.Player;
+import com.jamestiago.capycards.game.commands.EndTurnCommand;
+import com.jamestiago.capycards.game.commands.GameCommand;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.game.events.GameStartedEvent;
+import com.jamestiago.capycards.model.Card;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Plays a complete AI-vs-AI game in memory, with no persistence, sockets or
+ * Spring context. Used by offline tooling such as the evaluation weight tuner.
+ */
+public class HeadlessMatch {
+    public static final int DECK_SIZE = 20;
+    public static final int MAX_TURNS = 200;
+    // Activated abilities don't exhaust their card, so cap the actions per turn.
+    public static final int MAX_COMMANDS_PER_TURN = 30;
+
+    public record Result(String winnerPlayerId, int turns, boolean truncated) {
+        public boolean isDraw() {
+            return winnerPlayerId == null;
+        }
+    }
+
+    private HeadlessMatch() {
+    }
+
+    /**
+     * Builds a deck the same way live games do: cycle through the directly
+     * playable cards, then shuffle.
+     */
+    public static List<Card> buildDeck(List<Card> cardPool, Random random) {
+        List<Card> playableCards = cardPool.stream().filter(Card::isDirectlyPlayable).toList();
+        if (playableCards.isEmpty()) {
+            throw new IllegalStateException("No directly playable cards in the card pool.");
+        }
+        List<Card> deck = new ArrayList<>(DECK_SIZE);
+        for (int i = 0; i < DECK_SIZE; i++) {
+            deck.add(playableCards.get(i % playableCards.size()));
+        }
+        Collections.shuffle(deck, random);
+        return deck;
+    }
+
+    public static Game newGame(List<Card> cardPool, Random random) {
+        return newGame(buildDeck(cardPool, random), buildDeck(cardPool, random), cardPool);
+    }
+
+    public static Game newGame(List<Card> player1Deck, List<Card> player2Deck, List<Card> cardPool) {
+        return newGame(player1Deck, player2Deck, CardCatalog.of(0, cardPool));
+    }
+
+    /** As above, sharing one catalog between games instead of building one per game. */
+    public static Game newGame(List<Card> player1Deck, List<Card> player2Deck, CardCatalog catalog) {
+        Player player1 = new AIPlayer(player1Deck);
+        Player player2 = new AIPlayer(player2Deck);
+        Game game = new Game(player1, player2, catalog);
+        game.apply(new GameStartedEvent(game.getGameId(), 0, player1.getPlayerId(), player2.getPlayerId(),
+                player1.getPlayerId()));
+        return game;
+    }
+
+    /**
+     * Plays {@code game} to the end. {@code player1Policy} controls player 1.
+     */
+    public static Result play(GameEngine engine, Game game, GreedyPolicy player1Policy, GreedyPolicy player2Policy) {
+        return play(engine, game, player1Policy, player2Policy, event -> {
+        });
+    }
+
+    /**
+     * As {@link #play(GameEngine, Game, GreedyPolicy, GreedyPolicy)}, passing
+     * every event to {@code eventSink} after it is applied.
+     */
+    public static Result play(GameEngine engine, Game game, GreedyPolicy player1Policy, GreedyPolicy player2Policy,
+            Consumer<GameEvent> eventSink) {
+        String player1Id = game.getPlayer1().getPlayerId();
+        int commandsThisTurn = 0;
+        int turnOfLastCommand = game.getTurnNumber();
+
+        while (!isOver(game) && game.getTurnNumber() <= MAX_TURNS) {
+            Player current = game.getCurrentPlayer();
+            if (current == null) {
+                break;
+            }
+            if (game.getTurnNumber() != turnOfLastCommand) {
+                turnOfLastCommand = game.getTurnNumber();
+                commandsThisTurn = 0;
+            }
+
+            GreedyPolicy policy = current.getPlayerId().equals(player1Id) ? player1Policy : player2Policy;
+            GameCommand command = commandsThisTurn < MAX_COMMANDS_PER_TURN
+                    ? policy.chooseCommand(game, current.getPlayerId())
+                    : new EndTurnCommand(game.getGameId(), current.getPlayerId());
+            commandsThisTurn++;
+
+            List<GameEvent> events = engine.processCommand(game, command);
+            if (events.isEmpty() && !(command instanceof EndTurnCommand)) {
+                events = engine.processCommand(game, new EndTurnCommand(game.getGameId(), current.getPlayerId()));
+            }
+            if (events.isEmpty()) {
+                break; // Stuck; treat as a draw.
+            }
+            for (GameEvent event : events) {
+                game.apply(event);
+                eventSink.accept(event);
+            }
+        }
+
+        boolean truncated = !isOver(game);
+        return new Result(winnerOf(game), game.getTurnNumber(), truncated);
+    }
+
+    public static boolean isOver(Game game) {
+        return game.getGameState().name().contains("GAME_OVER");
+    }
+
+    public static String winnerOf(Game game) {
+        return switch (game.getGameState()) {
+            case GAME_OVER_PLAYER_1_WINS -> game.getPlayer1().getPlayerId();
+            case GAME_OVER_PLAYER_2_WINS -> game.getPlayer2().getPlayerId();
+            default -> null;
+        };
+    }
+}
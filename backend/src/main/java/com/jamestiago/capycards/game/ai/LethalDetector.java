@@ -0,0 +1,122 @@
+package com.jamestiago.capycards.game.ai;
+
+import com.jamestiago.capycards.game.CardInstance;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.Player;
+import com.jamestiago.capycards.game.commands.EndTurnCommand;
+import com.jamestiago.capycards.game.commands.GameCommand;
+import com.jamestiago.capycards.game.events.GameEvent;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Looks for a sequence of commands, within the current turn, after which the
+ * opponent has no cards left on the field. Depth-first over the pruned moves
+ * from {@link AICommandGenerator}, with a visited set and a node budget so it
+ * stays cheap enough to run before every AI decision.
+ */
+public class LethalDetector {
+    public static final int DEFAULT_NODE_BUDGET = 2000;
+    private static final int MAX_SEQUENCE_LENGTH = 6;
+
+    private final GameEngine gameEngine;
+    private final int nodeBudget;
+
+    public LethalDetector(GameEngine gameEngine) {
+        this(gameEngine, DEFAULT_NODE_BUDGET);
+    }
+
+    public LethalDetector(GameEngine gameEngine, int nodeBudget) {
+        this.gameEngine = gameEngine;
+        this.nodeBudget = nodeBudget;
+    }
+
+    /**
+     * A line that clears the opponent's field, and the position it leads to.
+     */
+    public record Lethal(List<GameCommand> commands, Game result) {
+    }
+
+    /**
+     * @return the first lethal line found, or null if there is none (or the
+     *         opponent's field is already empty).
+     */
+    public Lethal findLethal(Game game, String playerId) {
+        Player self = game.getPlayerById(playerId);
+        Player opponent = game.getOpponent(self);
+        if (self == null || opponent == null || isFieldEmpty(opponent) || HeadlessMatch.isOver(game)
+                || game.getCurrentPlayer() != self) {
+            return null;
+        }
+
+        Search search = new Search(playerId);
+        List<GameCommand> line = new ArrayList<>();
+        Game result = search.dfs(game, line);
+        return result == null ? null : new Lethal(List.copyOf(line), result);
+    }
+
+    public boolean hasLethal(Game game, String playerId) {
+        return findLethal(game, playerId) != null;
+    }
+
+    private class Search {
+        private final String playerId;
+        private final Set<PositionKey> visited = new HashSet<>();
+        private int nodes;
+
+        Search(String playerId) {
+            this.playerId = playerId;
+        }
+
+        /**
+         * @return the position after a lethal line, which is left in
+         *         {@code line}, or null.
+         */
+        Game dfs(Game position, List<GameCommand> line) {
+            if (line.size() >= MAX_SEQUENCE_LENGTH || !visited.add(PositionKey.of(position))) {
+                return null;
+            }
+            for (GameCommand command : AICommandGenerator.generateValidCommands(position, playerId)) {
+                if (command instanceof EndTurnCommand) {
+                    continue;
+                }
+                if (++nodes > nodeBudget) {
+                    return null;
+                }
+                List<GameEvent> events = gameEngine.processCommand(position, command);
+                if (events.isEmpty()) {
+                    continue;
+                }
+                Game next = new Game(position);
+                for (GameEvent event : events) {
+                    next.apply(event);
+                }
+
+                line.add(command);
+                Player opponent = next.getOpponent(next.getPlayerById(playerId));
+                if (isFieldEmpty(opponent)) {
+                    return next;
+                }
+                Game result = dfs(next, line);
+                if (result != null) {
+                    return result;
+                }
+                line.remove(line.size() - 1);
+            }
+            return null;
+        }
+    }
+
+    private static boolean isFieldEmpty(Player player) {
+        for (CardInstance card : player.getFieldInternal()) {
+            if (card != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
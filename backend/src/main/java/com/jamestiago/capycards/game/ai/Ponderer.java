@@ -0,0 +1,110 @@
+package com.jamestiago.capycards.game.ai;
+
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.Player;
+import com.jamestiago.capycards.game.commands.EndTurnCommand;
+import com.jamestiago.capycards.game.commands.GameCommand;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thinks ahead while the opponent has the turn. Predicts how the opponent's
+ * turn is likely to go, then plans the AI's whole reply from each predicted
+ * position and records the chosen command for every position along the way.
+ * If the real game reaches one of those positions the plan can be used as is.
+ * <p>
+ * Runs on a copy of the game and checks for interruption between steps, so
+ * it can be cancelled at any time.
+ */
+public class Ponderer {
+    private static final Logger logger = LoggerFactory.getLogger(Ponderer.class);
+
+    private final GreedyPolicy policy;
+
+    public Ponderer(GreedyPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * @param position   a private copy of the game, with the opponent to move.
+     * @param aiPlayerId the AI that moves next.
+     * @param plans      receives position -> command entries as they are found.
+     * @return the number of plan entries added.
+     */
+    public int ponder(Game position, String aiPlayerId, Map<PositionKey, GameCommand> plans) {
+        Player opponent = position.getCurrentPlayer();
+        if (opponent == null || opponent.getPlayerId().equals(aiPlayerId)) {
+            return 0;
+        }
+
+        // Two lines: the opponent plays the way we would, or passes straight away.
+        int added = 0;
+        for (Game predicted : predictTurnEnds(position, opponent.getPlayerId())) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            added += planTurn(predicted, aiPlayerId, plans);
+        }
+        return added;
+    }
+
+    private List<Game> predictTurnEnds(Game position, String opponentId) {
+        List<Game> predictions = new ArrayList<>(2);
+
+        Game passed = policy.simulate(position, new EndTurnCommand(position.getGameId(), opponentId));
+        if (passed != null) {
+            predictions.add(passed);
+        }
+
+        Game played = position;
+        for (int step = 0; step < HeadlessMatch.MAX_COMMANDS_PER_TURN && isTurnOf(played, opponentId); step++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return predictions;
+            }
+            GameCommand command = policy.chooseCommand(played, opponentId);
+            Game next = policy.simulate(played, command);
+            if (next == null) {
+                next = policy.simulate(played, new EndTurnCommand(played.getGameId(), opponentId));
+            }
+            if (next == null) {
+                return predictions;
+            }
+            played = next;
+        }
+        if (played != position && !isTurnOf(played, opponentId)) {
+            predictions.add(0, played); // Most likely line first.
+        }
+        return predictions;
+    }
+
+    private int planTurn(Game position, String aiPlayerId, Map<PositionKey, GameCommand> plans) {
+        int added = 0;
+        Game current = position;
+        for (int step = 0; step < HeadlessMatch.MAX_COMMANDS_PER_TURN && isTurnOf(current, aiPlayerId); step++) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            GameCommand command = policy.chooseCommand(current, aiPlayerId);
+            plans.put(PositionKey.of(current), command);
+            added++;
+            if (command instanceof EndTurnCommand) {
+                break;
+            }
+            current = policy.simulate(current, command);
+            if (current == null) {
+                break;
+            }
+        }
+        logger.trace("Pondered {} AI steps from a predicted position.", added);
+        return added;
+    }
+
+    private static boolean isTurnOf(Game game, String playerId) {
+        return !HeadlessMatch.isOver(game) && game.getCurrentPlayer() != null
+                && game.getCurrentPlayer().getPlayerId().equals(playerId);
+    }
+}
@@ -0,0 +1,81 @@
+package com.jamestiago.capycards.game.ai;
+
+import com.jamestiago.capycards.game.CardInstance;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.Player;
+
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Identifies a game position for caching AI results. Two games with equal keys
+ * have the same cards (by instance id) in the same zones and states, so a
+ * command chosen in one is valid, and equally good, in the other.
+ */
+public final class PositionKey {
+    private final String value;
+    private final int hash;
+
+    private PositionKey(String value) {
+        this.value = value;
+        this.hash = value.hashCode();
+    }
+
+    public static PositionKey of(Game game) {
+        StringBuilder key = new StringBuilder(1024);
+        key.append(game.getTurnNumber()).append('/').append(game.getGameState());
+        Player current = game.getCurrentPlayer();
+        key.append('/').append(current == null ? "-" : current.getPlayerId());
+        key.append('/').append(new TreeMap<>(game.getGameFlags()));
+        appendPlayer(key, game.getPlayer1());
+        appendPlayer(key, game.getPlayer2());
+        key.append("#limbo").append(new TreeSet<>(game.getCardsInLimbo().keySet()));
+        return new PositionKey(key.toString());
+    }
+
+    private static void appendPlayer(StringBuilder key, Player player) {
+        if (player == null) {
+            key.append("#-");
+            return;
+        }
+        key.append('#').append(player.getPlayerId())
+                .append('/').append(player.getAttacksDeclaredThisTurn())
+                .append('/').append(player.getDiscardPile().size());
+        appendCards(key.append("#field"), player.getFieldInternal());
+        appendCards(key.append("#hand"), player.getHandInternal());
+        for (CardInstance card : player.getDeck().getCards()) {
+            key.append("#deck").append(card.getInstanceId());
+        }
+    }
+
+    private static void appendCards(StringBuilder key, List<CardInstance> cards) {
+        for (CardInstance card : cards) {
+            if (card == null) {
+                key.append("[]");
+            } else {
+                key.append('[').append(card.getInstanceId()).append(':')
+                        .append(AICommandGenerator.stateKey(card)).append(']');
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof PositionKey other))
+            return false;
+        return hash == other.hash && value.equals(other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "PositionKey[" + Integer.toHexString(hash) + "]";
+    }
+}
@@ -0,0 +1,180 @@
+package com.jamestiago.capycards.game.ai.sim;
+
+import com.jamestiago.capycards.game.effects.CompiledCardEffects;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A card's effects compiled to flat int opcodes for {@link RolloutState}.
+ * Only a subset of the effect DSL is supported: unconditional ON_PLAY and
+ * END_OF_TURN_SELF effects that deal damage, heal, buff/debuff ATK, DEF or
+ * MAX_LIFE by a literal amount, or draw cards, targeting SELF or all
+ * friendly/enemy/field cards. {@link #compile(CompiledCardEffects)} returns null for any
+ * card using something else, and rollouts refuse positions containing one.
+ */
+final class RolloutProgram {
+    static final int ACT_DAMAGE = 0;
+    static final int ACT_HEAL = 1;
+    static final int ACT_BUFF = 2;
+    static final int ACT_DEBUFF = 3;
+    static final int ACT_DRAW = 4;
+
+    static final int SEL_SELF = 0;
+    static final int SEL_ALL_ENEMY = 1;
+    static final int SEL_ALL_FRIENDLY = 2;
+    static final int SEL_ALL = 3;
+
+    static final int STAT_ATK = 0;
+    static final int STAT_DEF = 1;
+    static final int STAT_MAX_LIFE = 2;
+
+    // Each op is OP_WIDTH ints: action, selector, stat, amount, permanent (0/1).
+    static final int OP_WIDTH = 5;
+
+    static final RolloutProgram EMPTY = new RolloutProgram(new int[0], new int[0]);
+
+    private static final RolloutProgram UNSUPPORTED = new RolloutProgram(null, null);
+    // Keyed by the catalog's compiled effects, so programs go away with the catalog.
+    private static final Map<CompiledCardEffects, RolloutProgram> cache =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    final int[] onPlay;
+    final int[] endOfTurn;
+
+    private RolloutProgram(int[] onPlay, int[] endOfTurn) {
+        this.onPlay = onPlay;
+        this.endOfTurn = endOfTurn;
+    }
+
+    /**
+     * @return the compiled program, or null if the card uses effects rollouts
+     *         can't simulate.
+     */
+    static RolloutProgram compile(CompiledCardEffects effects) {
+        if (effects.getConfigs().isEmpty()) {
+            // Either no effects, or unparseable, which the engine also ignores.
+            return EMPTY;
+        }
+        RolloutProgram program = cache.computeIfAbsent(effects, RolloutProgram::translate);
+        return program == UNSUPPORTED ? null : program;
+    }
+
+    private static RolloutProgram translate(CompiledCardEffects effects) {
+        IntList onPlay = new IntList();
+        IntList endOfTurn = new IntList();
+        for (Map<String, Object> config : effects.getConfigs()) {
+            if (config.containsKey("condition")) {
+                return UNSUPPORTED;
+            }
+            IntList target;
+            Object trigger = config.get("trigger");
+            if ("ON_PLAY".equals(trigger)) {
+                target = onPlay;
+            } else if ("END_OF_TURN_SELF".equals(trigger)) {
+                target = endOfTurn;
+            } else {
+                return UNSUPPORTED;
+            }
+            if (!translateAction(config, target)) {
+                return UNSUPPORTED;
+            }
+        }
+        return new RolloutProgram(onPlay.toArray(), endOfTurn.toArray());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean translateAction(Map<String, Object> config, IntList out) {
+        if (!(config.get("action") instanceof String actionName)
+                || !(config.get("params") instanceof Map<?, ?> rawParams)) {
+            return false;
+        }
+        Map<String, Object> params = (Map<String, Object>) rawParams;
+        if (params.containsKey("context")) {
+            return false;
+        }
+
+        int action;
+        switch (actionName.toUpperCase()) {
+            case "DEAL_DAMAGE" -> action = ACT_DAMAGE;
+            case "HEAL_TARGET" -> action = ACT_HEAL;
+            case "BUFF_STAT" -> action = ACT_BUFF;
+            case "DEBUFF_STAT" -> action = ACT_DEBUFF;
+            case "DRAW_CARDS" -> action = ACT_DRAW;
+            default -> {
+                return false;
+            }
+        }
+
+        int selector = SEL_SELF;
+        int stat = 0;
+        int permanent = 1;
+        Object amount = params.get("amount");
+
+        if (action == ACT_DRAW) {
+            if (amount == null) {
+                amount = 1;
+            }
+        } else {
+            if (!(params.get("targets") instanceof String targets)) {
+                return false;
+            }
+            switch (targets.toUpperCase()) {
+                case "SELF" -> selector = SEL_SELF;
+                case "ALL_ENEMY_CARDS_ON_FIELD" -> selector = SEL_ALL_ENEMY;
+                case "ALL_FRIENDLY_CARDS_ON_FIELD" -> selector = SEL_ALL_FRIENDLY;
+                case "ALL_CARDS_ON_FIELD" -> selector = SEL_ALL;
+                default -> {
+                    return false;
+                }
+            }
+        }
+
+        if (action == ACT_BUFF || action == ACT_DEBUFF) {
+            if (!(params.get("stat") instanceof String statName)) {
+                return false;
+            }
+            switch (statName.toUpperCase()) {
+                case "ATK" -> stat = STAT_ATK;
+                case "DEF" -> stat = STAT_DEF;
+                case "MAX_LIFE" -> stat = STAT_MAX_LIFE;
+                default -> {
+                    return false;
+                }
+            }
+            Object isPermanent = params.get("isPermanent");
+            if (isPermanent != null && !(isPermanent instanceof Boolean)) {
+                return false;
+            }
+            permanent = Boolean.FALSE.equals(isPermanent) ? 0 : 1;
+        }
+
+        if (!(amount instanceof Integer literal)) {
+            return false; // Dynamic values aren't supported.
+        }
+        out.add(action);
+        out.add(selector);
+        out.add(stat);
+        out.add(literal);
+        out.add(permanent);
+        return true;
+    }
+
+    private static final class IntList {
+        private int[] values = new int[OP_WIDTH * 2];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,699 @@
+package com.jamestiago.capycards.game.ai.sim;
+
+import com.jamestiago.capycards.game.CardInstance;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.Player;
+import com.jamestiago.capycards.game.commands.AttackCommand;
+import com.jamestiago.capycards.game.commands.EndTurnCommand;
+import com.jamestiago.capycards.game.commands.GameCommand;
+import com.jamestiago.capycards.game.commands.PlayCardCommand;
+import com.jamestiago.capycards.model.Card;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * A compact copy of a {@link Game} for AI rollouts. Card state lives in
+ * parallel primitive arrays indexed by card, flags in a bitset, and zones are
+ * short arrays of card indexes, so copying a position is a handful of array
+ * copies and playing a move allocates nothing.
+ * <p>
+ * The rules mirror {@link com.jamestiago.capycards.game.GameEngine} for the
+ * effects {@link RolloutProgram} supports, including its quirks (effects are
+ * computed from one snapshot and applied afterwards, drawing into a full hand
+ * at the start of a turn does nothing). {@link #fromGame(Game)} returns null
+ * for positions it can't represent faithfully; callers should then fall back
+ * to simulating with the engine.
+ */
+public final class RolloutState {
+    public static final int NO_WINNER = -1;
+    public static final int MAX_MOVES = Player.MAX_HAND_SIZE * Player.MAX_FIELD_SIZE
+            + Player.MAX_FIELD_SIZE * Player.MAX_FIELD_SIZE + 1;
+
+    public static final int MOVE_END_TURN = 0;
+    private static final int KIND_PLAY = 1;
+    private static final int KIND_ATTACK = 2;
+
+    private static final int EMPTY = -1;
+
+    private static final byte EXHAUSTED = 1;
+    private static final byte SILENCED = 1 << 1;
+    private static final byte CAN_ATTACK_AGAIN = 1 << 2;
+    private static final byte DOUBLE_DAMAGE = 1 << 3;
+    private static final byte SURVIVES_LETHAL = 1 << 4;
+
+    private static final Map<String, Byte> FLAG_BITS = Map.of(
+            "status_silenced", SILENCED,
+            "canAttackAgainThisTurn", CAN_ATTACK_AGAIN,
+            "double_damage_this_attack", DOUBLE_DAMAGE,
+            "can_survive_lethal", SURVIVES_LETHAL);
+    private static final Set<String> BUFF_STATS = Set.of("ATK", "DEF", "MAX_LIFE");
+
+    // Pending effect results, OP_* then three operands each.
+    private static final int OP_SET_LIFE = 0;
+    private static final int OP_ADD_BASE = 1;
+    private static final int OP_ADD_TEMP = 2;
+    private static final int OP_DRAW = 3;
+    private static final int PENDING_WIDTH = 4;
+
+    // Per card. Definitions and programs are shared between copies.
+    private final Card[] definitions;
+    private final RolloutProgram[] programs;
+    private final int[] baseAttack;
+    private final int[] baseDefense;
+    private final int[] baseLife;
+    private final int[] life;
+    private final int[] tempAttack;
+    private final int[] tempDefense;
+    private final int[] tempMaxLife;
+    private final byte[] flags;
+
+    // Per player: index 0 is player 1.
+    private final short[][] deck;
+    private final int[] deckTop;
+    private final short[][] hand;
+    private final int[] handSize;
+    private final short[][] field;
+    private final int[] discardCount;
+    private final int[] attacks;
+
+    private int currentPlayer;
+    private int turnNumber;
+    private boolean over;
+    private int winner = NO_WINNER;
+
+    private int[] pending = new int[PENDING_WIDTH * 16];
+    private int pendingSize;
+
+    private RolloutState(Card[] definitions, RolloutProgram[] programs, int[] deckSizes) {
+        int cards = definitions.length;
+        this.definitions = definitions;
+        this.programs = programs;
+        this.baseAttack = new int[cards];
+        this.baseDefense = new int[cards];
+        this.baseLife = new int[cards];
+        this.life = new int[cards];
+        this.tempAttack = new int[cards];
+        this.tempDefense = new int[cards];
+        this.tempMaxLife = new int[cards];
+        this.flags = new byte[cards];
+        this.deck = new short[][] { new short[deckSizes[0]], new short[deckSizes[1]] };
+        this.deckTop = new int[2];
+        this.hand = new short[2][Player.MAX_HAND_SIZE];
+        this.handSize = new int[2];
+        this.field = new short[2][Player.MAX_FIELD_SIZE];
+        this.discardCount = new int[2];
+        this.attacks = new int[2];
+    }
+
+    private RolloutState(RolloutState other) {
+        this.definitions = other.definitions;
+        this.programs = other.programs;
+        this.baseAttack = other.baseAttack.clone();
+        this.baseDefense = other.baseDefense.clone();
+        this.baseLife = other.baseLife.clone();
+        this.life = other.life.clone();
+        this.tempAttack = other.tempAttack.clone();
+        this.tempDefense = other.tempDefense.clone();
+        this.tempMaxLife = other.tempMaxLife.clone();
+        this.flags = other.flags.clone();
+        this.deck = new short[][] { other.deck[0].clone(), other.deck[1].clone() };
+        this.deckTop = other.deckTop.clone();
+        this.hand = new short[][] { other.hand[0].clone(), other.hand[1].clone() };
+        this.handSize = other.handSize.clone();
+        this.field = new short[][] { other.field[0].clone(), other.field[1].clone() };
+        this.discardCount = other.discardCount.clone();
+        this.attacks = other.attacks.clone();
+        this.currentPlayer = other.currentPlayer;
+        this.turnNumber = other.turnNumber;
+        this.over = other.over;
+        this.winner = other.winner;
+    }
+
+    /**
+     * @return the rollout copy of {@code game}, or null if the position uses
+     *         anything the rollout rules don't model (unsupported effects,
+     *         auras, scheduled actions, cards in limbo, ...).
+     */
+    public static RolloutState fromGame(Game game) {
+        Player p1 = game.getPlayer1();
+        Player p2 = game.getPlayer2();
+        if (p1 == null || p2 == null || game.getCurrentPlayer() == null
+                || !game.getCardsInLimbo().isEmpty() || !game.getGameFlags().isEmpty()) {
+            return null;
+        }
+        Player[] players = { p1, p2 };
+
+        List<CardInstance> instances = new ArrayList<>();
+        int[] deckSizes = new int[2];
+        for (int p = 0; p < 2; p++) {
+            List<CardInstance> deckCards = players[p].getDeck().getCards();
+            deckSizes[p] = players[p].getDeck().size();
+            if (players[p].getHandInternal().size() > Player.MAX_HAND_SIZE) {
+                return null;
+            }
+            if (deckCards != null) {
+                instances.addAll(deckCards);
+            }
+            instances.addAll(players[p].getHandInternal());
+            for (CardInstance card : players[p].getFieldInternal()) {
+                if (card != null) {
+                    instances.add(card);
+                }
+            }
+        }
+        if (instances.size() > Short.MAX_VALUE) {
+            return null;
+        }
+
+        Card[] definitions = new Card[instances.size()];
+        RolloutProgram[] programs = new RolloutProgram[instances.size()];
+        for (int i = 0; i < instances.size(); i++) {
+            definitions[i] = instances.get(i).getDefinition();
+            programs[i] = RolloutProgram.compile(game.getCatalog().effectsOf(definitions[i]));
+            if (programs[i] == null) {
+                return null;
+            }
+        }
+
+        RolloutState state = new RolloutState(definitions, programs, deckSizes);
+        for (int i = 0; i < instances.size(); i++) {
+            if (!state.loadCard(i, instances.get(i))) {
+                return null;
+            }
+        }
+
+        short next = 0;
+        for (int p = 0; p < 2; p++) {
+            for (int i = 0; i < deckSizes[p]; i++) {
+                state.deck[p][i] = next++;
+            }
+            state.handSize[p] = players[p].getHandInternal().size();
+            for (int i = 0; i < state.handSize[p]; i++) {
+                state.hand[p][i] = next++;
+            }
+            for (int slot = 0; slot < Player.MAX_FIELD_SIZE; slot++) {
+                state.field[p][slot] = players[p].getFieldInternal().get(slot) != null ? next++ : EMPTY;
+            }
+            state.discardCount[p] = players[p].getDiscardPile().size();
+            state.attacks[p] = players[p].getAttacksDeclaredThisTurn();
+        }
+
+        state.currentPlayer = game.getCurrentPlayer().getPlayerId().equals(p1.getPlayerId()) ? 0 : 1;
+        state.turnNumber = game.getTurnNumber();
+        switch (game.getGameState()) {
+            case GAME_OVER_PLAYER_1_WINS -> state.finish(0);
+            case GAME_OVER_PLAYER_2_WINS -> state.finish(1);
+            case GAME_OVER_DRAW -> state.finish(NO_WINNER);
+            default -> {
+            }
+        }
+        return state;
+    }
+
+    private boolean loadCard(int index, CardInstance card) {
+        if (!card.auraStatBuffs.isEmpty() || card.hasScheduledActions()
+                || !BUFF_STATS.containsAll(card.temporaryStatBuffs.keySet())) {
+            return false;
+        }
+        byte bits = card.isExhausted() ? EXHAUSTED : 0;
+        for (Map.Entry<String, Object> flag : card.getAllEffectFlags().entrySet()) {
+            Byte bit = FLAG_BITS.get(flag.getKey());
+            if (bit == null || !(flag.getValue() instanceof Boolean value)) {
+                return false;
+            }
+            if (value) {
+                bits |= bit;
+            }
+        }
+        flags[index] = bits;
+        baseAttack[index] = card.getBaseAttack();
+        baseDefense[index] = card.getBaseDefense();
+        baseLife[index] = card.getBaseLife();
+        life[index] = card.getCurrentLife();
+        tempAttack[index] = card.temporaryStatBuffs.getOrDefault("ATK", 0);
+        tempDefense[index] = card.temporaryStatBuffs.getOrDefault("DEF", 0);
+        tempMaxLife[index] = card.temporaryStatBuffs.getOrDefault("MAX_LIFE", 0);
+        return true;
+    }
+
+    public RolloutState copy() {
+        return new RolloutState(this);
+    }
+
+    // --- Moves ---
+
+    public static int playMove(int handIndex, int fieldSlot) {
+        return (KIND_PLAY << 8) | (handIndex << 4) | fieldSlot;
+    }
+
+    public static int attackMove(int attackerSlot, int defenderSlot) {
+        return (KIND_ATTACK << 8) | (attackerSlot << 4) | defenderSlot;
+    }
+
+    /**
+     * Converts a move of this state's current player back to an engine
+     * command.
+     */
+    public static GameCommand toCommand(int move, String gameId, String playerId) {
+        int a = (move >> 4) & 0xF;
+        int b = move & 0xF;
+        return switch (move >> 8) {
+            case KIND_PLAY -> new PlayCardCommand(gameId, playerId, a, b);
+            case KIND_ATTACK -> new AttackCommand(gameId, playerId, a, b);
+            default -> new EndTurnCommand(gameId, playerId);
+        };
+    }
+
+    /**
+     * Writes every legal move for the current player into {@code out}, which
+     * must hold at least {@link #MAX_MOVES} entries. Ending the turn is always
+     * last.
+     *
+     * @return the number of moves written.
+     */
+    public int legalMoves(int[] out) {
+        if (over) {
+            return 0;
+        }
+        int count = 0;
+        int self = currentPlayer;
+        int opponent = 1 - self;
+        for (int h = 0; h < handSize[self]; h++) {
+            if (!definitions[hand[self][h]].isDirectlyPlayable()) {
+                continue;
+            }
+            for (int slot = 0; slot < Player.MAX_FIELD_SIZE; slot++) {
+                if (field[self][slot] == EMPTY) {
+                    out[count++] = playMove(h, slot);
+                }
+            }
+        }
+        for (int a = 0; a < Player.MAX_FIELD_SIZE; a++) {
+            int attacker = field[self][a];
+            if (attacker == EMPTY || !canAttack(attacker)) {
+                continue;
+            }
+            for (int d = 0; d < Player.MAX_FIELD_SIZE; d++) {
+                if (field[opponent][d] != EMPTY) {
+                    out[count++] = attackMove(a, d);
+                }
+            }
+        }
+        out[count++] = MOVE_END_TURN;
+        return count;
+    }
+
+    /**
+     * @return false if the move isn't legal, in which case nothing changed.
+     */
+    public boolean apply(int move) {
+        int a = (move >> 4) & 0xF;
+        int b = move & 0xF;
+        return switch (move >> 8) {
+            case KIND_PLAY -> playCard(a, b);
+            case KIND_ATTACK -> attack(a, b);
+            default -> endTurn();
+        };
+    }
+
+    public boolean playCard(int handIndex, int fieldSlot) {
+        int self = currentPlayer;
+        if (over || handIndex < 0 || handIndex >= handSize[self] || fieldSlot < 0
+                || fieldSlot >= Player.MAX_FIELD_SIZE || field[self][fieldSlot] != EMPTY) {
+            return false;
+        }
+        short card = hand[self][handIndex];
+        if (!definitions[card].isDirectlyPlayable()) {
+            return false;
+        }
+
+        System.arraycopy(hand[self], handIndex + 1, hand[self], handIndex, handSize[self] - handIndex - 1);
+        handSize[self]--;
+        field[self][fieldSlot] = card;
+        flags[card] |= EXHAUSTED;
+
+        if (!hasFlag(card, SILENCED)) {
+            queueEffects(card, self, programs[card].onPlay);
+        }
+        applyPending();
+        resolveDeaths();
+        return true;
+    }
+
+    public boolean attack(int attackerSlot, int defenderSlot) {
+        int self = currentPlayer;
+        int opponent = 1 - self;
+        if (over || attackerSlot < 0 || attackerSlot >= Player.MAX_FIELD_SIZE || defenderSlot < 0
+                || defenderSlot >= Player.MAX_FIELD_SIZE) {
+            return false;
+        }
+        int attacker = field[self][attackerSlot];
+        int defender = field[opponent][defenderSlot];
+        if (attacker == EMPTY || defender == EMPTY || !canAttack(attacker)) {
+            return false;
+        }
+
+        flags[attacker] &= ~CAN_ATTACK_AGAIN;
+        attacks[self]++;
+        flags[attacker] |= EXHAUSTED;
+
+        // Like the engine, an attack involving a card at 0 life (kept alive
+        // by can_survive_lethal) fizzles after being declared.
+        if (life[attacker] > 0 && life[defender] > 0) {
+            int power = currentAttack(attacker);
+            if (hasFlag(attacker, DOUBLE_DAMAGE)) {
+                power *= 2;
+                flags[attacker] &= ~DOUBLE_DAMAGE;
+            }
+            int damage = Math.max(0, power - currentDefense(defender));
+            setLife(defender, Math.max(0, life[defender] - damage));
+        }
+        resolveDeaths();
+        return true;
+    }
+
+    public boolean endTurn() {
+        if (over) {
+            return false;
+        }
+        int ending = currentPlayer;
+        int next = 1 - ending;
+
+        for (int slot = 0; slot < Player.MAX_FIELD_SIZE; slot++) {
+            int card = field[ending][slot];
+            if (card != EMPTY && !hasFlag(card, SILENCED)) {
+                queueEffects(card, ending, programs[card].endOfTurn);
+            }
+        }
+        // The engine decides the draw before applying the end-of-turn effects.
+        boolean deckEmpty = deckSize(next) == 0;
+        boolean handFull = handSize[next] >= Player.MAX_HAND_SIZE;
+
+        applyPending();
+
+        if (deckEmpty) {
+            finish(ending);
+        } else {
+            turnNumber++;
+            currentPlayer = next;
+            startOfTurnReset(next);
+            if (!handFull) {
+                drawCard(next);
+            }
+        }
+        resolveDeaths();
+        return true;
+    }
+
+    /**
+     * Plays uniformly random legal moves until the game ends or
+     * {@code maxTurns} more turns have started.
+     *
+     * @return the winning player's index (0 or 1), or {@link #NO_WINNER}.
+     */
+    public int playout(SplittableRandom random, int maxTurns) {
+        int[] moves = new int[MAX_MOVES];
+        int lastTurn = turnNumber + maxTurns;
+        while (!over && turnNumber <= lastTurn) {
+            int count = legalMoves(moves);
+            apply(moves[random.nextInt(count)]);
+        }
+        return over ? winner : NO_WINNER;
+    }
+
+    // --- Queries ---
+
+    public boolean isOver() {
+        return over;
+    }
+
+    public int getWinner() {
+        return winner;
+    }
+
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public int getTurnNumber() {
+        return turnNumber;
+    }
+
+    public int deckSize(int player) {
+        return deck[player].length - deckTop[player];
+    }
+
+    public int handSize(int player) {
+        return handSize[player];
+    }
+
+    public int fieldCount(int player) {
+        int count = 0;
+        for (short card : field[player]) {
+            if (card != EMPTY) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A canonical text form of the position. Two states (or a state and
+     * {@code fromGame} of a live game) are equivalent exactly when their
+     * signatures are equal. Meant for tests and debugging, not hot paths.
+     */
+    public String signature() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("turn=").append(turnNumber).append(" current=").append(currentPlayer);
+        if (over) {
+            sb.append(" over winner=").append(winner);
+        }
+        for (int p = 0; p < 2; p++) {
+            sb.append("\nP").append(p + 1).append(" attacks=").append(attacks[p])
+                    .append(" discard=").append(discardCount[p]).append("\n deck:");
+            for (int i = deckTop[p]; i < deck[p].length; i++) {
+                appendCard(sb.append(' '), deck[p][i]);
+            }
+            sb.append("\n hand:");
+            for (int i = 0; i < handSize[p]; i++) {
+                appendCard(sb.append(' '), hand[p][i]);
+            }
+            sb.append("\n field:");
+            for (short card : field[p]) {
+                sb.append(' ');
+                if (card == EMPTY) {
+                    sb.append('-');
+                } else {
+                    appendCard(sb, card);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private void appendCard(StringBuilder sb, int card) {
+        sb.append(definitions[card].getCardId()).append('[')
+                .append(baseAttack[card]).append('/').append(baseDefense[card]).append('/')
+                .append(life[card]).append(" of ").append(baseLife[card]);
+        if (tempAttack[card] != 0 || tempDefense[card] != 0 || tempMaxLife[card] != 0) {
+            sb.append(" temp ").append(tempAttack[card]).append('/').append(tempDefense[card]).append('/')
+                    .append(tempMaxLife[card]);
+        }
+        if (flags[card] != 0) {
+            sb.append(" flags ").append(Integer.toBinaryString(flags[card]));
+        }
+        sb.append(']');
+    }
+
+    @Override
+    public String toString() {
+        return "RolloutState{turn=" + turnNumber + ", current=" + currentPlayer + ", over=" + over + '}';
+    }
+
+    // --- Rules ---
+
+    private boolean canAttack(int card) {
+        return hasFlag(card, CAN_ATTACK_AGAIN)
+                || (!hasFlag(card, EXHAUSTED) && attacks[currentPlayer] < Player.MAX_ATTACKS_PER_TURN);
+    }
+
+    private boolean hasFlag(int card, byte flag) {
+        return (flags[card] & flag) != 0;
+    }
+
+    private int currentAttack(int card) {
+        return Math.max(0, baseAttack[card] + tempAttack[card]);
+    }
+
+    private int currentDefense(int card) {
+        return Math.max(0, baseDefense[card] + tempDefense[card]);
+    }
+
+    private int maxLife(int card) {
+        return baseLife[card] + tempMaxLife[card];
+    }
+
+    private void setLife(int card, int value) {
+        life[card] = Math.max(0, Math.min(maxLife(card), value));
+    }
+
+    private boolean isDead(int card) {
+        if (hasFlag(card, SURVIVES_LETHAL)) {
+            return life[card] + currentDefense(card) <= 0;
+        }
+        return life[card] <= 0;
+    }
+
+    private void finish(int winningPlayer) {
+        over = true;
+        winner = winningPlayer;
+    }
+
+    private void startOfTurnReset(int player) {
+        attacks[player] = 0;
+        for (short card : field[player]) {
+            if (card != EMPTY) {
+                flags[card] &= ~(EXHAUSTED | CAN_ATTACK_AGAIN);
+                tempAttack[card] = 0;
+                tempDefense[card] = 0;
+                tempMaxLife[card] = 0;
+            }
+        }
+    }
+
+    private void drawCard(int player) {
+        if (deckSize(player) == 0) {
+            return;
+        }
+        short card = deck[player][deckTop[player]++];
+        if (handSize[player] < Player.MAX_HAND_SIZE) {
+            hand[player][handSize[player]++] = card;
+        } else {
+            discardCount[player]++;
+        }
+    }
+
+    private void resolveDeaths() {
+        // Removing a card never changes whether another one is dead, so this
+        // matches the engine destroying them all in one batch.
+        for (int p = 0; p < 2; p++) {
+            for (int slot = 0; slot < Player.MAX_FIELD_SIZE; slot++) {
+                int card = field[p][slot];
+                if (card != EMPTY && isDead(card)) {
+                    field[p][slot] = EMPTY;
+                    discardCount[p]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the results of {@code ops} for {@code source} against the
+     * current state, without applying them.
+     */
+    private void queueEffects(int source, int owner, int[] ops) {
+        for (int i = 0; i < ops.length; i += RolloutProgram.OP_WIDTH) {
+            int action = ops[i];
+            int selector = ops[i + 1];
+            int stat = ops[i + 2];
+            int amount = ops[i + 3];
+            boolean permanent = ops[i + 4] != 0;
+
+            if (action == RolloutProgram.ACT_DRAW) {
+                int draws = Math.min(amount, deckSize(owner));
+                for (int d = 0; d < draws; d++) {
+                    queue(OP_DRAW, owner, 0, 0);
+                }
+                continue;
+            }
+            if ((action == RolloutProgram.ACT_DAMAGE || action == RolloutProgram.ACT_HEAL) && amount <= 0) {
+                continue;
+            }
+
+            switch (selector) {
+                case RolloutProgram.SEL_SELF -> queueOnTarget(source, action, stat, amount, permanent);
+                case RolloutProgram.SEL_ALL_ENEMY -> queueOnField(1 - owner, action, stat, amount, permanent);
+                case RolloutProgram.SEL_ALL_FRIENDLY -> queueOnField(owner, action, stat, amount, permanent);
+                default -> {
+                    queueOnField(owner, action, stat, amount, permanent);
+                    queueOnField(1 - owner, action, stat, amount, permanent);
+                }
+            }
+        }
+    }
+
+    private void queueOnField(int player, int action, int stat, int amount, boolean permanent) {
+        for (short card : field[player]) {
+            if (card != EMPTY) {
+                queueOnTarget(card, action, stat, amount, permanent);
+            }
+        }
+    }
+
+    private void queueOnTarget(int target, int action, int stat, int amount, boolean permanent) {
+        if (life[target] <= 0) {
+            return; // Target selection skips destroyed cards.
+        }
+        switch (action) {
+            case RolloutProgram.ACT_DAMAGE -> {
+                int damage = Math.max(0, amount - currentDefense(target));
+                queue(OP_SET_LIFE, target, Math.max(0, life[target] - damage), 0);
+            }
+            case RolloutProgram.ACT_HEAL -> queue(OP_SET_LIFE, target, Math.min(maxLife(target), life[target] + amount), 0);
+            default -> {
+                int delta = action == RolloutProgram.ACT_DEBUFF ? -Math.abs(amount) : Math.abs(amount);
+                queue(permanent ? OP_ADD_BASE : OP_ADD_TEMP, target, stat, delta);
+            }
+        }
+    }
+
+    private void queue(int op, int subject, int arg1, int arg2) {
+        if (pendingSize + PENDING_WIDTH > pending.length) {
+            pending = Arrays.copyOf(pending, pending.length * 2);
+        }
+        pending[pendingSize++] = op;
+        pending[pendingSize++] = subject;
+        pending[pendingSize++] = arg1;
+        pending[pendingSize++] = arg2;
+    }
+
+    private void applyPending() {
+        for (int i = 0; i < pendingSize; i += PENDING_WIDTH) {
+            int subject = pending[i + 1];
+            int arg1 = pending[i + 2];
+            int arg2 = pending[i + 3];
+            switch (pending[i]) {
+                case OP_SET_LIFE -> setLife(subject, arg1);
+                case OP_ADD_BASE -> addBase(subject, arg1, arg2);
+                case OP_ADD_TEMP -> {
+                    switch (arg1) {
+                        case RolloutProgram.STAT_ATK -> tempAttack[subject] += arg2;
+                        case RolloutProgram.STAT_DEF -> tempDefense[subject] += arg2;
+                        default -> tempMaxLife[subject] += arg2;
+                    }
+                }
+                default -> drawCard(subject);
+            }
+        }
+        pendingSize = 0;
+    }
+
+    private void addBase(int card, int stat, int delta) {
+        switch (stat) {
+            case RolloutProgram.STAT_ATK -> baseAttack[card] = Math.max(0, baseAttack[card] + delta);
+            case RolloutProgram.STAT_DEF -> baseDefense[card] = Math.max(0, baseDefense[card] + delta);
+            default -> {
+                baseLife[card] = Math.max(0, baseLife[card] + delta);
+                // A permanent MAX_LIFE buff also heals by the same amount.
+                if (delta > 0) {
+                    life[card] = Math.min(maxLife(card), life[card] + delta);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.jamestiago.capycards.game.ai.tuning;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.ai.BoardFeatures;
+import com.jamestiago.capycards.game.ai.EvaluationWeights;
+import com.jamestiago.capycards.game.ai.GreedyPolicy;
+import com.jamestiago.capycards.game.ai.HeadlessMatch;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.service.CardDefinitionLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Offline tuner for {@link EvaluationWeights}. Runs a (1+1) hill climb: each
+ * iteration perturbs one weight and keeps the candidate if it beats the current
+ * weights in a self-play match (seats alternate, games run in parallel).
+ *
+ * <pre>
+ * mvn -q compile exec:java -Dexec.mainClass=com.jamestiago.capycards.game.ai.tuning.SelfPlayTuner \
+ *     -Dexec.args="[iterations] [gamesPerMatch] [outputFile] [seed]"
+ * </pre>
+ *
+ * The default output path is the resource the evaluator loads at startup.
+ */
+public class SelfPlayTuner {
+    private static final Logger logger = LoggerFactory.getLogger(SelfPlayTuner.class);
+    private static final double ACCEPT_WIN_RATE = 0.55;
+
+    private final GameEngine engine = new GameEngine();
+    private final List<Card> cardPool;
+    private final int gamesPerMatch;
+    private final Random random;
+
+    public SelfPlayTuner(List<Card> cardPool, int gamesPerMatch, long seed) {
+        this.cardPool = cardPool;
+        this.gamesPerMatch = gamesPerMatch;
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        int gamesPerMatch = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        Path output = Path.of(args.length > 2 ? args[2] : "src/main/resources/" + EvaluationWeights.RESOURCE);
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+
+        List<Card> cardPool = new CardDefinitionLoader(new ObjectMapper()).loadAll();
+        SelfPlayTuner tuner = new SelfPlayTuner(cardPool, gamesPerMatch, seed);
+        EvaluationWeights tuned = tuner.tune(EvaluationWeights.defaults(), iterations);
+
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try (OutputStream out = Files.newOutputStream(output)) {
+            tuned.toProperties().store(out, "Board evaluation weights produced by SelfPlayTuner (seed " + seed + ")");
+        }
+        logger.info("Wrote tuned weights to {}: {}", output, tuned);
+    }
+
+    public EvaluationWeights tune(EvaluationWeights start, int iterations) {
+        EvaluationWeights current = start;
+        for (int iteration = 1; iteration <= iterations; iteration++) {
+            int feature = random.nextInt(BoardFeatures.COUNT);
+            double value = current.get(feature);
+            double step = Math.max(Math.abs(value) * 0.25, 0.5) * (random.nextBoolean() ? 1 : -1);
+            EvaluationWeights candidate = current.with(feature, value + step);
+
+            double winRate = winRate(candidate, current, random.nextLong());
+            boolean accepted = winRate > ACCEPT_WIN_RATE;
+            logger.info("Iteration {}/{}: feature {} {} -> {} scored {}. {}", iteration, iterations, feature,
+                    value, value + step, String.format("%.3f", winRate), accepted ? "Accepted." : "Rejected.");
+            if (accepted) {
+                current = candidate;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @return the fraction of decisive games won by {@code challenger}; draws
+     *         count as half a win.
+     */
+    public double winRate(EvaluationWeights challenger, EvaluationWeights incumbent, long matchSeed) {
+        GreedyPolicy challengerPolicy = new GreedyPolicy(engine, challenger);
+        GreedyPolicy incumbentPolicy = new GreedyPolicy(engine, incumbent);
+
+        double points = IntStream.range(0, gamesPerMatch).parallel().mapToDouble(gameIndex -> {
+            Random gameRandom = new Random(matchSeed + gameIndex);
+            Game game = HeadlessMatch.newGame(cardPool, gameRandom);
+            boolean challengerIsPlayer1 = gameIndex % 2 == 0;
+            HeadlessMatch.Result result = challengerIsPlayer1
+                    ? HeadlessMatch.play(engine, game, challengerPolicy, incumbentPolicy)
+                    : HeadlessMatch.play(engine, game, incumbentPolicy, challengerPolicy);
+            if (result.isDraw()) {
+                return 0.5;
+            }
+            String challengerId = challengerIsPlayer1 ? game.getPlayer1().getPlayerId()
+                    : game.getPlayer2().getPlayerId();
+            return result.winnerPlayerId().equals(challengerId) ? 1.0 : 0.0;
+        }).sum();
+        return points / gamesPerMatch;
+    }
+}
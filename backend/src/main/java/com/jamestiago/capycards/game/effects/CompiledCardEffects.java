@@ -0,0 +1,218 @@
+package com.jamestiago.capycards.game.effects;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.model.Card;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The parsed form of a card's effectConfiguration plus metadata derived from
+ * it. Instances are immutable. Each {@link com.jamestiago.capycards.game.CardCatalog}
+ * compiles its cards once and hands the result out through
+ * {@code effectsOf}, so {@link #of(String)} parses on every call.
+ */
+public final class CompiledCardEffects {
+    private static final Logger logger = LoggerFactory.getLogger(CompiledCardEffects.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static final CompiledCardEffects EMPTY = new CompiledCardEffects(List.of(), false);
+
+    // Selectors TargetResolver understands. None of them reads a field slot index.
+    private static final Set<String> KNOWN_TARGET_SELECTORS = Set.of(
+            "SELF", "ALL_ENEMY_CARDS_ON_FIELD", "ALL_FRIENDLY_CARDS_ON_FIELD", "ALL_FRIENDLY_CARDS_IN_DECK",
+            "RANDOM_FRIENDLY_CARD_ON_FIELD", "RANDOM_FRIENDLY_CARD_IN_DECK", "FRIENDLY_CARD_WITH_ID",
+            "ENEMY_CARD_WITH_ID", "ALL_CARDS_ON_FIELD", "ALL_NON_CAPYBARA_CARDS_ON_FIELD", "EVENT_SOURCE",
+            "EVENT_TARGET", "ACTIVATION_CONTEXT_TARGET");
+
+    private final List<Map<String, Object>> configs;
+    private final Set<EffectTrigger> triggers;
+    private final Set<String> actions;
+    private final List<Map<String, Object>> activatedAbilities;
+    private final Set<String> referencedCardIds;
+    private final boolean positionDependent;
+
+    private CompiledCardEffects(List<Map<String, Object>> configs, boolean forcePositionDependent) {
+        this.configs = configs;
+
+        Set<EffectTrigger> triggerSet = EnumSet.noneOf(EffectTrigger.class);
+        List<Map<String, Object>> activated = new ArrayList<>();
+        for (Map<String, Object> config : configs) {
+            Object trigger = config.get("trigger");
+            if (trigger instanceof String name) {
+                try {
+                    EffectTrigger effectTrigger = EffectTrigger.valueOf(name.toUpperCase());
+                    triggerSet.add(effectTrigger);
+                    if (effectTrigger == EffectTrigger.ACTIVATED) {
+                        activated.add(config);
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Unknown triggers never fire; nothing to record.
+                }
+            }
+        }
+        this.triggers = Collections.unmodifiableSet(triggerSet);
+        this.activatedAbilities = List.copyOf(activated);
+
+        Set<String> actionNames = new HashSet<>();
+        Set<String> cardIds = new HashSet<>();
+        boolean[] dependent = { forcePositionDependent };
+        for (Map<String, Object> config : configs) {
+            scan(config, actionNames, cardIds, dependent);
+        }
+        this.actions = Set.copyOf(actionNames);
+        this.referencedCardIds = Set.copyOf(cardIds);
+        this.positionDependent = dependent[0];
+    }
+
+    public static CompiledCardEffects of(Card card) {
+        return card == null ? EMPTY : of(card.getEffectConfiguration());
+    }
+
+    public static CompiledCardEffects of(String effectConfiguration) {
+        if (effectConfiguration == null || effectConfiguration.isBlank()) {
+            return EMPTY;
+        }
+        return compile(effectConfiguration);
+    }
+
+    private static CompiledCardEffects compile(String json) {
+        try {
+            List<Map<String, Object>> parsed = objectMapper.readValue(json, new TypeReference<>() {
+            });
+            List<Map<String, Object>> frozen = new ArrayList<>(parsed.size());
+            for (Map<String, Object> config : parsed) {
+                frozen.add(freezeMap(config));
+            }
+            return new CompiledCardEffects(List.copyOf(frozen), false);
+        } catch (IOException e) {
+            logger.error("Failed to parse effectConfiguration: {}", e.getMessage());
+            // We can't reason about an unparseable card, so treat it as position dependent.
+            return new CompiledCardEffects(List.of(), true);
+        }
+    }
+
+    /** The effect configs, deeply unmodifiable so they can be shared between games. */
+    public List<Map<String, Object>> getConfigs() {
+        return configs;
+    }
+
+    public Set<EffectTrigger> getTriggers() {
+        return triggers;
+    }
+
+    public boolean hasTrigger(EffectTrigger trigger) {
+        return triggers.contains(trigger);
+    }
+
+    /** Action names used anywhere in the configuration, including nested effects. */
+    public Set<String> getActions() {
+        return actions;
+    }
+
+    public List<Map<String, Object>> getActivatedAbilities() {
+        return activatedAbilities;
+    }
+
+    /**
+     * Card ids named by the configuration (e.g. the context of a
+     * {@code FRIENDLY_CARD_WITH_ID} selector). Those selectors pick the first
+     * match in field order, so copies of these cards are not interchangeable.
+     */
+    public Set<String> getReferencedCardIds() {
+        return referencedCardIds;
+    }
+
+    /**
+     * True if the outcome of this card's effects may depend on which field slot
+     * a card occupies: unknown selectors or actions, or an explicit
+     * {@code "positionDependent": true} in the configuration.
+     */
+    public boolean isPositionDependent() {
+        return positionDependent;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void scan(Object node, Set<String> actionNames, Set<String> cardIds, boolean[] dependent) {
+        if (node instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                String key = String.valueOf(entry.getKey());
+                Object value = entry.getValue();
+                switch (key) {
+                    case "action" -> {
+                        if (value instanceof String action) {
+                            String upper = action.toUpperCase();
+                            actionNames.add(upper);
+                            if (!isKnownAction(upper) || upper.equals(EffectActionType.CUSTOM_LOGIC.name())) {
+                                dependent[0] = true;
+                            }
+                        }
+                    }
+                    case "targets" -> {
+                        if (value instanceof String selector
+                                && !KNOWN_TARGET_SELECTORS.contains(selector.toUpperCase())) {
+                            dependent[0] = true;
+                        }
+                    }
+                    case "cardId", "newCardId" -> {
+                        if (value instanceof String cardId) {
+                            cardIds.add(cardId);
+                        }
+                    }
+                    case "positionDependent" -> {
+                        if (Boolean.TRUE.equals(value)) {
+                            dependent[0] = true;
+                        }
+                    }
+                    default -> {
+                    }
+                }
+                scan(value, actionNames, cardIds, dependent);
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object item : list) {
+                scan(item, actionNames, cardIds, dependent);
+            }
+        }
+    }
+
+    private static boolean isKnownAction(String action) {
+        try {
+            EffectActionType.valueOf(action);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object freeze(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return freezeMap((Map<String, Object>) map);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object item : list) {
+                copy.add(freeze(item));
+            }
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+    private static Map<String, Object> freezeMap(Map<String, Object> map) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        map.forEach((key, value) -> copy.put(key, freeze(value)));
+        return Collections.unmodifiableMap(copy);
+    }
+}
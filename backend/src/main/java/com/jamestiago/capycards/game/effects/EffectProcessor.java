@@ -2,8 +2,6 @@
 
 package com.jamestiago.capycards.game.effects;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jamestiago.capycards.game.dto.CardInstanceDTO;
 import com.jamestiago.capycards.game.CardInstance;
 import com.jamestiago.capycards.game.Game;
@@ -12,7 +10,6 @@ import com.jamestiago.capycards.game.Player;
 import com.jamestiago.capycards.game.events.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -21,7 +18,6 @@ import java.util.Random;
 
 public class EffectProcessor {
     private static final Logger logger = LoggerFactory.getLogger(EffectProcessor.class);
-    private final ObjectMapper objectMapper = new ObjectMapper();
     private static final Random random = new Random(); // Add the static Random instance
 
     public EffectProcessor() {
@@ -38,38 +34,30 @@ public class EffectProcessor {
             return generatedEvents;
         }
 
-        String jsonConfig = sourceCard.getDefinition().getEffectConfiguration();
-        if (jsonConfig == null || jsonConfig.trim().isEmpty() || jsonConfig.trim().equals("[]")) {
+        CompiledCardEffects compiled = game.getCatalog().effectsOf(sourceCard.getDefinition());
+        if (!compiled.hasTrigger(triggerType)) {
             return generatedEvents;
         }
 
-        try {
-            List<Map<String, Object>> effectConfigs = objectMapper.readValue(jsonConfig, new TypeReference<>() {
-            });
+        for (Map<String, Object> effectConfig : compiled.getConfigs()) {
+            triggerContext.put("triggerType", triggerType);
+            String configTrigger = (String) effectConfig.get("trigger");
 
-            for (Map<String, Object> effectConfig : effectConfigs) {
-                triggerContext.put("triggerType", triggerType);
-                String configTrigger = (String) effectConfig.get("trigger");
+            if (configTrigger == null || !triggerType.name().equalsIgnoreCase(configTrigger)) {
+                continue;
+            }
 
-                if (configTrigger == null || !triggerType.name().equalsIgnoreCase(configTrigger)) {
+            if (triggerType == EffectTrigger.ACTIVATED) {
+                Integer expectedIndex = (Integer) effectConfig.get("abilityOptionIndex");
+                Integer actualIndex = (Integer) triggerContext.get("abilityOptionIndex");
+                if (expectedIndex != null && !expectedIndex.equals(actualIndex)) {
                     continue;
                 }
+            }
 
-                if (triggerType == EffectTrigger.ACTIVATED) {
-                    Integer expectedIndex = (Integer) effectConfig.get("abilityOptionIndex");
-                    Integer actualIndex = (Integer) triggerContext.get("abilityOptionIndex");
-                    if (expectedIndex != null && !expectedIndex.equals(actualIndex)) {
-                        continue;
-                    }
-                }
-
-                if (checkCondition(game, effectConfig, sourceCard, sourceOwner, triggerContext)) {
-                    generatedEvents.addAll(executeAction(game, effectConfig, sourceCard, sourceOwner, triggerContext));
-                }
+            if (checkCondition(game, effectConfig, sourceCard, sourceOwner, triggerContext)) {
+                generatedEvents.addAll(executeAction(game, effectConfig, sourceCard, sourceOwner, triggerContext));
             }
-        } catch (IOException e) {
-            logger.error("Failed to parse effectConfiguration for card {}: {}", sourceCard.getDefinition().getCardId(),
-                    e.getMessage());
         }
 
         return generatedEvents;
@@ -630,68 +618,58 @@ public class EffectProcessor {
     private int applyOutgoingDamageModifiers(Game game, int currentDamage, CardInstance source, CardInstance target) {
         int modifiedDamage = currentDamage;
         Player sourceOwner = game.getOwnerOfCardInstance(source);
-        String configJson = source.getDefinition().getEffectConfiguration();
-        if (configJson == null || configJson.isBlank())
+        CompiledCardEffects compiled = game.getCatalog().effectsOf(source.getDefinition());
+        if (!compiled.hasTrigger(EffectTrigger.CONTINUOUS_OFFENSIVE))
             return modifiedDamage;
 
-        try {
-            List<Map<String, Object>> effectConfigs = objectMapper.readValue(configJson, new TypeReference<>() {
-            });
-            for (Map<String, Object> config : effectConfigs) {
-                if ("CONTINUOUS_OFFENSIVE".equalsIgnoreCase((String) config.get("trigger"))
-                        && "MODIFY_OUTGOING_DAMAGE".equalsIgnoreCase((String) config.get("action"))) {
-
-                    Map<String, Object> offensiveContext = new HashMap<>();
-                    offensiveContext.put("eventTarget", target); // The card being hit
-                    offensiveContext.put("damageAmount", currentDamage);
-
-                    if (checkCondition(game, config, source, sourceOwner, offensiveContext)) {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> params = (Map<String, Object>) config.get("params");
-                        String mode = (String) params.get("mode");
-                        if ("ADD_FLAT".equalsIgnoreCase(mode)) {
-                            modifiedDamage += (int) params.get("amount");
-                        }
+        for (Map<String, Object> config : compiled.getConfigs()) {
+            if ("CONTINUOUS_OFFENSIVE".equalsIgnoreCase((String) config.get("trigger"))
+                    && "MODIFY_OUTGOING_DAMAGE".equalsIgnoreCase((String) config.get("action"))) {
+
+                Map<String, Object> offensiveContext = new HashMap<>();
+                offensiveContext.put("eventTarget", target); // The card being hit
+                offensiveContext.put("damageAmount", currentDamage);
+
+                if (checkCondition(game, config, source, sourceOwner, offensiveContext)) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> params = (Map<String, Object>) config.get("params");
+                    String mode = (String) params.get("mode");
+                    if ("ADD_FLAT".equalsIgnoreCase(mode)) {
+                        modifiedDamage += (int) params.get("amount");
                     }
                 }
             }
-        } catch (IOException e) {
-            /* ignore */ }
+        }
         return modifiedDamage;
     }
 
     private int applyIncomingDamageModifiers(Game game, int currentDamage, CardInstance source, CardInstance target) {
         int modifiedDamage = currentDamage;
         Player targetOwner = game.getOwnerOfCardInstance(target);
-        String configJson = target.getDefinition().getEffectConfiguration();
-        if (configJson == null || configJson.isBlank())
+        CompiledCardEffects compiled = game.getCatalog().effectsOf(target.getDefinition());
+        if (!compiled.hasTrigger(EffectTrigger.CONTINUOUS_DEFENSIVE))
             return modifiedDamage;
 
-        try {
-            List<Map<String, Object>> effectConfigs = objectMapper.readValue(configJson, new TypeReference<>() {
-            });
-            for (Map<String, Object> config : effectConfigs) {
-                if ("CONTINUOUS_DEFENSIVE".equalsIgnoreCase((String) config.get("trigger"))
-                        && "MODIFY_INCOMING_DAMAGE".equalsIgnoreCase((String) config.get("action"))) {
-                    Map<String, Object> defensiveContext = new HashMap<>();
-                    defensiveContext.put("eventSource", source); // The card dealing the damage
-                    defensiveContext.put("damageAmount", currentDamage);
-                    if (checkCondition(game, config, target, targetOwner, defensiveContext)) {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> params = (Map<String, Object>) config.get("params");
-                        String mode = (String) params.get("mode");
-                        if ("SET_ABSOLUTE".equalsIgnoreCase(mode)) {
-                            modifiedDamage = (int) params.get("amount");
-                        } else if ("REDUCE_BY".equalsIgnoreCase(mode)) {
-                            modifiedDamage -= (int) params.get("amount");
-                        } else if ("ADD_FLAT".equalsIgnoreCase(mode)) {
-                            modifiedDamage += (int) params.get("amount");
-                        }
+        for (Map<String, Object> config : compiled.getConfigs()) {
+            if ("CONTINUOUS_DEFENSIVE".equalsIgnoreCase((String) config.get("trigger"))
+                    && "MODIFY_INCOMING_DAMAGE".equalsIgnoreCase((String) config.get("action"))) {
+                Map<String, Object> defensiveContext = new HashMap<>();
+                defensiveContext.put("eventSource", source); // The card dealing the damage
+                defensiveContext.put("damageAmount", currentDamage);
+                if (checkCondition(game, config, target, targetOwner, defensiveContext)) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> params = (Map<String, Object>) config.get("params");
+                    String mode = (String) params.get("mode");
+                    if ("SET_ABSOLUTE".equalsIgnoreCase(mode)) {
+                        modifiedDamage = (int) params.get("amount");
+                    } else if ("REDUCE_BY".equalsIgnoreCase(mode)) {
+                        modifiedDamage -= (int) params.get("amount");
+                    } else if ("ADD_FLAT".equalsIgnoreCase(mode)) {
+                        modifiedDamage += (int) params.get("amount");
                     }
                 }
             }
-        } catch (IOException e) {
-            /* ignore */ }
+        }
         return modifiedDamage;
     }
 
@@ -0,0 +1,563 @@
+package com.jamestiago.capycards.game.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.dto.CardInstanceDTO;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of {@link GameEvent}s for the event store.
+ * <p>
+ * Layout: format version, event type tag, turn number, the event's timestamp
+ * as a delta from the log record's, then the event's own fields in
+ * constructor order. Ints are zigzag varints. The game id isn't written (the
+ * record is already keyed by it). Strings that are UUIDs are stored as 16
+ * bytes, and a string repeated within an event as a back-reference to its
+ * first occurrence. Cards are stored as a reference (definition id, instance
+ * id and current life), which is all replay needs; anything that shows a
+ * decoded event fills in the rest from the catalog (see {@link #cardsOf}).
+ * <p>
+ * Type tags are part of the format and must never be reused. Bump
+ * {@link #FORMAT_VERSION} for any other layout change.
+ */
+public final class BinaryEventCodec {
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int GAME_STARTED = 1;
+    private static final int TURN_STARTED = 2;
+    private static final int CARD_PLAYED = 3;
+    private static final int ATTACK_DECLARED = 4;
+    private static final int COMBAT_DAMAGE_DEALT = 5;
+    private static final int CARD_STATS_CHANGED = 6;
+    private static final int CARD_HEALED = 7;
+    private static final int CARD_DESTROYED = 8;
+    private static final int TURN_ENDED = 9;
+    private static final int GAME_OVER = 10;
+    private static final int ABILITY_ACTIVATED = 11;
+    private static final int CARD_BUFFED = 12;
+    private static final int CARD_DEBUFFED = 13;
+    private static final int CARD_FLAG_CHANGED = 14;
+    private static final int CARD_TRANSFORMED = 15;
+    private static final int GAME_LOG_MESSAGE = 16;
+    private static final int PLAYER_DREW_CARD = 17;
+    private static final int PLAYER_OVERDREW_CARD = 18;
+    private static final int CARD_VANISHED = 19;
+    private static final int CARD_REAPPEARED = 20;
+    private static final int CARD_STAT_SET = 21;
+    private static final int CARD_ADDED_TO_DECK = 22;
+    private static final int CARD_DRAWN = 23;
+
+    private static final int STRING_NULL = 0;
+    private static final int STRING_BACKREF = 1;
+    private static final int STRING_UUID = 2;
+    private static final int STRING_UTF8 = 3;
+
+    private static final int VALUE_NULL = 0;
+    private static final int VALUE_FALSE = 1;
+    private static final int VALUE_TRUE = 2;
+    private static final int VALUE_INT = 3;
+    private static final int VALUE_LONG = 4;
+    private static final int VALUE_DOUBLE = 5;
+    private static final int VALUE_STRING = 6;
+    private static final int VALUE_JSON = 7;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Field TIMESTAMP_FIELD;
+
+    static {
+        try {
+            // Events are immutable; like Jackson, set the timestamp reflectively
+            // rather than give every event a constructor that takes one.
+            TIMESTAMP_FIELD = GameEvent.class.getDeclaredField("timestamp");
+            TIMESTAMP_FIELD.setAccessible(true);
+        } catch (NoSuchFieldException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private BinaryEventCodec() {
+    }
+
+    /**
+     * @param baseTimestamp the timestamp (epoch millis) of the record the event
+     *                      is stored in; the event's own is written relative to it.
+     */
+    public static byte[] encode(GameEvent event, long baseTimestamp) {
+        Writer out = new Writer();
+        out.varint(FORMAT_VERSION);
+        out.varint(tagOf(event));
+        out.zigzag(event.turnNumber);
+        out.zigzagLong(event.timestamp - baseTimestamp);
+
+        if (event instanceof GameStartedEvent e) {
+            out.string(e.player1Id);
+            out.string(e.player2Id);
+            out.string(e.startingPlayerId);
+        } else if (event instanceof TurnStartedEvent e) {
+            out.string(e.newTurnPlayerId);
+        } else if (event instanceof CardPlayedEvent e) {
+            out.string(e.playerId);
+            out.card(e.card);
+            out.zigzag(e.fromHandIndex);
+            out.zigzag(e.toFieldSlot);
+            out.zigzag(e.newHandSize);
+        } else if (event instanceof AttackDeclaredEvent e) {
+            out.string(e.attackerPlayerId);
+            out.string(e.attackerInstanceId);
+            out.string(e.attackerCardName);
+            out.string(e.defenderInstanceId);
+            out.string(e.defenderCardName);
+        } else if (event instanceof CombatDamageDealtEvent e) {
+            out.string(e.attackerInstanceId);
+            out.string(e.defenderInstanceId);
+            out.string(e.damageType);
+            out.zigzag(e.damageAmount);
+            out.zigzag(e.damageAfterDefense);
+            out.zigzag(e.defenderLifeBefore);
+            out.zigzag(e.defenderLifeAfter);
+        } else if (event instanceof CardStatsChangedEvent e) {
+            out.string(e.targetInstanceId);
+            out.zigzag(e.newAttack);
+            out.zigzag(e.newDefense);
+            out.zigzag(e.newLife);
+            out.string(e.reason);
+        } else if (event instanceof CardHealedEvent e) {
+            out.string(e.targetInstanceId);
+            out.zigzag(e.amount);
+            out.zigzag(e.lifeAfter);
+        } else if (event instanceof CardDestroyedEvent e) {
+            out.card(e.card);
+            out.string(e.ownerPlayerId);
+        } else if (event instanceof TurnEndedEvent e) {
+            out.string(e.endedTurnPlayerId);
+        } else if (event instanceof GameOverEvent e) {
+            out.string(e.winnerPlayerId);
+            out.string(e.reason);
+        } else if (event instanceof AbilityActivatedEvent e) {
+            out.string(e.sourceId);
+            out.string(e.targetId);
+            out.bool(e.abilityIndex != null);
+            if (e.abilityIndex != null) {
+                out.zigzag(e.abilityIndex);
+            }
+        } else if (event instanceof CardBuffedEvent e) {
+            out.string(e.targetInstanceId);
+            out.string(e.stat);
+            out.zigzag(e.amount);
+            out.bool(e.isPermanent);
+            out.zigzag(e.statAfter);
+        } else if (event instanceof CardDebuffedEvent e) {
+            out.string(e.targetInstanceId);
+            out.string(e.stat);
+            out.zigzag(e.amount);
+            out.bool(e.isPermanent);
+            out.zigzag(e.statAfter);
+        } else if (event instanceof CardFlagChangedEvent e) {
+            out.string(e.targetInstanceId);
+            out.string(e.flagName);
+            out.value(e.value);
+            out.string(e.duration);
+        } else if (event instanceof CardTransformedEvent e) {
+            out.string(e.originalInstanceId);
+            out.card(e.newCardDto);
+        } else if (event instanceof GameLogMessageEvent e) {
+            out.string(e.message);
+            out.string(e.level);
+        } else if (event instanceof PlayerDrewCardEvent e) {
+            out.string(e.playerId);
+            out.card(e.card);
+            out.zigzag(e.newHandSize);
+            out.zigzag(e.newDeckSize);
+        } else if (event instanceof PlayerOverdrewCardEvent e) {
+            out.string(e.playerId);
+            out.card(e.discardedCard);
+            out.zigzag(e.newDeckSize);
+            out.zigzag(e.newDiscardPileSize);
+        } else if (event instanceof CardVanishedEvent e) {
+            out.string(e.instanceId);
+            out.string(e.ownerPlayerId);
+        } else if (event instanceof CardReappearedEvent e) {
+            out.card(e.card);
+            out.string(e.ownerPlayerId);
+            out.zigzag(e.toFieldSlot);
+        } else if (event instanceof CardStatSetEvent e) {
+            out.string(e.targetInstanceId);
+            out.string(e.stat);
+            out.zigzag(e.value);
+        } else if (event instanceof CardAddedToDeckEvent e) {
+            out.string(e.playerId);
+            out.card(e.card);
+            out.zigzag(e.newDeckSize);
+            out.string(e.placement);
+        } else if (event instanceof CardDrawnEvent e) {
+            out.string(e.playerId);
+            out.card(e.card);
+            out.zigzag(e.newHandSize);
+        }
+        return out.toByteArray();
+    }
+
+    /** The cards a decoded event carries, without the nulls. */
+    public static List<CardInstanceDTO> cardsOf(GameEvent event) {
+        CardInstanceDTO card = switch (event) {
+            case CardPlayedEvent e -> e.card;
+            case CardDestroyedEvent e -> e.card;
+            case CardTransformedEvent e -> e.newCardDto;
+            case PlayerDrewCardEvent e -> e.card;
+            case PlayerOverdrewCardEvent e -> e.discardedCard;
+            case CardReappearedEvent e -> e.card;
+            case CardAddedToDeckEvent e -> e.card;
+            case CardDrawnEvent e -> e.card;
+            default -> null;
+        };
+        return card == null ? List.of() : List.of(card);
+    }
+
+    /**
+     * Decodes a stored event, falling back to {@code json} for rows written
+     * before the binary encoding.
+     */
+    public static GameEvent decode(GameEventLog log, ObjectMapper json) throws IOException {
+        if (log.getEventPayload() != null) {
+            return decode(log.getEventPayload(), log.getGameId(), log.getEventTimestamp().toEpochMilli());
+        }
+        return json.readValue(log.getEventData(), GameEvent.class);
+    }
+
+    /**
+     * @throws IOException if the payload is truncated, corrupt or from an
+     *                     unknown format version.
+     */
+    public static GameEvent decode(byte[] payload, String gameId, long baseTimestamp) throws IOException {
+        Reader in = new Reader(payload);
+        try {
+            int version = in.varint();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported event format version " + version);
+            }
+            int tag = in.varint();
+            int turn = in.zigzag();
+            long timestamp = baseTimestamp + in.zigzagLong();
+
+            GameEvent event = switch (tag) {
+                case GAME_STARTED -> new GameStartedEvent(gameId, turn, in.string(), in.string(), in.string());
+                // The constructor moves the turn on by one.
+                case TURN_STARTED -> new TurnStartedEvent(gameId, turn - 1, in.string());
+                case CARD_PLAYED -> new CardPlayedEvent(gameId, turn, in.string(), in.card(), in.zigzag(),
+                        in.zigzag(), in.zigzag());
+                case ATTACK_DECLARED -> new AttackDeclaredEvent(gameId, turn, in.string(), in.string(), in.string(),
+                        in.string(), in.string());
+                case COMBAT_DAMAGE_DEALT -> new CombatDamageDealtEvent(gameId, turn, in.string(), in.string(),
+                        in.string(), in.zigzag(), in.zigzag(), in.zigzag(), in.zigzag());
+                case CARD_STATS_CHANGED -> new CardStatsChangedEvent(gameId, turn, in.string(), in.zigzag(),
+                        in.zigzag(), in.zigzag(), in.string());
+                case CARD_HEALED -> new CardHealedEvent(gameId, turn, in.string(), in.zigzag(), in.zigzag());
+                case CARD_DESTROYED -> new CardDestroyedEvent(gameId, turn, in.card(), in.string());
+                case TURN_ENDED -> new TurnEndedEvent(gameId, turn, in.string());
+                case GAME_OVER -> new GameOverEvent(gameId, turn, in.string(), in.string());
+                case ABILITY_ACTIVATED -> new AbilityActivatedEvent(gameId, turn, in.string(), in.string(),
+                        in.bool() ? in.zigzag() : null);
+                case CARD_BUFFED -> new CardBuffedEvent(gameId, turn, in.string(), in.string(), in.zigzag(),
+                        in.bool(), in.zigzag());
+                case CARD_DEBUFFED -> new CardDebuffedEvent(gameId, turn, in.string(), in.string(), in.zigzag(),
+                        in.bool(), in.zigzag());
+                case CARD_FLAG_CHANGED -> new CardFlagChangedEvent(gameId, turn, in.string(), in.string(),
+                        in.value(), in.string());
+                case CARD_TRANSFORMED -> new CardTransformedEvent(gameId, turn, in.string(), in.card());
+                case GAME_LOG_MESSAGE -> new GameLogMessageEvent(gameId, turn, in.string(), in.string());
+                case PLAYER_DREW_CARD -> new PlayerDrewCardEvent(gameId, turn, in.string(), in.card(), in.zigzag(),
+                        in.zigzag());
+                case PLAYER_OVERDREW_CARD -> new PlayerOverdrewCardEvent(gameId, turn, in.string(), in.card(),
+                        in.zigzag(), in.zigzag());
+                case CARD_VANISHED -> new CardVanishedEvent(gameId, turn, in.string(), in.string());
+                case CARD_REAPPEARED -> new CardReappearedEvent(gameId, turn, in.card(), in.string(), in.zigzag());
+                case CARD_STAT_SET -> new CardStatSetEvent(gameId, turn, in.string(), in.string(), in.zigzag());
+                case CARD_ADDED_TO_DECK -> new CardAddedToDeckEvent(gameId, turn, in.string(), in.card(),
+                        in.zigzag(), in.string());
+                case CARD_DRAWN -> new CardDrawnEvent(gameId, turn, in.string(), in.card(), in.zigzag());
+                default -> throw new IOException("Unknown event type tag " + tag);
+            };
+            if (in.position != payload.length) {
+                throw new IOException((payload.length - in.position) + " trailing bytes after event");
+            }
+            TIMESTAMP_FIELD.setLong(event, timestamp);
+            return event;
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt event payload", e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int tagOf(GameEvent event) {
+        if (event instanceof GameStartedEvent) return GAME_STARTED;
+        if (event instanceof TurnStartedEvent) return TURN_STARTED;
+        if (event instanceof CardPlayedEvent) return CARD_PLAYED;
+        if (event instanceof AttackDeclaredEvent) return ATTACK_DECLARED;
+        if (event instanceof CombatDamageDealtEvent) return COMBAT_DAMAGE_DEALT;
+        if (event instanceof CardStatsChangedEvent) return CARD_STATS_CHANGED;
+        if (event instanceof CardHealedEvent) return CARD_HEALED;
+        if (event instanceof CardDestroyedEvent) return CARD_DESTROYED;
+        if (event instanceof TurnEndedEvent) return TURN_ENDED;
+        if (event instanceof GameOverEvent) return GAME_OVER;
+        if (event instanceof AbilityActivatedEvent) return ABILITY_ACTIVATED;
+        if (event instanceof CardBuffedEvent) return CARD_BUFFED;
+        if (event instanceof CardDebuffedEvent) return CARD_DEBUFFED;
+        if (event instanceof CardFlagChangedEvent) return CARD_FLAG_CHANGED;
+        if (event instanceof CardTransformedEvent) return CARD_TRANSFORMED;
+        if (event instanceof GameLogMessageEvent) return GAME_LOG_MESSAGE;
+        if (event instanceof PlayerDrewCardEvent) return PLAYER_DREW_CARD;
+        if (event instanceof PlayerOverdrewCardEvent) return PLAYER_OVERDREW_CARD;
+        if (event instanceof CardVanishedEvent) return CARD_VANISHED;
+        if (event instanceof CardReappearedEvent) return CARD_REAPPEARED;
+        if (event instanceof CardStatSetEvent) return CARD_STAT_SET;
+        if (event instanceof CardAddedToDeckEvent) return CARD_ADDED_TO_DECK;
+        if (event instanceof CardDrawnEvent) return CARD_DRAWN;
+        throw new IllegalArgumentException("No binary encoding for " + event.getClass().getSimpleName());
+    }
+
+    private static final class Writer {
+        private byte[] buffer = new byte[64];
+        private int size;
+        private final List<String> strings = new ArrayList<>(8);
+
+        void write(int b) {
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, size * 2);
+            }
+            buffer[size++] = (byte) b;
+        }
+
+        void write(byte[] bytes) {
+            if (size + bytes.length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + bytes.length));
+            }
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void varint(int value) {
+            varlong(value & 0xFFFFFFFFL);
+        }
+
+        void varlong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void zigzag(int value) {
+            varint((value << 1) ^ (value >> 31));
+        }
+
+        void zigzagLong(long value) {
+            varlong((value << 1) ^ (value >> 63));
+        }
+
+        void bool(boolean value) {
+            write(value ? 1 : 0);
+        }
+
+        void string(String value) {
+            if (value == null) {
+                varint(STRING_NULL);
+                return;
+            }
+            int earlier = strings.indexOf(value);
+            if (earlier >= 0) {
+                varint(STRING_BACKREF);
+                varint(earlier);
+                return;
+            }
+            strings.add(value);
+            UUID uuid = asUuid(value);
+            if (uuid != null) {
+                varint(STRING_UUID);
+                long high = uuid.getMostSignificantBits();
+                long low = uuid.getLeastSignificantBits();
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    write((int) (high >>> shift));
+                }
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    write((int) (low >>> shift));
+                }
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varint(STRING_UTF8);
+            varint(bytes.length);
+            write(bytes);
+        }
+
+        void card(CardInstanceDTO card) {
+            bool(card != null);
+            if (card != null) {
+                string(card.getCardId());
+                string(card.getInstanceId());
+                zigzag(card.getCurrentLife());
+            }
+        }
+
+        void value(Object value) {
+            if (value == null) {
+                varint(VALUE_NULL);
+            } else if (value instanceof Boolean b) {
+                varint(b ? VALUE_TRUE : VALUE_FALSE);
+            } else if (value instanceof Integer i) {
+                varint(VALUE_INT);
+                zigzag(i);
+            } else if (value instanceof Long l) {
+                varint(VALUE_LONG);
+                zigzagLong(l);
+            } else if (value instanceof Double d) {
+                varint(VALUE_DOUBLE);
+                long bits = Double.doubleToLongBits(d);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    write((int) (bits >>> shift));
+                }
+            } else if (value instanceof String s) {
+                varint(VALUE_STRING);
+                string(s);
+            } else {
+                varint(VALUE_JSON);
+                try {
+                    string(objectMapper.writeValueAsString(value));
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Can't encode flag value " + value, e);
+                }
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        // Only canonical lowercase UUIDs, so that decoding gives back the same string.
+        private static UUID asUuid(String value) {
+            if (value.length() != 36 || value.charAt(8) != '-' || value.charAt(13) != '-') {
+                return null;
+            }
+            try {
+                UUID uuid = UUID.fromString(value);
+                return uuid.toString().equals(value) ? uuid : null;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buffer;
+        private int position;
+        private final List<String> strings = new ArrayList<>(8);
+
+        Reader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int read() {
+            return buffer[position++] & 0xFF;
+        }
+
+        int varint() throws IOException {
+            long value = varlong();
+            if ((value & ~0xFFFFFFFFL) != 0) {
+                throw new IOException("Varint overflow");
+            }
+            return (int) value;
+        }
+
+        long varlong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = read();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Varint overflow");
+        }
+
+        int zigzag() throws IOException {
+            int value = varint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long zigzagLong() throws IOException {
+            long value = varlong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        boolean bool() {
+            return read() != 0;
+        }
+
+        long fixedLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | read();
+            }
+            return value;
+        }
+
+        String string() throws IOException {
+            int kind = varint();
+            String value;
+            switch (kind) {
+                case STRING_NULL -> {
+                    return null;
+                }
+                case STRING_BACKREF -> {
+                    return strings.get(varint());
+                }
+                case STRING_UUID -> value = new UUID(fixedLong(), fixedLong()).toString();
+                case STRING_UTF8 -> {
+                    int length = varint();
+                    if (length < 0 || length > buffer.length - position) {
+                        throw new IOException("String runs past the end of the event");
+                    }
+                    value = new String(buffer, position, length, StandardCharsets.UTF_8);
+                    position += length;
+                }
+                default -> throw new IOException("Unknown string kind " + kind);
+            }
+            strings.add(value);
+            return value;
+        }
+
+        CardInstanceDTO card() throws IOException {
+            if (!bool()) {
+                return null;
+            }
+            CardInstanceDTO card = new CardInstanceDTO();
+            card.setCardId(string());
+            card.setInstanceId(string());
+            card.setCurrentLife(zigzag());
+            return card;
+        }
+
+        Object value() throws IOException {
+            int kind = varint();
+            return switch (kind) {
+                case VALUE_NULL -> null;
+                case VALUE_FALSE -> false;
+                case VALUE_TRUE -> true;
+                case VALUE_INT -> zigzag();
+                case VALUE_LONG -> zigzagLong();
+                case VALUE_DOUBLE -> Double.longBitsToDouble(fixedLong());
+                case VALUE_STRING -> string();
+                case VALUE_JSON -> objectMapper.readValue(string(), Object.class);
+                default -> throw new IOException("Unknown value kind " + kind);
+            };
+        }
+    }
+}
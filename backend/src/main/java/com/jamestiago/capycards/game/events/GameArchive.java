@@ -0,0 +1,61 @@
+package com.jamestiago.capycards.game.events;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * All of a finished game's events in one compressed row, encoded by
+ * {@link GameArchiveCodec}. Games are moved here from {@code game_event_log}
+ * some time after they end, which keeps the hot table and its index down to
+ * the games still being played.
+ */
+@Entity
+@Table(name = "game_archive")
+public class GameArchive {
+
+    @Id
+    private String gameId;
+
+    @Column(nullable = false, updatable = false)
+    private int formatVersion;
+
+    @Column(nullable = false, updatable = false)
+    private int eventCount;
+
+    @Column(nullable = false, updatable = false)
+    private Instant archivedAt;
+
+    @Column(columnDefinition = "bytea", nullable = false, updatable = false)
+    private byte[] archiveData;
+
+    public GameArchive() {
+    }
+
+    public GameArchive(String gameId, int formatVersion, int eventCount, Instant archivedAt, byte[] archiveData) {
+        this.gameId = gameId;
+        this.formatVersion = formatVersion;
+        this.eventCount = eventCount;
+        this.archivedAt = archivedAt;
+        this.archiveData = archiveData;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public int getFormatVersion() {
+        return formatVersion;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+
+    public byte[] getArchiveData() {
+        return archiveData;
+    }
+}
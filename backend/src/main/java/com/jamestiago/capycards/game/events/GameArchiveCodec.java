@@ -0,0 +1,82 @@
+package com.jamestiago.capycards.game.events;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Packs a game's event log into a single GZIP-compressed blob for
+ * {@link GameArchive}. Each event keeps its sequence, timestamp, type and
+ * stored form (binary payload, or JSON for old rows), so reading an archive
+ * back gives the same {@link GameEventLog}s that were archived.
+ */
+public final class GameArchiveCodec {
+    public static final int FORMAT_VERSION = 1;
+    private static final byte DATA_JSON = 0;
+    private static final byte DATA_BINARY = 1;
+
+    private GameArchiveCodec() {
+    }
+
+    public static byte[] encode(List<GameEventLog> events) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(events.size());
+            for (GameEventLog event : events) {
+                out.writeLong(event.getEventSequence());
+                out.writeLong(event.getEventTimestamp().getEpochSecond());
+                out.writeInt(event.getEventTimestamp().getNano());
+                out.writeUTF(event.getEventType());
+                byte[] data;
+                if (event.getEventPayload() != null) {
+                    out.writeByte(DATA_BINARY);
+                    data = event.getEventPayload();
+                } else {
+                    out.writeByte(DATA_JSON);
+                    data = event.getEventData().getBytes(StandardCharsets.UTF_8);
+                }
+                out.writeInt(data.length);
+                out.write(data);
+            }
+        } catch (IOException e) {
+            // Only in-memory streams involved.
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static List<GameEventLog> decode(String gameId, byte[] archiveData) throws IOException {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(archiveData)))) {
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Corrupt archive of game " + gameId + ": " + count + " events.");
+            }
+            List<GameEventLog> events = new ArrayList<>(Math.min(count, 4096));
+            for (int i = 0; i < count; i++) {
+                long sequence = in.readLong();
+                Instant timestamp = Instant.ofEpochSecond(in.readLong(), in.readInt());
+                String eventType = in.readUTF();
+                byte kind = in.readByte();
+                int length = in.readInt();
+                byte[] data = length < 0 ? null : in.readNBytes(length);
+                if (data == null || data.length != length) {
+                    throw new IOException("Corrupt archive of game " + gameId + " at event " + sequence + ".");
+                }
+                events.add(kind == DATA_BINARY
+                        ? new GameEventLog(gameId, sequence, timestamp, eventType, data)
+                        : new GameEventLog(gameId, sequence, timestamp, eventType,
+                                new String(data, StandardCharsets.UTF_8)));
+            }
+            return events;
+        }
+    }
+}
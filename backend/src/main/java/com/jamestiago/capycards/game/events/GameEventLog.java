@@ -1,21 +1,32 @@
 package com.jamestiago.capycards.game.events;
 
 import jakarta.persistence.*;
-import java.time.Instant;
+import org.springframework.data.domain.Persistable;
 
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * One persisted event. Keyed by (gameId, eventSequence) rather than a
+ * database-generated id: the key is known before the insert, so Hibernate
+ * can batch all of a command's events into one statement, which an IDENTITY
+ * column prevents.
+ */
 @Entity
 @Table(name = "game_event_log", indexes = {
         @Index(name = "idx_game_event_log_game_id", columnList = "gameId")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_game_event_log_game_sequence", columnNames = { "gameId", "eventSequence" })
 })
-public class GameEventLog {
+@IdClass(GameEventLog.Key.class)
+public class GameEventLog implements Persistable<GameEventLog.Key> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
     @Column(nullable = false, updatable = false)
     private String gameId;
 
+    @Id
     @Column(nullable = false, updatable = false)
     private long eventSequence; // For strict ordering
 
@@ -25,8 +36,14 @@ public class GameEventLog {
     @Column(nullable = false, updatable = false)
     private String eventType;
 
-    @Column(columnDefinition = "TEXT", nullable = false, updatable = false)
-    private String eventData; // The JSON representation of the event
+    // JSON representation of the event. Only rows written before eventPayload
+    // have it; on an existing database the column's NOT NULL constraint has
+    // to be dropped by hand, as ddl-auto=update won't relax it.
+    @Column(columnDefinition = "TEXT", updatable = false)
+    private String eventData;
+
+    @Column(columnDefinition = "bytea", updatable = false)
+    private byte[] eventPayload; // BinaryEventCodec encoding of the event
 
     // Constructors, Getters, and Setters
     public GameEventLog() {
@@ -40,13 +57,34 @@ public class GameEventLog {
         this.eventData = eventData;
     }
 
-    // Getters and Setters...
-    public Long getId() {
-        return id;
+    public GameEventLog(String gameId, long eventSequence, Instant eventTimestamp, String eventType,
+            byte[] eventPayload) {
+        this.gameId = gameId;
+        this.eventSequence = eventSequence;
+        this.eventTimestamp = eventTimestamp;
+        this.eventType = eventType;
+        this.eventPayload = eventPayload;
+    }
+
+    // Events are only ever appended, so a log that hasn't been loaded is new.
+    // This saves Spring Data a SELECT per event to find out.
+    @Transient
+    private boolean isNew = true;
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
     }
 
-    public void setId(Long id) {
-        this.id = id;
+    @Override
+    public Key getId() {
+        return new Key(gameId, eventSequence);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
     }
 
     public String getGameId() {
@@ -88,4 +126,39 @@ public class GameEventLog {
     public void setEventData(String eventData) {
         this.eventData = eventData;
     }
-}
\ No newline at end of file
+
+    public byte[] getEventPayload() {
+        return eventPayload;
+    }
+
+    public void setEventPayload(byte[] eventPayload) {
+        this.eventPayload = eventPayload;
+    }
+
+    public static class Key implements Serializable {
+        private String gameId;
+        private long eventSequence;
+
+        public Key() {
+        }
+
+        public Key(String gameId, long eventSequence) {
+            this.gameId = gameId;
+            this.eventSequence = eventSequence;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key key))
+                return false;
+            return eventSequence == key.eventSequence && Objects.equals(gameId, key.gameId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(gameId, eventSequence);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.jamestiago.capycards.model; // Adjust to your actual package
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*; // For JPA annotations
 
 @Entity
@@ -51,6 +52,17 @@ public class Card {
     @Column(name = "is_directly_playable", nullable = false, columnDefinition = "boolean default true")
     private boolean isDirectlyPlayable = true;
 
+    // SHA-256 of the definition file this card was seeded from; cleared when the
+    // card is edited by hand so the next seed rewrites it.
+    @JsonIgnore
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // Derived from effectConfiguration; cached because the AI asks for it on every
+    // board evaluation.
+    @Transient
+    private Boolean hasEffects;
+
     public Card() {
     }
 
@@ -71,6 +83,18 @@ public class Card {
         this.flavorText = flavorText;
     }
 
+    /**
+     * Copy constructor, so a published card catalog doesn't share objects
+     * with the persistence context.
+     */
+    public Card(Card other) {
+        this(other.cardId, other.name, other.type, other.initialLife, other.attack, other.defense,
+                other.effectText, other.effectConfiguration, other.rarity, other.imageUrl, other.flavorText);
+        this.id = other.id;
+        this.isDirectlyPlayable = other.isDirectlyPlayable;
+        this.contentHash = other.contentHash;
+    }
+
     public Long getId() {
         return id;
     }
@@ -141,6 +165,20 @@ public class Card {
 
     public void setEffectConfiguration(String effectConfiguration) {
         this.effectConfiguration = effectConfiguration;
+        this.hasEffects = null;
+    }
+
+    /**
+     * @return true if this card has a non-empty effect configuration.
+     */
+    public boolean hasEffects() {
+        Boolean cached = hasEffects;
+        if (cached == null) {
+            String config = effectConfiguration;
+            cached = config != null && !config.isBlank();
+            hasEffects = cached;
+        }
+        return cached;
     }
 
     public Rarity getRarity() {
@@ -175,6 +213,14 @@ public class Card {
         isDirectlyPlayable = directlyPlayable;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
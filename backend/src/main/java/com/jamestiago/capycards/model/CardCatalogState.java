@@ -0,0 +1,52 @@
+package com.jamestiago.capycards.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * What the cards table was last seeded from: a hash over every bundled card
+ * definition file. If the files hash to the same value at startup, seeding
+ * is skipped without reading any cards.
+ */
+@Entity
+@Table(name = "card_catalog_state")
+public class CardCatalogState {
+    public static final String BUNDLED = "bundled";
+
+    @Id
+    private String id;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    private int cardCount;
+
+    private Instant seededAt;
+
+    public CardCatalogState() {
+    }
+
+    public CardCatalogState(String id, String contentHash, int cardCount, Instant seededAt) {
+        this.id = id;
+        this.contentHash = contentHash;
+        this.cardCount = cardCount;
+        this.seededAt = seededAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public int getCardCount() {
+        return cardCount;
+    }
+
+    public Instant getSeededAt() {
+        return seededAt;
+    }
+}
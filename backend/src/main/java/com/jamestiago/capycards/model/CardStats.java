@@ -0,0 +1,56 @@
+package com.jamestiago.capycards.model;
+
+import jakarta.persistence.*;
+
+/** How often a card is played and how often its player goes on to win, maintained by the card stats projection. */
+@Entity
+@Table(name = "card_stats", indexes = {
+        @Index(name = "idx_card_stats_times_played", columnList = "timesPlayed")
+})
+public class CardStats {
+
+    @Id
+    private String cardId;
+
+    private long timesPlayed;
+
+    // Finished games in which a player played the card at least once, counted once per player.
+    private int gamesPlayed;
+
+    // Of those, the ones that player won.
+    private int gamesWon;
+
+    public CardStats() {
+    }
+
+    public CardStats(String cardId) {
+        this.cardId = cardId;
+    }
+
+    public void played() {
+        timesPlayed++;
+    }
+
+    public void finished(boolean won) {
+        gamesPlayed++;
+        if (won) {
+            gamesWon++;
+        }
+    }
+
+    public String getCardId() {
+        return cardId;
+    }
+
+    public long getTimesPlayed() {
+        return timesPlayed;
+    }
+
+    public int getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    public int getGamesWon() {
+        return gamesWon;
+    }
+}
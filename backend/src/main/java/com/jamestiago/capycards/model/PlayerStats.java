@@ -0,0 +1,83 @@
+package com.jamestiago.capycards.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/** Lifetime totals for one player, maintained by the player stats projection. */
+@Entity
+@Table(name = "player_stats", indexes = {
+        @Index(name = "idx_player_stats_wins", columnList = "wins")
+})
+public class PlayerStats {
+
+    @Id
+    private String playerId;
+
+    private int gamesPlayed;
+
+    private int wins;
+
+    private int losses;
+
+    private int draws;
+
+    private long cardsPlayed;
+
+    private Instant lastPlayedAt;
+
+    public PlayerStats() {
+    }
+
+    public PlayerStats(String playerId) {
+        this.playerId = playerId;
+    }
+
+    public void started(Instant at) {
+        gamesPlayed++;
+        lastPlayedAt = at;
+    }
+
+    public void playedCard() {
+        cardsPlayed++;
+    }
+
+    public void finished(Boolean won, Instant at) {
+        if (won == null) {
+            draws++;
+        } else if (won) {
+            wins++;
+        } else {
+            losses++;
+        }
+        lastPlayedAt = at;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public int getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getLosses() {
+        return losses;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public long getCardsPlayed() {
+        return cardsPlayed;
+    }
+
+    public Instant getLastPlayedAt() {
+        return lastPlayedAt;
+    }
+}
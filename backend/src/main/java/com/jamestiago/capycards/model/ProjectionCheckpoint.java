@@ -0,0 +1,97 @@
+package com.jamestiago.capycards.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * How far one projection has got through one game's events. Updated in the
+ * same transaction as the projection's read model, so every event is folded
+ * in exactly once, however often it's delivered.
+ */
+@Entity
+@Table(name = "projection_checkpoint", indexes = {
+        @Index(name = "idx_projection_checkpoint_finished", columnList = "projection, finished")
+})
+@IdClass(ProjectionCheckpoint.Key.class)
+public class ProjectionCheckpoint {
+
+    @Id
+    @Column(nullable = false, length = 64)
+    private String projection;
+
+    @Id
+    @Column(nullable = false)
+    private String gameId;
+
+    // The sequence number of the first event not yet applied.
+    private long nextSequence;
+
+    // Set once the game's GameOverEvent has been applied; finished games are skipped when catching up.
+    private boolean finished;
+
+    private Instant updatedAt;
+
+    public ProjectionCheckpoint() {
+    }
+
+    public ProjectionCheckpoint(String projection, String gameId) {
+        this.projection = projection;
+        this.gameId = gameId;
+    }
+
+    public void advance(long nextSequence, boolean finished, Instant updatedAt) {
+        this.nextSequence = nextSequence;
+        this.finished = this.finished || finished;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getProjection() {
+        return projection;
+    }
+
+    public String getGameId() {
+        return gameId;
+    }
+
+    public long getNextSequence() {
+        return nextSequence;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public static class Key implements Serializable {
+        private String projection;
+        private String gameId;
+
+        public Key() {
+        }
+
+        public Key(String projection, String gameId) {
+            this.projection = projection;
+            this.gameId = gameId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof Key key))
+                return false;
+            return Objects.equals(projection, key.projection) && Objects.equals(gameId, key.gameId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(projection, gameId);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.jamestiago.capycards.repository;
+
+import com.jamestiago.capycards.model.CardCatalogState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CardCatalogStateRepository extends JpaRepository<CardCatalogState, String> {
+}
@@ -1,10 +1,11 @@
 package com.jamestiago.capycards.repository;
 
 import com.jamestiago.capycards.model.Card;
-import com.jamestiago.capycards.model.Rarity; // If you want to find by Rarity
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,32 +32,19 @@ public interface CardRepository extends JpaRepository<Card, Long> {
      */
     Optional<Card> findByCardId(String cardId);
 
-    /**
-     * Finds all cards with a specific name.
-     * (Names might not be unique, so this returns a List)
-     *
-     * @param name The name of the card.
-     * @return A List of Cards with the given name.
-     */
-    List<Card> findByName(String name);
+    List<Card> findByCardIdIn(Collection<String> cardIds);
 
     /**
-     * Finds all cards of a specific rarity.
+     * The content hash of every card, without loading the cards.
      *
-     * @param rarity The Rarity enum value.
-     * @return A List of Cards with the given rarity.
+     * @return rows of {cardId, contentHash}; the hash is null for cards that
+     *         weren't seeded from a definition file or were edited since.
      */
-    List<Card> findByRarity(Rarity rarity);
+    @Query("SELECT c.cardId, c.contentHash FROM Card c")
+    List<Object[]> findContentHashes();
 
-    /**
-     * Finds all cards that include a specific type string.
-     * Note: If 'type' is a comma-separated string, this requires a LIKE query.
-     * Example: "Unit, Capybara"
-     *
-     * @param type The type string to search for (e.g., "Capybara", "Spell").
-     * @return A List of Cards containing the specified type.
-     */
-    List<Card> findByTypeContainingIgnoreCase(String type);
+    // Searching cards by name, type, rarity or text goes through the catalog's
+    // in-memory CardIndex rather than the database.
 
     // You can add more custom finder methods as needed, for example:
     // List<Card> findByAttackGreaterThan(int attackValue);
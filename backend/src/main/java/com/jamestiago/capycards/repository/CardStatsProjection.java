@@ -0,0 +1,116 @@
+package com.jamestiago.capycards.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.events.BinaryEventCodec;
+import com.jamestiago.capycards.game.events.CardPlayedEvent;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.game.events.GameEventLog;
+import com.jamestiago.capycards.game.events.GameOverEvent;
+import com.jamestiago.capycards.model.CardStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-card play counts and wins, in {@code card_stats}. Plays are counted as
+ * they happen; when a game ends, its card played events are read back once to
+ * credit each card with the game and, for the winner's cards, the win.
+ */
+@Component
+public class CardStatsProjection implements Projection {
+    private static final Logger logger = LoggerFactory.getLogger(CardStatsProjection.class);
+    private static final String CARD_PLAYED = "CardPlayedEvent";
+    private static final String GAME_OVER = "GameOverEvent";
+
+    private final CardStatsRepository statsRepository;
+    private final EventStore eventStore;
+    private final ObjectMapper objectMapper;
+
+    // One finished game: the cards each player played in it, and who won.
+    private record Result(Map<String, Set<String>> cardsByPlayer, String winnerPlayerId) {
+    }
+
+    public CardStatsProjection(CardStatsRepository statsRepository, EventStore eventStore,
+            ObjectMapper objectMapper) {
+        this.statsRepository = statsRepository;
+        this.eventStore = eventStore;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return "card-stats";
+    }
+
+    @Override
+    public void apply(List<GameEventLog> events) {
+        List<CardPlayedEvent> plays = new ArrayList<>();
+        List<Result> results = new ArrayList<>();
+        Set<String> cardIds = new HashSet<>();
+        for (GameEventLog log : events) {
+            if (CARD_PLAYED.equals(log.getEventType())) {
+                CardPlayedEvent played = decode(log, CardPlayedEvent.class);
+                if (played != null && played.card != null && played.card.getCardId() != null) {
+                    plays.add(played);
+                    cardIds.add(played.card.getCardId());
+                }
+            } else if (GAME_OVER.equals(log.getEventType())) {
+                GameOverEvent over = decode(log, GameOverEvent.class);
+                if (over != null) {
+                    Result result = readResult(log.getGameId(), over.winnerPlayerId);
+                    result.cardsByPlayer().values().forEach(cardIds::addAll);
+                    results.add(result);
+                }
+            }
+        }
+        if (cardIds.isEmpty()) {
+            return;
+        }
+
+        Map<String, CardStats> stats = new HashMap<>();
+        statsRepository.findAllById(cardIds).forEach(s -> stats.put(s.getCardId(), s));
+        for (CardPlayedEvent played : plays) {
+            stats.computeIfAbsent(played.card.getCardId(), CardStats::new).played();
+        }
+        for (Result result : results) {
+            result.cardsByPlayer().forEach((playerId, cards) -> {
+                boolean won = playerId.equals(result.winnerPlayerId());
+                cards.forEach(cardId -> stats.computeIfAbsent(cardId, CardStats::new).finished(won));
+            });
+        }
+        statsRepository.saveAll(stats.values());
+    }
+
+    private Result readResult(String gameId, String winnerPlayerId) {
+        Map<String, Set<String>> cardsByPlayer = new HashMap<>();
+        eventStore.replay(gameId, 0, log -> {
+            if (CARD_PLAYED.equals(log.getEventType())) {
+                CardPlayedEvent played = decode(log, CardPlayedEvent.class);
+                if (played != null && played.playerId != null && played.card != null
+                        && played.card.getCardId() != null) {
+                    cardsByPlayer.computeIfAbsent(played.playerId, id -> new HashSet<>())
+                            .add(played.card.getCardId());
+                }
+            }
+        });
+        return new Result(cardsByPlayer, winnerPlayerId);
+    }
+
+    private <T extends GameEvent> T decode(GameEventLog log, Class<T> type) {
+        try {
+            GameEvent decoded = BinaryEventCodec.decode(log, objectMapper);
+            return type.isInstance(decoded) ? type.cast(decoded) : null;
+        } catch (Exception e) {
+            logger.debug("[{}] Could not decode {} #{} for card stats: {}", log.getGameId(), log.getEventType(),
+                    log.getEventSequence(), e.getMessage());
+            return null;
+        }
+    }
+}
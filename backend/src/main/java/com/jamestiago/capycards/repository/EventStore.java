@@ -0,0 +1,48 @@
+package com.jamestiago.capycards.repository;
+
+import com.jamestiago.capycards.game.events.GameEventLog;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Where game events are persisted. The backend is chosen with
+ * {@code capycards.event-store}: {@code jpa} (the default) keeps them in the
+ * {@code game_event_log} table, {@code file} in local segment files.
+ *
+ * Implementations must reject an event whose (gameId, eventSequence) is
+ * already stored with a {@link org.springframework.dao.DataIntegrityViolationException}
+ * and store nothing from that batch.
+ */
+public interface EventStore {
+
+    /**
+     * Stores a batch of events, possibly from several games, atomically. Each
+     * game's events must come in increasing sequence order.
+     */
+    void append(List<GameEventLog> events);
+
+    /** The game's events with a sequence number of at least {@code fromSequence}, in order. */
+    List<GameEventLog> read(String gameId, long fromSequence);
+
+    /** Like {@link #read(String, long)}, but at most {@code limit} events. */
+    default List<GameEventLog> read(String gameId, long fromSequence, int limit) {
+        List<GameEventLog> events = read(gameId, fromSequence);
+        return events.size() > limit ? events.subList(0, limit) : events;
+    }
+
+    /**
+     * Hands the game's events with a sequence number of at least
+     * {@code fromSequence} to {@code consumer} in order, without holding them
+     * all in memory at once. Use this over {@link #read} for long games.
+     */
+    default void replay(String gameId, long fromSequence, Consumer<GameEventLog> consumer) {
+        read(gameId, fromSequence).forEach(consumer);
+    }
+
+    /** Games that have events but no GameOverEvent. */
+    List<String> findActiveGameIds();
+
+    /** Every game with events, most recent id first. */
+    List<String> findAllGameIds();
+}
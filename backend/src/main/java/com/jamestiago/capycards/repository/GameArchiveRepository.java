@@ -0,0 +1,9 @@
+package com.jamestiago.capycards.repository;
+
+import com.jamestiago.capycards.game.events.GameArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GameArchiveRepository extends JpaRepository<GameArchive, String> {
+}
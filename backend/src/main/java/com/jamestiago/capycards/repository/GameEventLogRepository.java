@@ -1,14 +1,22 @@
 package com.jamestiago.capycards.repository;
 
 import com.jamestiago.capycards.game.events.GameEventLog;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface GameEventLogRepository extends JpaRepository<GameEventLog, Long> {
+public interface GameEventLogRepository extends JpaRepository<GameEventLog, GameEventLog.Key> {
 
     /**
      * Finds all event logs for a specific game, ordered by their sequence number.
@@ -17,15 +25,52 @@ public interface GameEventLogRepository extends JpaRepository<GameEventLog, Long
     List<GameEventLog> findByGameIdOrderByEventSequenceAsc(String gameId);
 
     /**
-     * Finds all unique gameIds that do not have a 'GAME_OVER' event.
-     * This is useful for finding active games on server startup.
+     * Finds the events logged after a snapshot, i.e. those with a sequence
+     * number of at least {@code fromSequence}.
      */
-    @Query("SELECT DISTINCT e.gameId FROM GameEventLog e WHERE e.gameId NOT IN (SELECT e2.gameId FROM GameEventLog e2 WHERE e2.eventType = 'GameOverEvent')")
-    List<String> findAllActiveGameIds();
+    List<GameEventLog> findByGameIdAndEventSequenceGreaterThanEqualOrderByEventSequenceAsc(String gameId,
+            long fromSequence);
+
+    /** A page of a game's events, for reading long histories a piece at a time. */
+    List<GameEventLog> findByGameIdAndEventSequenceGreaterThanEqualOrderByEventSequenceAsc(String gameId,
+            long fromSequence, Limit limit);
+
+    /**
+     * Streams the events from {@code fromSequence} on, fetching them from the
+     * database in chunks. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM GameEventLog e WHERE e.gameId = :gameId AND e.eventSequence >= :fromSequence"
+            + " ORDER BY e.eventSequence")
+    Stream<GameEventLog> streamEvents(@Param("gameId") String gameId, @Param("fromSequence") long fromSequence);
 
     /**
-     * Finds all distinct game IDs, ordered by the most recent first.
+     * Per game: gameId, first and last event timestamp, and event count. Only
+     * used to backfill game summaries.
      */
-    @Query("SELECT DISTINCT e.gameId FROM GameEventLog e ORDER BY e.gameId DESC")
-    List<String> findAllDistinctGameIds();
+    @Query("SELECT e.gameId, MIN(e.eventTimestamp), MAX(e.eventTimestamp), COUNT(e) FROM GameEventLog e GROUP BY e.gameId")
+    List<Object[]> summarizeAllGames();
+
+    /**
+     * Per game: gameId and the number of events of the given type.
+     */
+    @Query("SELECT e.gameId, COUNT(e) FROM GameEventLog e WHERE e.eventType = :eventType GROUP BY e.gameId")
+    List<Object[]> countEventsPerGame(@Param("eventType") String eventType);
+
+    /**
+     * A page of the events of the given types, ordered by game and sequence.
+     * Pass the key of the last event of the previous page to get the next
+     * one, or an empty gameId and -1 for the first page.
+     */
+    @Query("SELECT e FROM GameEventLog e WHERE e.eventType IN :eventTypes AND (e.gameId > :gameId"
+            + " OR (e.gameId = :gameId AND e.eventSequence > :eventSequence)) ORDER BY e.gameId, e.eventSequence")
+    List<GameEventLog> findByEventTypeInAfter(@Param("eventTypes") Collection<String> eventTypes,
+            @Param("gameId") String gameId, @Param("eventSequence") long eventSequence, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM GameEventLog e WHERE e.gameId = :gameId")
+    int deleteByGameId(@Param("gameId") String gameId);
 }
\ No newline at end of file
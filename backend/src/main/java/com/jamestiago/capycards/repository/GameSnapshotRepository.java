@@ -0,0 +1,32 @@
+package com.jamestiago.capycards.repository;
+
+import com.jamestiago.capycards.game.GameSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface GameSnapshotRepository extends JpaRepository<GameSnapshot, Long> {
+
+    /**
+     * The most recent snapshot of a game in the given format, if any.
+     */
+    Optional<GameSnapshot> findFirstByGameIdAndFormatVersionOrderByEventSequenceDesc(String gameId,
+            int formatVersion);
+
+    /** The latest snapshot taken after at most {@code eventSequence} events. */
+    Optional<GameSnapshot> findFirstByGameIdAndFormatVersionAndEventSequenceLessThanEqualOrderByEventSequenceDesc(
+            String gameId, int formatVersion, long eventSequence);
+
+    /** The latest snapshot taken before turn {@code turnNumber} began. */
+    Optional<GameSnapshot> findFirstByGameIdAndFormatVersionAndTurnNumberLessThanOrderByEventSequenceDesc(
+            String gameId, int formatVersion, int turnNumber);
+
+    @Modifying
+    @Query("DELETE FROM GameSnapshot s WHERE s.gameId = :gameId")
+    int deleteByGameId(@Param("gameId") String gameId);
+}
@@ -0,0 +1,171 @@
+package com.jamestiago.capycards.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.GameSummary;
+import com.jamestiago.capycards.game.events.BinaryEventCodec;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.game.events.GameEventLog;
+import com.jamestiago.capycards.game.events.GameOverEvent;
+import com.jamestiago.capycards.game.events.GameStartedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps {@code game_summary} in step with the event log. Appends only touch
+ * the summaries of the games in the batch, and only the start and end events
+ * are decoded; everything else is counted by type.
+ */
+@Component
+public class GameSummaryProjection {
+    private static final Logger logger = LoggerFactory.getLogger(GameSummaryProjection.class);
+    private static final String GAME_STARTED = "GameStartedEvent";
+    private static final String TURN_STARTED = "TurnStartedEvent";
+    private static final String GAME_OVER = "GameOverEvent";
+    // Start and end events decoded per query while backfilling.
+    private static final int BACKFILL_PAGE = 500;
+
+    private final GameSummaryRepository summaryRepository;
+    private final GameEventLogRepository eventLogRepository;
+    private final ObjectMapper objectMapper;
+
+    public GameSummaryProjection(GameSummaryRepository summaryRepository, GameEventLogRepository eventLogRepository,
+            ObjectMapper objectMapper) {
+        this.summaryRepository = summaryRepository;
+        this.eventLogRepository = eventLogRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Folds a batch of newly stored events into their games' summaries. */
+    public void apply(List<GameEventLog> events) {
+        Map<String, List<GameEventLog>> byGame = new LinkedHashMap<>();
+        for (GameEventLog event : events) {
+            byGame.computeIfAbsent(event.getGameId(), id -> new ArrayList<>()).add(event);
+        }
+        Map<String, GameSummary> summaries = new HashMap<>();
+        summaryRepository.findAllById(byGame.keySet()).forEach(s -> summaries.put(s.getGameId(), s));
+
+        for (Map.Entry<String, List<GameEventLog>> game : byGame.entrySet()) {
+            List<GameEventLog> gameEvents = game.getValue();
+            GameSummary summary = summaries.computeIfAbsent(game.getKey(),
+                    id -> new GameSummary(id, GameSummary.Status.ACTIVE, gameEvents.get(0).getEventTimestamp()));
+            int turns = 0;
+            for (GameEventLog event : gameEvents) {
+                switch (event.getEventType()) {
+                    case GAME_STARTED -> start(summary, event);
+                    case TURN_STARTED -> turns++;
+                    case GAME_OVER -> finish(summary, event);
+                    default -> {
+                    }
+                }
+            }
+            summary.countEvents(gameEvents.size(), turns);
+        }
+        summaryRepository.saveAll(summaries.values());
+    }
+
+    /**
+     * Records what the event log doesn't: the mode, the players' names and
+     * the card catalog version. Does nothing if the game's start hasn't been
+     * stored.
+     */
+    public void describe(String gameId, GameSummary.Mode mode, String player1Name, String player2Name,
+            long catalogVersion) {
+        summaryRepository.findById(gameId).ifPresent(summary -> {
+            summary.describe(mode, player1Name, player2Name, catalogVersion);
+            summaryRepository.save(summary);
+        });
+    }
+
+    /** @return the catalog version the game is played with, or null if it wasn't recorded. */
+    public Long catalogVersionOf(String gameId) {
+        return summaryRepository.findCatalogVersion(gameId);
+    }
+
+    /** The catalog versions that unfinished games are played with. */
+    public List<Long> activeCatalogVersions() {
+        return summaryRepository.findCatalogVersionsByStatus(GameSummary.Status.ACTIVE);
+    }
+
+    /**
+     * Rebuilds summaries from the event log for games logged before the
+     * table existed, or before it tracked totals. One pass over the log.
+     */
+    public void backfill() {
+        List<Object[]> totals = eventLogRepository.summarizeAllGames();
+        if (totals.isEmpty()) {
+            return;
+        }
+        Map<String, GameSummary> summaries = new HashMap<>();
+        summaryRepository.findAll().forEach(s -> summaries.put(s.getGameId(), s));
+        Map<String, Long> turns = new HashMap<>();
+        for (Object[] row : eventLogRepository.countEventsPerGame(TURN_STARTED)) {
+            turns.put((String) row[0], (Long) row[1]);
+        }
+
+        for (Object[] row : totals) {
+            String gameId = (String) row[0];
+            GameSummary stale = summaries.get(gameId);
+            GameSummary summary = new GameSummary(gameId, GameSummary.Status.ACTIVE, (Instant) row[1]);
+            if (stale != null) {
+                summary.describe(stale.getMode(), stale.getPlayer1Name(), stale.getPlayer2Name(),
+                        stale.getCatalogVersion());
+            }
+            summary.countEvents((Long) row[3], turns.getOrDefault(gameId, 0L).intValue());
+            summaries.put(gameId, summary);
+        }
+        int finished = 0;
+        List<String> types = List.of(GAME_STARTED, GAME_OVER);
+        List<GameEventLog> page = eventLogRepository.findByEventTypeInAfter(types, "", -1, Limit.of(BACKFILL_PAGE));
+        while (!page.isEmpty()) {
+            for (GameEventLog event : page) {
+                GameSummary summary = summaries.get(event.getGameId());
+                if (GAME_STARTED.equals(event.getEventType())) {
+                    start(summary, event);
+                } else {
+                    finish(summary, event);
+                    finished++;
+                }
+            }
+            if (page.size() < BACKFILL_PAGE) {
+                break;
+            }
+            GameEventLog last = page.get(page.size() - 1);
+            page = eventLogRepository.findByEventTypeInAfter(types, last.getGameId(), last.getEventSequence(),
+                    Limit.of(BACKFILL_PAGE));
+        }
+        summaryRepository.saveAll(summaries.values());
+        logger.info("Backfilled game_summary for {} games ({} active).", totals.size(), totals.size() - finished);
+    }
+
+    private void start(GameSummary summary, GameEventLog event) {
+        GameStartedEvent started = decode(event, GameStartedEvent.class);
+        summary.start(started != null ? started.player1Id : null, started != null ? started.player2Id : null,
+                event.getEventTimestamp());
+    }
+
+    private void finish(GameSummary summary, GameEventLog event) {
+        GameOverEvent over = decode(event, GameOverEvent.class);
+        summary.finish(event.getEventTimestamp(), over != null ? over.winnerPlayerId : null);
+    }
+
+    // The summary is still worth keeping without the players; don't fail the append over it.
+    private <T extends GameEvent> T decode(GameEventLog event, Class<T> type) {
+        try {
+            GameEvent decoded = BinaryEventCodec.decode(event, objectMapper);
+            return type.isInstance(decoded) ? type.cast(decoded) : null;
+        } catch (Exception e) {
+            logger.debug("[{}] Could not decode {} #{} for the game summary: {}", event.getGameId(),
+                    event.getEventType(), event.getEventSequence(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.jamestiago.capycards.repository;
+
+import com.jamestiago.capycards.game.GameSummary;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public interface GameSummaryRepository extends JpaRepository<GameSummary, String>,
+        JpaSpecificationExecutor<GameSummary> {
+
+    @Query("SELECT s.gameId FROM GameSummary s WHERE s.status = :status")
+    List<String> findGameIdsByStatus(@Param("status") GameSummary.Status status);
+
+    @Query("SELECT s.catalogVersion FROM GameSummary s WHERE s.gameId = :gameId")
+    Long findCatalogVersion(@Param("gameId") String gameId);
+
+    @Query("SELECT DISTINCT s.catalogVersion FROM GameSummary s WHERE s.status = :status"
+            + " AND s.catalogVersion IS NOT NULL")
+    List<Long> findCatalogVersionsByStatus(@Param("status") GameSummary.Status status);
+
+    /** Summaries written before the table tracked start times and totals. */
+    boolean existsByStartedAtIsNull();
+
+    /** Finished games that ended before {@code endedBefore} and are still in the event log, oldest first. */
+    @Query("SELECT s.gameId FROM GameSummary s WHERE s.status = com.jamestiago.capycards.game.GameSummary.Status.FINISHED"
+            + " AND s.archivedAt IS NULL AND s.endedAt < :endedBefore ORDER BY s.endedAt")
+    List<String> findArchivableGameIds(@Param("endedBefore") Instant endedBefore, Limit limit);
+
+    /** Every game id, most recently started first. */
+    @Query("SELECT s.gameId FROM GameSummary s ORDER BY s.startedAt DESC, s.gameId DESC")
+    List<String> findAllGameIds();
+
+    @Query("SELECT s.gameId FROM GameSummary s ORDER BY s.startedAt DESC, s.gameId DESC")
+    List<String> findGameIds(Limit limit);
+
+    /** The games that come after the given one in {@link #findAllGameIds()}'s order. */
+    @Query("SELECT s.gameId FROM GameSummary s WHERE s.startedAt < :startedAt"
+            + " OR (s.startedAt = :startedAt AND s.gameId < :gameId) ORDER BY s.startedAt DESC, s.gameId DESC")
+    List<String> findGameIdsBefore(@Param("startedAt") Instant startedAt, @Param("gameId") String gameId,
+            Limit limit);
+
+    /**
+     * Games started most recently first, optionally filtered. Pages by keyset:
+     * pass the startedAt and gameId of the last game of the previous page to
+     * get the next one, or nulls for the first page.
+     */
+    default List<GameSummary> findRecent(GameSummary.Status status, GameSummary.Mode mode, String playerId,
+            Instant beforeStartedAt, String beforeGameId, int limit) {
+        Specification<GameSummary> filter = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isNotNull(root.get("startedAt")));
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (mode != null) {
+                predicates.add(cb.equal(root.get("mode"), mode));
+            }
+            if (playerId != null) {
+                predicates.add(cb.or(cb.equal(root.get("player1Id"), playerId),
+                        cb.equal(root.get("player2Id"), playerId)));
+            }
+            if (beforeStartedAt != null && beforeGameId != null) {
+                predicates.add(cb.or(cb.lessThan(root.get("startedAt"), beforeStartedAt),
+                        cb.and(cb.equal(root.get("startedAt"), beforeStartedAt),
+                                cb.lessThan(root.get("gameId"), beforeGameId))));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+        Sort order = Sort.by(Sort.Order.desc("startedAt"), Sort.Order.desc("gameId"));
+        // A plain limited query; a Page would also run a count over everything that matches.
+        return findBy(filter, q -> q.sortBy(order).limit(limit).all());
+    }
+}
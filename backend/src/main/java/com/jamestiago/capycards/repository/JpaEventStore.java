@@ -0,0 +1,183 @@
+package com.jamestiago.capycards.repository;
+
+import com.jamestiago.capycards.game.GameSummary;
+import com.jamestiago.capycards.game.events.GameArchive;
+import com.jamestiago.capycards.game.events.GameArchiveCodec;
+import com.jamestiago.capycards.game.events.GameEventLog;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Component
+@ConditionalOnProperty(name = "capycards.event-store", havingValue = "jpa", matchIfMissing = true)
+public class JpaEventStore implements EventStore {
+    private final GameEventLogRepository eventLogRepository;
+    private final GameSummaryRepository summaryRepository;
+    private final GameSummaryProjection summaryProjection;
+    private final GameArchiveRepository archiveRepository;
+    private final GameSnapshotRepository snapshotRepository;
+    // Archives never change once written, so paging through one decodes it only once.
+    private final Map<String, List<GameEventLog>> decodedArchives;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public JpaEventStore(GameEventLogRepository eventLogRepository, GameSummaryRepository summaryRepository,
+            GameSummaryProjection summaryProjection, GameArchiveRepository archiveRepository,
+            GameSnapshotRepository snapshotRepository,
+            @Value("${game.archive.cache-games:8}") int archiveCacheGames) {
+        this.eventLogRepository = eventLogRepository;
+        this.summaryRepository = summaryRepository;
+        this.summaryProjection = summaryProjection;
+        this.archiveRepository = archiveRepository;
+        this.snapshotRepository = snapshotRepository;
+        int maxGames = Math.max(0, archiveCacheGames);
+        this.decodedArchives = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<GameEventLog>> eldest) {
+                return size() > maxGames;
+            }
+        };
+    }
+
+    @Override
+    @Transactional
+    public void append(List<GameEventLog> events) {
+        eventLogRepository.saveAll(events);
+        // Keep game_summary in step, in the same transaction as the events.
+        summaryProjection.apply(events);
+    }
+
+    @Override
+    public List<GameEventLog> read(String gameId, long fromSequence) {
+        List<GameEventLog> events = fromSequence <= 0
+                ? eventLogRepository.findByGameIdOrderByEventSequenceAsc(gameId)
+                : eventLogRepository.findByGameIdAndEventSequenceGreaterThanEqualOrderByEventSequenceAsc(gameId,
+                        fromSequence);
+        return events.isEmpty() ? readArchive(gameId, fromSequence) : events;
+    }
+
+    @Override
+    public List<GameEventLog> read(String gameId, long fromSequence, int limit) {
+        List<GameEventLog> events = eventLogRepository
+                .findByGameIdAndEventSequenceGreaterThanEqualOrderByEventSequenceAsc(gameId, fromSequence,
+                        Limit.of(limit));
+        if (!events.isEmpty()) {
+            return events;
+        }
+        List<GameEventLog> archived = readArchive(gameId, fromSequence);
+        return archived.size() > limit ? archived.subList(0, limit) : archived;
+    }
+
+    // Finished games are eventually moved to the archive.
+    private List<GameEventLog> readArchive(String gameId, long fromSequence) {
+        List<GameEventLog> events = decodeArchive(gameId);
+        // Archived events are in sequence order.
+        int low = 0;
+        int high = events.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (events.get(mid).getEventSequence() < fromSequence) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return events.subList(low, events.size());
+    }
+
+    private List<GameEventLog> decodeArchive(String gameId) {
+        synchronized (decodedArchives) {
+            List<GameEventLog> cached = decodedArchives.get(gameId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Optional<GameArchive> archive = archiveRepository.findById(gameId);
+        if (archive.isEmpty()) {
+            return List.of();
+        }
+        List<GameEventLog> events;
+        try {
+            events = List.copyOf(GameArchiveCodec.decode(gameId, archive.get().getArchiveData()));
+        } catch (IOException e) {
+            throw new DataRetrievalFailureException("Unreadable archive of game " + gameId, e);
+        }
+        synchronized (decodedArchives) {
+            decodedArchives.put(gameId, events);
+        }
+        return events;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void replay(String gameId, long fromSequence, Consumer<GameEventLog> consumer) {
+        boolean any = false;
+        try (Stream<GameEventLog> events = eventLogRepository.streamEvents(gameId, fromSequence)) {
+            Iterator<GameEventLog> it = events.iterator();
+            while (it.hasNext()) {
+                GameEventLog event = it.next();
+                // Keep the persistence context from holding on to every row we've seen.
+                entityManager.detach(event);
+                consumer.accept(event);
+                any = true;
+            }
+        }
+        if (!any) {
+            readArchive(gameId, fromSequence).forEach(consumer);
+        }
+    }
+
+    /**
+     * Moves a finished game's events from the event log into one compressed
+     * {@link GameArchive} row, and drops its snapshots, which a finished game
+     * no longer needs.
+     *
+     * @return the number of events archived.
+     */
+    @Transactional
+    public int archive(String gameId) {
+        List<GameEventLog> events = eventLogRepository.findByGameIdOrderByEventSequenceAsc(gameId);
+        if (!events.isEmpty() && !archiveRepository.existsById(gameId)) {
+            archiveRepository.save(new GameArchive(gameId, GameArchiveCodec.FORMAT_VERSION, events.size(),
+                    Instant.now(), GameArchiveCodec.encode(events)));
+        }
+        eventLogRepository.deleteByGameId(gameId);
+        snapshotRepository.deleteByGameId(gameId);
+        summaryRepository.findById(gameId).ifPresent(summary -> {
+            summary.markArchived(Instant.now());
+            summaryRepository.save(summary);
+        });
+        return events.size();
+    }
+
+    @Override
+    @Transactional
+    public List<String> findActiveGameIds() {
+        // Games logged before game_summary existed, or before it tracked totals.
+        if (summaryRepository.count() == 0 || summaryRepository.existsByStartedAtIsNull()) {
+            summaryProjection.backfill();
+        }
+        return summaryRepository.findGameIdsByStatus(GameSummary.Status.ACTIVE);
+    }
+
+    @Override
+    public List<String> findAllGameIds() {
+        // From the summaries rather than the event log: an index scan, and it includes archived games.
+        return summaryRepository.findAllGameIds();
+    }
+}
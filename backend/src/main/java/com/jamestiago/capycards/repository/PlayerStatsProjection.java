@@ -0,0 +1,136 @@
+package com.jamestiago.capycards.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.events.BinaryEventCodec;
+import com.jamestiago.capycards.game.events.CardPlayedEvent;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.game.events.GameEventLog;
+import com.jamestiago.capycards.game.events.GameOverEvent;
+import com.jamestiago.capycards.game.events.GameStartedEvent;
+import com.jamestiago.capycards.model.PlayerStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Per-player games, results and cards played, in {@code player_stats}. Only
+ * the start, end and card played events are decoded.
+ */
+@Component
+public class PlayerStatsProjection implements Projection {
+    private static final Logger logger = LoggerFactory.getLogger(PlayerStatsProjection.class);
+    private static final Set<String> TYPES = Set.of("GameStartedEvent", "CardPlayedEvent", "GameOverEvent");
+
+    private final PlayerStatsRepository statsRepository;
+    private final EventStore eventStore;
+    private final ObjectMapper objectMapper;
+
+    public PlayerStatsProjection(PlayerStatsRepository statsRepository, EventStore eventStore,
+            ObjectMapper objectMapper) {
+        this.statsRepository = statsRepository;
+        this.eventStore = eventStore;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String name() {
+        return "player-stats";
+    }
+
+    @Override
+    public void apply(List<GameEventLog> events) {
+        List<GameEventLog> logs = new ArrayList<>();
+        List<GameEvent> decoded = new ArrayList<>();
+        Map<String, GameStartedEvent> starts = new HashMap<>();
+        Set<String> playerIds = new HashSet<>();
+        for (GameEventLog log : events) {
+            GameEvent event = TYPES.contains(log.getEventType()) ? decode(log) : null;
+            if (event == null || !hasPlayers(event)) {
+                continue;
+            }
+            if (event instanceof GameOverEvent) {
+                // The players are only named at the start, which may have been applied in an earlier batch.
+                GameStartedEvent start = starts.computeIfAbsent(log.getGameId(), this::readStart);
+                if (start == null) {
+                    continue;
+                }
+                // Their rows have to be loaded too, or finishing the game would start them from scratch.
+                playerIds.add(start.player1Id);
+                playerIds.add(start.player2Id);
+            }
+            if (event instanceof GameStartedEvent start) {
+                starts.put(log.getGameId(), start);
+                playerIds.add(start.player1Id);
+                playerIds.add(start.player2Id);
+            } else if (event instanceof CardPlayedEvent played) {
+                playerIds.add(played.playerId);
+            }
+            logs.add(log);
+            decoded.add(event);
+        }
+        if (decoded.isEmpty()) {
+            return;
+        }
+
+        Map<String, PlayerStats> stats = new HashMap<>();
+        statsRepository.findAllById(playerIds).forEach(s -> stats.put(s.getPlayerId(), s));
+        for (int i = 0; i < decoded.size(); i++) {
+            GameEventLog log = logs.get(i);
+            switch (decoded.get(i)) {
+                case GameStartedEvent start -> {
+                    stats(stats, start.player1Id).started(log.getEventTimestamp());
+                    stats(stats, start.player2Id).started(log.getEventTimestamp());
+                }
+                case CardPlayedEvent played -> stats(stats, played.playerId).playedCard();
+                case GameOverEvent over -> {
+                    GameStartedEvent start = starts.get(log.getGameId());
+                    for (String playerId : List.of(start.player1Id, start.player2Id)) {
+                        stats(stats, playerId).finished(
+                                over.winnerPlayerId == null ? null : over.winnerPlayerId.equals(playerId),
+                                log.getEventTimestamp());
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        statsRepository.saveAll(stats.values());
+    }
+
+    private static boolean hasPlayers(GameEvent event) {
+        return switch (event) {
+            case GameStartedEvent start -> start.player1Id != null && start.player2Id != null;
+            case CardPlayedEvent played -> played.playerId != null;
+            default -> true;
+        };
+    }
+
+    private static PlayerStats stats(Map<String, PlayerStats> stats, String playerId) {
+        return stats.computeIfAbsent(playerId, PlayerStats::new);
+    }
+
+    private GameStartedEvent readStart(String gameId) {
+        List<GameEventLog> first = eventStore.read(gameId, 0, 1);
+        if (!first.isEmpty() && decode(first.get(0)) instanceof GameStartedEvent start && hasPlayers(start)) {
+            return start;
+        }
+        return null;
+    }
+
+    private GameEvent decode(GameEventLog log) {
+        try {
+            return BinaryEventCodec.decode(log, objectMapper);
+        } catch (Exception e) {
+            logger.debug("[{}] Could not decode {} #{} for player stats: {}", log.getGameId(), log.getEventType(),
+                    log.getEventSequence(), e.getMessage());
+            return null;
+        }
+    }
+}
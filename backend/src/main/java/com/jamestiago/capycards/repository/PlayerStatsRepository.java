@@ -0,0 +1,14 @@
+package com.jamestiago.capycards.repository;
+
+import com.jamestiago.capycards.model.PlayerStats;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PlayerStatsRepository extends JpaRepository<PlayerStats, String> {
+
+    List<PlayerStats> findByOrderByWinsDesc(Limit limit);
+}
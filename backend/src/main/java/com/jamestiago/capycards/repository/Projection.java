@@ -0,0 +1,25 @@
+package com.jamestiago.capycards.repository;
+
+import com.jamestiago.capycards.game.events.GameEventLog;
+
+import java.util.List;
+
+/**
+ * A read model kept up to date from the event log by
+ * {@link com.jamestiago.capycards.service.ProjectionService}, off the command
+ * path. Each projection has its own checkpoint per game, so it can be added
+ * later, or fall behind, and catch up from the {@link EventStore}.
+ */
+public interface Projection {
+
+    /** Identifies the projection's checkpoints. At most 64 characters. */
+    String name();
+
+    /**
+     * Folds a batch of events, possibly from several games, into the read
+     * model. Each game's events are in order, follow on from the last ones
+     * applied, and are never handed over twice. Runs in the transaction that
+     * advances the checkpoints, so a failure leaves both untouched.
+     */
+    void apply(List<GameEventLog> events);
+}
@@ -0,0 +1,17 @@
+package com.jamestiago.capycards.repository;
+
+import com.jamestiago.capycards.model.ProjectionCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProjectionCheckpointRepository
+        extends JpaRepository<ProjectionCheckpoint, ProjectionCheckpoint.Key> {
+
+    @Query("SELECT c.gameId FROM ProjectionCheckpoint c WHERE c.projection = :projection AND c.finished = true")
+    List<String> findFinishedGameIds(@Param("projection") String projection);
+}
@@ -0,0 +1,520 @@
+package com.jamestiago.capycards.repository;
+
+import com.jamestiago.capycards.game.events.GameEventLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Stores events in append-only segment files on local disk, for single-node
+ * servers and load tests that shouldn't need a database for events.
+ *
+ * Each record is {@code [int payload length][int CRC32C of payload][payload]};
+ * the payload holds the game id, sequence, timestamp, event type and the
+ * event itself (binary, or JSON for events written by older versions).
+ * A batch is written with one write and one fsync, and segments roll over
+ * once they pass {@code capycards.segment-store.segment-size-mb}. On startup
+ * every segment is scanned to rebuild the in-memory per-game index of record
+ * offsets; a torn write at the end of the last segment is truncated away.
+ * Full segments are read through read-only memory mappings, made once each.
+ * The segment being appended to is read with positional reads instead: it
+ * keeps growing, and it may be truncated after a failed write, which must
+ * never happen under a live mapping.
+ */
+@Component
+@ConditionalOnProperty(name = "capycards.event-store", havingValue = "file")
+public class SegmentFileEventStore implements EventStore {
+    private static final Logger logger = LoggerFactory.getLogger(SegmentFileEventStore.class);
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final byte DATA_JSON = 0;
+    private static final byte DATA_BINARY = 1;
+    private static final String GAME_OVER_EVENT_TYPE = "GameOverEvent";
+
+    private final Path directory;
+    private final long segmentSizeBytes;
+    private final GameSummaryProjection summaryProjection;
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<String, GameIndex> index = new HashMap<>();
+    private FileChannel appendChannel;
+
+    @Autowired
+    public SegmentFileEventStore(@Value("${capycards.segment-store.dir:data/events}") String directory,
+            @Value("${capycards.segment-store.segment-size-mb:64}") int segmentSizeMb,
+            GameSummaryProjection summaryProjection) {
+        this(Paths.get(directory), segmentSizeMb * 1024L * 1024L, summaryProjection);
+    }
+
+    public SegmentFileEventStore(Path directory, long segmentSizeBytes) {
+        this(directory, segmentSizeBytes, null);
+    }
+
+    public SegmentFileEventStore(Path directory, long segmentSizeBytes, GameSummaryProjection summaryProjection) {
+        this.directory = directory;
+        this.segmentSizeBytes = segmentSizeBytes;
+        this.summaryProjection = summaryProjection;
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.getFileName().toString().matches("segment-\\d+\\.log"))
+                    .sorted(Comparator.comparing(p -> p.getFileName().toString()))
+                    .toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            int number = Integer.parseInt(file.getFileName().toString().replaceAll("\\D", ""));
+            Segment segment = new Segment(segments.size(), number, file);
+            segments.add(segment);
+            scan(segment, i == files.size() - 1);
+        }
+        if (segments.isEmpty()) {
+            addSegment(0);
+        } else {
+            openForAppend(segments.get(segments.size() - 1));
+        }
+        logger.info("Segment event store opened at {}: {} segments, {} games.", directory.toAbsolutePath(),
+                segments.size(), index.size());
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (appendChannel != null) {
+            appendChannel.close();
+            appendChannel = null;
+        }
+        for (Segment segment : segments) {
+            segment.mapped = null;
+        }
+    }
+
+    @Override
+    public void append(List<GameEventLog> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        write(events);
+        if (summaryProjection == null) {
+            return;
+        }
+        // The events are safely on disk; a summary that falls behind only affects the admin listings.
+        try {
+            summaryProjection.apply(events);
+        } catch (Exception e) {
+            logger.warn("Failed to update game summaries for {} events: {}", events.size(), e.getMessage());
+        }
+    }
+
+    private synchronized void write(List<GameEventLog> events) {
+        // Check the whole batch before writing any of it.
+        Map<String, Long> lastInBatch = new HashMap<>();
+        for (GameEventLog event : events) {
+            GameIndex gameIndex = index.get(event.getGameId());
+            long last = lastInBatch.getOrDefault(event.getGameId(),
+                    gameIndex == null ? -1 : gameIndex.lastSequence());
+            if (event.getEventSequence() <= last) {
+                if (lastInBatch.containsKey(event.getGameId()) || gameIndex.contains(event.getEventSequence())) {
+                    throw new DuplicateKeyException("Event " + event.getEventSequence() + " of game "
+                            + event.getGameId() + " is already stored.");
+                }
+                throw new IllegalArgumentException("Event " + event.getEventSequence() + " of game "
+                        + event.getGameId() + " is older than the latest stored event " + last + ".");
+            }
+            lastInBatch.put(event.getGameId(), event.getEventSequence());
+        }
+
+        List<byte[]> records = new ArrayList<>(events.size());
+        int batchBytes = 0;
+        for (GameEventLog event : events) {
+            byte[] record = encode(event);
+            records.add(record);
+            batchBytes += record.length;
+        }
+
+        Segment segment = segments.get(segments.size() - 1);
+        try {
+            if (segment.size > 0 && segment.size + batchBytes > segmentSizeBytes) {
+                segment = addSegment(segment.number + 1);
+            }
+            ByteBuffer batch = ByteBuffer.allocate(batchBytes);
+            for (byte[] record : records) {
+                batch.put(record);
+            }
+            batch.flip();
+            long position = segment.size;
+            while (batch.hasRemaining()) {
+                position += appendChannel.write(batch, position);
+            }
+            appendChannel.force(false);
+        } catch (IOException e) {
+            truncateQuietly(segment);
+            throw new DataAccessResourceFailureException("Failed to append " + events.size()
+                    + " events to " + segment.path, e);
+        }
+
+        long offset = segment.size;
+        for (int i = 0; i < events.size(); i++) {
+            GameEventLog event = events.get(i);
+            index.computeIfAbsent(event.getGameId(), id -> new GameIndex())
+                    .add(event.getEventSequence(), segment.ordinal, offset, event.getEventType());
+            offset += records.get(i).length;
+        }
+        segment.size = offset;
+    }
+
+    @Override
+    public synchronized List<GameEventLog> read(String gameId, long fromSequence) {
+        GameIndex gameIndex = index.get(gameId);
+        if (gameIndex == null) {
+            return List.of();
+        }
+        List<GameEventLog> events = new ArrayList<>(gameIndex.size);
+        for (int i = gameIndex.firstAtOrAfter(fromSequence); i < gameIndex.size; i++) {
+            events.add(readAt(gameIndex, i));
+        }
+        return events;
+    }
+
+    @Override
+    public synchronized List<GameEventLog> read(String gameId, long fromSequence, int limit) {
+        GameIndex gameIndex = index.get(gameId);
+        if (gameIndex == null) {
+            return List.of();
+        }
+        int first = gameIndex.firstAtOrAfter(fromSequence);
+        int end = (int) Math.min(gameIndex.size, (long) first + limit);
+        List<GameEventLog> events = new ArrayList<>(Math.max(0, end - first));
+        for (int i = first; i < end; i++) {
+            events.add(readAt(gameIndex, i));
+        }
+        return events;
+    }
+
+    @Override
+    public void replay(String gameId, long fromSequence, Consumer<GameEventLog> consumer) {
+        int next;
+        synchronized (this) {
+            GameIndex gameIndex = index.get(gameId);
+            if (gameIndex == null) {
+                return;
+            }
+            next = gameIndex.firstAtOrAfter(fromSequence);
+        }
+        // One record at a time, so appends aren't held up while the consumer works.
+        while (true) {
+            GameEventLog event;
+            synchronized (this) {
+                GameIndex gameIndex = index.get(gameId);
+                if (next >= gameIndex.size) {
+                    return;
+                }
+                event = readAt(gameIndex, next++);
+            }
+            consumer.accept(event);
+        }
+    }
+
+    private GameEventLog readAt(GameIndex gameIndex, int i) {
+        Segment segment = segments.get(gameIndex.segments[i]);
+        long offset = gameIndex.offsets[i];
+        try {
+            if (segment.ordinal < segments.size() - 1) {
+                return decode(segment.buffer(), (int) offset);
+            }
+            ByteBuffer record = readRecord(appendChannel, offset, segment.size);
+            if (record == null) {
+                throw new IOException("Record at offset " + offset + " runs past the end of the segment.");
+            }
+            return decode(record, 0);
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Failed to read " + segment.path, e);
+        }
+    }
+
+    @Override
+    public synchronized List<String> findActiveGameIds() {
+        return index.entrySet().stream()
+                .filter(entry -> !entry.getValue().gameOver)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @Override
+    public synchronized List<String> findAllGameIds() {
+        return index.keySet().stream().sorted(Comparator.reverseOrder()).toList();
+    }
+
+    private Segment addSegment(int number) throws IOException {
+        Path path = directory.resolve(String.format("segment-%010d.log", number));
+        Segment segment = new Segment(segments.size(), number, path);
+        Files.createFile(path);
+        segments.add(segment);
+        openForAppend(segment);
+        return segment;
+    }
+
+    private void openForAppend(Segment segment) throws IOException {
+        if (appendChannel != null) {
+            appendChannel.close();
+        }
+        appendChannel = FileChannel.open(segment.path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // Indexes every intact record in the segment, stopping at the first bad one.
+    private void scan(Segment segment, boolean last) throws IOException {
+        long fileSize = Files.size(segment.path);
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Segment " + segment.path + " is too large to map.");
+        }
+        segment.size = fileSize;
+        long position = 0;
+        if (last) {
+            // Its tail may be truncated below, so the active segment is never mapped.
+            try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.READ)) {
+                ByteBuffer record;
+                while ((record = readRecord(channel, position, fileSize)) != null) {
+                    int recordLength = validRecordLength(record, 0, record.capacity());
+                    if (recordLength < 0) {
+                        break;
+                    }
+                    indexRecord(segment, record, 0, position);
+                    position += recordLength;
+                }
+            }
+        } else {
+            MappedByteBuffer buffer = segment.buffer();
+            while (position < fileSize) {
+                int recordLength = validRecordLength(buffer, (int) position, (int) fileSize);
+                if (recordLength < 0) {
+                    break;
+                }
+                indexRecord(segment, buffer, (int) position, position);
+                position += recordLength;
+            }
+        }
+        if (position < fileSize) {
+            if (last) {
+                logger.warn("Truncating {} bytes of incomplete or corrupt records at the end of {}.",
+                        fileSize - position, segment.path);
+                try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.WRITE)) {
+                    channel.truncate(position);
+                }
+            } else {
+                logger.error("Corrupt record at offset {} of {}; the {} bytes after it are ignored.", position,
+                        segment.path, fileSize - position);
+            }
+            segment.size = position;
+        }
+    }
+
+    private void indexRecord(Segment segment, ByteBuffer buffer, int bufferPosition, long offset) {
+        int payload = bufferPosition + RECORD_HEADER_BYTES;
+        String gameId = readString(buffer, payload);
+        payload += 2 + utf8Length(buffer, payload);
+        long sequence = buffer.getLong(payload);
+        payload += 8 + 8 + 4;
+        String eventType = readString(buffer, payload);
+        index.computeIfAbsent(gameId, id -> new GameIndex()).add(sequence, segment.ordinal, offset, eventType);
+    }
+
+    /**
+     * Reads the record at {@code position} into a buffer of its own, starting
+     * at 0. Returns null if its header doesn't fit before {@code limit}; the
+     * checksum isn't checked.
+     */
+    private static ByteBuffer readRecord(FileChannel channel, long position, long limit) throws IOException {
+        if (limit - position < RECORD_HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        readFully(channel, header, position);
+        int payloadLength = header.getInt(0);
+        if (payloadLength <= 0 || payloadLength > limit - position - RECORD_HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payloadLength);
+        record.put(header.flip());
+        readFully(channel, record, position + RECORD_HEADER_BYTES);
+        return record;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of segment at offset " + position + ".");
+            }
+            position += read;
+        }
+    }
+
+    // Returns the total length of the record at position, or -1 if it's torn or fails its checksum.
+    private static int validRecordLength(ByteBuffer buffer, int position, int limit) {
+        if (limit - position < RECORD_HEADER_BYTES) {
+            return -1;
+        }
+        int payloadLength = buffer.getInt(position);
+        if (payloadLength <= 0 || payloadLength > limit - position - RECORD_HEADER_BYTES) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(position + RECORD_HEADER_BYTES, payloadLength));
+        if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+            return -1;
+        }
+        return RECORD_HEADER_BYTES + payloadLength;
+    }
+
+    private static byte[] encode(GameEventLog event) {
+        byte[] gameId = event.getGameId().getBytes(StandardCharsets.UTF_8);
+        byte[] eventType = event.getEventType().getBytes(StandardCharsets.UTF_8);
+        boolean binary = event.getEventPayload() != null;
+        byte[] data = binary ? event.getEventPayload() : event.getEventData().getBytes(StandardCharsets.UTF_8);
+        int payloadLength = 2 + gameId.length + 8 + 8 + 4 + 2 + eventType.length + 1 + 4 + data.length;
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payloadLength);
+        record.putInt(payloadLength);
+        record.putInt(0); // CRC, filled in below
+        record.putShort((short) gameId.length).put(gameId);
+        record.putLong(event.getEventSequence());
+        record.putLong(event.getEventTimestamp().getEpochSecond());
+        record.putInt(event.getEventTimestamp().getNano());
+        record.putShort((short) eventType.length).put(eventType);
+        record.put(binary ? DATA_BINARY : DATA_JSON);
+        record.putInt(data.length).put(data);
+
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), RECORD_HEADER_BYTES, payloadLength);
+        record.putInt(4, (int) crc.getValue());
+        return record.array();
+    }
+
+    private static GameEventLog decode(ByteBuffer buffer, int position) {
+        int payload = position + RECORD_HEADER_BYTES;
+        String gameId = readString(buffer, payload);
+        payload += 2 + utf8Length(buffer, payload);
+        long sequence = buffer.getLong(payload);
+        Instant timestamp = Instant.ofEpochSecond(buffer.getLong(payload + 8), buffer.getInt(payload + 16));
+        payload += 8 + 8 + 4;
+        String eventType = readString(buffer, payload);
+        payload += 2 + utf8Length(buffer, payload);
+        byte kind = buffer.get(payload);
+        byte[] data = new byte[buffer.getInt(payload + 1)];
+        buffer.get(payload + 5, data);
+        if (kind == DATA_BINARY) {
+            return new GameEventLog(gameId, sequence, timestamp, eventType, data);
+        }
+        return new GameEventLog(gameId, sequence, timestamp, eventType, new String(data, StandardCharsets.UTF_8));
+    }
+
+    private static int utf8Length(ByteBuffer buffer, int position) {
+        return Short.toUnsignedInt(buffer.getShort(position));
+    }
+
+    private static String readString(ByteBuffer buffer, int position) {
+        byte[] bytes = new byte[utf8Length(buffer, position)];
+        buffer.get(position + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Safe because the active segment is never mapped.
+    private void truncateQuietly(Segment segment) {
+        try {
+            appendChannel.truncate(segment.size);
+        } catch (IOException e) {
+            logger.error("Failed to truncate {} after a failed write; restart to recover.", segment.path, e);
+        }
+    }
+
+    private static final class Segment {
+        final int ordinal;
+        final int number;
+        final Path path;
+        long size;
+        MappedByteBuffer mapped;
+
+        Segment(int ordinal, int number, Path path) {
+            this.ordinal = ordinal;
+            this.number = number;
+            this.path = path;
+        }
+
+        // Only for full segments, which no longer change, so one mapping lasts.
+        MappedByteBuffer buffer() throws IOException {
+            if (mapped == null) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                }
+            }
+            return mapped;
+        }
+    }
+
+    // A game's records in sequence order, as parallel arrays.
+    private static final class GameIndex {
+        long[] sequences = new long[64];
+        int[] segments = new int[64];
+        long[] offsets = new long[64];
+        int size;
+        boolean gameOver;
+
+        void add(long sequence, int segment, long offset, String eventType) {
+            if (size > 0 && sequence <= sequences[size - 1]) {
+                return; // Already indexed; keep the first copy.
+            }
+            if (size == sequences.length) {
+                sequences = Arrays.copyOf(sequences, size * 2);
+                segments = Arrays.copyOf(segments, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            sequences[size] = sequence;
+            segments[size] = segment;
+            offsets[size] = offset;
+            size++;
+            gameOver |= GAME_OVER_EVENT_TYPE.equals(eventType);
+        }
+
+        long lastSequence() {
+            return size == 0 ? -1 : sequences[size - 1];
+        }
+
+        boolean contains(long sequence) {
+            return Arrays.binarySearch(sequences, 0, size, sequence) >= 0;
+        }
+
+        int firstAtOrAfter(long sequence) {
+            int found = Arrays.binarySearch(sequences, 0, size, sequence);
+            return found >= 0 ? found : -found - 1;
+        }
+    }
+}
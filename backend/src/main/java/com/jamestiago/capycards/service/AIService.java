@@ -2,32 +2,54 @@ package com.jamestiago.capycards.service;
 
 import com.jamestiago.capycards.game.Game;
 import com.jamestiago.capycards.game.GameEngine;
-import com.jamestiago.capycards.game.ai.AICommandGenerator;
-import com.jamestiago.capycards.game.ai.BoardEvaluator;
+import com.jamestiago.capycards.game.ai.EndgameSolver;
+import com.jamestiago.capycards.game.ai.EvaluationWeights;
+import com.jamestiago.capycards.game.ai.GreedyPolicy;
+import com.jamestiago.capycards.game.ai.LethalDetector;
+import com.jamestiago.capycards.game.ai.PositionKey;
+import com.jamestiago.capycards.game.ai.Ponderer;
 import com.jamestiago.capycards.game.commands.EndTurnCommand;
 import com.jamestiago.capycards.game.commands.GameCommand;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 @Service
 public class AIService {
     private static final Logger logger = LoggerFactory.getLogger(AIService.class);
     private final GameService gameService;
+    private final GreedyPolicy policy;
+    private final Ponderer ponderer;
+    private final boolean ponderEnabled;
     private ExecutorService aiThreadPool;
+    // Single low-priority daemon thread, so pondering only uses otherwise idle CPU.
+    private ExecutorService ponderThread;
+
+    // Per game: the running ponder task and the plans it has produced so far. Package-private for tests.
+    final Map<String, Future<?>> ponderTasks = new ConcurrentHashMap<>();
+    final Map<String, Map<PositionKey, GameCommand>> ponderedPlans = new ConcurrentHashMap<>();
 
     private static final int AI_ACTION_DELAY_MS = 1200; // Delay between AI actions
     private static final int AI_INITIAL_THINK_DELAY_MS = 1500; // Delay before the first action
 
-    public AIService(@Lazy GameService gameService, GameEngine gameEngine) {
+    public AIService(@Lazy GameService gameService, GameEngine gameEngine,
+            @Value("${ai.ponder.enabled:true}") boolean ponderEnabled,
+            @Value("${ai.endgame.max-state-size:" + EndgameSolver.DEFAULT_MAX_STATE_SIZE + "}") int endgameMaxStateSize) {
         this.gameService = gameService;
+        this.policy = new GreedyPolicy(gameEngine, EvaluationWeights.defaults(),
+                new EndgameSolver(gameEngine, endgameMaxStateSize), new LethalDetector(gameEngine));
+        this.ponderer = new Ponderer(policy);
+        this.ponderEnabled = ponderEnabled;
     }
 
     @PostConstruct
@@ -35,10 +57,17 @@ public class AIService {
         int availableProcessors = Runtime.getRuntime().availableProcessors();
         aiThreadPool = Executors.newFixedThreadPool(Math.max(1, availableProcessors / 2));
         logger.info("AIService initialized with a thread pool of size {}.", Math.max(1, availableProcessors / 2));
+        ponderThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ai-ponder");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
     }
 
     @PreDestroy
     public void shutdown() {
+        ponderThread.shutdownNow();
         aiThreadPool.shutdown();
         try {
             if (!aiThreadPool.awaitTermination(60, TimeUnit.SECONDS)) {
@@ -66,6 +95,45 @@ public class AIService {
         });
     }
 
+    /**
+     * Starts thinking about the AI's next turn while the opponent is playing.
+     * Any earlier pondering for the game is cancelled.
+     *
+     * @param snapshot a copy of the game that no other thread will touch.
+     */
+    public void startPondering(Game snapshot, String aiPlayerId) {
+        if (!ponderEnabled) {
+            return;
+        }
+        String gameId = snapshot.getGameId();
+        stopPondering(gameId);
+
+        Map<PositionKey, GameCommand> plans = new ConcurrentHashMap<>();
+        ponderedPlans.put(gameId, plans);
+        Future<?> task = ponderThread.submit(() -> {
+            try {
+                long start = System.nanoTime();
+                int entries = ponderer.ponder(snapshot, aiPlayerId, plans);
+                logger.debug("[{}] Pondered {} positions in {} ms.", gameId, entries,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (Exception e) {
+                logger.warn("[{}] Pondering failed: {}", gameId, e.getMessage());
+            }
+        });
+        ponderTasks.put(gameId, task);
+    }
+
+    /**
+     * Cancels pondering for a game and drops its cached plans.
+     */
+    public void stopPondering(String gameId) {
+        Future<?> task = ponderTasks.remove(gameId);
+        if (task != null) {
+            task.cancel(true);
+        }
+        ponderedPlans.remove(gameId);
+    }
+
     /**
      * The core AI logic loop. It decides on ONE action, executes it, and then
      * schedules the next decision.
@@ -100,34 +168,26 @@ public class AIService {
         // If the command was EndTurn, the loop naturally terminates.
     }
 
-    private GameCommand decideNextSingleMove(Game game, String aiPlayerId) {
-        List<GameCommand> possibleCommands = AICommandGenerator.generateValidCommands(game, aiPlayerId);
-        GameCommand bestCommand = null;
-
-        double bestScore = -Double.MAX_VALUE;
-
-        bestCommand = new EndTurnCommand(game.getGameId(), aiPlayerId);
-
-        double endTurnScore = BoardEvaluator.evaluate(game, aiPlayerId);
-        bestScore = endTurnScore;
-
-        for (GameCommand command : possibleCommands) {
-            if (command instanceof EndTurnCommand) {
-                continue;
+    /**
+     * Uses the pondered command for this position if there is one. A plan is
+     * dropped once it's used, and all of them once the game leaves the
+     * predicted lines or the turn ends, since they can't be reached again.
+     */
+    GameCommand decideNextSingleMove(Game game, String aiPlayerId) {
+        String gameId = game.getGameId();
+        Map<PositionKey, GameCommand> plans = ponderedPlans.get(gameId);
+        if (plans != null) {
+            GameCommand planned = plans.remove(PositionKey.of(game));
+            if (planned == null || planned instanceof EndTurnCommand) {
+                stopPondering(gameId);
             }
-
-            Game simulationGame = new Game(game);
-
-            double scoreAfterMove = BoardEvaluator.evaluate(simulationGame, aiPlayerId);
-            logger.trace("AI simulation: Command {} -> Score {}", command.getCommandType(), scoreAfterMove);
-
-            if (scoreAfterMove >= bestScore) {
-                bestScore = scoreAfterMove;
-                bestCommand = command;
+            if (planned != null) {
+                logger.debug("[{}] Using pondered command {}.", gameId, planned.getCommandType());
+                return planned;
             }
+            logger.debug("[{}] No pondered command for this position; dropped the remaining plans.", gameId);
         }
-
-        return bestCommand;
+        return policy.chooseCommand(game, aiPlayerId);
     }
 
     private boolean isGameInvalidForAITurn(Game game, String aiPlayerId) {
@@ -0,0 +1,218 @@
+package com.jamestiago.capycards.service;
+
+import com.jamestiago.capycards.game.Game;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The games held in memory, each with its lock. Games that go idle, or the
+ * least recently used ones once there are more than {@code maxGames}, are
+ * evicted: the eviction listener persists what it needs to and the game is
+ * marked cold. The next access to a cold game rebuilds it through the
+ * loader, so callers never need to know whether a game was in memory.
+ * <p>
+ * A lock belongs to its cache entry. Eviction only happens while holding it,
+ * and {@link #lock(String)} re-checks the entry after acquiring it, so a
+ * command that queued behind an eviction ends up on the rebuilt game.
+ */
+final class ActiveGameCache {
+    private static final Logger logger = LoggerFactory.getLogger(ActiveGameCache.class);
+
+    interface Loader {
+        /** @return the rebuilt game, or null if it can't be or is already over. */
+        Game load(String gameId) throws Exception;
+    }
+
+    interface EvictionListener {
+        /**
+         * Called with the game's lock held, just before it's dropped from memory.
+         *
+         * @return whether the loader will be able to rebuild it later.
+         */
+        boolean onEvict(Game game);
+    }
+
+    private static final class Entry {
+        final Game game;
+        final ReentrantLock lock = new ReentrantLock();
+        volatile long lastAccessNanos = System.nanoTime();
+
+        Entry(Game game) {
+            this.game = game;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Games known to be active but not in memory. Whoever needs one first runs its task.
+    private final Map<String, FutureTask<Game>> coldGames = new ConcurrentHashMap<>();
+    private final Loader loader;
+    private final EvictionListener evictionListener;
+    private final int maxGames;
+    private final long idleNanos;
+
+    ActiveGameCache(Loader loader, EvictionListener evictionListener, int maxGames, long idleMinutes) {
+        this.loader = loader;
+        this.evictionListener = evictionListener;
+        this.maxGames = maxGames;
+        this.idleNanos = TimeUnit.MINUTES.toNanos(idleMinutes);
+    }
+
+    void put(Game game) {
+        entries.put(game.getGameId(), new Entry(game));
+        coldGames.remove(game.getGameId());
+    }
+
+    /**
+     * @return the game, rebuilding it first if it's cold, or null if it isn't
+     *         an active game.
+     */
+    Game get(String gameId) {
+        Entry entry = entries.get(gameId);
+        if (entry != null) {
+            entry.lastAccessNanos = System.nanoTime();
+            return entry.game;
+        }
+        return hydrate(gameId);
+    }
+
+    /**
+     * Locks the game, rebuilding it first if it's cold. The caller must unlock
+     * the returned lock, and should read the game with {@link #get(String)}
+     * while holding it.
+     *
+     * @return the held lock, or null if it isn't an active game.
+     */
+    Lock lock(String gameId) {
+        while (true) {
+            Entry entry = entries.get(gameId);
+            if (entry == null) {
+                if (hydrate(gameId) == null) {
+                    return null;
+                }
+                continue;
+            }
+            entry.lock.lock();
+            if (entries.get(gameId) == entry) {
+                entry.lastAccessNanos = System.nanoTime();
+                return entry.lock;
+            }
+            // Evicted or replaced while we waited; try again with the current entry.
+            entry.lock.unlock();
+        }
+    }
+
+    void remove(String gameId) {
+        entries.remove(gameId);
+        coldGames.remove(gameId);
+    }
+
+    boolean contains(String gameId) {
+        return entries.containsKey(gameId);
+    }
+
+    /** Registers an active game that isn't in memory yet. */
+    void markCold(String gameId) {
+        coldGames.computeIfAbsent(gameId, id -> new FutureTask<>(() -> {
+            try {
+                Game game = loader.load(id);
+                if (game != null) {
+                    put(game);
+                }
+                return game;
+            } catch (Exception e) {
+                logger.error("Failed to reconstruct game {}", id, e);
+                return null;
+            } finally {
+                coldGames.remove(id);
+            }
+        }));
+    }
+
+    private Game hydrate(String gameId) {
+        FutureTask<Game> task = coldGames.get(gameId);
+        if (task == null) {
+            // Lost a race with the task finishing.
+            Entry entry = entries.get(gameId);
+            return entry != null ? entry.game : null;
+        }
+        task.run(); // No-op if it's already running or done.
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    /** The games in memory right now. */
+    List<Game> games() {
+        return entries.values().stream().map(entry -> entry.game).toList();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    int coldCount() {
+        return coldGames.size();
+    }
+
+    /**
+     * Evicts games idle for longer than the idle timeout, then the least
+     * recently used ones until the cache is back within its size bound.
+     * Games that are busy are skipped until the next sweep.
+     */
+    int evict() {
+        long now = System.nanoTime();
+        List<Map.Entry<String, Entry>> candidates = new ArrayList<>(entries.entrySet());
+        candidates.sort(Comparator.comparingLong(e -> e.getValue().lastAccessNanos));
+
+        int evicted = 0;
+        int excess = candidates.size() - maxGames;
+        for (Map.Entry<String, Entry> candidate : candidates) {
+            boolean idle = now - candidate.getValue().lastAccessNanos > idleNanos;
+            if (!idle && excess - evicted <= 0) {
+                break; // Sorted oldest first, so nothing after this is due either.
+            }
+            if (tryEvict(candidate.getKey(), candidate.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    private boolean tryEvict(String gameId, Entry entry) {
+        if (!entry.lock.tryLock()) {
+            return false;
+        }
+        try {
+            if (entries.get(gameId) != entry) {
+                return false;
+            }
+            if (evictionListener.onEvict(entry.game)) {
+                // Mark it cold first so there's no moment when it looks like it doesn't exist.
+                markCold(gameId);
+            }
+            entries.remove(gameId, entry);
+            return true;
+        } catch (Exception e) {
+            logger.warn("[{}] Failed to evict game: {}", gameId, e.getMessage());
+            return false;
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.jamestiago.capycards.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.CardBalanceStats;
+import com.jamestiago.capycards.game.CardCatalog;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.ai.EvaluationWeights;
+import com.jamestiago.capycards.game.ai.GreedyPolicy;
+import com.jamestiago.capycards.game.ai.HeadlessMatch;
+import com.jamestiago.capycards.game.events.GameStartedEvent;
+import com.jamestiago.capycards.model.Card;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Balance what-ifs: plays AI-vs-AI games in memory, on every core, between a
+ * deck built from the current catalog and the same deck with a proposed card
+ * definition swapped in, and reports how often the proposed side wins.
+ * <p>
+ * Nothing here reads or writes the database or touches live games: both
+ * catalogs are built from the in-memory {@link CardCatalogService#current()}.
+ * Only {@code game.what-if.max-runs} runs go at once.
+ */
+@Service
+public class BalanceSimulationService {
+    private static final Logger logger = LoggerFactory.getLogger(BalanceSimulationService.class);
+    // 95% confidence.
+    private static final double Z = 1.96;
+    private static final long PROGRESS_INTERVAL_MILLIS = 250;
+
+    /**
+     * Where a run has got to. The win rate counts decisive games only, with
+     * its 95% Wilson score interval; all three are null until there's one.
+     * A game that fails to play counts as a draw.
+     */
+    public record Progress(int completed, int total, int wins, int losses, int draws, Double winRate,
+            Double winRateLow, Double winRateHigh, long elapsedMillis, boolean done) {
+    }
+
+    /** A run in progress; cancelling it skips the games not yet started. */
+    public static final class Run {
+        private volatile boolean cancelled;
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final CardCatalogService catalogService;
+    private final CardBalanceService balanceService;
+    private final GameEngine gameEngine;
+    private final ObjectMapper objectMapper;
+    private final int threads;
+    private final int maxGames;
+    private final Semaphore runs;
+    private ExecutorService workers;
+
+    public BalanceSimulationService(CardCatalogService catalogService, CardBalanceService balanceService,
+            GameEngine gameEngine, ObjectMapper objectMapper,
+            @Value("${game.what-if.threads:0}") int threads,
+            @Value("${game.what-if.max-games:20000}") int maxGames,
+            @Value("${game.what-if.max-runs:1}") int maxRuns) {
+        this.catalogService = catalogService;
+        this.balanceService = balanceService;
+        this.gameEngine = gameEngine;
+        this.objectMapper = objectMapper;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.maxGames = Math.max(1, maxGames);
+        this.runs = new Semaphore(Math.max(1, maxRuns));
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger count = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "what-if-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            // Keep live games' threads ahead of a long simulation.
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts a run of {@code games} games with {@code proposed} replacing the
+     * card with the same id, or added if there's none. {@code listener} gets
+     * a {@link Progress} every so often from a worker thread, never two at
+     * once, and a last one with {@code done} set; if it throws, the run is
+     * cancelled.
+     *
+     * @throws IllegalArgumentException if the card or game count is invalid.
+     * @throws IllegalStateException    if too many runs are going already.
+     */
+    public Run start(Card proposed, int games, long seed, Consumer<Progress> listener) {
+        validate(proposed, games);
+        if (!runs.tryAcquire()) {
+            throw new IllegalStateException("A balance simulation is already running.");
+        }
+        CardCatalog current = catalogService.current();
+        List<Card> baselinePool = new ArrayList<>(current.getAll());
+        List<Card> proposedPool = new ArrayList<>(baselinePool.size() + 1);
+        for (Card card : baselinePool) {
+            proposedPool.add(card.getCardId().equals(proposed.getCardId()) ? proposed : card);
+        }
+        Card replaced = current.get(proposed.getCardId());
+        if (replaced == null) {
+            proposedPool.add(proposed);
+        }
+        // Games are played with the proposed catalog; the baseline deck's copies of the card it replaces
+        // aren't part of it, but their effects are compiled along with it.
+        CardCatalog proposedCatalog = CardCatalog.of(current.getVersion(), proposedPool,
+                replaced == null ? List.of() : List.of(replaced));
+        // Both sides' copies of the card share its id, so the run's per-card metrics cover both versions.
+        CardBalanceStats stats = balanceService.startSimulation();
+        logger.info("Balance what-if for {}: {} games on {} threads.", proposed.getCardId(), games, threads);
+
+        Run run = new Run();
+        Tally tally = new Tally(games, proposed.getCardId(), listener, run);
+        GreedyPolicy policy = new GreedyPolicy(gameEngine, EvaluationWeights.defaults());
+        for (int i = 0; i < games; i++) {
+            int gameIndex = i;
+            workers.execute(() -> {
+                Boolean proposedWon = null;
+                try {
+                    if (!run.isCancelled()) {
+                        proposedWon = play(gameIndex, seed, baselinePool, proposed, proposedCatalog, policy,
+                                stats);
+                    }
+                } catch (Exception e) {
+                    logger.warn("What-if game {} failed: {}", gameIndex, e.getMessage());
+                } finally {
+                    tally.record(proposedWon);
+                }
+            });
+        }
+        return run;
+    }
+
+    /** The Wilson score interval for {@code successes} out of {@code trials}, or null if there were none. */
+    static double[] wilson(long successes, long trials, double z) {
+        if (trials <= 0) {
+            return null;
+        }
+        double p = (double) successes / trials;
+        double z2 = z * z;
+        double denominator = 1 + z2 / trials;
+        double centre = (p + z2 / (2.0 * trials)) / denominator;
+        double margin = z * Math.sqrt(p * (1 - p) / trials + z2 / (4.0 * trials * trials)) / denominator;
+        return new double[] { Math.max(0, centre - margin), Math.min(1, centre + margin) };
+    }
+
+    // True if the proposed side won, false if it lost, null for a draw.
+    private Boolean play(int gameIndex, long seed, List<Card> baselinePool, Card proposed, CardCatalog catalog,
+            GreedyPolicy policy, CardBalanceStats stats) {
+        Random random = new Random(seed + gameIndex);
+        List<Card> baselineDeck = HeadlessMatch.buildDeck(baselinePool, random);
+        List<Card> proposedDeck = withProposed(baselineDeck, proposed, random);
+        boolean proposedIsPlayer1 = gameIndex % 2 == 0;
+        Game game = proposedIsPlayer1 ? HeadlessMatch.newGame(proposedDeck, baselineDeck, catalog)
+                : HeadlessMatch.newGame(baselineDeck, proposedDeck, catalog);
+
+        stats.accept(new GameStartedEvent(game.getGameId(), 0, game.getPlayer1().getPlayerId(),
+                game.getPlayer2().getPlayerId(), game.getPlayer1().getPlayerId()));
+        HeadlessMatch.Result result = HeadlessMatch.play(gameEngine, game, policy, policy, stats::accept);
+        stats.discard(game.getGameId());
+        if (result.isDraw()) {
+            return null;
+        }
+        String proposedId = (proposedIsPlayer1 ? game.getPlayer1() : game.getPlayer2()).getPlayerId();
+        return result.winnerPlayerId().equals(proposedId);
+    }
+
+    /**
+     * The deck with the proposed card in place of every copy of the card it
+     * replaces, or in one slot picked by {@code random} if it's new, so the
+     * two decks differ only there. A card that isn't directly playable is
+     * left out, as it would be from any deck.
+     */
+    static List<Card> withProposed(List<Card> deck, Card proposed, Random random) {
+        List<Card> proposedDeck = new ArrayList<>(deck);
+        if (!proposed.isDirectlyPlayable()) {
+            proposedDeck.removeIf(card -> card.getCardId().equals(proposed.getCardId()));
+            return proposedDeck;
+        }
+        boolean swapped = false;
+        for (int i = 0; i < proposedDeck.size(); i++) {
+            if (proposedDeck.get(i).getCardId().equals(proposed.getCardId())) {
+                proposedDeck.set(i, proposed);
+                swapped = true;
+            }
+        }
+        if (!swapped && !proposedDeck.isEmpty()) {
+            proposedDeck.set(random.nextInt(proposedDeck.size()), proposed);
+        }
+        return proposedDeck;
+    }
+
+    private void validate(Card proposed, int games) {
+        if (proposed == null || proposed.getCardId() == null || proposed.getCardId().isBlank()) {
+            throw new IllegalArgumentException("The proposed card needs a cardId.");
+        }
+        if (games < 1 || games > maxGames) {
+            throw new IllegalArgumentException("games must be between 1 and " + maxGames + ".");
+        }
+        String effects = proposed.getEffectConfiguration();
+        if (effects != null && !effects.isBlank()) {
+            try {
+                if (!objectMapper.readTree(effects).isArray()) {
+                    throw new IllegalArgumentException("effectConfiguration must be a JSON array.");
+                }
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("effectConfiguration is not valid JSON: "
+                        + e.getOriginalMessage());
+            }
+        }
+    }
+
+    // Counts results as the workers finish games, and reports them.
+    private final class Tally {
+        final int total;
+        final String cardId;
+        final Consumer<Progress> listener;
+        final Run run;
+        final long startNanos = System.nanoTime();
+        int completed;
+        int wins;
+        int losses;
+        int draws;
+        long lastReportNanos;
+
+        Tally(int total, String cardId, Consumer<Progress> listener, Run run) {
+            this.total = total;
+            this.cardId = cardId;
+            this.listener = listener;
+            this.run = run;
+        }
+
+        synchronized void record(Boolean proposedWon) {
+            completed++;
+            if (proposedWon == null) {
+                draws++;
+            } else if (proposedWon) {
+                wins++;
+            } else {
+                losses++;
+            }
+            long now = System.nanoTime();
+            boolean done = completed == total;
+            if (!done && now - lastReportNanos < PROGRESS_INTERVAL_MILLIS * 1_000_000) {
+                return;
+            }
+            lastReportNanos = now;
+            if (done) {
+                runs.release();
+                logger.info("Balance what-if for {} finished: {} wins, {} losses, {} draws{}.", cardId, wins,
+                        losses, draws, run.isCancelled() ? " (cancelled)" : "");
+            }
+            if (run.isCancelled()) {
+                return;
+            }
+            try {
+                listener.accept(progress(now, done));
+            } catch (Exception e) {
+                logger.info("Balance what-if for {} cancelled: {}", cardId, e.getMessage());
+                run.cancel();
+            }
+        }
+
+        private Progress progress(long now, boolean done) {
+            double[] interval = wilson(wins, wins + losses, Z);
+            return new Progress(completed, total, wins, losses, draws,
+                    interval == null ? null : (double) wins / (wins + losses),
+                    interval == null ? null : interval[0], interval == null ? null : interval[1],
+                    (now - startNanos) / 1_000_000, done);
+        }
+    }
+}
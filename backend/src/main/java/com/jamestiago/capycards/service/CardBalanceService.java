@@ -0,0 +1,106 @@
+package com.jamestiago.capycards.service;
+
+import com.jamestiago.capycards.game.CardBalanceStats;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.events.GameEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Card balance metrics for live games and for the latest simulation run,
+ * kept apart so simulations don't skew what players are actually seeing. Live games are
+ * fed in by {@link GameService} as their events are applied, simulated ones
+ * by {@link BalanceSimulationService}. Everything is in memory and starts
+ * from zero after a restart.
+ */
+@Service
+public class CardBalanceService {
+    private static final Logger logger = LoggerFactory.getLogger(CardBalanceService.class);
+
+    public enum Source {
+        LIVE, SIMULATED
+    }
+
+    private final CardBalanceStats live;
+    private final long bucketMillis;
+    private final int buckets;
+    private volatile CardBalanceStats simulated;
+    private final long idleMillis;
+    private ScheduledExecutorService sweeper;
+
+    public CardBalanceService(@Value("${game.balance.bucket-minutes:5}") long bucketMinutes,
+            @Value("${game.balance.buckets:288}") int buckets,
+            @Value("${game.cache.idle-minutes:30}") long idleMinutes) {
+        this.bucketMillis = TimeUnit.MINUTES.toMillis(Math.max(1, bucketMinutes));
+        this.buckets = buckets;
+        this.live = new CardBalanceStats(bucketMillis, buckets);
+        this.simulated = new CardBalanceStats(bucketMillis, buckets);
+        // Games idle for longer are evicted from the cache, and resumed when they come back.
+        this.idleMillis = TimeUnit.MINUTES.toMillis(idleMinutes);
+    }
+
+    @PostConstruct
+    public void init() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::compactIdle, 10, 10, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /** Counts the events of a live game, in the order they were applied. */
+    public void recordLive(List<GameEvent> events) {
+        for (GameEvent event : events) {
+            live.accept(event);
+        }
+    }
+
+    /** Picks up a live game rebuilt from its snapshot or events, which may have gone idle. */
+    public void resumeLive(Game game) {
+        live.resume(game);
+    }
+
+    /** Stops tracking a live game that was dropped before it ended. */
+    public void forgetLive(String gameId) {
+        live.discard(gameId);
+    }
+
+    /**
+     * Starts over the simulated metrics for a new simulation run, which
+     * reports its events to the returned stats. Only the latest run's
+     * metrics are kept.
+     */
+    public CardBalanceStats startSimulation() {
+        CardBalanceStats stats = new CardBalanceStats(bucketMillis, buckets);
+        simulated = stats;
+        return stats;
+    }
+
+    public CardBalanceStats stats(Source source) {
+        return source == Source.SIMULATED ? simulated : live;
+    }
+
+    private void compactIdle() {
+        int compacted = live.compactIdle(idleMillis) + simulated.compactIdle(idleMillis);
+        if (compacted > 0) {
+            logger.info("Compacted the card balance tallies of {} idle games.", compacted);
+        }
+    }
+}
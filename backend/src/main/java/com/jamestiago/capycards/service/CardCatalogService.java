@@ -0,0 +1,111 @@
+package com.jamestiago.capycards.service;
+
+import com.jamestiago.capycards.game.CardCatalog;
+import com.jamestiago.capycards.game.EffectGraph;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.repository.CardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the current {@link CardCatalog}. Reading it is a volatile read; card
+ * edits publish a whole new version, which new games pick up while running
+ * games keep the version they started with.
+ * <p>
+ * Older versions are kept for as long as some unfinished game is played with
+ * them, so that a game evicted from memory is rebuilt with its own cards.
+ * Versions only live in memory: after a restart every game continues on the
+ * current one.
+ */
+@Service
+public class CardCatalogService {
+    private static final Logger logger = LoggerFactory.getLogger(CardCatalogService.class);
+    private final CardRepository cardRepository;
+    private final Map<Long, CardCatalog> versions = new ConcurrentHashMap<>();
+    private volatile CardCatalog current;
+    // Counts on from the clock, so a version recorded before a restart never names another catalog after it.
+    private long lastVersion = System.currentTimeMillis();
+
+    public CardCatalogService(CardRepository cardRepository) {
+        this.cardRepository = cardRepository;
+    }
+
+    /** The latest published catalog, publishing the first one if need be. */
+    public CardCatalog current() {
+        CardCatalog catalog = current;
+        return catalog != null ? catalog : publish();
+    }
+
+    /**
+     * Builds a new catalog version from the cards in the database and makes it
+     * current. Call after any change to the cards table.
+     */
+    public synchronized CardCatalog publish() {
+        // Copies, so later edits to the managed entities can't leak into the catalog.
+        List<Card> cards = cardRepository.findAll().stream().map(Card::new).toList();
+        CardCatalog catalog = CardCatalog.of(++lastVersion, cards);
+        // Built before the swap, so the index always matches the current version.
+        catalog.index();
+        EffectGraph effectGraph = catalog.effectGraph();
+        versions.put(catalog.getVersion(), catalog);
+        current = catalog;
+        if (catalog.isEmpty()) {
+            logger.error("CRITICAL: Published card catalog version {} with no cards! Games cannot start.",
+                    catalog.getVersion());
+        } else {
+            logger.info("Published card catalog version {} with {} cards ({} directly playable).",
+                    catalog.getVersion(), catalog.size(), catalog.getPlayable().size());
+        }
+        if (!effectGraph.isLoopFree()) {
+            logger.warn("Card catalog version {}: effects of {} might set each other off forever; "
+                    + "resolutions with them in play get a tight wave budget.", catalog.getVersion(),
+                    effectGraph.getLoopingCardIds());
+        }
+        return catalog;
+    }
+
+    /**
+     * The catalog a game recorded as its own.
+     *
+     * @param version null if the game didn't record one.
+     * @return that version, or the current one if it's unknown or no longer kept.
+     */
+    public CardCatalog forVersion(Long version) {
+        CardCatalog catalog = version != null ? versions.get(version) : null;
+        if (catalog != null) {
+            return catalog;
+        }
+        CardCatalog latest = current();
+        if (version != null && version != latest.getVersion()) {
+            logger.info("Card catalog version {} is no longer kept; using version {}.", version,
+                    latest.getVersion());
+        }
+        return latest;
+    }
+
+    /**
+     * Drops the kept versions that no game plays with any more, other than
+     * the current one.
+     *
+     * @return the number of versions dropped.
+     */
+    public synchronized int retainOnly(Collection<Long> inUse) {
+        long latest = current().getVersion();
+        Set<Long> keep = new HashSet<>(inUse);
+        int before = versions.size();
+        versions.keySet().removeIf(version -> version != latest && !keep.contains(version));
+        return before - versions.size();
+    }
+
+    int versionCount() {
+        return versions.size();
+    }
+}
@@ -1,77 +1,197 @@
 package com.jamestiago.capycards.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jamestiago.capycards.model.Card;
-import com.jamestiago.capycards.model.Rarity;
+import com.jamestiago.capycards.model.CardCatalogState;
+import com.jamestiago.capycards.repository.CardCatalogStateRepository;
 import com.jamestiago.capycards.repository.CardRepository;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Optional;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+/**
+ * Loads the bundled card definition files into the cards table. Each card
+ * keeps the SHA-256 of the file it came from, and the catalog state keeps a
+ * hash over all of them, so a restart with unchanged files costs one lookup
+ * and only changed files are parsed and written.
+ */
 @Service
 public class CardDataSeeder {
     private static final Logger logger = LoggerFactory.getLogger(CardDataSeeder.class);
+    // Bump when applyDefinition changes how files map onto cards, so every card is rewritten.
+    private static final int SEED_FORMAT = 1;
 
     private final CardRepository cardRepository;
+    private final CardCatalogStateRepository stateRepository;
     private final ObjectMapper objectMapper;
+    private final CardDefinitionLoader definitionLoader;
+    private final CardCatalogService catalogService;
+    private final TransactionTemplate transactionTemplate;
 
-    public CardDataSeeder(CardRepository cardRepository, ObjectMapper objectMapper) {
+    private record DefinitionFile(String name, byte[] content, String hash) {
+    }
+
+    public CardDataSeeder(CardRepository cardRepository, CardCatalogStateRepository stateRepository,
+            ObjectMapper objectMapper, CardCatalogService catalogService,
+            PlatformTransactionManager transactionManager) {
         this.cardRepository = cardRepository;
+        this.stateRepository = stateRepository;
         this.objectMapper = objectMapper;
+        this.catalogService = catalogService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.definitionLoader = new CardDefinitionLoader(objectMapper);
     }
 
     @PostConstruct
-    @Transactional
     public void seedCards() {
-        logger.info("Starting card data seeding process...");
+        seed(false);
+    }
+
+    /**
+     * Seeds the cards from the definition files.
+     *
+     * @param force compare every card's hash even if the catalog hash matches,
+     *              e.g. after the table was edited outside the admin API.
+     * @return the number of cards written, or -1 if the files couldn't be read.
+     */
+    public int seed(boolean force) {
+        long start = System.nanoTime();
+        List<DefinitionFile> files;
         try {
-            PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
-            Resource[] resources = resolver.getResources("classpath:card_definitions/*.json");
-            logger.info("Found {} card definition files to process.", resources.length);
+            files = readDefinitionFiles();
+        } catch (IOException e) {
+            logger.error("Failed to read card definition resources.", e);
+            return -1;
+        }
+        String catalogHash = catalogHash(files);
+        CardCatalogState state = stateRepository.findById(CardCatalogState.BUNDLED).orElse(null);
+        if (!force && state != null && state.getContentHash().equals(catalogHash)) {
+            logger.info("Card definitions unchanged ({} files); skipping seeding.", files.size());
+            catalogService.current();
+            return 0;
+        }
 
-            for (Resource resource : resources) {
-                try (InputStream inputStream = resource.getInputStream()) {
-                    JsonNode rootNode = objectMapper.readTree(inputStream);
-                    
-                    String cardId = rootNode.get("cardId").asText();
-                    Optional<Card> existingCardOpt = cardRepository.findByCardId(cardId);
-                    
-                    Card card = existingCardOpt.orElseGet(Card::new);
-                    
-                    card.setCardId(cardId);
-                    card.setName(rootNode.get("name").asText());
-                    card.setType(rootNode.get("type").asText());
-                    card.setInitialLife(rootNode.get("initialLife").asInt());
-                    card.setAttack(rootNode.get("attack").asInt());
-                    card.setDefense(rootNode.get("defense").asInt());
-                    card.setEffectText(rootNode.get("effectText").asText());
-                    card.setRarity(Rarity.valueOf(rootNode.get("rarity").asText()));
-                    card.setImageUrl(rootNode.get("imageUrl").asText());
-                    card.setFlavorText(rootNode.path("flavorText").asText(null));
-                    card.setDirectlyPlayable(rootNode.path("isDirectlyPlayable").asBoolean(true));
+        Integer written = transactionTemplate.execute(status -> upsertChanged(files, catalogHash));
+        logger.info("Card data seeding wrote {} of {} cards in {} ms.", written, files.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        catalogService.publish();
+        return written != null ? written : 0;
+    }
 
-                    // Serialize the effectConfiguration part of the JSON back into a string
-                    JsonNode effectConfigNode = rootNode.get("effectConfiguration");
-                    if (effectConfigNode != null) {
-                        card.setEffectConfiguration(objectMapper.writeValueAsString(effectConfigNode));
-                    }
+    /** Forgets the catalog hash, so the next seed compares each card again. */
+    public void markModified() {
+        stateRepository.deleteById(CardCatalogState.BUNDLED);
+    }
 
-                    cardRepository.save(card);
-                    logger.trace("Successfully seeded/updated card: {}", card.getName());
+    private int upsertChanged(List<DefinitionFile> files, String catalogHash) {
+        Map<String, String> storedHashes = new HashMap<>();
+        for (Object[] row : cardRepository.findContentHashes()) {
+            storedHashes.put((String) row[0], (String) row[1]);
+        }
+        // A file's content includes its cardId, so a stored hash means the card is up to date.
+        Set<String> upToDate = new HashSet<>(storedHashes.values());
+        List<Card> parsed = new ArrayList<>();
+        for (DefinitionFile file : files) {
+            if (upToDate.contains(file.hash())) {
+                continue;
+            }
+            try {
+                Card card = new Card();
+                definitionLoader.applyDefinition(objectMapper.readTree(file.content()), card);
+                card.setContentHash(file.hash());
+                if (!file.hash().equals(storedHashes.get(card.getCardId()))) {
+                    parsed.add(card);
                 }
+            } catch (Exception e) {
+                logger.error("Skipping card definition {}: {}", file.name(), e.getMessage());
             }
-            logger.info("Card data seeding process completed successfully.");
-        } catch (IOException e) {
-            logger.error("Failed to read card definition resources.", e);
+        }
+        if (!parsed.isEmpty()) {
+            Map<String, Card> existing = cardRepository
+                    .findByCardIdIn(parsed.stream().map(Card::getCardId).toList()).stream()
+                    .collect(Collectors.toMap(Card::getCardId, Function.identity()));
+            List<Card> toSave = new ArrayList<>(parsed.size());
+            for (Card definition : parsed) {
+                Card card = existing.get(definition.getCardId());
+                if (card == null) {
+                    toSave.add(definition);
+                } else {
+                    copyDefinition(definition, card);
+                    toSave.add(card);
+                }
+                logger.trace("Seeding card: {}", definition.getName());
+            }
+            cardRepository.saveAll(toSave);
+        }
+        stateRepository.save(new CardCatalogState(CardCatalogState.BUNDLED, catalogHash, files.size(), Instant.now()));
+        return parsed.size();
+    }
+
+    private static void copyDefinition(Card from, Card to) {
+        to.setName(from.getName());
+        to.setType(from.getType());
+        to.setInitialLife(from.getInitialLife());
+        to.setAttack(from.getAttack());
+        to.setDefense(from.getDefense());
+        to.setEffectText(from.getEffectText());
+        to.setEffectConfiguration(from.getEffectConfiguration());
+        to.setRarity(from.getRarity());
+        to.setImageUrl(from.getImageUrl());
+        to.setFlavorText(from.getFlavorText());
+        to.setDirectlyPlayable(from.isDirectlyPlayable());
+        to.setContentHash(from.getContentHash());
+    }
+
+    private List<DefinitionFile> readDefinitionFiles() throws IOException {
+        List<DefinitionFile> files = new ArrayList<>();
+        for (Resource resource : definitionLoader.findDefinitionFiles()) {
+            try (InputStream inputStream = resource.getInputStream()) {
+                byte[] content = inputStream.readAllBytes();
+                MessageDigest digest = sha256();
+                digest.update(("format " + SEED_FORMAT + "\n").getBytes(StandardCharsets.UTF_8));
+                files.add(new DefinitionFile(Objects.toString(resource.getFilename(), ""), content,
+                        HexFormat.of().formatHex(digest.digest(content))));
+            }
+        }
+        files.sort(Comparator.comparing(DefinitionFile::name));
+        return files;
+    }
+
+    private static String catalogHash(List<DefinitionFile> files) {
+        MessageDigest digest = sha256();
+        for (DefinitionFile file : files) {
+            digest.update((file.name() + " " + file.hash() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,71 @@
+package com.jamestiago.capycards.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.model.Rarity;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the card definition JSON files bundled under {@code card_definitions/}.
+ * Shared by the database seeder and by headless tools (e.g. the AI weight
+ * tuner) that need the card pool without a running database.
+ */
+public class CardDefinitionLoader {
+    public static final String CARD_DEFINITIONS_PATTERN = "classpath:card_definitions/*.json";
+
+    private final ObjectMapper objectMapper;
+
+    public CardDefinitionLoader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public Resource[] findDefinitionFiles() throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        return resolver.getResources(CARD_DEFINITIONS_PATTERN);
+    }
+
+    /**
+     * Loads every bundled definition into new, detached {@link Card} objects.
+     */
+    public List<Card> loadAll() throws IOException {
+        List<Card> cards = new ArrayList<>();
+        for (Resource resource : findDefinitionFiles()) {
+            try (InputStream inputStream = resource.getInputStream()) {
+                Card card = new Card();
+                applyDefinition(objectMapper.readTree(inputStream), card);
+                cards.add(card);
+            }
+        }
+        return cards;
+    }
+
+    /**
+     * Copies the fields of a definition JSON document onto the given card.
+     */
+    public void applyDefinition(JsonNode rootNode, Card card) throws IOException {
+        card.setCardId(rootNode.get("cardId").asText());
+        card.setName(rootNode.get("name").asText());
+        card.setType(rootNode.get("type").asText());
+        card.setInitialLife(rootNode.get("initialLife").asInt());
+        card.setAttack(rootNode.get("attack").asInt());
+        card.setDefense(rootNode.get("defense").asInt());
+        card.setEffectText(rootNode.get("effectText").asText());
+        card.setRarity(Rarity.valueOf(rootNode.get("rarity").asText()));
+        card.setImageUrl(rootNode.get("imageUrl").asText());
+        card.setFlavorText(rootNode.path("flavorText").asText(null));
+        card.setDirectlyPlayable(rootNode.path("isDirectlyPlayable").asBoolean(true));
+
+        // Serialize the effectConfiguration part of the JSON back into a string
+        JsonNode effectConfigNode = rootNode.get("effectConfiguration");
+        if (effectConfigNode != null) {
+            card.setEffectConfiguration(objectMapper.writeValueAsString(effectConfigNode));
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package com.jamestiago.capycards.service;
+
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.Player;
+import com.jamestiago.capycards.game.events.BinaryEventCodec;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.game.events.GameEventLog;
+import com.jamestiago.capycards.repository.EventStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind journal for game events. Commands hand their events over and
+ * carry on; a single writer thread drains the queue and persists whatever has
+ * accumulated, across all games, in one batch. How long a command waits for
+ * its events to reach the {@link EventStore} depends on the game's {@link Durability}.
+ * <p>
+ * A game's events are never written past a gap. If an ASYNC write fails, the
+ * game's later events are refused until it has been rebuilt from the log and
+ * {@link #resume(String) resumed}.
+ */
+@Service
+public class EventJournal {
+    private static final Logger logger = LoggerFactory.getLogger(EventJournal.class);
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    private static final long SYNC_TIMEOUT_SECONDS = 30;
+
+    public enum Durability {
+        /** The command waits until its events are committed. */
+        SYNC,
+        /** Events are queued and committed shortly afterwards. */
+        ASYNC,
+        /** Events are never persisted; the game can't be recovered after a restart. */
+        MEMORY_ONLY
+    }
+
+    // Either a command's events or an action to run once everything before it is written.
+    // Whoever sets claimed first decides a SYNC entry: the writer writes it, a timed-out caller cancels it.
+    private record Entry(String gameId, long firstSequence, Instant appendedAt, List<GameEvent> events,
+            Runnable action, CompletableFuture<Boolean> done, AtomicBoolean claimed) {
+    }
+
+    private final EventStore eventStore;
+    private final ProjectionService projectionService;
+    private final Durability pvpDurability;
+    private final Durability aiDurability;
+    private final int maxBatchEntries;
+    private final BlockingQueue<Entry> queue;
+    private final Set<String> failedGames = ConcurrentHashMap.newKeySet();
+    private Thread writerThread;
+    private volatile boolean closed;
+    // Set by the writer just before its last drain; after that, callers write for themselves.
+    private volatile boolean writerExited;
+
+    public EventJournal(EventStore eventStore, ProjectionService projectionService,
+            @Value("${game.journal.durability.pvp:ASYNC}") Durability pvpDurability,
+            @Value("${game.journal.durability.ai:ASYNC}") Durability aiDurability,
+            @Value("${game.journal.queue-capacity:4096}") int queueCapacity,
+            @Value("${game.journal.max-batch:256}") int maxBatchEntries) {
+        this.eventStore = eventStore;
+        this.projectionService = projectionService;
+        this.pvpDurability = pvpDurability;
+        this.aiDurability = aiDurability;
+        this.maxBatchEntries = Math.max(1, maxBatchEntries);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    @PostConstruct
+    public void init() {
+        writerThread = new Thread(this::writeLoop, "event-journal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        logger.info("EventJournal initialized. PvP games: {}, AI games: {}, queue capacity: {}.", pvpDurability,
+                aiDurability, queue.remainingCapacity());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Stop taking new work and let the writer drain what's queued.
+        closed = true;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            logger.error("EventJournal shut down with {} unwritten entries.", queue.size());
+        }
+    }
+
+    public Durability durabilityFor(Game game) {
+        for (Player player : List.of(game.getPlayer1(), game.getPlayer2())) {
+            if (player != null && player.isAi()) {
+                return aiDurability;
+            }
+        }
+        return pvpDurability;
+    }
+
+    /**
+     * Journals {@code events}, numbered from {@code firstSequence}. Blocks while
+     * the queue is full, and for SYNC games until the events are committed.
+     *
+     * @return false if the events won't be written and must not be applied:
+     *         a SYNC write failed or timed out, or the game has
+     *         {@link #hasFailed(String) failed}. True otherwise.
+     */
+    public boolean append(String gameId, long firstSequence, List<GameEvent> events, Durability durability) {
+        if (durability == Durability.MEMORY_ONLY || events.isEmpty()) {
+            return true;
+        }
+        if (failedGames.contains(gameId)) {
+            return false;
+        }
+        CompletableFuture<Boolean> done = durability == Durability.SYNC ? new CompletableFuture<>() : null;
+        Entry entry = new Entry(gameId, firstSequence, Instant.now(), List.copyOf(events), null, done,
+                new AtomicBoolean());
+        if (!submit(entry)) {
+            return writeBatch(List.of(entry));
+        }
+        return done == null || awaitWrite(entry);
+    }
+
+    /**
+     * Runs {@code action} on the writer thread once everything journaled so far
+     * has been written. It must be quick, as it holds up the journal.
+     */
+    public void afterPersisted(Runnable action) {
+        if (!submit(new Entry(null, 0, null, null, action, null, null))) {
+            action.run();
+        }
+    }
+
+    /**
+     * Blocks until everything journaled so far has been written, so the event
+     * log can be read back.
+     */
+    public void flush() {
+        if (writerExited || Thread.currentThread() == writerThread) {
+            return;
+        }
+        CompletableFuture<Boolean> done = new CompletableFuture<>();
+        if (submit(new Entry(null, 0, null, null, () -> done.complete(true), null, null))) {
+            await(done);
+        }
+    }
+
+    /**
+     * Whether an ASYNC write for the game failed. The game in memory is then
+     * ahead of its event log, and its events are refused until it has been
+     * rebuilt and {@link #resume(String) resumed}.
+     */
+    public boolean hasFailed(String gameId) {
+        return failedGames.contains(gameId);
+    }
+
+    /**
+     * Accepts the game's events again. Whatever was still queued for it is
+     * discarded first, so the next event written follows on from the log.
+     */
+    public void resume(String gameId) {
+        flush();
+        failedGames.remove(gameId);
+    }
+
+    /**
+     * Hands {@code entry} to the writer.
+     *
+     * @return false if the writer has exited, in which case the caller must
+     *         handle the entry itself.
+     */
+    private boolean submit(Entry entry) {
+        if (writerExited) {
+            return false;
+        }
+        enqueue(entry);
+        // The writer drains the queue once more after exiting, so if it got
+        // past that before our entry arrived, the entry is ours again.
+        return !(writerExited && queue.remove(entry));
+    }
+
+    private void enqueue(Entry entry) {
+        try {
+            while (!queue.offer(entry, 1, TimeUnit.SECONDS)) {
+                logger.warn("[{}] Event journal queue is full ({} entries); waiting for the writer.", entry.gameId(),
+                        queue.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("[{}] Interrupted while journaling events; they will not be persisted.", entry.gameId());
+            if (entry.done() != null) {
+                entry.done().complete(false);
+            }
+        }
+    }
+
+    private boolean await(CompletableFuture<Boolean> done) {
+        try {
+            return done.get(SYNC_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            logger.error("Timed out waiting for the event journal to write.", e);
+            return false;
+        }
+    }
+
+    // Waits for a SYNC entry. On timeout it's cancelled, unless the writer has already taken it.
+    private boolean awaitWrite(Entry entry) {
+        try {
+            return entry.done().get(SYNC_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException | TimeoutException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (entry.claimed().compareAndSet(false, true)) {
+                logger.error("[{}] Gave up waiting for the event journal; {} events will not be written.",
+                        entry.gameId(), entry.events().size());
+                return false;
+            }
+            // The writer is already on it, so the outcome is out of our hands; wait for it.
+            return entry.done().join();
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    private void writeLoop() {
+        List<Entry> drained = new ArrayList<>(maxBatchEntries);
+        while (true) {
+            Entry first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (first == null) {
+                if (closed) {
+                    break;
+                }
+                continue;
+            }
+            drained.add(first);
+            queue.drainTo(drained, maxBatchEntries - 1);
+            process(drained);
+            drained.clear();
+        }
+        writerExited = true;
+        // Anything that arrived while we were stopping; later callers write for themselves.
+        while (queue.drainTo(drained, maxBatchEntries) > 0) {
+            process(drained);
+            drained.clear();
+        }
+    }
+
+    // Writes runs of event entries as one batch each, running actions in between.
+    private void process(List<Entry> entries) {
+        List<Entry> pending = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.action() == null) {
+                pending.add(entry);
+                continue;
+            }
+            if (!pending.isEmpty()) {
+                writeBatch(pending);
+                pending.clear();
+            }
+            try {
+                entry.action().run();
+            } catch (Exception e) {
+                logger.warn("Event journal action failed: {}", e.getMessage());
+            }
+        }
+        if (!pending.isEmpty()) {
+            writeBatch(pending);
+        }
+    }
+
+    private boolean writeBatch(List<Entry> entries) {
+        List<Entry> serialized = new ArrayList<>(entries.size());
+        List<List<GameEventLog>> logsPerEntry = new ArrayList<>(entries.size());
+        List<GameEventLog> logs = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (!entry.claimed().compareAndSet(false, true)) {
+                continue; // A SYNC caller gave up on it and didn't apply the events.
+            }
+            if (failedGames.contains(entry.gameId())) {
+                // An earlier write for the game failed; writing this one would leave a gap.
+                complete(entry, false);
+                continue;
+            }
+            List<GameEventLog> entryLogs = toLogs(entry);
+            if (entryLogs == null) {
+                fail(entry);
+                continue;
+            }
+            serialized.add(entry);
+            logsPerEntry.add(entryLogs);
+            logs.addAll(entryLogs);
+        }
+        boolean written = save(logs);
+        if (!written && serialized.size() > 1) {
+            // Don't let one game's bad batch take the others down with it.
+            logger.warn("Group write of {} events from {} commands failed; writing them one command at a time.",
+                    logs.size(), serialized.size());
+            for (int i = 0; i < serialized.size(); i++) {
+                Entry entry = serialized.get(i);
+                if (failedGames.contains(entry.gameId())) {
+                    complete(entry, false);
+                } else if (save(copyOf(logsPerEntry.get(i)))) {
+                    complete(entry, true);
+                } else {
+                    fail(entry);
+                }
+            }
+            return false;
+        }
+        for (Entry entry : serialized) {
+            if (written) {
+                complete(entry, true);
+            } else {
+                fail(entry);
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Journaled {} events from {} commands.", logs.size(), serialized.size());
+        }
+        return written && serialized.size() == entries.size();
+    }
+
+    // Returns null if any event can't be serialized; a gap would make the rest of the game unreadable.
+    private List<GameEventLog> toLogs(Entry entry) {
+        List<GameEventLog> logs = new ArrayList<>(entry.events().size());
+        for (GameEvent event : entry.events()) {
+            try {
+                logs.add(new GameEventLog(
+                        entry.gameId(),
+                        entry.firstSequence() + logs.size(),
+                        entry.appendedAt(),
+                        event.getClass().getSimpleName(),
+                        BinaryEventCodec.encode(event, entry.appendedAt().toEpochMilli())));
+            } catch (Exception e) {
+                logger.error("[{}] CRITICAL: Failed to encode game event for persistence. Dropping {} events.",
+                        entry.gameId(), entry.events().size(), e);
+                return null;
+            }
+        }
+        return logs;
+    }
+
+    private boolean save(List<GameEventLog> logs) {
+        if (logs.isEmpty()) {
+            return true;
+        }
+        for (int attempt = 1; attempt <= MAX_WRITE_ATTEMPTS; attempt++) {
+            try {
+                // A failed attempt leaves the logs marked as persisted, and saving
+                // them again would quietly merge into whatever is already there.
+                List<GameEventLog> written = attempt == 1 ? logs : copyOf(logs);
+                eventStore.append(written);
+                projectionService.submit(written);
+                return true;
+            } catch (Exception e) {
+                if (attempt == MAX_WRITE_ATTEMPTS || e instanceof DataIntegrityViolationException
+                        || e instanceof IllegalArgumentException) {
+                    logger.error("CRITICAL: Failed to persist {} game events after {} attempts.", logs.size(),
+                            attempt, e);
+                    return false;
+                }
+                logger.warn("Failed to persist {} game events (attempt {}): {}", logs.size(), attempt,
+                        e.getMessage());
+                try {
+                    Thread.sleep(100L * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static List<GameEventLog> copyOf(List<GameEventLog> logs) {
+        List<GameEventLog> copies = new ArrayList<>(logs.size());
+        for (GameEventLog log : logs) {
+            copies.add(new GameEventLog(log.getGameId(), log.getEventSequence(), log.getEventTimestamp(),
+                    log.getEventType(), log.getEventPayload()));
+        }
+        return copies;
+    }
+
+    // An ASYNC caller has already applied the events, so the game can't be journaled past them.
+    private void fail(Entry entry) {
+        complete(entry, false);
+        if (entry.done() == null && failedGames.add(entry.gameId())) {
+            logger.error("[{}] CRITICAL: Stopped journaling the game after a failed write at event {}. "
+                    + "It has to be rebuilt from the event log.", entry.gameId(), entry.firstSequence());
+        }
+    }
+
+    private static void complete(Entry entry, boolean written) {
+        if (entry.done() != null) {
+            entry.done().complete(written);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.jamestiago.capycards.service;
+
+import com.jamestiago.capycards.repository.GameSummaryRepository;
+import com.jamestiago.capycards.repository.JpaEventStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically moves finished games out of {@code game_event_log} and into
+ * {@code game_archive}, one compressed row per game, so the hot table only
+ * grows with the number of games being played. Archived games can still be
+ * read through the {@link com.jamestiago.capycards.repository.EventStore}.
+ */
+@Service
+@ConditionalOnProperty(name = "capycards.event-store", havingValue = "jpa", matchIfMissing = true)
+public class GameArchiveService {
+    private static final Logger logger = LoggerFactory.getLogger(GameArchiveService.class);
+    private final JpaEventStore eventStore;
+    private final GameSummaryRepository summaryRepository;
+    private final boolean enabled;
+    private final Duration archiveAfter;
+    private final long intervalMinutes;
+    private final int batchSize;
+    private ScheduledExecutorService scheduler;
+
+    public GameArchiveService(JpaEventStore eventStore, GameSummaryRepository summaryRepository,
+            @Value("${game.archive.enabled:true}") boolean enabled,
+            @Value("${game.archive.after-minutes:60}") long afterMinutes,
+            @Value("${game.archive.interval-minutes:10}") long intervalMinutes,
+            @Value("${game.archive.batch-size:200}") int batchSize) {
+        this.eventStore = eventStore;
+        this.summaryRepository = summaryRepository;
+        this.enabled = enabled;
+        this.archiveAfter = Duration.ofMinutes(afterMinutes);
+        this.intervalMinutes = Math.max(1, intervalMinutes);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            logger.info("Game archival is disabled.");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::archiveFinishedGames, intervalMinutes, intervalMinutes,
+                TimeUnit.MINUTES);
+        logger.info("Game archival scheduled every {} minutes for games finished more than {} minutes ago.",
+                intervalMinutes, archiveAfter.toMinutes());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Archives every game that finished more than {@code game.archive.after-minutes}
+     * ago, a batch at a time; each game is archived in its own transaction.
+     *
+     * @return the number of games archived.
+     */
+    public int archiveFinishedGames() {
+        Instant cutoff = Instant.now().minus(archiveAfter);
+        int games = 0;
+        long events = 0;
+        long start = System.nanoTime();
+        try {
+            List<String> batch;
+            do {
+                batch = summaryRepository.findArchivableGameIds(cutoff, Limit.of(batchSize));
+                for (String gameId : batch) {
+                    events += eventStore.archive(gameId);
+                    games++;
+                }
+            } while (batch.size() == batchSize && !Thread.currentThread().isInterrupted());
+        } catch (Exception e) {
+            logger.error("Game archival stopped after {} games.", games, e);
+        }
+        if (games > 0) {
+            logger.info("Archived {} finished games ({} events) in {} ms.", games, events,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+        return games;
+    }
+}
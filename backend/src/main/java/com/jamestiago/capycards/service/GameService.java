@@ -3,127 +3,256 @@ package com.jamestiago.capycards.service;
 import com.corundumstudio.socketio.SocketIOServer;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.CardCatalog;
 import com.jamestiago.capycards.game.Game;
 import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.GameSnapshotCodec;
 import com.jamestiago.capycards.game.GameStateMapper;
+import com.jamestiago.capycards.game.GameSummary;
 import com.jamestiago.capycards.game.Player;
 import com.jamestiago.capycards.game.ai.AIPlayer;
 import com.jamestiago.capycards.game.commands.GameCommand;
 import com.jamestiago.capycards.game.dto.GameStateResponse;
+import com.jamestiago.capycards.game.events.BinaryEventCodec;
 import com.jamestiago.capycards.game.events.GameEvent;
-import com.jamestiago.capycards.game.events.GameEventLog;
 import com.jamestiago.capycards.game.events.PlayerDrewCardEvent;
 import com.jamestiago.capycards.game.events.GameStartedEvent;
 import com.jamestiago.capycards.model.Card;
-import com.jamestiago.capycards.repository.CardRepository;
-import com.jamestiago.capycards.repository.GameEventLogRepository;
+import com.jamestiago.capycards.repository.EventStore;
+import com.jamestiago.capycards.repository.GameSummaryProjection;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Instant;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Service
 public class GameService {
   private static final Logger logger = LoggerFactory.getLogger(GameService.class);
-  private final Map<String, Game> activeGames = new ConcurrentHashMap<>();
-  private final Map<String, Lock> gameLocks = new ConcurrentHashMap<>();
-  private List<Card> allCardDefinitions;
-  private final CardRepository cardRepository;
-  private final GameEventLogRepository eventLogRepository;
+  // Active games and their locks. Idle games are evicted and rebuilt from
+  // their snapshot and event log when they're next needed.
+  private final ActiveGameCache gameCache;
+  private final int reconstructionThreads;
+  private ScheduledExecutorService evictionScheduler;
+  private final CardCatalogService catalogService;
+  private final EventStore eventStore;
   private final GameEngine gameEngine;
   private final AIService aiService;
   private final SocketIOServer socketServer;
   private final ObjectMapper objectMapper;
-
-  public GameService(CardRepository cardRepository, GameEngine gameEngine, @Lazy AIService aiService,
-      SocketIOServer socketServer, ObjectMapper objectMapper, GameEventLogRepository eventLogRepository) {
-    this.cardRepository = cardRepository;
+  private final GameSnapshotService snapshotService;
+  private final EventJournal eventJournal;
+  private final GameSummaryProjection summaryProjection;
+  private final CardBalanceService balanceService;
+
+  public GameService(CardCatalogService catalogService, GameEngine gameEngine, @Lazy AIService aiService,
+      SocketIOServer socketServer, ObjectMapper objectMapper, EventStore eventStore,
+      GameSnapshotService snapshotService, EventJournal eventJournal, GameSummaryProjection summaryProjection,
+      CardBalanceService balanceService,
+      @Value("${game.reconstruction.threads:0}") int reconstructionThreads,
+      @Value("${game.cache.max-games:10000}") int maxCachedGames,
+      @Value("${game.cache.idle-minutes:30}") long idleMinutes) {
+    this.catalogService = catalogService;
     this.gameEngine = gameEngine;
     this.aiService = aiService;
     this.socketServer = socketServer;
     this.objectMapper = objectMapper;
-    this.eventLogRepository = eventLogRepository;
-    logger.info("GameService initialized.");
+    this.eventStore = eventStore;
+    this.snapshotService = snapshotService;
+    this.eventJournal = eventJournal;
+    this.summaryProjection = summaryProjection;
+    this.balanceService = balanceService;
+    this.reconstructionThreads = reconstructionThreads > 0 ? reconstructionThreads
+        : Runtime.getRuntime().availableProcessors();
+    this.gameCache = new ActiveGameCache(this::loadActiveGame, this::onEvict, maxCachedGames, idleMinutes);
+    logger.info("GameService initialized. Game cache: up to {} games, evicted after {} idle minutes.",
+        maxCachedGames, idleMinutes);
   }
 
   @PostConstruct
   public void initialize() {
-    loadAllCardDefinitions();
+    catalogService.current();
     reconstructActiveGames();
+    evictionScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "game-cache-evictor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    evictionScheduler.scheduleWithFixedDelay(this::evictIdleGames, 1, 1, TimeUnit.MINUTES);
   }
 
-  public void loadAllCardDefinitions() {
-    this.allCardDefinitions = cardRepository.findAll();
-    if (this.allCardDefinitions.isEmpty()) {
-      logger.error("CRITICAL: No card definitions found in the database after seeding! The game cannot start.");
-    } else {
-      logger.info("Successfully loaded {} card definitions from the database.", allCardDefinitions.size());
+  @PreDestroy
+  public void shutdown() {
+    evictionScheduler.shutdownNow();
+  }
+
+  private void evictIdleGames() {
+    try {
+      int evicted = gameCache.evict();
+      if (evicted > 0) {
+        logger.info("Evicted {} games from memory. {} games in memory, {} cold.", evicted, gameCache.size(),
+            gameCache.coldCount());
+      }
+      releaseUnusedCatalogs();
+    } catch (Exception e) {
+      logger.error("Game cache eviction failed.", e);
+    }
+  }
+
+  // Keeps the catalog versions of the games in memory and of the unfinished ones that aren't.
+  private void releaseUnusedCatalogs() {
+    Set<Long> inUse = new HashSet<>(summaryProjection.activeCatalogVersions());
+    for (Game game : gameCache.games()) {
+      inUse.add(game.getCatalog().getVersion());
     }
+    int released = catalogService.retainOnly(inUse);
+    if (released > 0) {
+      logger.info("Released {} card catalog versions no game uses any more.", released);
+    }
+  }
+
+  /**
+   * Called with the game's lock held when it's about to be evicted. Snapshots
+   * it so that rebuilding it later doesn't replay the whole game.
+   *
+   * @return whether it can be rebuilt later.
+   */
+  private boolean onEvict(Game game) {
+    aiService.stopPondering(game.getGameId());
+    if (game.getNextEventSequence() == 0
+        || eventJournal.durabilityFor(game) == EventJournal.Durability.MEMORY_ONLY) {
+      logger.info("[{}] Dropping idle game that has nothing persisted to rebuild it from.", game.getGameId());
+      snapshotService.forget(game.getGameId());
+      return false;
+    }
+    snapshotService.snapshotNow(game);
+    snapshotService.forget(game.getGameId());
+    logger.debug("[{}] Evicted idle game at event {}.", game.getGameId(), game.getNextEventSequence());
+    return true;
+  }
+
+  // Loads an evicted or not yet rebuilt game for the cache.
+  private Game loadActiveGame(String gameId) throws Exception {
+    Game game = reconstructGame(gameId);
+    if (game.getGameState().name().contains("GAME_OVER")) {
+      logger.info("Game {} was already over. Not adding to active games.", gameId);
+      return null;
+    }
+    balanceService.resumeLive(game);
+    return game;
   }
-  
+
+  /**
+   * Rebuilds unfinished games in the background so startup doesn't wait for
+   * them. A game that is needed before its turn comes is rebuilt on the spot
+   * by the game cache.
+   */
   private void reconstructActiveGames() {
     logger.info("Searching for active games to reconstruct...");
-    List<String> activeGameIds = eventLogRepository.findAllActiveGameIds();
-    int reconstructedCount = 0;
+    List<String> activeGameIds = eventStore.findActiveGameIds();
+    if (activeGameIds.isEmpty()) {
+      logger.info("No active games to reconstruct.");
+      return;
+    }
     for (String gameId : activeGameIds) {
-      try {
-        reconstructGame(gameId);
-        reconstructedCount++;
-      } catch (Exception e) {
-        logger.error("Failed to reconstruct game {}", gameId, e);
-      }
+      gameCache.markCold(gameId);
+    }
+
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(Math.min(reconstructionThreads, activeGameIds.size()),
+        runnable -> {
+          Thread thread = new Thread(runnable, "game-reconstruction-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    long start = System.nanoTime();
+    AtomicInteger remaining = new AtomicInteger(activeGameIds.size());
+    for (String gameId : activeGameIds) {
+      pool.execute(() -> {
+        gameCache.get(gameId);
+        if (remaining.decrementAndGet() == 0) {
+          logger.info("Reconstruction complete. {} active games restored in {} ms.", activeGameIds.size(),
+              (System.nanoTime() - start) / 1_000_000);
+        }
+      });
     }
-    logger.info("Reconstruction complete. {} active games restored.", reconstructedCount);
+    pool.shutdown(); // Threads exit once the queue is drained.
+    logger.info("Reconstructing {} active games in the background on {} threads.", activeGameIds.size(),
+        Math.min(reconstructionThreads, activeGameIds.size()));
   }
-  
+
+  /**
+   * Rebuilds a game from its latest snapshot and the events after it. The
+   * result is not added to the active games.
+   */
   public Game reconstructGame(String gameId) throws Exception {
     logger.info("Reconstructing game state for gameId: {}", gameId);
-    List<GameEventLog> eventLogs = eventLogRepository.findByGameIdOrderByEventSequenceAsc(gameId);
-    if (eventLogs.isEmpty()) {
-      throw new IllegalStateException("No events found for gameId: " + gameId);
+    // Events may still be on their way to the event store.
+    eventJournal.flush();
+
+    // Start from the latest snapshot if there is one, and only replay the events after it.
+    // Either way the game continues with the catalog version it recorded.
+    Game game = snapshotService.loadLatest(gameId, catalogService::forVersion);
+    boolean fromSnapshot = game != null;
+    long fromSequence = fromSnapshot ? game.getNextEventSequence() : 0;
+    if (!fromSnapshot) {
+      game = new Game(gameId, catalogService.forVersion(summaryProjection.catalogVersionOf(gameId)));
     }
-  
-    // Pass the definitions map to the constructor
-    Map<String, Card> definitionsMap = allCardDefinitions.stream()
-      .collect(Collectors.toConcurrentMap(Card::getCardId, c -> c));
-    Game game = new Game(gameId, definitionsMap);
-  
-    for (GameEventLog eventLog : eventLogs) {
-      GameEvent event = objectMapper.readValue(eventLog.getEventData(), GameEvent.class);
-      game.apply(event);
+
+    // Events are streamed rather than loaded all at once, and the ones that
+    // don't change state are skipped without being decoded.
+    Game target = game;
+    int[] counts = new int[2]; // replayed, skipped
+    eventStore.replay(gameId, fromSequence, eventLog -> {
+      if (!Game.changesState(eventLog.getEventType())) {
+        target.skipEvent();
+        counts[1]++;
+        return;
+      }
+      try {
+        target.apply(BinaryEventCodec.decode(eventLog, objectMapper));
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to decode event " + eventLog.getEventSequence() + " of game "
+            + gameId, e);
+      }
+      counts[0]++;
+    });
+    if (!fromSnapshot && counts[0] + counts[1] == 0) {
+      throw new IllegalStateException("No events found for gameId: " + gameId);
     }
-  
-    if (game.getGameState().name().contains("GAME_OVER")) {
-      logger.info("Game {} was already over. Not adding to active games.", gameId);
-      return game;
+    if (fromSnapshot) {
+      logger.info("Restored game {} from snapshot at event {}; replayed {} later events ({} skipped).", gameId,
+          fromSequence, counts[0] + counts[1], counts[1]);
     }
-  
-    activeGames.put(gameId, game);
-    gameLocks.put(gameId, new ReentrantLock());
+
     logger.info("Successfully reconstructed game {}. Current state: {}", gameId, game.getGameState());
     return game;
   }
 
-  private List<Card> generatePlayerDeck() {
-    if (allCardDefinitions == null || allCardDefinitions.isEmpty()) {
+  private List<Card> generatePlayerDeck(CardCatalog catalog) {
+    List<Card> playableCards = catalog.getPlayable();
+    if (playableCards.isEmpty()) {
       throw new IllegalStateException("Card definitions not loaded.");
     }
-    List<Card> playableCards = allCardDefinitions.stream()
-        .filter(Card::isDirectlyPlayable)
-        .collect(Collectors.toList());
     List<Card> deckInProgress = new ArrayList<>();
     // A simple way to create a deck of 20 cards. For a real game, you'd have
     // deck-building rules.
@@ -135,17 +264,18 @@ public class GameService {
   }
 
   public Game createNewGame(String player1DisplayName, String player2DisplayName) {
-    if (allCardDefinitions == null || allCardDefinitions.isEmpty()) {
+    // Both decks and the game come from the same catalog version.
+    CardCatalog catalog = catalogService.current();
+    if (catalog.isEmpty()) {
       throw new IllegalStateException("Card definitions not loaded. Cannot create game.");
     }
-    Player player1 = new Player(player1DisplayName, generatePlayerDeck());
-    Player player2 = new Player(player2DisplayName, generatePlayerDeck());
+    Player player1 = new Player(player1DisplayName, generatePlayerDeck(catalog));
+    Player player2 = new Player(player2DisplayName, generatePlayerDeck(catalog));
 
-    Game newGame = new Game(player1, player2, allCardDefinitions);
+    Game newGame = new Game(player1, player2, catalog);
 
     newGame.setGameState(Game.GameState.WAITING_FOR_PLAYERS);
-    activeGames.put(newGame.getGameId(), newGame);
-    gameLocks.put(newGame.getGameId(), new ReentrantLock());
+    gameCache.put(newGame);
 
     MDC.put("gameId", newGame.getGameId());
     logger.info("New game object created. P1: {}, P2: {}", player1DisplayName, player2DisplayName);
@@ -155,18 +285,18 @@ public class GameService {
   }
 
   public Game createAiGame(String playerDisplayName) {
-    if (allCardDefinitions == null || allCardDefinitions.isEmpty()) {
+    CardCatalog catalog = catalogService.current();
+    if (catalog.isEmpty()) {
       throw new IllegalStateException("Card definitions not loaded. Cannot create game.");
     }
-    Player humanPlayer = new Player(playerDisplayName, generatePlayerDeck());
-    Player aiPlayer = new AIPlayer(generatePlayerDeck());
+    Player humanPlayer = new Player(playerDisplayName, generatePlayerDeck(catalog));
+    Player aiPlayer = new AIPlayer(generatePlayerDeck(catalog));
 
     // For AI games, let the human always go first for a better user experience.
-    Game newGame = new Game(humanPlayer, aiPlayer, allCardDefinitions);
+    Game newGame = new Game(humanPlayer, aiPlayer, catalog);
 
     newGame.setGameState(Game.GameState.WAITING_FOR_PLAYERS);
-    activeGames.put(newGame.getGameId(), newGame);
-    gameLocks.put(newGame.getGameId(), new ReentrantLock());
+    gameCache.put(newGame);
 
     MDC.put("gameId", newGame.getGameId());
     logger.info("New AI game object created. Human: {}, AI: {}", playerDisplayName, aiPlayer.getDisplayName());
@@ -187,23 +317,61 @@ public class GameService {
 
     // Apply and broadcast the start event
     applyAndBroadcast(game, startupEvents);
+    if (eventJournal.durabilityFor(game) != EventJournal.Durability.MEMORY_ONLY) {
+      // The event log only knows the player ids; add the rest once the start is stored.
+      GameSummary.Mode mode = game.getPlayer1().isAi() || game.getPlayer2().isAi() ? GameSummary.Mode.AI
+          : GameSummary.Mode.PVP;
+      String player1Name = game.getPlayer1().getDisplayName();
+      String player2Name = game.getPlayer2().getDisplayName();
+      long catalogVersion = game.getCatalog().getVersion();
+      eventJournal.afterPersisted(() -> summaryProjection.describe(game.getGameId(), mode, player1Name,
+          player2Name, catalogVersion));
+    }
     logger.info("Game {} started with {} initial events.", game.getGameId(), startupEvents.size());
   }
 
   public Game getGame(String gameId) {
-    return activeGames.get(gameId);
+    return gameCache.get(gameId);
+  }
+
+  /** A live game encoded for forking, with what's needed to decode it without doing so first. */
+  public record LiveSnapshot(byte[] data, long eventSequence, CardCatalog catalog) {
+  }
+
+  /**
+   * Encodes the game as it is right now, for forking it.
+   *
+   * @return null if the game isn't in memory.
+   */
+  public LiveSnapshot snapshotLiveGame(String gameId) {
+    if (!gameCache.contains(gameId)) {
+      return null;
+    }
+    Lock lock = gameCache.lock(gameId);
+    if (lock == null) {
+      return null;
+    }
+    try {
+      Game game = gameCache.get(gameId);
+      return game != null
+          ? new LiveSnapshot(GameSnapshotCodec.encode(game), game.getNextEventSequence(), game.getCatalog())
+          : null;
+    } finally {
+      lock.unlock();
+    }
   }
 
-  @Transactional
   public void handleCommand(GameCommand command) {
-    Lock lock = gameLocks.get(command.gameId);
+    if (eventJournal.hasFailed(command.gameId)) {
+      reloadAfterJournalFailure(command.gameId);
+    }
+    Lock lock = gameCache.lock(command.gameId);
     if (lock == null) {
-      logger.error("No lock found for game: {}", command.gameId);
+      logger.warn("Attempted to handle command for non-existent game: {}", command.gameId);
       return;
     }
-    lock.lock();
     try {
-      Game game = activeGames.get(command.gameId);
+      Game game = gameCache.get(command.gameId);
       if (game == null) {
         logger.warn("Attempted to handle command for non-existent game: {}", command.gameId);
         return;
@@ -229,6 +397,11 @@ public class GameService {
       }
 
       applyAndBroadcast(game, events);
+      if (game.getGameState().name().contains("GAME_OVER")) {
+        // However it ended, the game has no further use for memory.
+        forget(game.getGameId());
+        return;
+      }
 
       Player playerAfterCommand = game.getCurrentPlayer();
       if (playerAfterCommand != null && playerAfterCommand.isAi()
@@ -239,42 +412,64 @@ public class GameService {
               playerAfterCommand.getPlayerId());
           aiService.takeTurn(game.getGameId(), playerAfterCommand.getPlayerId());
         }
+      } else if (playerAfterCommand != null && !game.getGameState().name().contains("GAME_OVER")
+          && playerBeforeCommand != null && playerBeforeCommand.isAi()
+          && !playerBeforeCommand.getPlayerId().equals(playerAfterCommand.getPlayerId())) {
+        // The human is now thinking; let the AI think about its reply too.
+        aiService.startPondering(new Game(game), playerBeforeCommand.getPlayerId());
       }
     } finally {
       lock.unlock();
     }
   }
 
-  @Transactional
+  /**
+   * The journal lost some of the game's events, so the game in memory is
+   * ahead of its event log. Drops it so the next access rebuilds it from
+   * what was written, and lets the journal take its events again.
+   */
+  private void reloadAfterJournalFailure(String gameId) {
+    Lock lock = gameCache.lock(gameId);
+    if (lock == null) {
+      return;
+    }
+    try {
+      if (!eventJournal.hasFailed(gameId)) {
+        return; // Another command got here first.
+      }
+      logger.error("[{}] Rolling the game back to its event log after a failed journal write.", gameId);
+      aiService.stopPondering(gameId);
+      snapshotService.forget(gameId);
+      eventJournal.resume(gameId);
+      gameCache.remove(gameId);
+      gameCache.markCold(gameId);
+    } finally {
+      lock.unlock();
+    }
+  }
+
   private void applyAndBroadcast(Game game, List<GameEvent> events) {
     if (events == null || events.isEmpty())
       return;
 
-    // Save events to the database
-    List<GameEventLog> logsToSave = new ArrayList<>();
-    for (GameEvent event : events) {
-      try {
-        String eventJson = objectMapper.writeValueAsString(event);
-        GameEventLog log = new GameEventLog(
-            game.getGameId(),
-            game.getNextEventSequence() + logsToSave.size(),
-            Instant.now(),
-            event.getClass().getSimpleName(),
-            eventJson);
-        logsToSave.add(log);
-      } catch (Exception e) {
-        logger.error("[{}] CRITICAL: Failed to serialize game event for persistence. Aborting save.", game.getGameId(),
-            e);
-        return;
-      }
+    // Hand the events to the journal; depending on the game's durability they
+    // are written now, in the background, or not at all.
+    EventJournal.Durability durability = eventJournal.durabilityFor(game);
+    if (!eventJournal.append(game.getGameId(), game.getNextEventSequence(), events, durability)) {
+      logger.error("[{}] CRITICAL: Failed to persist {} game events. Aborting command.", game.getGameId(),
+          events.size());
+      return;
     }
-    eventLogRepository.saveAll(logsToSave);
 
     // Apply events to the master game state
     for (GameEvent event : events) {
       game.apply(event);
     }
-    logger.debug("[{}] Applied and persisted {} events. New game state: {}", game.getGameId(), events.size(),
+    if (durability != EventJournal.Durability.MEMORY_ONLY) {
+      snapshotService.onEventsApplied(game, events);
+    }
+    balanceService.recordLive(events);
+    logger.debug("[{}] Applied and journaled {} events. New game state: {}", game.getGameId(), events.size(),
         game.getGameState());
 
     // The new payload will contain both the new state and the events for animation
@@ -324,13 +519,20 @@ public class GameService {
 
   public void removeGame(String gameId) {
     MDC.put("gameId", gameId);
-    Game removedGame = activeGames.remove(gameId);
-    gameLocks.remove(gameId); // Also remove the lock
-    if (removedGame != null) {
-      logger.info("Game {} has ended and is now removed from active games. This log file is now complete.", gameId);
+    if (gameCache.contains(gameId)) {
+      forget(gameId);
     } else {
-      logger.warn("Attempted to remove non-existent game: {}", gameId);
+      // Games that end normally are removed as soon as they're over.
+      logger.debug("Game {} was already removed from active games.", gameId);
     }
     MDC.remove("gameId");
   }
+
+  private void forget(String gameId) {
+    gameCache.remove(gameId);
+    aiService.stopPondering(gameId);
+    snapshotService.forget(gameId);
+    balanceService.forgetLive(gameId);
+    logger.info("Game {} has ended and is now removed from active games. This log file is now complete.", gameId);
+  }
 }
\ No newline at end of file
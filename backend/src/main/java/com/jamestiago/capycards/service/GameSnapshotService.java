@@ -0,0 +1,158 @@
+package com.jamestiago.capycards.service;
+
+import com.jamestiago.capycards.game.CardCatalog;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameSnapshot;
+import com.jamestiago.capycards.game.GameSnapshotCodec;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.game.events.TurnStartedEvent;
+import com.jamestiago.capycards.repository.GameSnapshotRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Writes periodic snapshots of active games so that reconstruction only has
+ * to replay the events since the latest one. A snapshot is taken at the first
+ * turn boundary after {@code game.snapshot.interval-events} events; encoding
+ * happens on the command thread (it needs a consistent view of the game), the
+ * database write on a background thread.
+ */
+@Service
+public class GameSnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(GameSnapshotService.class);
+    private final GameSnapshotRepository snapshotRepository;
+    private final EventJournal eventJournal;
+    private final int intervalEvents;
+    private ExecutorService writerThread;
+
+    // Event sequence of the last snapshot taken per game.
+    private final Map<String, Long> lastSnapshotSequence = new ConcurrentHashMap<>();
+
+    public GameSnapshotService(GameSnapshotRepository snapshotRepository, EventJournal eventJournal,
+            @Value("${game.snapshot.interval-events:50}") int intervalEvents) {
+        this.snapshotRepository = snapshotRepository;
+        this.eventJournal = eventJournal;
+        this.intervalEvents = intervalEvents;
+    }
+
+    @PostConstruct
+    public void init() {
+        writerThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("GameSnapshotService initialized. Snapshot interval: {} events.", intervalEvents);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Let queued snapshots finish; they save the next startup a lot of replaying.
+        writerThread.shutdown();
+        try {
+            if (!writerThread.awaitTermination(10, TimeUnit.SECONDS)) {
+                writerThread.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writerThread.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Called after {@code events} have been applied to {@code game}, with the
+     * game's lock held. Takes a snapshot if one is due.
+     */
+    public void onEventsApplied(Game game, List<GameEvent> events) {
+        if (intervalEvents <= 0 || game.getGameState().name().contains("GAME_OVER")) {
+            return;
+        }
+        long sequence = game.getNextEventSequence();
+        long last = lastSnapshotSequence.getOrDefault(game.getGameId(), 0L);
+        if (sequence - last < intervalEvents || events.stream().noneMatch(e -> e instanceof TurnStartedEvent)) {
+            return;
+        }
+
+        snapshotNow(game);
+    }
+
+    /**
+     * Takes a snapshot of {@code game} regardless of the interval, unless it's
+     * already up to date. The caller must hold the game's lock.
+     */
+    public void snapshotNow(Game game) {
+        long sequence = game.getNextEventSequence();
+        if (lastSnapshotSequence.getOrDefault(game.getGameId(), 0L) == sequence) {
+            return;
+        }
+        GameSnapshot snapshot = new GameSnapshot(game.getGameId(), sequence, game.getTurnNumber(),
+                GameSnapshotCodec.FORMAT_VERSION, Instant.now(), GameSnapshotCodec.encode(game));
+        lastSnapshotSequence.put(game.getGameId(), sequence);
+
+        // The snapshot must never get ahead of the event log, so wait for the
+        // journal to write the events it covers, and drop it if they weren't.
+        eventJournal.afterPersisted(() -> {
+            if (!eventJournal.hasFailed(snapshot.getGameId())) {
+                submitWrite(snapshot);
+            }
+        });
+    }
+
+    private void submitWrite(GameSnapshot snapshot) {
+        if (writerThread.isShutdown()) {
+            return; // The journal is draining after we've stopped.
+        }
+        writerThread.submit(() -> {
+            try {
+                snapshotRepository.save(snapshot);
+                logger.debug("[{}] Saved snapshot at event {} ({} bytes).", snapshot.getGameId(),
+                        snapshot.getEventSequence(), snapshot.getSnapshotData().length);
+            } catch (Exception e) {
+                logger.warn("[{}] Failed to save snapshot at event {}: {}", snapshot.getGameId(),
+                        snapshot.getEventSequence(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * @param catalogs the catalog for the version the snapshot records.
+     * @return the game as of its latest usable snapshot, or null if there is
+     *         none (in which case it has to be rebuilt from the first event).
+     */
+    public Game loadLatest(String gameId, Function<Long, CardCatalog> catalogs) {
+        Optional<GameSnapshot> snapshot = snapshotRepository
+                .findFirstByGameIdAndFormatVersionOrderByEventSequenceDesc(gameId, GameSnapshotCodec.FORMAT_VERSION);
+        if (snapshot.isEmpty()) {
+            return null;
+        }
+        try {
+            byte[] data = snapshot.get().getSnapshotData();
+            Game game = GameSnapshotCodec.decode(data, catalogs.apply(GameSnapshotCodec.catalogVersion(data)));
+            lastSnapshotSequence.put(gameId, snapshot.get().getEventSequence());
+            return game;
+        } catch (IOException e) {
+            logger.warn("[{}] Ignoring unreadable snapshot at event {}: {}", gameId,
+                    snapshot.get().getEventSequence(), e.getMessage());
+            return null;
+        }
+    }
+
+    public void forget(String gameId) {
+        lastSnapshotSequence.remove(gameId);
+    }
+}
@@ -0,0 +1,246 @@
+package com.jamestiago.capycards.service;
+
+import com.jamestiago.capycards.game.events.GameEventLog;
+import com.jamestiago.capycards.model.ProjectionCheckpoint;
+import com.jamestiago.capycards.repository.EventStore;
+import com.jamestiago.capycards.repository.Projection;
+import com.jamestiago.capycards.repository.ProjectionCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds newly stored events to every {@link Projection} on a thread of its
+ * own, so read models never slow down a command. The {@link EventJournal}
+ * hands over each batch once it's written; each projection then checkpoints,
+ * per game, how far it has got.
+ * <p>
+ * Delivery is best effort: if the queue is full, or a projection fails, the
+ * games involved are caught up later by reading the {@link EventStore} from
+ * their checkpoints. That also happens for every unfinished game at startup,
+ * which is how a new projection fills in the history.
+ */
+@Service
+public class ProjectionService {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectionService.class);
+    private static final String GAME_OVER = "GameOverEvent";
+    private static final int CATCH_UP_PAGE_SIZE = 256;
+
+    private final List<Projection> projections;
+    private final EventStore eventStore;
+    private final ProjectionCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<List<GameEventLog>> queue;
+    // Games with events the queue had no room for.
+    private final Set<String> behind = ConcurrentHashMap.newKeySet();
+    private Thread runnerThread;
+    private volatile boolean closed;
+
+    public ProjectionService(List<Projection> projections, EventStore eventStore,
+            ProjectionCheckpointRepository checkpointRepository, PlatformTransactionManager transactionManager,
+            @Value("${game.projections.queue-capacity:1024}") int queueCapacity) {
+        this.projections = List.copyOf(projections);
+        this.eventStore = eventStore;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    @PostConstruct
+    public void init() {
+        runnerThread = new Thread(this::runLoop, "projections");
+        runnerThread.setDaemon(true);
+        runnerThread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // The journal is shut down first, so whatever it wrote is queued by now.
+        closed = true;
+        try {
+            runnerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            logger.warn("Projections shut down with {} batches unapplied; they'll be caught up at startup.",
+                    queue.size());
+        }
+    }
+
+    /** Queues events that have just been stored. Never blocks. */
+    public void submit(List<GameEventLog> events) {
+        if (events.isEmpty() || projections.isEmpty()) {
+            return;
+        }
+        if (!queue.offer(events)) {
+            for (GameEventLog event : events) {
+                behind.add(event.getGameId());
+            }
+        }
+    }
+
+    /**
+     * Brings every projection up to date with every game it hasn't seen the
+     * end of. Reads only the events past each checkpoint.
+     */
+    synchronized void catchUpAll() {
+        List<String> gameIds = eventStore.findAllGameIds();
+        for (Projection projection : projections) {
+            Set<String> finished = new HashSet<>(checkpointRepository.findFinishedGameIds(projection.name()));
+            int caughtUp = 0;
+            for (String gameId : gameIds) {
+                if (!finished.contains(gameId) && catchUp(projection, gameId) > 0) {
+                    caughtUp++;
+                }
+            }
+            if (caughtUp > 0) {
+                logger.info("Projection {} caught up on {} games.", projection.name(), caughtUp);
+            }
+        }
+    }
+
+    /**
+     * Applies {@code first}, if not null, and everything queued after it, then
+     * catches up the games that fell behind.
+     */
+    synchronized void runPending(List<GameEventLog> first) {
+        List<GameEventLog> events = new ArrayList<>();
+        if (first != null) {
+            events.addAll(first);
+        }
+        List<List<GameEventLog>> batches = new ArrayList<>();
+        queue.drainTo(batches);
+        batches.forEach(events::addAll);
+        if (!events.isEmpty()) {
+            for (Projection projection : projections) {
+                if (!apply(projection, events)) {
+                    events.forEach(event -> behind.add(event.getGameId()));
+                }
+            }
+        }
+        for (String gameId : List.copyOf(behind)) {
+            behind.remove(gameId);
+            projections.forEach(projection -> catchUp(projection, gameId));
+        }
+    }
+
+    private void runLoop() {
+        try {
+            catchUpAll();
+        } catch (Exception e) {
+            logger.error("Projections failed to catch up at startup.", e);
+        }
+        while (true) {
+            List<GameEventLog> first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (first == null && behind.isEmpty()) {
+                if (closed) {
+                    break;
+                }
+                continue;
+            }
+            try {
+                runPending(first);
+            } catch (Exception e) {
+                logger.error("Projection run failed.", e);
+            }
+        }
+    }
+
+    // Reads the game's events past the projection's checkpoint a page at a time; returns how many were applied.
+    private int catchUp(Projection projection, String gameId) {
+        int applied = 0;
+        while (true) {
+            ProjectionCheckpoint checkpoint = checkpointRepository
+                    .findById(new ProjectionCheckpoint.Key(projection.name(), gameId)).orElse(null);
+            if (checkpoint != null && checkpoint.isFinished()) {
+                return applied;
+            }
+            long from = checkpoint != null ? checkpoint.getNextSequence() : 0;
+            List<GameEventLog> page = eventStore.read(gameId, from, CATCH_UP_PAGE_SIZE);
+            if (page.isEmpty() || !apply(projection, page)) {
+                return applied;
+            }
+            applied += page.size();
+            if (page.size() < CATCH_UP_PAGE_SIZE) {
+                return applied;
+            }
+        }
+    }
+
+    // Applies the events the projection hasn't seen yet and advances its checkpoints, in one transaction.
+    private boolean apply(Projection projection, List<GameEventLog> events) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> applyInTransaction(projection, events));
+            return true;
+        } catch (Exception e) {
+            logger.error("Projection {} failed on a batch of {} events; its games will be caught up later.",
+                    projection.name(), events.size(), e);
+            return false;
+        }
+    }
+
+    private void applyInTransaction(Projection projection, List<GameEventLog> events) {
+        Map<String, List<GameEventLog>> byGame = new LinkedHashMap<>();
+        for (GameEventLog event : events) {
+            byGame.computeIfAbsent(event.getGameId(), id -> new ArrayList<>()).add(event);
+        }
+        List<ProjectionCheckpoint.Key> keys = byGame.keySet().stream()
+                .map(gameId -> new ProjectionCheckpoint.Key(projection.name(), gameId))
+                .toList();
+        Map<String, ProjectionCheckpoint> checkpoints = new HashMap<>();
+        checkpointRepository.findAllById(keys).forEach(c -> checkpoints.put(c.getGameId(), c));
+
+        List<GameEventLog> unseen = new ArrayList<>();
+        List<ProjectionCheckpoint> advanced = new ArrayList<>();
+        Instant now = Instant.now();
+        for (Map.Entry<String, List<GameEventLog>> game : byGame.entrySet()) {
+            ProjectionCheckpoint checkpoint = checkpoints.computeIfAbsent(game.getKey(),
+                    id -> new ProjectionCheckpoint(projection.name(), id));
+            long next = checkpoint.getNextSequence();
+            List<GameEventLog> gameEvents = game.getValue().stream()
+                    .filter(event -> event.getEventSequence() >= next)
+                    .toList();
+            if (gameEvents.isEmpty()) {
+                continue;
+            }
+            if (gameEvents.get(0).getEventSequence() > next) {
+                // Something in between was missed; the store has it.
+                gameEvents = eventStore.read(game.getKey(), next);
+            }
+            unseen.addAll(gameEvents);
+            checkpoint.advance(gameEvents.get(gameEvents.size() - 1).getEventSequence() + 1,
+                    gameEvents.stream().anyMatch(event -> GAME_OVER.equals(event.getEventType())), now);
+            advanced.add(checkpoint);
+        }
+        if (unseen.isEmpty()) {
+            return;
+        }
+        projection.apply(unseen);
+        checkpointRepository.saveAll(advanced);
+    }
+}
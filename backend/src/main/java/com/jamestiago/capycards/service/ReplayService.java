@@ -0,0 +1,255 @@
+package com.jamestiago.capycards.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.CardCatalog;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameSnapshot;
+import com.jamestiago.capycards.game.GameSnapshotCodec;
+import com.jamestiago.capycards.game.GameStateMapper;
+import com.jamestiago.capycards.game.events.BinaryEventCodec;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.game.events.GameEventLog;
+import com.jamestiago.capycards.repository.EventStore;
+import com.jamestiago.capycards.repository.GameSnapshotRepository;
+import com.jamestiago.capycards.repository.GameSummaryProjection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Rebuilds a game as it was at any point in its history, for the debug and
+ * admin views. Nothing here touches the active games: a replay starts from
+ * the nearest checkpoint it made earlier or the nearest stored snapshot, and
+ * only replays the events between that and the target.
+ * <p>
+ * While replaying, a checkpoint (an encoded snapshot) is kept every
+ * {@code game.replay.checkpoint-interval} events for the most recently viewed
+ * {@code game.replay.cache-games} games, so stepping back and forth through
+ * a long game costs a decode and a few events per step.
+ */
+@Service
+public class ReplayService {
+    private static final Logger logger = LoggerFactory.getLogger(ReplayService.class);
+    private static final int PAGE_SIZE = 256;
+    private static final int MAX_CHECKPOINTS_PER_GAME = 64;
+
+    private final EventStore eventStore;
+    private final GameSnapshotRepository snapshotRepository;
+    private final CardCatalogService catalogService;
+    private final GameSummaryProjection summaryProjection;
+    private final ObjectMapper objectMapper;
+    private final int checkpointInterval;
+    private final Map<String, NavigableMap<Long, Checkpoint>> checkpoints;
+
+    /** A game's state after its first {@code sequence} events. */
+    private record Checkpoint(long sequence, int turn, byte[] data) {
+    }
+
+    /**
+     * The state reached by a seek, and how far into the game it is.
+     *
+     * @param endOfLog whether the game's events ran out before the target.
+     */
+    public record Position(Game game, long eventSequence, int turnNumber, boolean endOfLog) {
+    }
+
+    /**
+     * @param nextSequence where the next page starts, or null if this page
+     *                     reached the end of the game.
+     */
+    public record EventPage(List<Map<String, Object>> events, Long nextSequence) {
+    }
+
+    public ReplayService(EventStore eventStore, GameSnapshotRepository snapshotRepository,
+            CardCatalogService catalogService, GameSummaryProjection summaryProjection, ObjectMapper objectMapper,
+            @Value("${game.replay.checkpoint-interval:100}") int checkpointInterval,
+            @Value("${game.replay.cache-games:32}") int cacheGames) {
+        this.eventStore = eventStore;
+        this.snapshotRepository = snapshotRepository;
+        this.catalogService = catalogService;
+        this.summaryProjection = summaryProjection;
+        this.objectMapper = objectMapper;
+        this.checkpointInterval = Math.max(1, checkpointInterval);
+        int maxGames = Math.max(1, cacheGames);
+        this.checkpoints = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, NavigableMap<Long, Checkpoint>> eldest) {
+                return size() > maxGames;
+            }
+        };
+    }
+
+    /**
+     * The game after its first {@code eventSequence} events, or at its latest
+     * event if it has fewer.
+     *
+     * @return null if the game has no events.
+     */
+    public Position seekToEvent(String gameId, long eventSequence) throws IOException {
+        Checkpoint start = nearest(gameId, c -> c.sequence() <= eventSequence);
+        if (start == null) {
+            start = snapshotCheckpoint(snapshotRepository
+                    .findFirstByGameIdAndFormatVersionAndEventSequenceLessThanEqualOrderByEventSequenceDesc(gameId,
+                            GameSnapshotCodec.FORMAT_VERSION, eventSequence));
+        }
+        return replay(gameId, start, game -> game.getNextEventSequence() >= eventSequence);
+    }
+
+    /**
+     * The game just after turn {@code turnNumber} began, or at its latest
+     * event if it never got that far.
+     *
+     * @return null if the game has no events.
+     */
+    public Position seekToTurn(String gameId, int turnNumber) throws IOException {
+        // A checkpoint from the turn itself may be past its start.
+        Checkpoint start = nearest(gameId, c -> c.turn() < turnNumber);
+        if (start == null) {
+            start = snapshotCheckpoint(snapshotRepository
+                    .findFirstByGameIdAndFormatVersionAndTurnNumberLessThanOrderByEventSequenceDesc(gameId,
+                            GameSnapshotCodec.FORMAT_VERSION, turnNumber));
+        }
+        return replay(gameId, start, game -> game.getTurnNumber() >= turnNumber);
+    }
+
+    /** @return the game after its latest stored event, or null if it has none. */
+    public Position seekToEnd(String gameId) throws IOException {
+        return seekToEvent(gameId, Long.MAX_VALUE);
+    }
+
+    /**
+     * A page of the game's events as JSON-style maps, in order. Events that
+     * can't be decoded are returned as an error entry with their raw data.
+     */
+    public EventPage readEvents(String gameId, long fromSequence, int limit) {
+        List<GameEventLog> logs = eventStore.read(gameId, Math.max(0, fromSequence), limit);
+        Long next = logs.size() < limit ? null : logs.get(logs.size() - 1).getEventSequence() + 1;
+        return new EventPage(toMaps(gameId, logs), next);
+    }
+
+    /** All of the game's events from {@code fromSequence} on, as in {@link #readEvents(String, long, int)}. */
+    public EventPage readEvents(String gameId, long fromSequence) {
+        return new EventPage(toMaps(gameId, eventStore.read(gameId, Math.max(0, fromSequence))), null);
+    }
+
+    private List<Map<String, Object>> toMaps(String gameId, List<GameEventLog> logs) {
+        CardCatalog catalog = catalogService.forVersion(summaryProjection.catalogVersionOf(gameId));
+        List<Map<String, Object>> events = new ArrayList<>(logs.size());
+        for (GameEventLog log : logs) {
+            events.add(toMap(log, catalog));
+        }
+        return events;
+    }
+
+    private Position replay(String gameId, Checkpoint start, Predicate<Game> reached) throws IOException {
+        Game game = null;
+        if (start != null) {
+            try {
+                game = GameSnapshotCodec.decode(start.data(),
+                        catalogService.forVersion(GameSnapshotCodec.catalogVersion(start.data())));
+            } catch (IOException e) {
+                logger.warn("[{}] Ignoring unreadable snapshot at event {}: {}", gameId, start.sequence(),
+                        e.getMessage());
+                start = null;
+            }
+        }
+        if (game == null) {
+            game = new Game(gameId, catalogService.forVersion(summaryProjection.catalogVersionOf(gameId)));
+        }
+        long replayed = 0;
+        boolean endOfLog = false;
+        while (!reached.test(game)) {
+            List<GameEventLog> page = eventStore.read(gameId, game.getNextEventSequence(), PAGE_SIZE);
+            for (GameEventLog log : page) {
+                if (reached.test(game)) {
+                    break;
+                }
+                if (Game.changesState(log.getEventType())) {
+                    game.apply(BinaryEventCodec.decode(log, objectMapper));
+                } else {
+                    game.skipEvent();
+                }
+                replayed++;
+                if (game.getNextEventSequence() % checkpointInterval == 0) {
+                    remember(gameId, game);
+                }
+            }
+            if (page.size() < PAGE_SIZE) {
+                endOfLog = true;
+                break;
+            }
+        }
+        if (endOfLog && game.getNextEventSequence() == 0) {
+            return null;
+        }
+        logger.debug("[{}] Replayed {} events from {} to reach event {}.", gameId, replayed,
+                start != null ? "event " + start.sequence() : "the start", game.getNextEventSequence());
+        return new Position(game, game.getNextEventSequence(), game.getTurnNumber(), endOfLog);
+    }
+
+    private Checkpoint nearest(String gameId, Predicate<Checkpoint> usable) {
+        synchronized (checkpoints) {
+            NavigableMap<Long, Checkpoint> gameCheckpoints = checkpoints.get(gameId);
+            if (gameCheckpoints == null) {
+                return null;
+            }
+            for (Checkpoint checkpoint : gameCheckpoints.descendingMap().values()) {
+                if (usable.test(checkpoint)) {
+                    return checkpoint;
+                }
+            }
+            return null;
+        }
+    }
+
+    private void remember(String gameId, Game game) {
+        Checkpoint checkpoint = new Checkpoint(game.getNextEventSequence(), game.getTurnNumber(),
+                GameSnapshotCodec.encode(game));
+        synchronized (checkpoints) {
+            NavigableMap<Long, Checkpoint> gameCheckpoints = checkpoints.computeIfAbsent(gameId,
+                    id -> new TreeMap<>());
+            gameCheckpoints.put(checkpoint.sequence(), checkpoint);
+            if (gameCheckpoints.size() > MAX_CHECKPOINTS_PER_GAME) {
+                // The early ones are the cheapest to get back to.
+                gameCheckpoints.pollFirstEntry();
+            }
+        }
+    }
+
+    private static Checkpoint snapshotCheckpoint(Optional<GameSnapshot> snapshot) {
+        return snapshot.map(s -> new Checkpoint(s.getEventSequence(), s.getTurnNumber(), s.getSnapshotData()))
+                .orElse(null);
+    }
+
+    // Stored cards are only references; the views need their names and stats.
+    private Map<String, Object> toMap(GameEventLog log, CardCatalog catalog) {
+        try {
+            GameEvent event = BinaryEventCodec.decode(log, objectMapper);
+            BinaryEventCodec.cardsOf(event).forEach(card -> GameStateMapper.describe(card, catalog));
+            return objectMapper.convertValue(event, new TypeReference<Map<String, Object>>() {
+            });
+        } catch (Exception e) {
+            Map<String, Object> errorMap = new HashMap<>();
+            errorMap.put("error", "Failed to parse event data");
+            errorMap.put("eventSequence", log.getEventSequence());
+            errorMap.put("rawData", log.getEventPayload() != null
+                    ? Base64.getEncoder().encodeToString(log.getEventPayload())
+                    : log.getEventData());
+            return errorMap;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.jamestiago.capycards.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.CardCatalog;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.GameNotation;
+import com.jamestiago.capycards.game.GameSnapshotCodec;
+import com.jamestiago.capycards.game.GameStateMapper;
+import com.jamestiago.capycards.game.commands.GameCommand;
+import com.jamestiago.capycards.game.events.GameEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What-if sandboxes: forks of a live or finished game that accept commands
+ * through the {@link GameEngine} but are never persisted or broadcast, and
+ * are dropped after {@code game.sandbox.idle-minutes} without use.
+ * <p>
+ * A fork starts out as a reference to the encoded game at the fork point,
+ * shared by every sandbox forked there. Only a sandbox that is sent a command
+ * gets a {@link Game} of its own, so opening many sandboxes on the same
+ * position costs next to nothing until they diverge.
+ */
+@Service
+public class SandboxService {
+    private static final Logger logger = LoggerFactory.getLogger(SandboxService.class);
+
+    private final GameService gameService;
+    private final ReplayService replayService;
+    private final GameEngine gameEngine;
+    private final ObjectMapper objectMapper;
+    private final int maxSandboxes;
+    private final long idleNanos;
+    private final Map<String, Sandbox> sandboxes = new ConcurrentHashMap<>();
+    // Encoded games by "gameId@eventSequence", for as long as a sandbox that hasn't diverged uses them.
+    private final Map<String, byte[]> forkPoints = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reaper;
+
+    private static final class Sandbox {
+        final String sandboxId;
+        final String parentGameId;
+        final String forkPoint;
+        final long forkedAt;
+        final CardCatalog catalog; // The parent game's, which the fork point is decoded with.
+        volatile Game game; // Null until the first command.
+        volatile long lastAccessNanos = System.nanoTime();
+
+        // forkPoint is null for sandboxes opened on a given position.
+        Sandbox(String sandboxId, String parentGameId, String forkPoint, long forkedAt, CardCatalog catalog) {
+            this.sandboxId = sandboxId;
+            this.parentGameId = parentGameId;
+            this.forkPoint = forkPoint;
+            this.forkedAt = forkedAt;
+            this.catalog = catalog;
+        }
+    }
+
+    public SandboxService(GameService gameService, ReplayService replayService, GameEngine gameEngine,
+            ObjectMapper objectMapper,
+            @Value("${game.sandbox.max-sandboxes:500}") int maxSandboxes,
+            @Value("${game.sandbox.idle-minutes:30}") long idleMinutes) {
+        this.gameService = gameService;
+        this.replayService = replayService;
+        this.gameEngine = gameEngine;
+        this.objectMapper = objectMapper;
+        this.maxSandboxes = Math.max(1, maxSandboxes);
+        this.idleNanos = TimeUnit.MINUTES.toNanos(idleMinutes);
+    }
+
+    @PostConstruct
+    public void init() {
+        reaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sandbox-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reaper.scheduleWithFixedDelay(() -> {
+            // An exception would cancel the schedule and sandboxes would never be reaped again.
+            try {
+                discardIdle();
+            } catch (Exception e) {
+                logger.warn("Failed to discard idle sandboxes.", e);
+            }
+        }, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (reaper != null) {
+            reaper.shutdownNow();
+        }
+    }
+
+    /**
+     * Forks a game after its first {@code atEvent} events, or as it is now if
+     * {@code atEvent} is null.
+     *
+     * @return the new sandbox, or null if the game has no events.
+     * @throws IllegalStateException if there are already too many sandboxes.
+     */
+    public Map<String, Object> fork(String gameId, Long atEvent) throws IOException {
+        if (sandboxes.size() >= maxSandboxes) {
+            throw new IllegalStateException("Too many open sandboxes (" + maxSandboxes + ").");
+        }
+        GameService.LiveSnapshot live = atEvent == null ? gameService.snapshotLiveGame(gameId) : null;
+        byte[] encoded;
+        long forkedAt;
+        CardCatalog catalog;
+        if (live != null) {
+            encoded = live.data();
+            forkedAt = live.eventSequence();
+            catalog = live.catalog();
+        } else {
+            ReplayService.Position position = atEvent == null ? replayService.seekToEnd(gameId)
+                    : replayService.seekToEvent(gameId, Math.max(0, atEvent));
+            if (position == null) {
+                return null;
+            }
+            forkedAt = position.eventSequence();
+            encoded = GameSnapshotCodec.encode(position.game());
+            catalog = position.game().getCatalog();
+        }
+        String forkPoint = gameId + "@" + forkedAt;
+        Sandbox sandbox = new Sandbox("sandbox-" + UUID.randomUUID(), gameId, forkPoint, forkedAt, catalog);
+        sandboxes.put(sandbox.sandboxId, sandbox);
+        forkPoints.putIfAbsent(forkPoint, encoded);
+        logger.info("Forked game {} at event {} into {} ({} sandboxes open).", gameId, forkedAt, sandbox.sandboxId,
+                sandboxes.size());
+        synchronized (sandbox) {
+            return describe(sandbox, gameOf(sandbox), null);
+        }
+    }
+
+    /**
+     * Opens a sandbox on a position that doesn't come from the event log,
+     * e.g. one parsed from {@link com.jamestiago.capycards.game.GameNotation}.
+     *
+     * @throws IllegalStateException if there are already too many sandboxes.
+     */
+    public Map<String, Object> open(Game game) {
+        if (sandboxes.size() >= maxSandboxes) {
+            throw new IllegalStateException("Too many open sandboxes (" + maxSandboxes + ").");
+        }
+        Sandbox sandbox = new Sandbox("sandbox-" + UUID.randomUUID(), game.getGameId(), null,
+                game.getNextEventSequence(), game.getCatalog());
+        sandbox.game = game;
+        sandboxes.put(sandbox.sandboxId, sandbox);
+        logger.info("Opened {} on a given position of game {}.", sandbox.sandboxId, game.getGameId());
+        synchronized (sandbox) {
+            return describe(sandbox, game, null);
+        }
+    }
+
+    /** @return the sandbox's current state, or null if there's no such sandbox. */
+    public Map<String, Object> view(String sandboxId) throws IOException {
+        Sandbox sandbox = touch(sandboxId);
+        if (sandbox == null) {
+            return null;
+        }
+        synchronized (sandbox) {
+            return describe(sandbox, gameOf(sandbox), null);
+        }
+    }
+
+    /**
+     * Runs a command in the sandbox. An invalid command leaves the sandbox as
+     * it was and returns no events.
+     *
+     * @return the resulting events and state, or null if there's no such sandbox.
+     */
+    public Map<String, Object> execute(String sandboxId, GameCommand command) throws IOException {
+        Sandbox sandbox = touch(sandboxId);
+        if (sandbox == null) {
+            return null;
+        }
+        synchronized (sandbox) {
+            if (sandbox.game == null) {
+                sandbox.game = gameOf(sandbox);
+                releaseForkPointIfUnused(sandbox.forkPoint);
+            }
+            command.gameId = sandbox.parentGameId;
+            List<GameEvent> events = gameEngine.processCommand(sandbox.game, command);
+            for (GameEvent event : events) {
+                sandbox.game.apply(event);
+            }
+            return describe(sandbox, sandbox.game, events);
+        }
+    }
+
+    public boolean discard(String sandboxId) {
+        Sandbox sandbox = sandboxes.remove(sandboxId);
+        if (sandbox == null) {
+            return false;
+        }
+        releaseForkPointIfUnused(sandbox.forkPoint);
+        return true;
+    }
+
+    int size() {
+        return sandboxes.size();
+    }
+
+    int forkPointCount() {
+        return forkPoints.size();
+    }
+
+    int discardIdle() {
+        long now = System.nanoTime();
+        int discarded = 0;
+        for (Sandbox sandbox : sandboxes.values()) {
+            if (now - sandbox.lastAccessNanos > idleNanos && discard(sandbox.sandboxId)) {
+                discarded++;
+            }
+        }
+        if (discarded > 0) {
+            logger.info("Discarded {} idle sandboxes; {} still open.", discarded, sandboxes.size());
+        }
+        return discarded;
+    }
+
+    private Sandbox touch(String sandboxId) {
+        Sandbox sandbox = sandboxes.get(sandboxId);
+        if (sandbox != null) {
+            sandbox.lastAccessNanos = System.nanoTime();
+        }
+        return sandbox;
+    }
+
+    // The sandbox's own game once it has diverged, otherwise a fresh decode of the shared fork point.
+    private Game gameOf(Sandbox sandbox) throws IOException {
+        if (sandbox.game != null) {
+            return sandbox.game;
+        }
+        byte[] encoded = forkPoints.get(sandbox.forkPoint);
+        if (encoded == null) {
+            // Released by a sandbox that diverged or was discarded at the same moment; the log still has it.
+            ReplayService.Position position = replayService.seekToEvent(sandbox.parentGameId, sandbox.forkedAt);
+            if (position == null) {
+                throw new IOException("Game " + sandbox.parentGameId + " no longer has any events.");
+            }
+            forkPoints.putIfAbsent(sandbox.forkPoint, GameSnapshotCodec.encode(position.game()));
+            return position.game();
+        }
+        return GameSnapshotCodec.decode(encoded, sandbox.catalog);
+    }
+
+    private void releaseForkPointIfUnused(String forkPoint) {
+        if (forkPoint == null) {
+            return;
+        }
+        boolean inUse = sandboxes.values().stream()
+                .anyMatch(s -> forkPoint.equals(s.forkPoint) && s.game == null);
+        if (!inUse) {
+            forkPoints.remove(forkPoint);
+        }
+    }
+
+    private Map<String, Object> describe(Sandbox sandbox, Game game, List<GameEvent> events) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("sandboxId", sandbox.sandboxId);
+        body.put("parentGameId", sandbox.parentGameId);
+        body.put("forkedAtEvent", sandbox.forkedAt);
+        body.put("eventSequence", game.getNextEventSequence());
+        body.put("diverged", sandbox.game != null);
+        body.put("notation", GameNotation.write(game));
+        if (events != null) {
+            body.put("events", objectMapper.convertValue(events, new TypeReference<List<Map<String, Object>>>() {
+            }));
+        }
+        body.put("gameState", GameStateMapper.createGameStateResponse(game, "SERVER_VIEW", "Sandbox state."));
+        return body;
+    }
+}
@@ -1,64 +1,110 @@
 package com.jamestiago.capycards.websocket;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameNotation;
 import com.jamestiago.capycards.game.GameStateMapper;
 import com.jamestiago.capycards.game.dto.GameStateResponse;
-import com.jamestiago.capycards.game.events.GameEventLog;
-import com.jamestiago.capycards.repository.GameEventLogRepository;
-import com.jamestiago.capycards.service.GameService;
+import com.jamestiago.capycards.service.ReplayService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
+/**
+ * Read-only views of a game's history. Everything goes through
+ * {@link ReplayService}, which never touches the games being played.
+ */
 @RestController
 @RequestMapping("/api/debug")
 public class GameDebugController {
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 5000;
 
-    private final GameService gameService;
-    private final GameEventLogRepository eventLogRepository;
-    private final ObjectMapper objectMapper;
+    private final ReplayService replayService;
 
-    public GameDebugController(GameService gameService, GameEventLogRepository eventLogRepository,
-            ObjectMapper objectMapper) {
-        this.gameService = gameService;
-        this.eventLogRepository = eventLogRepository;
-        this.objectMapper = objectMapper;
+    public GameDebugController(ReplayService replayService) {
+        this.replayService = replayService;
     }
 
+    /**
+     * The game's latest state and its events. Without {@code limit}, all of
+     * them; with it, a page starting at {@code from}.
+     */
     @GetMapping("/game/{gameId}/history")
-    public ResponseEntity<?> getGameHistory(@PathVariable String gameId) {
+    public ResponseEntity<?> getGameHistory(@PathVariable String gameId,
+            @RequestParam(defaultValue = "0") long from,
+            @RequestParam(required = false) Integer limit) {
         try {
-            Game reconstructedGame = gameService.reconstructGame(gameId);
-            GameStateResponse finalState = GameStateMapper.createGameStateResponse(reconstructedGame, "SERVER_VIEW",
-                    "Reconstructed final state.");
+            ReplayService.Position position = replayService.seekToEnd(gameId);
+            if (position == null) {
+                return notFound(gameId, "No events found.");
+            }
+            ReplayService.EventPage page = limit != null
+                    ? replayService.readEvents(gameId, from, Math.min(Math.max(limit, 1), MAX_PAGE_SIZE))
+                    : replayService.readEvents(gameId, from);
 
-            List<GameEventLog> eventLogs = eventLogRepository.findByGameIdOrderByEventSequenceAsc(gameId);
-
-            List<Map<String, Object>> eventsAsJsonObjects = eventLogs.stream().map(log -> {
-                try {
-                    return objectMapper.readValue(log.getEventData(), new TypeReference<Map<String, Object>>() {
-                    });
-                } catch (Exception e) {
-                    Map<String, Object> errorMap = new HashMap<>();
-                    errorMap.put("error", "Failed to parse event data");
-                    errorMap.put("rawData", log.getEventData());
-                    return errorMap;
-                }
-            }).collect(Collectors.toList());
-
-            return ResponseEntity.ok(Map.of(
-                    "reconstructedGameState", finalState,
-                    "eventHistory", eventsAsJsonObjects));
+            Map<String, Object> body = new HashMap<>();
+            body.put("reconstructedGameState", stateOf(position, "Reconstructed final state."));
+            body.put("eventHistory", page.events());
+            body.put("nextSequence", page.nextSequence());
+            return ResponseEntity.ok(body);
+        } catch (Exception e) {
+            return notFound(gameId, e.getMessage());
+        }
+    }
 
+    /**
+     * The game as it was after its first {@code event} events, or just after
+     * turn {@code turn} began. With neither, its latest state.
+     */
+    @GetMapping("/game/{gameId}/state")
+    public ResponseEntity<?> getGameStateAt(@PathVariable String gameId,
+            @RequestParam(required = false) Long event,
+            @RequestParam(required = false) Integer turn) {
+        try {
+            ReplayService.Position position;
+            if (event != null) {
+                position = replayService.seekToEvent(gameId, Math.max(0, event));
+            } else if (turn != null) {
+                position = replayService.seekToTurn(gameId, turn);
+            } else {
+                position = replayService.seekToEnd(gameId);
+            }
+            if (position == null) {
+                return notFound(gameId, "No events found.");
+            }
+            Map<String, Object> body = new HashMap<>();
+            body.put("eventSequence", position.eventSequence());
+            body.put("turnNumber", position.turnNumber());
+            body.put("endOfLog", position.endOfLog());
+            body.put("notation", GameNotation.write(position.game()));
+            body.put("gameState", stateOf(position, "State after " + position.eventSequence() + " events."));
+            return ResponseEntity.ok(body);
         } catch (Exception e) {
-            return ResponseEntity.status(404)
-                    .body(Map.of("error", "Game not found or failed to reconstruct.", "message", e.getMessage()));
+            return notFound(gameId, e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /** A page of the game's events; {@code nextSequence} is null on the last page. */
+    @GetMapping("/game/{gameId}/events")
+    public ResponseEntity<?> getGameEvents(@PathVariable String gameId,
+            @RequestParam(defaultValue = "0") long from,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        ReplayService.EventPage page = replayService.readEvents(gameId, from,
+                Math.min(Math.max(limit, 1), MAX_PAGE_SIZE));
+        Map<String, Object> body = new HashMap<>();
+        body.put("events", page.events());
+        body.put("nextSequence", page.nextSequence());
+        return ResponseEntity.ok(body);
+    }
+
+    private static GameStateResponse stateOf(ReplayService.Position position, String message) {
+        return GameStateMapper.createGameStateResponse(position.game(), "SERVER_VIEW", message);
+    }
+
+    private static ResponseEntity<?> notFound(String gameId, String message) {
+        return ResponseEntity.status(404)
+                .body(Map.of("error", "Game " + gameId + " not found or failed to reconstruct.",
+                        "message", String.valueOf(message)));
+    }
+}
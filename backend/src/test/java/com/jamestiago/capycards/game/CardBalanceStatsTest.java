@@ -0,0 +1,100 @@
+package com.jamestiago.capycards.game;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.ai.EvaluationWeights;
+import com.jamestiago.capycards.game.ai.GreedyPolicy;
+import com.jamestiago.capycards.game.ai.HeadlessMatch;
+import com.jamestiago.capycards.game.events.CardPlayedEvent;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.game.events.GameStartedEvent;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.service.CardDefinitionLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CardBalanceStatsTest {
+    private static final long MINUTE = 60_000;
+
+    @Test
+    void countsPlaysAndResultsPerCardWithinTheWindow() throws IOException {
+        List<Card> cardPool = new CardDefinitionLoader(new ObjectMapper()).loadAll();
+        GameEngine engine = new GameEngine();
+        GreedyPolicy policy = new GreedyPolicy(engine, EvaluationWeights.defaults());
+        AtomicLong clock = new AtomicLong(1_000 * MINUTE);
+        CardBalanceStats stats = new CardBalanceStats(MINUTE, 10, clock::get);
+
+        long plays = 0;
+        int finished = 0;
+        Random random = new Random(21);
+        for (int i = 0; i < 4; i++) {
+            Game game = HeadlessMatch.newGame(cardPool, random);
+            stats.accept(new GameStartedEvent(game.getGameId(), 0, game.getPlayer1().getPlayerId(),
+                    game.getPlayer2().getPlayerId(), game.getPlayer1().getPlayerId()));
+            long[] gamePlays = new long[1];
+            HeadlessMatch.Result result = HeadlessMatch.play(engine, game, policy, policy, (GameEvent event) -> {
+                stats.accept(event);
+                if (event instanceof CardPlayedEvent) {
+                    gamePlays[0]++;
+                }
+            });
+            stats.discard(game.getGameId());
+            plays += gamePlays[0];
+            finished += result.truncated() ? 0 : 1;
+        }
+
+        List<CardBalanceStats.CardMetrics> metrics = stats.snapshot(5 * MINUTE);
+        assertThat(stats.trackedGames()).isZero();
+        assertThat(stats.finishedGames(5 * MINUTE)).isEqualTo(finished);
+        assertThat(metrics.stream().mapToLong(CardBalanceStats.CardMetrics::plays).sum()).isEqualTo(plays);
+        assertThat(metrics).allSatisfy(card -> {
+            assertThat(card.gamesWon()).isLessThanOrEqualTo(card.gamesPlayed());
+            if (card.winRateWhenPlayed() != null) {
+                assertThat(card.winRateWhenPlayed()).isBetween(0.0, 1.0);
+            }
+        });
+        assertThat(metrics.stream().anyMatch(card -> card.avgDamageDealt() != null && card.avgDamageDealt() > 0))
+                .isTrue();
+
+        clock.addAndGet(20 * MINUTE);
+        assertThat(stats.snapshot(5 * MINUTE)).allSatisfy(card -> assertThat(card.plays()).isZero());
+        assertThat(stats.snapshot(0).stream().mapToLong(CardBalanceStats.CardMetrics::plays).sum())
+                .isEqualTo(plays);
+    }
+
+    @Test
+    void aGameThatGoesIdleIsStillCreditedOnceItResumes() throws IOException {
+        List<Card> cardPool = new CardDefinitionLoader(new ObjectMapper()).loadAll();
+        GameEngine engine = new GameEngine();
+        GreedyPolicy policy = new GreedyPolicy(engine, EvaluationWeights.defaults());
+        AtomicLong clock = new AtomicLong(1_000 * MINUTE);
+        CardBalanceStats uninterrupted = new CardBalanceStats(MINUTE, 10, clock::get);
+        CardBalanceStats idled = new CardBalanceStats(MINUTE, 10, clock::get);
+
+        Game game = HeadlessMatch.newGame(cardPool, new Random(5));
+        GameStartedEvent start = new GameStartedEvent(game.getGameId(), 0, game.getPlayer1().getPlayerId(),
+                game.getPlayer2().getPlayerId(), game.getPlayer1().getPlayerId());
+        uninterrupted.accept(start);
+        idled.accept(start);
+        int[] seen = { 0 };
+        HeadlessMatch.Result result = HeadlessMatch.play(engine, game, policy, policy, (GameEvent event) -> {
+            uninterrupted.accept(event);
+            idled.accept(event);
+            if (++seen[0] == 40) {
+                // Evicted from the cache and rebuilt later.
+                clock.addAndGet(MINUTE);
+                assertThat(idled.compactIdle(MINUTE / 2)).isEqualTo(1);
+                idled.resume(game);
+            }
+        });
+        assertThat(seen[0]).isGreaterThan(40);
+
+        assertThat(idled.finishedGames(0)).isEqualTo(result.truncated() ? 0 : 1);
+        assertThat(idled.snapshot(0)).isEqualTo(uninterrupted.snapshot(0));
+    }
+}
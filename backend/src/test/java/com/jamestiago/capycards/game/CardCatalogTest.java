@@ -0,0 +1,59 @@
+package com.jamestiago.capycards.game;
+
+import com.jamestiago.capycards.model.Card;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CardCatalogTest {
+
+    private static Card card(String cardId, String type, boolean playable) {
+        Card card = new Card(cardId, cardId, type, 5, 1, 1, "", null, null, null, null);
+        card.setDirectlyPlayable(playable);
+        return card;
+    }
+
+    @Test
+    void indexesCardsByTypeAndPlayability() {
+        CardCatalog catalog = CardCatalog.of(3, List.of(
+                card("CAP001", "Capybara, Fire", true),
+                card("CAP002", "capybara", false),
+                card("CAP001", "Duplicate", true)));
+
+        assertThat(catalog.getVersion()).isEqualTo(3);
+        assertThat(catalog.size()).isEqualTo(2);
+        assertThat(catalog.get("CAP001").getType()).isEqualTo("Capybara, Fire");
+        assertThat(catalog.typesOf("CAP001")).containsExactlyInAnyOrder("CAPYBARA", "FIRE");
+        assertThat(catalog.cardsOfType("CAPYBARA")).extracting(Card::getCardId).containsExactly("CAP001", "CAP002");
+        assertThat(catalog.getPlayable()).extracting(Card::getCardId).containsExactly("CAP001");
+        assertThat(catalog.get("MISSING")).isNull();
+    }
+
+    @Test
+    void gamesKeepTheCatalogTheyWereCreatedWith() {
+        CardCatalog original = CardCatalog.of(1, List.of(card("CAP001", "Capybara", true)));
+        Game game = new Game("pinned", original);
+        CardCatalog republished = CardCatalog.of(2, List.of(card("CAP001", "Fire", true)));
+
+        assertThat(republished.get("CAP001").getType()).isEqualTo("Fire");
+        assertThat(game.getCatalog()).isSameAs(original);
+        assertThat(new Game(game).getCatalog().getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void unlistedDefinitionsAreCompiledOnceButCannotBeLookedUp() {
+        Card current = card("CAP001", "Capybara", true);
+        current.setEffectConfiguration("[{\"trigger\": \"ON_PLAY\", \"action\": \"DRAW_CARD\"}]");
+        Card proposed = new Card(current);
+        proposed.setAttack(current.getAttack() + 1);
+        CardCatalog catalog = CardCatalog.of(1, List.of(proposed), List.of(current));
+
+        assertThat(catalog.get("CAP001")).isSameAs(proposed);
+        assertThat(catalog.size()).isEqualTo(1);
+        assertThat(catalog.effectsOf(current)).isSameAs(catalog.effectsOf(current));
+        assertThat(catalog.effectsOf(proposed)).isSameAs(catalog.effectsOf("CAP001"));
+        assertThat(catalog.effectsOf(new Card(current))).isNotSameAs(catalog.effectsOf(current));
+    }
+}
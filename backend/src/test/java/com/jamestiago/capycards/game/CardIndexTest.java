@@ -0,0 +1,55 @@
+package com.jamestiago.capycards.game;
+
+import com.jamestiago.capycards.game.effects.EffectTrigger;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.model.Rarity;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CardIndexTest {
+    private static final String HEAL_ON_PLAY = "[{\"trigger\":\"ON_PLAY\",\"action\":\"HEAL_TARGET\",\"params\":{}}]";
+
+    private static final CardIndex INDEX = CardCatalog.of(1, List.of(
+            new Card("CAP003", "Leonico", "Capybara, Fire", 12, 6, 1, "Burns a random enemy.", null,
+                    Rarity.RARE, null, null),
+            new Card("CAP001", "Kahina", "Indigenous", 24, 4, 2, "Heals whenever another card is damaged.",
+                    HEAL_ON_PLAY, Rarity.SUPER_RARE, null, null),
+            new Card("CAP002", "Train of Skeleton", "Undead, Capybara", 8, 3, 0, "Heals nothing.", null,
+                    Rarity.COMMON, null, null)))
+            .index();
+
+    private static CardIndex.Query query(String text, Set<String> types, EffectTrigger trigger,
+            CardIndex.Range attack, CardIndex.SortKey sort, boolean descending, int offset, int limit) {
+        return new CardIndex.Query(text, null, types, null, null, trigger, null, null, attack, null, sort,
+                descending, offset, limit);
+    }
+
+    private static List<String> ids(CardIndex.Page page) {
+        return page.cards().stream().map(Card::getCardId).toList();
+    }
+
+    @Test
+    void intersectsTermsAndMatchesTheLastWordAsAPrefix() {
+        assertThat(ids(INDEX.search(query("hea", null, null, null, null, false, 0, 10))))
+                .containsExactly("CAP001", "CAP002");
+        assertThat(ids(INDEX.search(query("heals capy", null, null, null, null, false, 0, 10))))
+                .containsExactly("CAP002");
+        assertThat(ids(INDEX.search(query(null, Set.of("capybara"), null, new CardIndex.Range(4, null), null,
+                false, 0, 10)))).containsExactly("CAP003");
+        assertThat(ids(INDEX.search(query(null, null, EffectTrigger.ON_PLAY, null, null, false, 0, 10))))
+                .containsExactly("CAP001");
+        assertThat(INDEX.search(query("nothing-like-it", null, null, null, null, false, 0, 10)).total()).isZero();
+    }
+
+    @Test
+    void sortsAndPages() {
+        CardIndex.Page page = INDEX.search(query(null, null, null, null, CardIndex.SortKey.ATTACK, true, 1, 1));
+        assertThat(page.total()).isEqualTo(3);
+        assertThat(ids(page)).containsExactly("CAP001");
+        assertThat(ids(INDEX.search(CardIndex.Query.all()))).containsExactly("CAP001", "CAP002", "CAP003");
+    }
+}
@@ -0,0 +1,123 @@
+package com.jamestiago.capycards.game;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.ai.EvaluationWeights;
+import com.jamestiago.capycards.game.ai.GreedyPolicy;
+import com.jamestiago.capycards.game.ai.HeadlessMatch;
+import com.jamestiago.capycards.game.commands.AttackCommand;
+import com.jamestiago.capycards.game.commands.PlayCardCommand;
+import com.jamestiago.capycards.game.events.CardDestroyedEvent;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.game.events.GameLogMessageEvent;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.service.CardDefinitionLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EffectGraphTest {
+    private static final String UNSTABLE = "ERROR: Unstable effect loop detected.";
+
+    @Test
+    void theShippedCardsCannotLoop() throws IOException {
+        List<Card> cardPool = new CardDefinitionLoader(new ObjectMapper()).loadAll();
+        CardCatalog catalog = CardCatalog.of(1, cardPool);
+        EffectGraph graph = catalog.effectGraph();
+
+        assertThat(graph.isLoopFree()).isTrue();
+        assertThat(graph.getCosts()).hasSize(catalog.size());
+        assertThat(graph.costOf("NOPE")).isNull();
+
+        GameEngine engine = new GameEngine();
+        GreedyPolicy policy = new GreedyPolicy(engine, EvaluationWeights.defaults());
+        List<GameEvent> events = new ArrayList<>();
+        for (int seed = 0; seed < 5; seed++) {
+            HeadlessMatch.play(engine, HeadlessMatch.newGame(cardPool, new Random(seed)), policy, policy,
+                    events::add);
+        }
+        assertThat(events).noneMatch(event -> event instanceof GameLogMessageEvent log
+                && UNSTABLE.equals(log.message));
+    }
+
+    @Test
+    void aCardThatRevivesAndRetaliatesOnDeathMayLoopAndGetsATightBudget() {
+        Card phoenix = card("PHX", "[{\"trigger\": \"ON_DEATH\", \"action\": \"CHAINED_EFFECTS\", \"params\": "
+                + "{\"effects\": [{\"action\": \"HEAL_TARGET\", \"params\": {\"targets\": \"SELF\", \"amount\": 5}},"
+                + "{\"action\": \"DEAL_DAMAGE\", \"params\": {\"targets\": \"ALL_ENEMY_CARDS_ON_FIELD\", "
+                + "\"amount\": 10}}]}}]");
+        CardCatalog catalog = CardCatalog.of(1, List.of(phoenix));
+        EffectGraph graph = catalog.effectGraph();
+
+        assertThat(graph.getLoopingCardIds()).containsExactly("PHX");
+        assertThat(graph.costOf("PHX").waves()).isEqualTo(EffectGraph.LOOP_LAPS * EffectGraph.WAVES_PER_STEP);
+
+        Game game = GameNotation.parse("cpn1 g1 10 PLAYER_1_TURN 3 1 {} "
+                + "p1:One:h:0/[]/[]/[PHX@a1:5/5,10,0,_,_,_]/[] p2:Two:h:0/[]/[]/[PHX@b1:5/5,10,0,_,_,_]/[] []",
+                catalog);
+        EffectGraph.Budget budget = graph.budget(game);
+        assertThat(budget.mayLoop()).isTrue();
+        assertThat(budget.waves()).isLessThan(EffectGraph.UNKNOWN_CARD_WAVES);
+
+        // Dead cards can't be targeted, so today the heal fizzles and the trade still settles within budget.
+        List<GameEvent> events = new GameEngine().processCommand(game, new AttackCommand("g1", "p1", 0, 0));
+
+        assertThat(events).filteredOn(CardDestroyedEvent.class::isInstance).hasSize(2);
+        assertThat(events).noneMatch(event -> event instanceof GameLogMessageEvent log
+                && UNSTABLE.equals(log.message));
+    }
+
+    @Test
+    void deathChainsWithoutRevivalAndDamageReactionsAreBounded() {
+        Card bomb = card("BOMB", "[{\"trigger\": \"ON_DEATH\", \"action\": \"DEAL_DAMAGE\", "
+                + "\"params\": {\"targets\": \"ALL_CARDS_ON_FIELD\", \"amount\": 4}}]");
+        // Effect damage doesn't fire damage triggers again, so two of these only trade one round.
+        Card thorns = card("THORNS", "[{\"trigger\": \"ON_DAMAGE_TAKEN_OF_ANY\", \"action\": \"DEAL_DAMAGE\", "
+                + "\"params\": {\"targets\": \"ALL_ENEMY_CARDS_ON_FIELD\", \"amount\": 1}}]");
+        Card vanilla = card("VANILLA", null);
+        EffectGraph graph = CardCatalog.of(1, List.of(bomb, thorns, vanilla)).effectGraph();
+
+        assertThat(graph.isLoopFree()).isTrue();
+        assertThat(graph.costOf("BOMB").waves()).isGreaterThan(0);
+        assertThat(graph.costOf("THORNS").waves()).isEqualTo(graph.costOf("BOMB").waves());
+        assertThat(graph.costOf("VANILLA").waves()).isZero();
+    }
+
+    @Test
+    void aLongChainSetOffByACardPlayedFromHandResolvesInFull() {
+        // Every death pings the whole field, and the aura follows the highest life there,
+        // so each death takes two waves.
+        Card chain = card("CHAIN", "[{\"trigger\": \"ON_PLAY\", \"action\": \"DEAL_DAMAGE\", "
+                + "\"params\": {\"targets\": \"ALL_ENEMY_CARDS_ON_FIELD\", \"amount\": 1}},"
+                + "{\"trigger\": \"CONTINUOUS_AURA\", \"action\": \"APPLY_AURA_BUFF\", "
+                + "\"params\": {\"targets\": \"SELF\", \"buffs\": [{\"stat\": \"ATK\", "
+                + "\"amount\": {\"source\": \"DYNAMIC_COUNT\", "
+                + "\"countType\": \"HIGHEST_LIFE_ON_FIELD_EXCLUDING_SELF\"}}]}},"
+                + "{\"trigger\": \"ON_DEATH_OF_ANY\", \"action\": \"DEAL_DAMAGE\", "
+                + "\"params\": {\"targets\": \"ALL_CARDS_ON_FIELD\", \"amount\": 1}}]");
+        Card vanilla = card("VANILLA", null);
+        CardCatalog catalog = CardCatalog.of(1, List.of(chain, vanilla));
+        Game game = GameNotation.parse("cpn1 g1 10 PLAYER_1_TURN 3 1 {} "
+                + "p1:One:h:0/[]/[CHAIN@x1:50/50,0,0]/[VANILLA@a1:4/4,0,0,VANILLA@a2:5/5,0,0,VANILLA@a3:6/6,0,0,_]/[] "
+                + "p2:Two:h:0/[]/[]/[VANILLA@b1:1/1,0,0,VANILLA@b2:2/2,0,0,VANILLA@b3:3/3,0,0,VANILLA@b4:4/4,0,0]/[]"
+                + " []",
+                catalog);
+        // Nothing in play needs more than the least budget, which the chain goes well past.
+        assertThat(catalog.effectGraph().budget(game).waves()).isEqualTo(EffectGraph.UNKNOWN_CARD_WAVES);
+        assertThat(catalog.effectGraph().costOf("CHAIN").waves()).isGreaterThan(EffectGraph.UNKNOWN_CARD_WAVES);
+
+        List<GameEvent> events = new GameEngine().processCommand(game, new PlayCardCommand("g1", "p1", 0, 3));
+
+        assertThat(events).filteredOn(CardDestroyedEvent.class::isInstance).hasSize(7);
+        assertThat(events).noneMatch(event -> event instanceof GameLogMessageEvent log
+                && UNSTABLE.equals(log.message));
+    }
+
+    private static Card card(String cardId, String effectConfiguration) {
+        return new Card(cardId, cardId, "Capybara", 5, 10, 0, "", effectConfiguration, null, null, null);
+    }
+}
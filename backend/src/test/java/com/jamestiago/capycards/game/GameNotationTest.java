@@ -0,0 +1,76 @@
+package com.jamestiago.capycards.game;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.ai.EvaluationWeights;
+import com.jamestiago.capycards.game.ai.GreedyPolicy;
+import com.jamestiago.capycards.game.ai.HeadlessMatch;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.game.events.GameStartedEvent;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.service.CardDefinitionLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameNotationTest {
+
+    @Test
+    void everyPositionOfAPlayedGameRoundTrips() throws IOException {
+        List<Card> cardPool = new CardDefinitionLoader(new ObjectMapper()).loadAll();
+        CardCatalog catalog = CardCatalog.of(1, cardPool);
+        GameEngine engine = new GameEngine();
+        GreedyPolicy policy = new GreedyPolicy(engine, EvaluationWeights.defaults());
+
+        Game played = HeadlessMatch.newGame(cardPool, new Random(3));
+        List<GameEvent> events = new ArrayList<>();
+        events.add(new GameStartedEvent(played.getGameId(), 0, played.getPlayer1().getPlayerId(),
+                played.getPlayer2().getPlayerId(), played.getPlayer1().getPlayerId()));
+        HeadlessMatch.play(engine, played, policy, policy, events::add);
+
+        Game game = new Game(played.getGameId(), catalog);
+        for (GameEvent event : events) {
+            game.apply(event);
+            String notation = GameNotation.write(game);
+            Game parsed = GameNotation.parse(notation, catalog);
+            assertThat(GameNotation.write(parsed)).isEqualTo(notation);
+            assertThat(GameSnapshotCodec.encode(parsed)).isEqualTo(GameSnapshotCodec.encode(game));
+            assertThat(parsed.getNextEventSequence()).isEqualTo(game.getNextEventSequence());
+        }
+        // The headless game's own instance has the decks too, which the events don't carry.
+        String full = GameNotation.write(played);
+        Game parsedFull = GameNotation.parse(full, played.getCatalog());
+        assertThat(GameNotation.write(parsedFull)).isEqualTo(full);
+        assertThat(GameSnapshotCodec.encode(parsedFull)).isEqualTo(GameSnapshotCodec.encode(played));
+    }
+
+    @Test
+    void readsAHandWrittenPosition() {
+        Card definition = new Card("CAP001", "Kahina", "Capybara", 5, 2, 1, "", null, null, null, null);
+        CardCatalog catalog = CardCatalog.of(1, List.of(definition));
+        String notation = "cpn1 bug-123 40 PLAYER_2_TURN 4 2 {} "
+                + "p1:Ana%20Lu:h:0/[]/[CAP001@c1:5/5,2,1]/[_,CAP001@c2:3/5,2,1*{frozen=true}+{ATTACK=1}<c3,_,_]/[] "
+                + "p2:Bot:ai:1/[CAP001@c4:5/5,2,1]/[]/[CAP001@c3:5/5,2,1,_,_,_]/[] []";
+
+        Game game = GameNotation.parse(notation, catalog);
+
+        assertThat(game.getCurrentPlayer().getPlayerId()).isEqualTo("p2");
+        assertThat(game.getPlayer1().getDisplayName()).isEqualTo("Ana Lu");
+        assertThat(game.getPlayer2().isAi()).isTrue();
+        CardInstance damaged = game.getPlayer1().getFieldInternal().get(1);
+        assertThat(damaged.getCurrentLife()).isEqualTo(3);
+        assertThat(damaged.isExhausted()).isTrue();
+        assertThat(damaged.getAllEffectFlags()).containsEntry("frozen", true);
+        assertThat(damaged.getLastDamageSourceCard()).isSameAs(game.getPlayer2().getFieldInternal().get(0));
+        assertThat(GameNotation.write(game)).isEqualTo(notation);
+
+        assertThatThrownBy(() -> GameNotation.parse(notation.replace("CAP001@c4", "NOPE@c4"), catalog))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("NOPE");
+    }
+}
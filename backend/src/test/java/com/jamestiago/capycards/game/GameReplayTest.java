@@ -0,0 +1,118 @@
+package com.jamestiago.capycards.game;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.ai.EvaluationWeights;
+import com.jamestiago.capycards.game.ai.GreedyPolicy;
+import com.jamestiago.capycards.game.ai.HeadlessMatch;
+import com.jamestiago.capycards.game.commands.EndTurnCommand;
+import com.jamestiago.capycards.game.commands.GameCommand;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.game.events.GameStartedEvent;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.service.CardDefinitionLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameReplayTest {
+
+    @Test
+    void skippingNonStateEventsReplaysToTheSameState() throws IOException {
+        List<Card> cardPool = new CardDefinitionLoader(new ObjectMapper()).loadAll();
+        Map<String, Card> definitions = cardPool.stream().collect(Collectors.toMap(Card::getCardId,
+                Function.identity(), (a, b) -> a));
+        GameEngine engine = new GameEngine();
+        GreedyPolicy policy = new GreedyPolicy(engine, EvaluationWeights.defaults());
+
+        int skipped = 0;
+        for (int seed = 0; seed < 4; seed++) {
+            Game played = HeadlessMatch.newGame(cardPool, new Random(seed));
+            List<GameEvent> events = new ArrayList<>();
+            events.add(new GameStartedEvent(played.getGameId(), 0, played.getPlayer1().getPlayerId(),
+                    played.getPlayer2().getPlayerId(), played.getPlayer1().getPlayerId()));
+            HeadlessMatch.play(engine, played, policy, policy, events::add);
+
+            Game full = new Game(played.getGameId(), definitions);
+            Game selective = new Game(played.getGameId(), definitions);
+            for (GameEvent event : events) {
+                full.apply(event);
+                if (Game.changesState(event.getClass().getSimpleName())) {
+                    selective.apply(event);
+                } else {
+                    selective.skipEvent();
+                    skipped++;
+                }
+            }
+            assertThat(selective.getNextEventSequence()).isEqualTo(full.getNextEventSequence());
+            assertThat(GameSnapshotCodec.encode(selective)).isEqualTo(GameSnapshotCodec.encode(full));
+        }
+        assertThat(skipped).isPositive();
+    }
+
+    @Test
+    void theEnginesResolvedCopyIsTheGameWithItsEventsApplied() throws IOException {
+        List<Card> cardPool = new CardDefinitionLoader(new ObjectMapper()).loadAll();
+        GameEngine engine = new GameEngine();
+        GreedyPolicy policy = new GreedyPolicy(engine, EvaluationWeights.defaults());
+
+        int commands = 0;
+        for (int seed = 0; seed < 2; seed++) {
+            Game game = HeadlessMatch.newGame(cardPool, new Random(seed));
+            int turn = game.getTurnNumber();
+            int commandsThisTurn = 0;
+            while (!HeadlessMatch.isOver(game) && game.getTurnNumber() <= 30) {
+                if (game.getTurnNumber() != turn) {
+                    turn = game.getTurnNumber();
+                    commandsThisTurn = 0;
+                }
+                String playerId = game.getCurrentPlayer().getPlayerId();
+                GameCommand command = commandsThisTurn++ < HeadlessMatch.MAX_COMMANDS_PER_TURN
+                        ? policy.chooseCommand(game, playerId)
+                        : new EndTurnCommand(game.getGameId(), playerId);
+                GameEngine.Resolution resolution = engine.processCommandOnCopy(game, command);
+                if (resolution.events().isEmpty()) {
+                    command = new EndTurnCommand(game.getGameId(), playerId);
+                    resolution = engine.processCommandOnCopy(game, command);
+                }
+                // What callers used to do: copy the game (copies are never AI-controlled) and apply the events.
+                Game expected = new Game(game);
+                for (GameEvent event : resolution.events()) {
+                    expected.apply(event);
+                    game.apply(event);
+                }
+                // Auras and scheduled actions are set on the resolved copy directly, not by an event.
+                clearUnrecordedState(resolution.game());
+                clearUnrecordedState(expected);
+                assertThat(GameSnapshotCodec.encode(resolution.game()))
+                        .isEqualTo(GameSnapshotCodec.encode(expected));
+                commands++;
+            }
+        }
+        assertThat(commands).isPositive();
+    }
+
+    private static void clearUnrecordedState(Game game) {
+        List<CardInstance> cards = new ArrayList<>();
+        for (Player player : List.of(game.getPlayer1(), game.getPlayer2())) {
+            cards.addAll(player.getFieldInternal());
+            cards.addAll(player.getHandInternal());
+            cards.addAll(player.getDeck().getCards());
+            cards.addAll(player.getDiscardPile());
+        }
+        game.getCardsInLimbo().values().forEach(entry -> cards.add(entry.getKey()));
+        cards.stream().filter(Objects::nonNull).forEach(card -> {
+            card.clearAuraBuffs();
+            card.clearAuraFlags();
+            card.getScheduledActions().clear();
+        });
+    }
+}
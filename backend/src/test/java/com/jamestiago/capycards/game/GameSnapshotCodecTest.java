@@ -0,0 +1,71 @@
+package com.jamestiago.capycards.game;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.ai.EvaluationWeights;
+import com.jamestiago.capycards.game.ai.GreedyPolicy;
+import com.jamestiago.capycards.game.ai.HeadlessMatch;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.service.CardDefinitionLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameSnapshotCodecTest {
+
+    @Test
+    void everyPositionOfAPlayedGameRoundTrips() throws IOException {
+        List<Card> cardPool = new CardDefinitionLoader(new ObjectMapper()).loadAll();
+        GameEngine engine = new GameEngine();
+        GreedyPolicy policy = new GreedyPolicy(engine, EvaluationWeights.defaults());
+
+        int positions = 0;
+        for (int seed = 0; seed < 3; seed++) {
+            Game game = HeadlessMatch.newGame(cardPool, new Random(seed));
+            assertRoundTrips(game);
+            int[] count = { 0 };
+            HeadlessMatch.play(engine, game, policy, policy, event -> {
+                assertRoundTrips(game);
+                count[0]++;
+            });
+            positions += count[0];
+        }
+        assertThat(positions).isPositive();
+    }
+
+    @Test
+    void rejectsOtherFormatsAndData() throws IOException {
+        List<Card> cardPool = new CardDefinitionLoader(new ObjectMapper()).loadAll();
+        Game game = HeadlessMatch.newGame(cardPool, new Random(0));
+        byte[] encoded = GameSnapshotCodec.encode(game);
+        assertThat(GameSnapshotCodec.catalogVersion(encoded)).isEqualTo(game.getCatalog().getVersion());
+
+        byte[] otherVersion = encoded.clone();
+        ByteBuffer.wrap(otherVersion).putShort(4, (short) (GameSnapshotCodec.FORMAT_VERSION + 1));
+        assertThatThrownBy(() -> GameSnapshotCodec.decode(otherVersion, game.getCatalog()))
+                .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> GameSnapshotCodec.catalogVersion(otherVersion)).isInstanceOf(IOException.class);
+
+        byte[] otherMagic = encoded.clone();
+        otherMagic[0] ^= 0x01;
+        assertThatThrownBy(() -> GameSnapshotCodec.decode(otherMagic, game.getCatalog()))
+                .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> GameSnapshotCodec.catalogVersion(otherMagic)).isInstanceOf(IOException.class);
+    }
+
+    private static void assertRoundTrips(Game game) {
+        byte[] encoded = GameSnapshotCodec.encode(game);
+        try {
+            Game decoded = GameSnapshotCodec.decode(encoded, game.getCatalog());
+            assertThat(GameSnapshotCodec.encode(decoded)).isEqualTo(encoded);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
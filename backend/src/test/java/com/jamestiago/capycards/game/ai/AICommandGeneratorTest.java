@@ -0,0 +1,144 @@
+package com.jamestiago.capycards.game.ai;
+
+import com.jamestiago.capycards.game.CardCatalog;
+import com.jamestiago.capycards.game.CardInstance;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.GameNotation;
+import com.jamestiago.capycards.game.Player;
+import com.jamestiago.capycards.game.commands.AttackCommand;
+import com.jamestiago.capycards.game.commands.EndTurnCommand;
+import com.jamestiago.capycards.game.commands.GameCommand;
+import com.jamestiago.capycards.game.commands.PlayCardCommand;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.model.Card;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AICommandGeneratorTest {
+    private static final CardCatalog CATALOG = CardCatalog.of(1, List.of(
+            card("VAN", null),
+            card("ZAP", "[{\"trigger\": \"ON_PLAY\", \"action\": \"DEAL_DAMAGE\", "
+                    + "\"params\": {\"targets\": \"ALL_ENEMY_CARDS_ON_FIELD\", \"amount\": 1}}]")));
+
+    // Two copies of each hand card, two identical attackers and two identical defenders next to a damaged one.
+    private static final String POSITION = "cpn1 g1 10 PLAYER_1_TURN 3 1 {} "
+            + "p1:One:h:0/[VAN@d1:5/5,2,1]/[VAN@h1:5/5,2,1,ZAP@h2:5/5,2,1,VAN@h3:5/5,2,1,ZAP@h4:5/5,2,1]/"
+            + "[VAN@a1:5/5,2,1,_,VAN@a2:5/5,2,1,_]/[] "
+            + "p2:Two:h:0/[VAN@d2:5/5,2,1]/[]/[VAN@b1:5/5,2,1,VAN@b2:5/5,2,1,VAN@b3:3/5,2,1,_]/[] []";
+
+    private final GameEngine engine = new GameEngine();
+
+    @Test
+    void prunedMovesReachEveryPositionTheFullMoveSetReaches() {
+        Game game = GameNotation.parse(POSITION, CATALOG);
+        assertThat(CATALOG.isAnyPositionDependent()).isFalse();
+
+        List<GameCommand> pruned = AICommandGenerator.generateValidCommands(game, "p1");
+        List<GameCommand> full = allCommands(game, "p1");
+
+        assertThat(pruned.size()).isLessThan(full.size());
+        assertThat(reachedStates(game, pruned)).isEqualTo(reachedStates(game, full));
+    }
+
+    @Test
+    void stateKeyIgnoresTheInstanceIdButNotTheCardsState() {
+        Game game = GameNotation.parse(POSITION, CATALOG);
+        List<CardInstance> opponentField = game.getPlayerById("p2").getFieldInternal();
+
+        assertThat(AICommandGenerator.stateKey(opponentField.get(0)))
+                .isEqualTo(AICommandGenerator.stateKey(opponentField.get(1)))
+                .isNotEqualTo(AICommandGenerator.stateKey(opponentField.get(2)));
+
+        opponentField.get(1).setExhausted(true);
+        assertThat(AICommandGenerator.stateKey(opponentField.get(0)))
+                .isNotEqualTo(AICommandGenerator.stateKey(opponentField.get(1)));
+    }
+
+    @Test
+    void slotsStillMatterWhenACardIsPositionDependent() {
+        CardCatalog catalog = CardCatalog.of(1, List.of(card("VAN", null),
+                card("ODD", "[{\"trigger\": \"ON_PLAY\", \"action\": \"DRAW_CARDS\", "
+                        + "\"params\": {\"amount\": 1}, \"positionDependent\": true}]")));
+        Game game = GameNotation.parse(POSITION.replace("ZAP", "ODD"), catalog);
+
+        List<GameCommand> commands = AICommandGenerator.generateValidCommands(game, "p1");
+
+        // Every hand card into both empty slots, every attacker at every defender, and ending the turn.
+        assertThat(commands).filteredOn(PlayCardCommand.class::isInstance).hasSize(4 * 2);
+        assertThat(commands).filteredOn(AttackCommand.class::isInstance).hasSize(2 * 3);
+    }
+
+    // What the generator would offer without collapsing anything.
+    private static List<GameCommand> allCommands(Game game, String playerId) {
+        Player player = game.getPlayerById(playerId);
+        Player opponent = game.getOpponent(player);
+        List<GameCommand> commands = new ArrayList<>();
+        for (int handIndex = 0; handIndex < player.getHandInternal().size(); handIndex++) {
+            for (int slot = 0; slot < Player.MAX_FIELD_SIZE; slot++) {
+                if (player.getFieldInternal().get(slot) == null) {
+                    commands.add(new PlayCardCommand(game.getGameId(), playerId, handIndex, slot));
+                }
+            }
+        }
+        for (int attacker = 0; attacker < Player.MAX_FIELD_SIZE; attacker++) {
+            for (int defender = 0; defender < Player.MAX_FIELD_SIZE; defender++) {
+                if (player.getFieldInternal().get(attacker) != null
+                        && opponent.getFieldInternal().get(defender) != null) {
+                    commands.add(new AttackCommand(game.getGameId(), playerId, attacker, defender));
+                }
+            }
+        }
+        commands.add(new EndTurnCommand(game.getGameId(), playerId));
+        return commands;
+    }
+
+    private Set<String> reachedStates(Game game, List<GameCommand> commands) {
+        Set<String> states = new HashSet<>();
+        for (GameCommand command : commands) {
+            Game copy = new Game(game);
+            List<GameEvent> events = engine.processCommand(copy, command);
+            assertThat(events).as("%s is legal", command).isNotEmpty();
+            events.forEach(copy::apply);
+            states.add(canonical(copy));
+        }
+        return states;
+    }
+
+    // The position up to renaming interchangeable instances and reordering field slots.
+    private static String canonical(Game game) {
+        StringBuilder key = new StringBuilder(game.getGameState().name()).append(' ').append(game.getTurnNumber());
+        for (Player player : List.of(game.getPlayer1(), game.getPlayer2())) {
+            key.append(" deck=").append(player.getDeck().size())
+                    .append(" hand=").append(sortedKeys(player.getHandInternal()))
+                    .append(" field=").append(sortedKeys(player.getFieldInternal()));
+        }
+        return key.toString();
+    }
+
+    private static List<String> sortedKeys(List<CardInstance> cards) {
+        List<String> keys = new ArrayList<>();
+        for (CardInstance card : cards) {
+            if (card != null) {
+                String key = AICommandGenerator.stateKey(card);
+                CardInstance source = card.getLastDamageSourceCard();
+                if (source != null) {
+                    key = key.replace(source.getInstanceId(), source.getDefinition().getCardId());
+                }
+                keys.add(key);
+            }
+        }
+        keys.sort(null);
+        return keys;
+    }
+
+    private static Card card(String cardId, String effectConfiguration) {
+        return new Card(cardId, cardId, "Capybara", 5, 2, 1, "", effectConfiguration, null, null, null);
+    }
+}
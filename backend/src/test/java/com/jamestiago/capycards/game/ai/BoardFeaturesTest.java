@@ -0,0 +1,80 @@
+package com.jamestiago.capycards.game.ai;
+
+import com.jamestiago.capycards.game.CardCatalog;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameNotation;
+import com.jamestiago.capycards.model.Card;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoardFeaturesTest {
+    private static final CardCatalog CATALOG = CardCatalog.of(1, List.of(
+            card("PLAIN", null),
+            card("EMPTY", "[]"),
+            card("ZAP", "[{\"trigger\": \"ON_PLAY\", \"action\": \"DRAW_CARDS\", \"params\": {\"amount\": 1}}]")));
+
+    // p1: two cards on the field (one exhausted and flagged), one in hand, a deck.
+    // p2: one card on the field, an empty hand and an empty deck.
+    private static final String POSITION = "cpn1 g1 10 PLAYER_1_TURN 3 1 {} "
+            + "p1:One:h:0/[PLAIN@d1:5/5,2,1]/[PLAIN@h1:5/5,2,1]/"
+            + "[ZAP@a1:4/5,3,1,PLAIN@a2:2/5,2,2*{frozen=true},_,_]/[] "
+            + "p2:Two:h:0/[]/[]/[EMPTY@b1:6/6,4,0,_,_,_]/[] []";
+
+    @Test
+    void featuresAreThePlayersDifference() {
+        Game game = GameNotation.parse(POSITION, CATALOG);
+
+        double[] features = BoardFeatures.extract(game, "p1");
+
+        assertThat(features[BoardFeatures.FIELD_LIFE]).isEqualTo(4 + 2 - 6);
+        assertThat(features[BoardFeatures.FIELD_ATTACK]).isEqualTo(3 + 2 - 4);
+        assertThat(features[BoardFeatures.FIELD_DEFENSE]).isEqualTo(1 + 2 - 0);
+        assertThat(features[BoardFeatures.CARDS_WITH_EFFECTS]).isEqualTo(1 - 1);
+        assertThat(features[BoardFeatures.CARDS_WITH_FLAGS]).isEqualTo(1);
+        assertThat(features[BoardFeatures.READY_CARDS]).isEqualTo(1 - 1);
+        assertThat(features[BoardFeatures.HAND_SIZE]).isEqualTo(1);
+        assertThat(features[BoardFeatures.EMPTY_DECK]).isEqualTo(-1);
+        assertThat(features[BoardFeatures.FIELD_COUNT]).isEqualTo(2 - 1);
+
+        double[] mirrored = BoardFeatures.extract(game, "p2");
+        for (int i = 0; i < BoardFeatures.COUNT; i++) {
+            assertThat(mirrored[i]).isEqualTo(-features[i]);
+        }
+    }
+
+    @Test
+    void extractFillsARowOfALargerMatrix() {
+        Game game = GameNotation.parse(POSITION, CATALOG);
+        double[] matrix = new double[BoardFeatures.COUNT * 2];
+        matrix[BoardFeatures.COUNT] = 99;
+
+        assertThat(BoardFeatures.extract(game, "p1", matrix, BoardFeatures.COUNT)).isTrue();
+        assertThat(BoardFeatures.extract(game, "nobody", matrix, 0)).isFalse();
+
+        for (int i = 0; i < BoardFeatures.COUNT; i++) {
+            assertThat(matrix[i]).isZero();
+        }
+        assertThat(java.util.Arrays.copyOfRange(matrix, BoardFeatures.COUNT, matrix.length))
+                .containsExactly(BoardFeatures.extract(game, "p1"));
+    }
+
+    @Test
+    void anyNonBlankConfigurationCountsAsEffects() {
+        // Same rule as before the feature vector: only a missing or blank configuration has no effects.
+        assertThat(card("A", null).hasEffects()).isFalse();
+        assertThat(card("B", "  ").hasEffects()).isFalse();
+        assertThat(card("C", "[]").hasEffects()).isTrue();
+
+        Card edited = card("D", null);
+        edited.hasEffects();
+        edited.setEffectConfiguration("[{}]");
+        assertThat(edited.hasEffects()).isTrue();
+    }
+
+    private static Card card(String cardId, String effectConfiguration) {
+        return new Card(cardId, cardId, "Capybara", 5, 2, 1, "", effectConfiguration, null, null, null);
+    }
+}
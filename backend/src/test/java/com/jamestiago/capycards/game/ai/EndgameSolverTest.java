@@ -0,0 +1,71 @@
+package com.jamestiago.capycards.game.ai;
+
+import com.jamestiago.capycards.game.CardCatalog;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.GameNotation;
+import com.jamestiago.capycards.model.Card;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndgameSolverTest {
+    private static final CardCatalog CATALOG = CardCatalog.of(1, List.of(
+            new Card("VAN", "VAN", "Capybara", 5, 2, 1, "", null, null, null, null),
+            new Card("BIG", "BIG", "Capybara", 5, 10, 0, "", null, null, null, null)));
+
+    private final GameEngine engine = new GameEngine();
+
+    @Test
+    void theOpponentRunningOutOfCardsFirstIsAWin() {
+        // Player 2 has nothing left to draw, so it loses as soon as its turn starts.
+        Game game = position("[VAN@d1:5/5,2,1]", "[]");
+
+        EndgameSolver.Solution solution = new EndgameSolver(engine, 8).solve(game, "p1");
+
+        assertThat(solution).isNotNull();
+        assertThat(solution.isWin()).isTrue();
+        assertThat(solution.bestCommand()).isNotNull();
+        assertThat(solution.nodes()).isPositive();
+    }
+
+    @Test
+    void runningOutOfCardsFirstIsALossWhateverYouPlay() {
+        Game game = position("[]", "[VAN@d2:5/5,2,1]");
+
+        EndgameSolver.Solution solution = new EndgameSolver(engine, 8).solve(game, "p1");
+
+        assertThat(solution).isNotNull();
+        assertThat(solution.isLoss()).isTrue();
+    }
+
+    @Test
+    void onlySolvesSmallPositionsForThePlayerToMove() {
+        Game game = position("[VAN@d1:5/5,2,1,VAN@d3:5/5,2,1]", "[VAN@d2:5/5,2,1]");
+
+        assertThat(EndgameSolver.stateSize(game)).isEqualTo(3);
+        assertThat(new EndgameSolver(engine, 2).solve(game, "p1")).isNull();
+        assertThat(new EndgameSolver(engine, 8).solve(game, "p2")).isNull();
+    }
+
+    @Test
+    void givesUpWhenTheNodeOrTimeBudgetRunsOut() {
+        Game game = position("[VAN@d1:5/5,2,1,VAN@d3:5/5,2,1]", "[VAN@d2:5/5,2,1,VAN@d4:5/5,2,1]");
+
+        assertThat(new EndgameSolver(engine, 8, 5, EndgameSolver.DEFAULT_TIME_BUDGET_MS).solve(game, "p1")).isNull();
+        assertThat(new EndgameSolver(engine, 8, Integer.MAX_VALUE, 0).solve(game, "p1")).isNull();
+        assertThat(new EndgameSolver(engine, 8, Integer.MAX_VALUE, 60_000).solve(game, "p1")).isNotNull();
+    }
+
+    private static Game position(String player1Deck, String player2Deck) {
+        return GameNotation.parse(header()
+                + "p1:One:h:0/" + player1Deck + "/[]/[VAN@a1:5/5,2,1,_,_,_]/[] "
+                + "p2:Two:h:0/" + player2Deck + "/[]/[VAN@b1:5/5,2,1,_,_,_]/[] []", CATALOG);
+    }
+
+    private static String header() {
+        return "cpn1 g1 10 PLAYER_1_TURN 3 1 {} ";
+    }
+}
@@ -0,0 +1,59 @@
+package com.jamestiago.capycards.game.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class EvaluationWeightsTest {
+
+    @Test
+    void theShippedWeightsAreTheHandTunedOnes() {
+        assertThat(EvaluationWeights.defaults().toArray()).containsExactly(EvaluationWeights.HAND_TUNED.toArray());
+    }
+
+    @Test
+    void propertiesRoundTripAndMissingFeaturesFallBack() {
+        EvaluationWeights tuned = EvaluationWeights.HAND_TUNED.with(BoardFeatures.HAND_SIZE, 7.5);
+        assertThat(EvaluationWeights.fromProperties(tuned.toProperties(), EvaluationWeights.HAND_TUNED).toArray())
+                .containsExactly(tuned.toArray());
+
+        Properties partial = new Properties();
+        partial.setProperty("fieldAttack", " 4.0 ");
+        EvaluationWeights read = EvaluationWeights.fromProperties(partial, EvaluationWeights.HAND_TUNED);
+        assertThat(read.get(BoardFeatures.FIELD_ATTACK)).isEqualTo(4.0);
+        assertThat(read.get(BoardFeatures.FIELD_LIFE)).isEqualTo(EvaluationWeights.HAND_TUNED.get(BoardFeatures.FIELD_LIFE));
+    }
+
+    @Test
+    void rejectsTheWrongNumberOfWeightsAndCopiesItsInput() {
+        assertThatThrownBy(() -> new EvaluationWeights(new double[BoardFeatures.COUNT - 1]))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        double[] values = new double[BoardFeatures.COUNT];
+        EvaluationWeights weights = new EvaluationWeights(values);
+        values[0] = 5;
+        weights.toArray()[1] = 5;
+        assertThat(weights.toArray()).containsOnly(0.0);
+    }
+
+    @Test
+    void batchScoresMatchOneAtATime() {
+        EvaluationWeights weights = EvaluationWeights.HAND_TUNED;
+        int rows = 3;
+        double[] features = new double[rows * BoardFeatures.COUNT];
+        for (int i = 0; i < features.length; i++) {
+            features[i] = (i * 7 % 11) - 5;
+        }
+        double[] scores = new double[rows];
+
+        BoardEvaluator.scoreBatch(features, rows, weights, scores);
+
+        for (int row = 0; row < rows; row++) {
+            assertThat(scores[row]).isCloseTo(weights.score(features, row * BoardFeatures.COUNT), within(1e-9));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.jamestiago.capycards.game.ai;
+
+import com.jamestiago.capycards.game.CardCatalog;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.GameNotation;
+import com.jamestiago.capycards.game.commands.AttackCommand;
+import com.jamestiago.capycards.model.Card;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LethalDetectorTest {
+    private static final CardCatalog CATALOG = CardCatalog.of(1, List.of(
+            new Card("VAN", "VAN", "Capybara", 5, 2, 1, "", null, null, null, null),
+            new Card("BIG", "BIG", "Capybara", 5, 10, 0, "", null, null, null, null)));
+
+    private final GameEngine engine = new GameEngine();
+
+    @Test
+    void lethalClearsTheOpponentsFieldWithinTheTurn() {
+        LethalDetector detector = new LethalDetector(engine);
+
+        Game oneHit = GameNotation.parse(header()
+                + "p1:One:h:0/[]/[]/[BIG@a1:5/5,10,0,_,_,_]/[] p2:Two:h:0/[]/[]/[VAN@b1:5/5,2,1,_,_,_]/[] []",
+                CATALOG);
+        LethalDetector.Lethal lethal = detector.findLethal(oneHit, "p1");
+        assertThat(lethal).isNotNull();
+        assertThat(lethal.commands()).singleElement().isInstanceOf(AttackCommand.class);
+        assertThat(lethal.result().getPlayerById("p2").getFieldInternal()).containsOnlyNulls();
+
+        Game twoHits = GameNotation.parse(header()
+                + "p1:One:h:0/[]/[]/[VAN@a1:5/5,2,1,VAN@a2:5/5,2,1,VAN@a3:5/5,2,1,_]/[] "
+                + "p2:Two:h:0/[]/[]/[VAN@b1:3/5,2,0,_,_,_]/[] []", CATALOG);
+        assertThat(detector.findLethal(twoHits, "p1").commands()).hasSize(2);
+        assertThat(new LethalDetector(engine, 1).findLethal(twoHits, "p1")).isNull();
+    }
+
+    @Test
+    void noLethalWhenTheFieldCannotBeCleared() {
+        Game game = GameNotation.parse(header()
+                + "p1:One:h:0/[]/[]/[VAN@a1:5/5,2,1,_,_,_]/[] p2:Two:h:0/[]/[]/[BIG@b1:5/5,10,0,VAN@b2:5/5,2,1,_,_]/[] []",
+                CATALOG);
+
+        assertThat(new LethalDetector(engine).hasLethal(game, "p1")).isFalse();
+        assertThat(new LethalDetector(engine).hasLethal(game, "p2")).isFalse(); // Not p2's turn.
+    }
+
+    private static String header() {
+        return "cpn1 g1 10 PLAYER_1_TURN 3 1 {} ";
+    }
+}
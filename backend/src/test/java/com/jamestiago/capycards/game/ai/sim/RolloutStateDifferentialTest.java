@@ -0,0 +1,128 @@
+package com.jamestiago.capycards.game.ai.sim;
+
+import com.jamestiago.capycards.game.CardInstance;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.Player;
+import com.jamestiago.capycards.game.ai.HeadlessMatch;
+import com.jamestiago.capycards.game.commands.GameCommand;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.model.Rarity;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plays random games through both the real engine and {@link RolloutState}
+ * and checks that the two agree after every move.
+ */
+class RolloutStateDifferentialTest {
+    private static final int GAMES = 60;
+    private static final int MAX_STEPS = 400;
+
+    private final GameEngine engine = new GameEngine();
+
+    private static Card card(String id, int life, int attack, int defense, String effects) {
+        return new Card(id, id, "Test", life, attack, defense, "", effects, Rarity.COMMON, null, null);
+    }
+
+    private static final List<Card> POOL = List.of(
+            card("vanilla_small", 3, 2, 0, null),
+            card("vanilla_big", 6, 3, 1, null),
+            card("vanilla_wall", 8, 1, 3, null),
+            card("pinger", 3, 1, 0,
+                    "[{\"trigger\":\"ON_PLAY\",\"action\":\"DEAL_DAMAGE\",\"params\":{\"targets\":\"ALL_ENEMY_CARDS_ON_FIELD\",\"amount\":2}}]"),
+            card("rallier", 4, 2, 0,
+                    "[{\"trigger\":\"ON_PLAY\",\"action\":\"BUFF_STAT\",\"params\":{\"targets\":\"ALL_FRIENDLY_CARDS_ON_FIELD\",\"stat\":\"ATK\",\"amount\":1}}]"),
+            card("regenerator", 5, 2, 1,
+                    "[{\"trigger\":\"END_OF_TURN_SELF\",\"action\":\"HEAL_TARGET\",\"params\":{\"targets\":\"SELF\",\"amount\":2}}]"),
+            card("scholar", 2, 1, 0,
+                    "[{\"trigger\":\"ON_PLAY\",\"action\":\"DRAW_CARDS\",\"params\":{\"amount\":2}}]"),
+            card("storm", 4, 2, 0,
+                    "[{\"trigger\":\"END_OF_TURN_SELF\",\"action\":\"DEAL_DAMAGE\",\"params\":{\"targets\":\"ALL_CARDS_ON_FIELD\",\"amount\":2}}]"),
+            card("weakener", 4, 2, 1,
+                    "[{\"trigger\":\"ON_PLAY\",\"action\":\"DEBUFF_STAT\",\"params\":{\"targets\":\"ALL_ENEMY_CARDS_ON_FIELD\",\"stat\":\"DEF\",\"amount\":1}},"
+                            + "{\"trigger\":\"END_OF_TURN_SELF\",\"action\":\"DEBUFF_STAT\",\"params\":{\"targets\":\"ALL_ENEMY_CARDS_ON_FIELD\",\"stat\":\"MAX_LIFE\",\"amount\":1}}]"),
+            card("grower", 3, 1, 0,
+                    "[{\"trigger\":\"ON_PLAY\",\"action\":\"BUFF_STAT\",\"params\":{\"targets\":\"SELF\",\"stat\":\"MAX_LIFE\",\"amount\":3}},"
+                            + "{\"trigger\":\"ON_PLAY\",\"action\":\"BUFF_STAT\",\"params\":{\"targets\":\"ALL_FRIENDLY_CARDS_ON_FIELD\",\"stat\":\"DEF\",\"amount\":2,\"isPermanent\":false}}]"));
+
+    @Test
+    void rolloutMatchesEngineOnRandomGames() {
+        for (int seed = 0; seed < GAMES; seed++) {
+            Random random = new Random(seed);
+            Game game = HeadlessMatch.newGame(POOL, random);
+            sprinkleFlags(game, random);
+
+            RolloutState rollout = RolloutState.fromGame(game);
+            assertThat(rollout).as("seed %d", seed).isNotNull();
+            int[] moves = new int[RolloutState.MAX_MOVES];
+
+            for (int step = 0; step < MAX_STEPS && !rollout.isOver(); step++) {
+                int count = rollout.legalMoves(moves);
+                // Favour actions over ending the turn so boards fill up.
+                int move = moves[random.nextInt(4) == 0 ? count - 1 : random.nextInt(count)];
+
+                Player current = game.getCurrentPlayer();
+                GameCommand command = RolloutState.toCommand(move, game.getGameId(), current.getPlayerId());
+                List<GameEvent> events = engine.processCommand(game, command);
+                assertThat(events).as("seed %d step %d: engine rejected %s", seed, step, command).isNotEmpty();
+                for (GameEvent event : events) {
+                    game.apply(event);
+                }
+                assertThat(rollout.apply(move)).isTrue();
+
+                RolloutState expected = RolloutState.fromGame(game);
+                assertThat(expected).as("seed %d step %d", seed, step).isNotNull();
+                assertThat(rollout.signature()).as("seed %d step %d after %s", seed, step, command)
+                        .isEqualTo(expected.signature());
+            }
+        }
+    }
+
+    @Test
+    void copiesAreIndependent() {
+        Game game = HeadlessMatch.newGame(POOL, new Random(7));
+        RolloutState original = RolloutState.fromGame(game);
+        String before = original.signature();
+
+        RolloutState copy = original.copy();
+        copy.playout(new SplittableRandom(7), 50);
+
+        assertThat(original.signature()).isEqualTo(before);
+    }
+
+    @Test
+    void unsupportedEffectsAreRejected() {
+        List<Card> pool = List.of(
+                card("vanilla_small", 3, 2, 0, null),
+                card("aura", 3, 1, 0,
+                        "[{\"trigger\":\"CONTINUOUS_AURA\",\"action\":\"BUFF_STAT\",\"params\":{\"targets\":\"ALL_FRIENDLY_CARDS_ON_FIELD\",\"stat\":\"ATK\",\"amount\":1}}]"));
+        Game game = HeadlessMatch.newGame(pool, new Random(1));
+
+        assertThat(RolloutState.fromGame(game)).isNull();
+    }
+
+    /**
+     * The supported effects never set flags, so put some on cards up front to
+     * exercise double damage, lethal survival and extra attacks.
+     */
+    private static void sprinkleFlags(Game game, Random random) {
+        for (Player player : List.of(game.getPlayer1(), game.getPlayer2())) {
+            for (CardInstance card : player.getDeck().getCards()) {
+                switch (random.nextInt(6)) {
+                    case 0 -> card.setEffectFlag("double_damage_this_attack", true);
+                    case 1 -> card.setEffectFlag("can_survive_lethal", true);
+                    case 2 -> card.setEffectFlag("canAttackAgainThisTurn", true);
+                    default -> {
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.jamestiago.capycards.game.ai.tuning;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.ai.BoardFeatures;
+import com.jamestiago.capycards.game.ai.EvaluationWeights;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.service.CardDefinitionLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SelfPlayTunerTest {
+
+    @Test
+    void eachIterationMovesAtMostOneWeight() throws IOException {
+        List<Card> cardPool = new CardDefinitionLoader(new ObjectMapper()).loadAll();
+        EvaluationWeights start = EvaluationWeights.HAND_TUNED;
+        SelfPlayTuner tuner = new SelfPlayTuner(cardPool, 2, 11);
+
+        assertThat(tuner.tune(start, 0)).isSameAs(start);
+
+        // The seed fixes the decks and the steps, but effects roll their own dice, so only the shape is checked.
+        EvaluationWeights tuned = tuner.tune(start, 2);
+        int changed = 0;
+        for (int i = 0; i < BoardFeatures.COUNT; i++) {
+            if (tuned.get(i) != start.get(i)) {
+                changed++;
+            }
+        }
+        assertThat(changed).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void winRateCountsDrawsAsHalfAndStaysInRange() throws IOException {
+        List<Card> cardPool = new CardDefinitionLoader(new ObjectMapper()).loadAll();
+        SelfPlayTuner tuner = new SelfPlayTuner(cardPool, 4, 5);
+        EvaluationWeights zero = new EvaluationWeights(new double[BoardFeatures.COUNT]);
+
+        double rate = tuner.winRate(EvaluationWeights.HAND_TUNED, zero, 3);
+
+        // Four games, each worth 0, 0.5 or 1.
+        assertThat(rate).isBetween(0.0, 1.0);
+        assertThat(rate * 8).isEqualTo(Math.rint(rate * 8));
+    }
+}
@@ -0,0 +1,98 @@
+package com.jamestiago.capycards.game.events;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.ai.EvaluationWeights;
+import com.jamestiago.capycards.game.ai.GreedyPolicy;
+import com.jamestiago.capycards.game.ai.HeadlessMatch;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.service.CardDefinitionLoader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryEventCodecTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void roundTripsEventsFromRealGames() throws IOException {
+        List<Card> cardPool = new CardDefinitionLoader(objectMapper).loadAll();
+        GameEngine engine = new GameEngine();
+        GreedyPolicy policy = new GreedyPolicy(engine, EvaluationWeights.defaults());
+
+        int checked = 0;
+        for (int seed = 0; seed < 8; seed++) {
+            Game game = HeadlessMatch.newGame(cardPool, new Random(seed));
+            List<GameEvent> events = new ArrayList<>();
+            events.add(new GameStartedEvent(game.getGameId(), 0, game.getPlayer1().getPlayerId(),
+                    game.getPlayer2().getPlayerId(), game.getPlayer1().getPlayerId()));
+            HeadlessMatch.play(engine, game, policy, policy, events::add);
+
+            for (GameEvent event : events) {
+                long base = event.timestamp + 3;
+                GameEvent decoded = BinaryEventCodec.decode(BinaryEventCodec.encode(event, base), game.getGameId(),
+                        base);
+                assertThat(decoded).isExactlyInstanceOf(event.getClass());
+                assertThat(comparable(decoded)).as(event.getClass().getSimpleName())
+                        .isEqualTo(comparable(event));
+                checked++;
+            }
+        }
+        assertThat(checked).isGreaterThan(100);
+    }
+
+    @Test
+    void roundTripsFlagValues() throws IOException {
+        for (Object value : Arrays.asList(null, true, false, -7, 1L << 40, 2.5, "TURN",
+                Map.of("nested", List.of(1, 2)))) {
+            CardFlagChangedEvent event = new CardFlagChangedEvent("g", 3, "card", "flag", value, "PERMANENT");
+            CardFlagChangedEvent decoded = (CardFlagChangedEvent) BinaryEventCodec.decode(
+                    BinaryEventCodec.encode(event, 0), "g", 0);
+            assertThat(decoded.value).isEqualTo(value);
+            assertThat(decoded.timestamp).isEqualTo(event.timestamp);
+        }
+    }
+
+    @Test
+    void rejectsCorruptPayloads() {
+        byte[] payload = BinaryEventCodec.encode(new GameOverEvent("g", 9, "winner", "Deck out"), 0);
+
+        assertThatThrownBy(() -> BinaryEventCodec.decode(Arrays.copyOf(payload, payload.length - 2), "g", 0))
+                .isInstanceOf(IOException.class);
+        byte[] badVersion = payload.clone();
+        badVersion[0] = 99;
+        assertThatThrownBy(() -> BinaryEventCodec.decode(badVersion, "g", 0)).isInstanceOf(IOException.class);
+    }
+
+    // The JSON view of an event, with cards cut down to the reference the codec keeps.
+    private JsonNode comparable(GameEvent event) {
+        JsonNode tree = objectMapper.valueToTree(event);
+        reduceCards(tree);
+        return tree;
+    }
+
+    private static void reduceCards(JsonNode node) {
+        if (!(node instanceof ObjectNode object)) {
+            return;
+        }
+        if (object.has("instanceId") && object.has("cardId")) {
+            object.retain("instanceId", "cardId", "currentLife");
+            return;
+        }
+        for (Iterator<JsonNode> it = object.elements(); it.hasNext();) {
+            reduceCards(it.next());
+        }
+    }
+}
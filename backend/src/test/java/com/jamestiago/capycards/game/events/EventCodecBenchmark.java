@@ -0,0 +1,95 @@
+package com.jamestiago.capycards.game.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.ai.EvaluationWeights;
+import com.jamestiago.capycards.game.ai.GreedyPolicy;
+import com.jamestiago.capycards.game.ai.HeadlessMatch;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.service.CardDefinitionLoader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the JSON and binary event encodings on AI-vs-AI games: stored
+ * bytes per game and decode throughput. Not a test; run it by hand:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.jamestiago.capycards.game.events.EventCodecBenchmark -Dexec.args="200"
+ * </pre>
+ */
+public class EventCodecBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        // Same setup as the application's mapper: events are read back through their constructors.
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        List<Card> cardPool = new CardDefinitionLoader(objectMapper).loadAll();
+        GameEngine engine = new GameEngine();
+        GreedyPolicy policy = new GreedyPolicy(engine, EvaluationWeights.defaults());
+
+        List<String> gameIds = new ArrayList<>();
+        List<List<String>> json = new ArrayList<>();
+        List<List<byte[]>> binary = new ArrayList<>();
+        long jsonBytes = 0;
+        long binaryBytes = 0;
+        int eventCount = 0;
+        Random random = new Random(42);
+        for (int i = 0; i < games; i++) {
+            Game game = HeadlessMatch.newGame(cardPool, random);
+            List<GameEvent> events = new ArrayList<>();
+            events.add(new GameStartedEvent(game.getGameId(), 0, game.getPlayer1().getPlayerId(),
+                    game.getPlayer2().getPlayerId(), game.getPlayer1().getPlayerId()));
+            HeadlessMatch.play(engine, game, policy, policy, events::add);
+
+            List<String> gameJson = new ArrayList<>(events.size());
+            List<byte[]> gameBinary = new ArrayList<>(events.size());
+            for (GameEvent event : events) {
+                String encoded = objectMapper.writeValueAsString(event);
+                byte[] payload = BinaryEventCodec.encode(event, event.timestamp);
+                gameJson.add(encoded);
+                gameBinary.add(payload);
+                jsonBytes += encoded.getBytes(java.nio.charset.StandardCharsets.UTF_8).length;
+                binaryBytes += payload.length;
+            }
+            gameIds.add(game.getGameId());
+            json.add(gameJson);
+            binary.add(gameBinary);
+            eventCount += events.size();
+        }
+
+        System.out.printf("%d games, %d events (%.1f per game)%n", games, eventCount, eventCount / (double) games);
+        System.out.printf("JSON:   %8.0f bytes/game, %6.1f bytes/event%n", jsonBytes / (double) games,
+                jsonBytes / (double) eventCount);
+        System.out.printf("Binary: %8.0f bytes/game, %6.1f bytes/event (%.1fx smaller)%n",
+                binaryBytes / (double) games, binaryBytes / (double) eventCount, jsonBytes / (double) binaryBytes);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            long sink = 0;
+            for (List<String> gameJson : json) {
+                for (String encoded : gameJson) {
+                    sink += objectMapper.readValue(encoded, GameEvent.class).turnNumber;
+                }
+            }
+            long jsonNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < binary.size(); i++) {
+                for (byte[] payload : binary.get(i)) {
+                    sink += BinaryEventCodec.decode(payload, gameIds.get(i), 0).turnNumber;
+                }
+            }
+            long binaryNanos = System.nanoTime() - start;
+
+            System.out.printf("Round %d: JSON %,10.0f events/s, binary %,10.0f events/s (%.1fx)  [%d]%n", round,
+                    eventCount / (jsonNanos / 1e9), eventCount / (binaryNanos / 1e9),
+                    jsonNanos / (double) binaryNanos, sink);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.jamestiago.capycards.repository;
+
+import com.jamestiago.capycards.game.events.GameEventLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+class GameEventLogRepositoryTest {
+
+    @Autowired
+    private GameEventLogRepository repository;
+
+    private static GameEventLog log(String gameId, long sequence, String type) {
+        return new GameEventLog(gameId, sequence, Instant.now(), type, "{}");
+    }
+
+    @Test
+    void appendsABatchAndReadsItBackInOrder() {
+        List<GameEventLog> batch = new ArrayList<>();
+        for (long sequence = 30; sequence >= 0; sequence--) {
+            batch.add(log("game-a", sequence, "CardDestroyedEvent"));
+        }
+        repository.saveAll(batch);
+        repository.flush();
+
+        List<GameEventLog> stored = repository.findByGameIdOrderByEventSequenceAsc("game-a");
+        assertThat(stored).hasSize(31);
+        assertThat(stored).extracting(GameEventLog::getEventSequence).isSorted();
+        assertThat(repository.findByGameIdAndEventSequenceGreaterThanEqualOrderByEventSequenceAsc("game-a", 25))
+                .extracting(GameEventLog::getEventSequence)
+                .containsExactly(25L, 26L, 27L, 28L, 29L, 30L);
+    }
+
+    @Test
+    void pagesThroughTheEventsOfSomeTypesAcrossGames() {
+        repository.saveAll(List.of(log("game-c", 0, "GameStartedEvent"), log("game-c", 1, "TurnStartedEvent"),
+                log("game-c", 2, "GameOverEvent"), log("game-d", 0, "GameStartedEvent"),
+                log("game-d", 1, "TurnStartedEvent")));
+        repository.flush();
+        List<String> types = List.of("GameStartedEvent", "GameOverEvent");
+
+        List<GameEventLog> first = repository.findByEventTypeInAfter(types, "", -1, Limit.of(2));
+        assertThat(first).extracting(GameEventLog::getGameId, GameEventLog::getEventSequence)
+                .containsExactly(tuple("game-c", 0L), tuple("game-c", 2L));
+        assertThat(repository.findByEventTypeInAfter(types, "game-c", 2, Limit.of(2)))
+                .extracting(GameEventLog::getGameId, GameEventLog::getEventSequence)
+                .containsExactly(tuple("game-d", 0L));
+    }
+
+    @Test
+    void rejectsADuplicateSequenceNumber() {
+        repository.saveAndFlush(log("game-b", 0, "GameStartedEvent"));
+
+        assertThatThrownBy(() -> repository.saveAndFlush(log("game-b", 0, "TurnStartedEvent")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
@@ -0,0 +1,146 @@
+package com.jamestiago.capycards.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.GameSummary;
+import com.jamestiago.capycards.game.events.BinaryEventCodec;
+import com.jamestiago.capycards.game.events.GameOverEvent;
+import com.jamestiago.capycards.game.events.GameStartedEvent;
+import com.jamestiago.capycards.game.events.GameEventLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({ JpaEventStore.class, GameSummaryProjection.class, ObjectMapper.class })
+class JpaEventStoreTest {
+
+    @Autowired
+    private JpaEventStore eventStore;
+
+    @Autowired
+    private GameEventLogRepository eventLogRepository;
+
+    @Autowired
+    private GameSummaryRepository summaryRepository;
+
+    private static GameEventLog log(String gameId, long sequence, String type) {
+        return new GameEventLog(gameId, sequence, Instant.now(), type, new byte[] { 1 });
+    }
+
+    @Test
+    void tracksGameStatusAsEventsAreAppended() {
+        eventStore.append(List.of(log("ongoing", 0, "GameStartedEvent"), log("finished", 0, "GameStartedEvent")));
+        eventStore.append(List.of(log("finished", 1, "TurnEndedEvent"), log("finished", 2, "GameOverEvent")));
+
+        assertThat(eventStore.findActiveGameIds()).containsExactly("ongoing");
+        GameSummary finished = summaryRepository.findById("finished").orElseThrow();
+        assertThat(finished.getStatus()).isEqualTo(GameSummary.Status.FINISHED);
+        assertThat(finished.getStartedAt()).isNotNull();
+        assertThat(finished.getEndedAt()).isNotNull();
+        assertThat(finished.getEventCount()).isEqualTo(3);
+    }
+
+    @Test
+    void summarizesPlayersTurnsAndWinner() {
+        Instant start = Instant.ofEpochSecond(1_700_000_000L);
+        eventStore.append(List.of(
+                new GameEventLog("g", 0, start, "GameStartedEvent",
+                        BinaryEventCodec.encode(new GameStartedEvent("g", 0, "p1", "p2", "p1"), 0)),
+                log("g", 1, "TurnStartedEvent"),
+                log("g", 2, "TurnStartedEvent")));
+        eventStore.append(List.of(new GameEventLog("g", 3, start.plusSeconds(60), "GameOverEvent",
+                BinaryEventCodec.encode(new GameOverEvent("g", 3, "p2", "Deck out"), 0))));
+
+        GameSummary summary = summaryRepository.findById("g").orElseThrow();
+        assertThat(summary.getPlayer1Id()).isEqualTo("p1");
+        assertThat(summary.getPlayer2Id()).isEqualTo("p2");
+        assertThat(summary.getWinnerPlayerId()).isEqualTo("p2");
+        assertThat(summary.getTurnCount()).isEqualTo(3);
+        assertThat(summary.getEventCount()).isEqualTo(4);
+        assertThat(summary.getStartedAt()).isEqualTo(start);
+        assertThat(summary.getEndedAt()).isEqualTo(start.plusSeconds(60));
+    }
+
+    @Test
+    void replaysEventsInOrderFromASequence() {
+        eventStore.append(List.of(log("g", 0, "GameStartedEvent"), log("g", 1, "TurnStartedEvent"),
+                log("g", 2, "GameLogMessageEvent"), log("other", 0, "GameStartedEvent")));
+        eventStore.append(List.of(log("g", 3, "TurnEndedEvent")));
+
+        List<Long> replayed = new ArrayList<>();
+        eventStore.replay("g", 1, event -> replayed.add(event.getEventSequence()));
+        assertThat(replayed).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void archivedGamesLeaveTheEventLogButStayReadable() {
+        Instant start = Instant.ofEpochSecond(1_700_000_000L, 123_456_789);
+        eventStore.append(List.of(
+                new GameEventLog("done", 0, start, "GameStartedEvent", new byte[] { 1, 2, 3 }),
+                new GameEventLog("done", 1, start.plusSeconds(5), "GameOverEvent", "{\"legacy\":true}")));
+        eventStore.append(List.of(log("ongoing", 0, "GameStartedEvent")));
+
+        assertThat(summaryRepository.findArchivableGameIds(Instant.now().plusSeconds(1), Limit.of(10)))
+                .containsExactly("done");
+        assertThat(eventStore.archive("done")).isEqualTo(2);
+
+        assertThat(eventLogRepository.findByGameIdOrderByEventSequenceAsc("done")).isEmpty();
+        assertThat(summaryRepository.findById("done").orElseThrow().getArchivedAt()).isNotNull();
+        assertThat(summaryRepository.findArchivableGameIds(Instant.now().plusSeconds(1), Limit.of(10))).isEmpty();
+
+        List<GameEventLog> archived = eventStore.read("done", 0);
+        assertThat(archived).extracting(GameEventLog::getEventSequence).containsExactly(0L, 1L);
+        assertThat(archived.get(0).getEventTimestamp()).isEqualTo(start);
+        assertThat(archived.get(0).getEventPayload()).containsExactly(1, 2, 3);
+        assertThat(archived.get(1).getEventData()).isEqualTo("{\"legacy\":true}");
+        assertThat(eventStore.read("done", 1)).hasSize(1);
+        assertThat(eventStore.read("ongoing", 0)).hasSize(1);
+
+        // Pages of an archived game come from the one decoded copy.
+        assertThat(eventStore.read("done", 0, 1)).singleElement().isSameAs(archived.get(0));
+        assertThat(eventStore.read("done", 1, 1)).singleElement().isSameAs(archived.get(1));
+        assertThat(eventStore.read("done", 2, 1)).isEmpty();
+    }
+
+    @Test
+    void pagesThroughRecentGamesByKeyset() {
+        Instant start = Instant.ofEpochSecond(1_700_000_000L);
+        for (int i = 0; i < 5; i++) {
+            // Games 3 and 4 start at the same moment, so the game id breaks the tie.
+            Instant startedAt = start.plusSeconds(Math.min(i, 3));
+            eventStore.append(List.of(new GameEventLog("game-" + i, 0, startedAt, "GameStartedEvent",
+                    new byte[] { 1 })));
+        }
+        eventStore.append(List.of(log("game-3", 1, "GameOverEvent")));
+
+        List<GameSummary> first = summaryRepository.findRecent(null, null, null, null, null, 2);
+        assertThat(first).extracting(GameSummary::getGameId).containsExactly("game-4", "game-3");
+        GameSummary last = first.get(1);
+        List<GameSummary> second = summaryRepository.findRecent(null, null, null, last.getStartedAt(),
+                last.getGameId(), 2);
+        assertThat(second).extracting(GameSummary::getGameId).containsExactly("game-2", "game-1");
+
+        assertThat(summaryRepository.findRecent(GameSummary.Status.FINISHED, null, null, null, null, 10))
+                .extracting(GameSummary::getGameId).containsExactly("game-3");
+    }
+
+    @Test
+    void backfillsSummariesForGamesLoggedBeforeTheTableExisted() {
+        eventLogRepository.saveAll(List.of(
+                log("old-active", 0, "GameStartedEvent"),
+                log("old-finished", 0, "GameStartedEvent"),
+                log("old-finished", 1, "GameOverEvent")));
+
+        assertThat(eventStore.findActiveGameIds()).containsExactly("old-active");
+        assertThat(summaryRepository.findById("old-finished").orElseThrow().getStatus())
+                .isEqualTo(GameSummary.Status.FINISHED);
+    }
+}
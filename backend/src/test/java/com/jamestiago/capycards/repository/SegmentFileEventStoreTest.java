@@ -0,0 +1,140 @@
+package com.jamestiago.capycards.repository;
+
+import com.jamestiago.capycards.game.events.GameEventLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentFileEventStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private static GameEventLog log(String gameId, long sequence, String type) {
+        return new GameEventLog(gameId, sequence, Instant.ofEpochSecond(1_700_000_000L, 123), type,
+                "{\"gameId\":\"" + gameId + "\",\"seq\":" + sequence + "}");
+    }
+
+    private SegmentFileEventStore open(long segmentSize) throws IOException {
+        SegmentFileEventStore store = new SegmentFileEventStore(directory, segmentSize);
+        store.open();
+        return store;
+    }
+
+    @Test
+    void readsBackAcrossSegmentsAndRestarts() throws IOException {
+        SegmentFileEventStore store = open(1024);
+        for (long sequence = 0; sequence < 40; sequence++) {
+            store.append(List.of(log("game-a", sequence, "TurnStartedEvent"), log("game-b", sequence, "TurnStartedEvent")));
+        }
+        store.append(List.of(new GameEventLog("game-b", 40, Instant.now(), "GameOverEvent", new byte[] { 1, 10, 4 })));
+        store.close();
+
+        store = open(1024);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count()).isGreaterThan(1);
+        }
+        List<GameEventLog> events = store.read("game-a", 35);
+        assertThat(events).extracting(GameEventLog::getEventSequence).containsExactly(35L, 36L, 37L, 38L, 39L);
+        assertThat(events.get(0).getEventData()).isEqualTo("{\"gameId\":\"game-a\",\"seq\":35}");
+        assertThat(events.get(0).getEventTimestamp()).isEqualTo(Instant.ofEpochSecond(1_700_000_000L, 123));
+        assertThat(store.read("game-b", 0)).hasSize(41);
+        assertThat(store.read("game-b", 40).get(0).getEventPayload()).containsExactly(1, 10, 4);
+        assertThat(store.findActiveGameIds()).containsExactly("game-a");
+        assertThat(store.findAllGameIds()).containsExactly("game-b", "game-a");
+        List<Long> replayed = new ArrayList<>();
+        store.replay("game-a", 37, event -> replayed.add(event.getEventSequence()));
+        assertThat(replayed).containsExactly(37L, 38L, 39L);
+        store.close();
+    }
+
+    @Test
+    void readsEachEventRightAfterItIsAppended() throws IOException {
+        SegmentFileEventStore store = open(1024);
+        for (long sequence = 0; sequence < 40; sequence++) {
+            store.append(List.of(log("game-a", sequence, "TurnStartedEvent")));
+            // The newest event is in the segment still being written, older ones may be in full segments.
+            assertThat(store.read("game-a", sequence)).extracting(GameEventLog::getEventSequence)
+                    .containsExactly(sequence);
+            assertThat(store.read("game-a", 0)).hasSize((int) sequence + 1);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count()).isGreaterThan(1);
+        }
+        assertThat(store.read("game-a", 20, 2).get(1).getEventData()).isEqualTo("{\"gameId\":\"game-a\",\"seq\":21}");
+        store.close();
+    }
+
+    @Test
+    void rejectsDuplicatesWithoutWritingTheBatch() throws IOException {
+        SegmentFileEventStore store = open(1 << 20);
+        store.append(List.of(log("game-a", 0, "GameStartedEvent")));
+
+        assertThatThrownBy(() -> store.append(List.of(log("game-b", 0, "GameStartedEvent"),
+                log("game-a", 0, "TurnStartedEvent"))))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(store.read("game-b", 0)).isEmpty();
+        store.close();
+    }
+
+    @Test
+    void dropsATornWriteAtTheEndOnRestart() throws IOException {
+        SegmentFileEventStore store = open(1 << 20);
+        List<GameEventLog> batch = new ArrayList<>();
+        for (long sequence = 0; sequence < 10; sequence++) {
+            batch.add(log("game-a", sequence, "TurnStartedEvent"));
+        }
+        store.append(batch);
+        store.close();
+
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        long size = Files.size(segment);
+        // Chop the last record in half, as a crash mid-write would.
+        try (var channel = Files.newByteChannel(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 20);
+        }
+
+        store = open(1 << 20);
+        assertThat(store.read("game-a", 0)).hasSize(9);
+        store.append(List.of(log("game-a", 9, "TurnStartedEvent")));
+        store.close();
+
+        store = open(1 << 20);
+        assertThat(store.read("game-a", 0)).extracting(GameEventLog::getEventSequence).hasSize(10).isSorted();
+        store.close();
+    }
+
+    @Test
+    void ignoresARecordThatFailsItsChecksum() throws IOException {
+        SegmentFileEventStore store = open(1 << 20);
+        store.append(List.of(log("game-a", 0, "GameStartedEvent"), log("game-a", 1, "TurnStartedEvent")));
+        store.close();
+
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 3] ^= 0x5A;
+        Files.write(segment, bytes);
+
+        store = open(1 << 20);
+        assertThat(store.read("game-a", 0)).extracting(GameEventLog::getEventSequence).containsExactly(0L);
+        store.close();
+    }
+}
@@ -0,0 +1,88 @@
+package com.jamestiago.capycards.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.ai.EndgameSolver;
+import com.jamestiago.capycards.game.ai.HeadlessMatch;
+import com.jamestiago.capycards.game.ai.PositionKey;
+import com.jamestiago.capycards.game.commands.EndTurnCommand;
+import com.jamestiago.capycards.game.commands.GameCommand;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.model.Card;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AIServiceTest {
+    private final GameEngine engine = new GameEngine();
+    private AIService aiService;
+    private List<Card> cardPool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cardPool = new CardDefinitionLoader(new ObjectMapper()).loadAll();
+        aiService = new AIService(null, engine, true, EndgameSolver.DEFAULT_MAX_STATE_SIZE);
+        aiService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        aiService.shutdown();
+    }
+
+    @Test
+    void aPlanIsUsedOnceAndAMissDropsTheRest() throws Exception {
+        Game game = HeadlessMatch.newGame(cardPool, new Random(7));
+        String gameId = game.getGameId();
+        String humanId = game.getPlayer1().getPlayerId();
+        String aiId = game.getPlayer2().getPlayerId();
+
+        aiService.startPondering(new Game(game), aiId);
+        aiService.ponderTasks.get(gameId).get(30, TimeUnit.SECONDS);
+        Map<PositionKey, GameCommand> plans = aiService.ponderedPlans.get(gameId);
+        assertThat(plans).isNotEmpty();
+
+        // The human passes, which is one of the lines the ponderer plans for.
+        for (GameEvent event : engine.processCommand(game, new EndTurnCommand(gameId, humanId))) {
+            game.apply(event);
+        }
+        PositionKey position = PositionKey.of(game);
+        GameCommand planned = plans.get(position);
+        assertThat(planned).isNotNull();
+
+        assertThat(aiService.decideNextSingleMove(game, aiId)).isSameAs(planned);
+        assertThat(plans).doesNotContainKey(position);
+
+        if (!(planned instanceof EndTurnCommand)) {
+            assertThat(aiService.ponderedPlans).containsKey(gameId);
+            // Asking again from the same position misses: the plan was already spent.
+            assertThat(aiService.decideNextSingleMove(game, aiId)).isNotNull();
+        }
+        assertThat(aiService.ponderedPlans).doesNotContainKey(gameId);
+        assertThat(aiService.ponderTasks).doesNotContainKey(gameId);
+    }
+
+    @Test
+    void stopPonderingCancelsTheTaskAndDropsThePlans() {
+        Game game = HeadlessMatch.newGame(cardPool, new Random(8));
+        String gameId = game.getGameId();
+
+        aiService.startPondering(new Game(game), game.getPlayer2().getPlayerId());
+        Future<?> task = aiService.ponderTasks.get(gameId);
+        aiService.stopPondering(gameId);
+
+        assertThat(task.isDone()).isTrue();
+        assertThat(aiService.ponderTasks).doesNotContainKey(gameId);
+        assertThat(aiService.ponderedPlans).doesNotContainKey(gameId);
+    }
+}
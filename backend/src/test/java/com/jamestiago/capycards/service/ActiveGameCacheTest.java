@@ -0,0 +1,76 @@
+package com.jamestiago.capycards.service;
+
+import com.jamestiago.capycards.game.Game;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActiveGameCacheTest {
+    private final List<String> loaded = new ArrayList<>();
+    private final List<String> evicted = new ArrayList<>();
+
+    private ActiveGameCache cache(int maxGames, long idleMinutes) {
+        return new ActiveGameCache(gameId -> {
+            loaded.add(gameId);
+            return new Game(gameId, Map.of());
+        }, game -> {
+            evicted.add(game.getGameId());
+            return !game.getGameId().startsWith("memory");
+        }, maxGames, idleMinutes);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAndRebuildsOnNextAccess() {
+        ActiveGameCache cache = cache(2, 60);
+        cache.put(new Game("a", Map.of()));
+        cache.put(new Game("b", Map.of()));
+        cache.put(new Game("c", Map.of()));
+        cache.get("a");
+
+        assertEquals(1, cache.evict());
+        assertEquals(List.of("b"), evicted);
+        assertFalse(cache.contains("b"));
+        assertEquals(1, cache.coldCount());
+
+        Lock lock = cache.lock("b");
+        assertNotNull(lock);
+        try {
+            assertEquals("b", cache.get("b").getGameId());
+        } finally {
+            lock.unlock();
+        }
+        assertEquals(List.of("b"), loaded);
+        assertEquals(0, cache.coldCount());
+    }
+
+    @Test
+    void idleGamesThatCantBeRebuiltAreGone() {
+        ActiveGameCache cache = cache(10, 0);
+        cache.put(new Game("memory-game", Map.of()));
+
+        assertEquals(1, cache.evict());
+        assertNull(cache.get("memory-game"));
+        assertNull(cache.lock("memory-game"));
+        assertTrue(loaded.isEmpty());
+    }
+
+    @Test
+    void busyGamesAreNotEvicted() throws Exception {
+        ActiveGameCache cache = cache(10, 0);
+        cache.put(new Game("busy", Map.of()));
+        Lock lock = cache.lock("busy");
+
+        Thread sweeper = new Thread(cache::evict);
+        sweeper.start();
+        sweeper.join();
+        lock.unlock();
+
+        assertTrue(cache.contains("busy"));
+        assertTrue(evicted.isEmpty());
+    }
+}
@@ -0,0 +1,88 @@
+package com.jamestiago.capycards.service;
+
+import com.jamestiago.capycards.game.ai.HeadlessMatch;
+import com.jamestiago.capycards.model.Card;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest
+class BalanceSimulationServiceTest {
+    private static final int GAMES = 24;
+
+    @Autowired
+    private BalanceSimulationService simulationService;
+
+    @Autowired
+    private CardCatalogService catalogService;
+
+    @Test
+    void streamsProgressUntilEveryGameIsPlayed() throws InterruptedException {
+        Card proposed = new Card(catalogService.current().getPlayable().get(0));
+        proposed.setAttack(proposed.getAttack() + 5);
+        List<BalanceSimulationService.Progress> reports = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        simulationService.start(proposed, GAMES, 7, progress -> {
+            reports.add(progress);
+            if (progress.done()) {
+                done.countDown();
+            }
+        });
+        assertThatThrownBy(() -> simulationService.start(proposed, GAMES, 7, progress -> {
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(done.await(2, TimeUnit.MINUTES)).isTrue();
+
+        BalanceSimulationService.Progress last = reports.get(reports.size() - 1);
+        assertThat(last.completed()).isEqualTo(GAMES);
+        assertThat(last.wins() + last.losses() + last.draws()).isEqualTo(GAMES);
+        if (last.winRate() != null) {
+            assertThat(last.winRate()).isBetween(last.winRateLow(), last.winRateHigh());
+        }
+    }
+
+    @Test
+    void theProposedDeckDiffersOnlyWhereTheCardIs() {
+        List<Card> pool = List.copyOf(catalogService.current().getAll());
+        List<Card> deck = HeadlessMatch.buildDeck(pool, new Random(3));
+
+        Card changed = new Card(deck.get(0));
+        changed.setAttack(changed.getAttack() + 5);
+        List<Card> withChanged = BalanceSimulationService.withProposed(deck, changed, new Random(3));
+        assertThat(withChanged).hasSameSizeAs(deck);
+        for (int i = 0; i < deck.size(); i++) {
+            boolean copy = deck.get(i).getCardId().equals(changed.getCardId());
+            assertThat(withChanged.get(i)).isSameAs(copy ? changed : deck.get(i));
+        }
+
+        Card added = new Card("NEW001", "New", "Capybara", 5, 2, 1, "", null, null, null, null);
+        List<Card> withAdded = BalanceSimulationService.withProposed(deck, added, new Random(3));
+        assertThat(withAdded).hasSameSizeAs(deck);
+        int differing = 0;
+        for (int i = 0; i < deck.size(); i++) {
+            if (withAdded.get(i) != deck.get(i)) {
+                assertThat(withAdded.get(i)).isSameAs(added);
+                differing++;
+            }
+        }
+        assertThat(differing).isEqualTo(1);
+    }
+
+    @Test
+    void wilsonIntervalMatchesTheTextbookValue() {
+        double[] interval = BalanceSimulationService.wilson(50, 100, 1.96);
+        assertThat(interval[0]).isCloseTo(0.4038, within(1e-4));
+        assertThat(interval[1]).isCloseTo(0.5962, within(1e-4));
+        assertThat(BalanceSimulationService.wilson(0, 0, 1.96)).isNull();
+    }
+}
@@ -0,0 +1,57 @@
+package com.jamestiago.capycards.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.CardCatalog;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameSnapshotCodec;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.repository.CardRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({ CardDataSeeder.class, CardCatalogService.class, ObjectMapper.class })
+class CardCatalogServiceTest {
+
+    @Autowired
+    private CardCatalogService catalogService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Test
+    void keepsTheVersionsGamesStillUse() throws Exception {
+        CardCatalog original = catalogService.current();
+        Game game = new Game("pinned", original);
+        byte[] snapshot = GameSnapshotCodec.encode(game);
+
+        Card edited = cardRepository.findByCardId("CAP001").orElseThrow();
+        String name = edited.getName();
+        edited.setName("Renamed by hand");
+        cardRepository.saveAndFlush(edited);
+        CardCatalog republished = catalogService.publish();
+        assertThat(republished.getVersion()).isGreaterThan(original.getVersion());
+
+        // A rebuilt game gets the version it recorded, not the latest one.
+        long recorded = GameSnapshotCodec.catalogVersion(snapshot);
+        assertThat(recorded).isEqualTo(original.getVersion());
+        Game rebuilt = GameSnapshotCodec.decode(snapshot, catalogService.forVersion(recorded));
+        assertThat(rebuilt.getCatalog()).isSameAs(original);
+        assertThat(rebuilt.getCatalog().get("CAP001").getName()).isEqualTo(name);
+        assertThat(catalogService.forVersion(null)).isSameAs(republished);
+
+        assertThat(catalogService.retainOnly(List.of(recorded))).isZero();
+        assertThat(catalogService.forVersion(recorded)).isSameAs(original);
+
+        // Once no game uses it, only the current version is kept.
+        assertThat(catalogService.retainOnly(List.of())).isPositive();
+        assertThat(catalogService.versionCount()).isEqualTo(1);
+        assertThat(catalogService.forVersion(recorded)).isSameAs(republished);
+    }
+}
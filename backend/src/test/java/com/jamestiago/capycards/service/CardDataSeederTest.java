@@ -0,0 +1,46 @@
+package com.jamestiago.capycards.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.repository.CardRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({ CardDataSeeder.class, CardCatalogService.class, ObjectMapper.class })
+class CardDataSeederTest {
+
+    @Autowired
+    private CardDataSeeder seeder;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private CardCatalogService catalogService;
+
+    @Test
+    void skipsUnchangedDefinitionsAndRewritesEditedCards() {
+        // Seeded once already when the context started.
+        long seeded = cardRepository.count();
+        assertThat(seeded).isPositive();
+        assertThat(seeder.seed(false)).isZero();
+        assertThat(seeder.seed(true)).isZero();
+
+        Card edited = cardRepository.findByCardId("CAP001").orElseThrow();
+        String name = edited.getName();
+        edited.setName("Renamed by hand");
+        edited.setContentHash(null);
+        cardRepository.saveAndFlush(edited);
+        seeder.markModified();
+
+        assertThat(seeder.seed(false)).isEqualTo(1);
+        assertThat(cardRepository.findByCardId("CAP001").orElseThrow().getName()).isEqualTo(name);
+        assertThat(cardRepository.count()).isEqualTo(seeded);
+        assertThat(catalogService.current().get("CAP001").getName()).isEqualTo(name);
+    }
+}
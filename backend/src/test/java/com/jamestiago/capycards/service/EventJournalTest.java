@@ -0,0 +1,123 @@
+package com.jamestiago.capycards.service;
+
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.game.events.GameEventLog;
+import com.jamestiago.capycards.game.events.GameLogMessageEvent;
+import com.jamestiago.capycards.repository.EventStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventJournalTest {
+    private final FlakyEventStore eventStore = new FlakyEventStore();
+    private EventJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        journal = new EventJournal(eventStore, new ProjectionService(List.of(), eventStore, null, null, 16),
+                EventJournal.Durability.ASYNC, EventJournal.Durability.ASYNC, 16, 8);
+        journal.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.shutdown();
+    }
+
+    @Test
+    void aFailedAsyncWriteStopsTheGameUntilItIsResumed() {
+        eventStore.failingGames.add("g1");
+        assertThat(journal.append("g1", 0, events("g1"), EventJournal.Durability.ASYNC)).isTrue();
+        assertThat(journal.append("g2", 0, events("g2"), EventJournal.Durability.ASYNC)).isTrue();
+        journal.flush();
+
+        assertThat(journal.hasFailed("g1")).isTrue();
+        assertThat(journal.hasFailed("g2")).isFalse();
+
+        // Even once the store recovers, nothing is written after the gap.
+        eventStore.failingGames.clear();
+        assertThat(journal.append("g1", 1, events("g1"), EventJournal.Durability.ASYNC)).isFalse();
+        journal.flush();
+        assertThat(eventStore.read("g1", 0)).isEmpty();
+        assertThat(eventStore.read("g2", 0)).hasSize(1);
+
+        // Rebuilt from the log, the game picks up where the log ends.
+        journal.resume("g1");
+        assertThat(journal.hasFailed("g1")).isFalse();
+        assertThat(journal.append("g1", 0, events("g1"), EventJournal.Durability.ASYNC)).isTrue();
+        journal.flush();
+        assertThat(eventStore.read("g1", 0)).extracting(GameEventLog::getEventSequence).containsExactly(0L);
+    }
+
+    @Test
+    void aFailedSyncWriteIsReportedWithoutStoppingTheGame() {
+        eventStore.failingGames.add("g1");
+        assertThat(journal.append("g1", 0, events("g1"), EventJournal.Durability.SYNC)).isFalse();
+        assertThat(journal.hasFailed("g1")).isFalse();
+
+        eventStore.failingGames.clear();
+        assertThat(journal.append("g1", 0, events("g1"), EventJournal.Durability.SYNC)).isTrue();
+        assertThat(eventStore.read("g1", 0)).hasSize(1);
+    }
+
+    @Test
+    void afterShutdownCallersWriteForThemselves() {
+        assertThat(journal.append("g1", 0, events("g1"), EventJournal.Durability.ASYNC)).isTrue();
+        journal.shutdown();
+        assertThat(eventStore.read("g1", 0)).hasSize(1);
+
+        assertThat(journal.append("g1", 1, events("g1"), EventJournal.Durability.ASYNC)).isTrue();
+        List<String> ran = new ArrayList<>();
+        journal.afterPersisted(() -> ran.add("action"));
+
+        assertThat(eventStore.read("g1", 0)).hasSize(2);
+        assertThat(ran).containsExactly("action");
+    }
+
+    private static List<GameEvent> events(String gameId) {
+        return List.of(new GameLogMessageEvent(gameId, 1, "hello", "INFO"));
+    }
+
+    private static final class FlakyEventStore implements EventStore {
+        final Set<String> failingGames = ConcurrentHashMap.newKeySet();
+        final List<GameEventLog> stored = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void append(List<GameEventLog> events) {
+            Set<String> games = new HashSet<>();
+            events.forEach(event -> games.add(event.getGameId()));
+            games.retainAll(failingGames);
+            if (!games.isEmpty()) {
+                // Not worth retrying, so the journal gives up straight away.
+                throw new IllegalArgumentException("Refusing events of " + games);
+            }
+            stored.addAll(events);
+        }
+
+        @Override
+        public List<GameEventLog> read(String gameId, long fromSequence) {
+            return stored.stream()
+                    .filter(event -> event.getGameId().equals(gameId) && event.getEventSequence() >= fromSequence)
+                    .toList();
+        }
+
+        @Override
+        public List<String> findActiveGameIds() {
+            return List.of();
+        }
+
+        @Override
+        public List<String> findAllGameIds() {
+            return List.of();
+        }
+    }
+}
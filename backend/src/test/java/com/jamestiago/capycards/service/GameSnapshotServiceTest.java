@@ -0,0 +1,85 @@
+package com.jamestiago.capycards.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.GameSnapshot;
+import com.jamestiago.capycards.game.GameSnapshotCodec;
+import com.jamestiago.capycards.game.ai.EvaluationWeights;
+import com.jamestiago.capycards.game.ai.GreedyPolicy;
+import com.jamestiago.capycards.game.ai.HeadlessMatch;
+import com.jamestiago.capycards.game.events.TurnStartedEvent;
+import com.jamestiago.capycards.repository.GameSnapshotRepository;
+import com.jamestiago.capycards.repository.GameSummaryProjection;
+import com.jamestiago.capycards.repository.JpaEventStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({ JpaEventStore.class, GameSummaryProjection.class, CardDataSeeder.class, CardCatalogService.class,
+        ObjectMapper.class })
+// Snapshots are saved on the service's own thread, so they must be committed to be seen here.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class GameSnapshotServiceTest {
+    private static final int INTERVAL = 20;
+
+    @Autowired
+    private GameSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private JpaEventStore eventStore;
+
+    @Autowired
+    private CardCatalogService catalogService;
+
+    @Test
+    void snapshotsAreTakenAtTheFirstTurnBoundaryAfterTheInterval() throws Exception {
+        EventJournal journal = new EventJournal(eventStore, new ProjectionService(List.of(), eventStore, null, null,
+                16), EventJournal.Durability.ASYNC, EventJournal.Durability.ASYNC, 16, 8);
+        journal.init();
+        GameSnapshotService snapshotService = new GameSnapshotService(snapshotRepository, journal, INTERVAL);
+        snapshotService.init();
+
+        Game game = HeadlessMatch.newGame(List.copyOf(catalogService.current().getAll()), new Random(3));
+        GameEngine engine = new GameEngine();
+        GreedyPolicy policy = new GreedyPolicy(engine, EvaluationWeights.defaults());
+        List<Long> turnBoundaries = new ArrayList<>();
+        HeadlessMatch.play(engine, game, policy, policy, event -> {
+            if (event instanceof TurnStartedEvent) {
+                turnBoundaries.add(game.getNextEventSequence());
+            }
+            snapshotService.onEventsApplied(game, List.of(event));
+        });
+        journal.flush();
+        snapshotService.shutdown();
+        journal.shutdown();
+
+        List<GameSnapshot> snapshots = snapshotRepository.findAll().stream()
+                .filter(snapshot -> snapshot.getGameId().equals(game.getGameId()))
+                .sorted(Comparator.comparingLong(GameSnapshot::getEventSequence))
+                .toList();
+        assertThat(snapshots).hasSizeGreaterThan(1);
+        long last = 0;
+        for (GameSnapshot snapshot : snapshots) {
+            long sequence = snapshot.getEventSequence();
+            long due = last + INTERVAL;
+            // The first turn boundary at or after the point the snapshot fell due.
+            assertThat(turnBoundaries.stream().filter(boundary -> boundary >= due).findFirst())
+                    .contains(sequence);
+            assertThat(GameSnapshotCodec.decode(snapshot.getSnapshotData(), game.getCatalog())
+                    .getNextEventSequence()).isEqualTo(sequence);
+            last = sequence;
+        }
+    }
+}
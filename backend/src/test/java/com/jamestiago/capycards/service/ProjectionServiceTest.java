@@ -0,0 +1,134 @@
+package com.jamestiago.capycards.service;
+
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.ai.EvaluationWeights;
+import com.jamestiago.capycards.game.ai.GreedyPolicy;
+import com.jamestiago.capycards.game.ai.HeadlessMatch;
+import com.jamestiago.capycards.game.events.BinaryEventCodec;
+import com.jamestiago.capycards.game.events.CardPlayedEvent;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.game.events.GameEventLog;
+import com.jamestiago.capycards.game.events.GameOverEvent;
+import com.jamestiago.capycards.game.events.GameStartedEvent;
+import com.jamestiago.capycards.model.CardStats;
+import com.jamestiago.capycards.model.PlayerStats;
+import com.jamestiago.capycards.repository.CardStatsRepository;
+import com.jamestiago.capycards.repository.EventStore;
+import com.jamestiago.capycards.repository.PlayerStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProjectionServiceTest {
+
+    @Autowired
+    private ProjectionService projectionService;
+
+    @Autowired
+    private EventStore eventStore;
+
+    @Autowired
+    private CardCatalogService catalogService;
+
+    @Autowired
+    private PlayerStatsRepository playerStatsRepository;
+
+    @Autowired
+    private CardStatsRepository cardStatsRepository;
+
+    @Test
+    void projectsEachEventOnceAndFillsInWhatWasMissed() throws Exception {
+        List<GameEvent> events = new ArrayList<>();
+        List<GameEventLog> logs = playAndStore(5, events);
+        String player1 = ((GameStartedEvent) events.get(0)).player1Id;
+
+        // Only the tail is delivered; the rest has to be read back from the store.
+        List<GameEventLog> tail = logs.subList(logs.size() / 2, logs.size());
+        projectionService.runPending(tail);
+        projectionService.runPending(tail);
+        projectionService.catchUpAll();
+
+        GameOverEvent over = gameOver(events);
+        long player1Plays = events.stream()
+                .filter(e -> e instanceof CardPlayedEvent played1 && player1.equals(played1.playerId))
+                .count();
+        PlayerStats stats = playerStatsRepository.findById(player1).orElseThrow();
+        assertThat(stats.getGamesPlayed()).isEqualTo(1);
+        assertThat(stats.getWins() + stats.getLosses() + stats.getDraws()).isEqualTo(1);
+        assertThat(stats.getWins()).isEqualTo(player1.equals(over.winnerPlayerId) ? 1 : 0);
+        assertThat(stats.getCardsPlayed()).isEqualTo(player1Plays);
+
+        String someCard = events.stream()
+                .filter(e -> e instanceof CardPlayedEvent)
+                .map(e -> ((CardPlayedEvent) e).card.getCardId())
+                .findFirst().orElseThrow();
+        CardStats card = cardStatsRepository.findById(someCard).orElseThrow();
+        assertThat(card.getTimesPlayed()).isPositive();
+        assertThat(card.getGamesPlayed()).isPositive();
+    }
+
+    @Test
+    void finishingAGameStartedInAnEarlierBatchKeepsThePlayersStats() throws Exception {
+        List<GameEvent> events = new ArrayList<>();
+        List<GameEventLog> logs = playAndStore(6, events);
+        String player1 = ((GameStartedEvent) events.get(0)).player1Id;
+
+        // The second batch holds nothing that names the players, only the end of the game.
+        int lastPlay = 0;
+        for (int i = 0; i < events.size(); i++) {
+            if (events.get(i) instanceof CardPlayedEvent) {
+                lastPlay = i;
+            }
+        }
+        projectionService.runPending(logs.subList(0, lastPlay + 1));
+        projectionService.runPending(logs.subList(lastPlay + 1, logs.size()));
+
+        long player1Plays = events.stream()
+                .filter(e -> e instanceof CardPlayedEvent played1 && player1.equals(played1.playerId))
+                .count();
+        PlayerStats stats = playerStatsRepository.findById(player1).orElseThrow();
+        assertThat(stats.getGamesPlayed()).isEqualTo(1);
+        assertThat(stats.getWins() + stats.getLosses() + stats.getDraws()).isEqualTo(1);
+        assertThat(stats.getWins()).isEqualTo(player1.equals(gameOver(events).winnerPlayerId) ? 1 : 0);
+        assertThat(stats.getCardsPlayed()).isEqualTo(player1Plays);
+    }
+
+    // Plays a game that ends (some run out of turns instead) and stores its events.
+    private List<GameEventLog> playAndStore(long seed, List<GameEvent> events) {
+        GameEngine engine = new GameEngine();
+        GreedyPolicy policy = new GreedyPolicy(engine, EvaluationWeights.defaults());
+        Game played;
+        do {
+            events.clear();
+            played = HeadlessMatch.newGame(List.copyOf(catalogService.current().getAll()), new Random(seed++));
+            String player1 = played.getPlayer1().getPlayerId();
+            events.add(new GameStartedEvent(played.getGameId(), 0, player1, played.getPlayer2().getPlayerId(),
+                    player1));
+        } while (HeadlessMatch.play(engine, played, policy, policy, events::add).truncated());
+
+        Instant now = Instant.now();
+        List<GameEventLog> logs = new ArrayList<>();
+        for (GameEvent event : events) {
+            logs.add(new GameEventLog(played.getGameId(), logs.size(), now, event.getClass().getSimpleName(),
+                    BinaryEventCodec.encode(event, now.toEpochMilli())));
+        }
+        eventStore.append(logs);
+        return logs;
+    }
+
+    private static GameOverEvent gameOver(List<GameEvent> events) {
+        return events.stream()
+                .filter(GameOverEvent.class::isInstance)
+                .map(GameOverEvent.class::cast)
+                .findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,125 @@
+package com.jamestiago.capycards.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.GameSnapshotCodec;
+import com.jamestiago.capycards.game.ai.EvaluationWeights;
+import com.jamestiago.capycards.game.ai.GreedyPolicy;
+import com.jamestiago.capycards.game.ai.HeadlessMatch;
+import com.jamestiago.capycards.game.events.BinaryEventCodec;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.game.events.GameEventLog;
+import com.jamestiago.capycards.game.events.GameStartedEvent;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.repository.GameSummaryProjection;
+import com.jamestiago.capycards.repository.JpaEventStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({ ReplayService.class, JpaEventStore.class, GameSummaryProjection.class, CardDataSeeder.class,
+        CardCatalogService.class, ObjectMapper.class })
+class ReplayServiceTest {
+
+    @Autowired
+    private ReplayService replayService;
+
+    @Autowired
+    private JpaEventStore eventStore;
+
+    @Autowired
+    private CardCatalogService catalogService;
+
+    private List<GameEvent> playAndStore() {
+        Game played = HeadlessMatch.newGame(List.copyOf(catalogService.current().getAll()), new Random(7));
+        List<GameEvent> events = new ArrayList<>();
+        events.add(new GameStartedEvent(played.getGameId(), 0, played.getPlayer1().getPlayerId(),
+                played.getPlayer2().getPlayerId(), played.getPlayer1().getPlayerId()));
+        GameEngine engine = new GameEngine();
+        GreedyPolicy policy = new GreedyPolicy(engine, EvaluationWeights.defaults());
+        HeadlessMatch.play(engine, played, policy, policy, events::add);
+
+        Instant now = Instant.now();
+        List<GameEventLog> logs = new ArrayList<>();
+        for (GameEvent event : events) {
+            logs.add(new GameEventLog(played.getGameId(), logs.size(), now, event.getClass().getSimpleName(),
+                    BinaryEventCodec.encode(event, now.toEpochMilli())));
+        }
+        eventStore.append(logs);
+        return events;
+    }
+
+    private Game replayFirst(String gameId, List<GameEvent> events, int count) {
+        Game game = new Game(gameId, catalogService.current());
+        events.subList(0, count).forEach(game::apply);
+        return game;
+    }
+
+    @Test
+    void seeksForwardAndBackToTheSameStatesAsAFullReplay() throws Exception {
+        List<GameEvent> events = playAndStore();
+        String gameId = events.get(0).gameId;
+        assertThat(events.size()).isGreaterThan(250);
+
+        for (int target : new int[] { 240, 17, 239, events.size() }) {
+            ReplayService.Position position = replayService.seekToEvent(gameId, target);
+            assertThat(position.eventSequence()).isEqualTo(target);
+            assertThat(GameSnapshotCodec.encode(position.game()))
+                    .isEqualTo(GameSnapshotCodec.encode(replayFirst(gameId, events, target)));
+        }
+        ReplayService.Position end = replayService.seekToEnd(gameId);
+        assertThat(end.endOfLog()).isTrue();
+        assertThat(end.eventSequence()).isEqualTo(events.size());
+
+        ReplayService.Position turn = replayService.seekToTurn(gameId, 3);
+        assertThat(turn.turnNumber()).isEqualTo(3);
+        assertThat(replayFirst(gameId, events, (int) turn.eventSequence() - 1).getTurnNumber()).isEqualTo(2);
+
+        assertThat(replayService.seekToEnd("no-such-game")).isNull();
+    }
+
+    @Test
+    void pagesThroughTheHistory() {
+        List<GameEvent> events = playAndStore();
+        String gameId = events.get(0).gameId;
+
+        int read = 0;
+        Long from = 0L;
+        while (from != null) {
+            ReplayService.EventPage page = replayService.readEvents(gameId, from, 100);
+            assertThat(page.events()).hasSizeLessThanOrEqualTo(100);
+            read += page.events().size();
+            from = page.nextSequence();
+        }
+        assertThat(read).isEqualTo(events.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void describesTheCardsInTheHistory() {
+        List<GameEvent> events = playAndStore();
+        String gameId = events.get(0).gameId;
+
+        Map<String, Object> played = replayService.readEvents(gameId, 0).events().stream()
+                .filter(event -> "CARD_PLAYED".equals(event.get("eventType")))
+                .findFirst().orElseThrow();
+        Map<String, Object> card = (Map<String, Object>) played.get("card");
+        Card definition = catalogService.current().get((String) card.get("cardId"));
+        assertThat(card.get("name")).isEqualTo(definition.getName());
+        assertThat(card.get("baseAttack")).isEqualTo(definition.getAttack());
+        assertThat(card.get("baseDefense")).isEqualTo(definition.getDefense());
+        assertThat(card.get("baseLife")).isEqualTo(definition.getInitialLife());
+        assertThat(card.get("imageUrl")).isEqualTo(definition.getImageUrl());
+    }
+}
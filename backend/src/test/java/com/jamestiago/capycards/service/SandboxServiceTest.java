@@ -0,0 +1,147 @@
+package com.jamestiago.capycards.service;
+
+import com.jamestiago.capycards.game.CardInstance;
+import com.jamestiago.capycards.game.Game;
+import com.jamestiago.capycards.game.GameEngine;
+import com.jamestiago.capycards.game.GameNotation;
+import com.jamestiago.capycards.game.ai.EvaluationWeights;
+import com.jamestiago.capycards.game.ai.GreedyPolicy;
+import com.jamestiago.capycards.game.ai.HeadlessMatch;
+import com.jamestiago.capycards.game.commands.EndTurnCommand;
+import com.jamestiago.capycards.game.dto.CardInstanceDTO;
+import com.jamestiago.capycards.game.dto.GameStateResponse;
+import com.jamestiago.capycards.game.events.BinaryEventCodec;
+import com.jamestiago.capycards.game.events.GameEvent;
+import com.jamestiago.capycards.game.events.GameEventLog;
+import com.jamestiago.capycards.game.events.GameStartedEvent;
+import com.jamestiago.capycards.model.Card;
+import com.jamestiago.capycards.repository.CardRepository;
+import com.jamestiago.capycards.repository.EventStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SandboxServiceTest {
+    private static final int FORK_AT = 30;
+
+    @Autowired
+    private SandboxService sandboxService;
+
+    @Autowired
+    private EventStore eventStore;
+
+    @Autowired
+    private CardCatalogService catalogService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private GameService gameService;
+
+    @Test
+    void forksShareTheirStartingPointUntilTheyDiverge() throws Exception {
+        Game atFork = storeGameUpToFork(11);
+
+        Map<String, Object> first = sandboxService.fork(atFork.getGameId(), (long) FORK_AT);
+        Map<String, Object> second = sandboxService.fork(atFork.getGameId(), null);
+        assertThat(first.get("forkedAtEvent")).isEqualTo((long) FORK_AT);
+        assertThat(second.get("forkedAtEvent")).isEqualTo((long) FORK_AT);
+        assertThat(sandboxService.forkPointCount()).isEqualTo(1);
+
+        String firstId = (String) first.get("sandboxId");
+        Map<String, Object> result = sandboxService.execute(firstId,
+                new EndTurnCommand(null, atFork.getCurrentPlayer().getPlayerId()));
+        assertThat((List<?>) result.get("events")).isNotEmpty();
+        assertThat(result.get("diverged")).isEqualTo(true);
+        assertThat((long) result.get("eventSequence")).isGreaterThan(FORK_AT);
+        assertThat(sandboxService.view((String) second.get("sandboxId")).get("eventSequence"))
+                .isEqualTo((long) FORK_AT);
+        assertThat(eventStore.read(atFork.getGameId(), 0)).hasSize(FORK_AT);
+
+        assertThat(sandboxService.discard(firstId)).isTrue();
+        assertThat(sandboxService.discard((String) second.get("sandboxId"))).isTrue();
+        assertThat(sandboxService.size()).isZero();
+        assertThat(sandboxService.forkPointCount()).isZero();
+    }
+
+    @Test
+    void sandboxesOpenedOnAPositionLiveAlongsideForks() throws Exception {
+        Game atFork = storeGameUpToFork(12);
+        Map<String, Object> opened = sandboxService.open(positionOf(atFork));
+        Map<String, Object> forked = sandboxService.fork(atFork.getGameId(), (long) FORK_AT);
+        String forkedId = (String) forked.get("sandboxId");
+        assertThat(sandboxService.forkPointCount()).isEqualTo(1);
+
+        // Diverging releases the fork point, checking every other sandbox's, the opened one's included.
+        Map<String, Object> result = sandboxService.execute(forkedId,
+                new EndTurnCommand(null, atFork.getCurrentPlayer().getPlayerId()));
+        assertThat(result.get("diverged")).isEqualTo(true);
+        assertThat(sandboxService.forkPointCount()).isZero();
+        assertThat(sandboxService.discardIdle()).isZero();
+
+        assertThat(sandboxService.discard((String) opened.get("sandboxId"))).isTrue();
+        assertThat(sandboxService.discard(forkedId)).isTrue();
+        assertThat(sandboxService.size()).isZero();
+    }
+
+    @Test
+    void forksKeepTheCardsOfTheGameTheyCameFrom() throws Exception {
+        Game live = gameService.createNewGame("One", "Two");
+        CardInstance onField = new CardInstance(live.getCatalog().get("CAP001"));
+        live.getPlayer1().getFieldInternal().set(0, onField);
+        String sandboxId = (String) sandboxService.fork(live.getGameId(), null).get("sandboxId");
+
+        Card edited = cardRepository.findByCardId("CAP001").orElseThrow();
+        String name = edited.getName();
+        edited.setName("Renamed after the fork");
+        cardRepository.saveAndFlush(edited);
+        try {
+            catalogService.publish();
+            GameStateResponse state = (GameStateResponse) sandboxService.view(sandboxId).get("gameState");
+            CardInstanceDTO card = state.getPlayer1State().getField().get(0);
+            assertThat(card.getInstanceId()).isEqualTo(onField.getInstanceId());
+            assertThat(card.getName()).isEqualTo(name);
+        } finally {
+            edited.setName(name);
+            cardRepository.saveAndFlush(edited);
+            catalogService.publish();
+            sandboxService.discard(sandboxId);
+            gameService.removeGame(live.getGameId());
+        }
+    }
+
+    // Stores the first FORK_AT events of a played game and returns the game as of then.
+    private Game storeGameUpToFork(long seed) {
+        Game played = HeadlessMatch.newGame(List.copyOf(catalogService.current().getAll()), new Random(seed));
+        List<GameEvent> events = new ArrayList<>();
+        events.add(new GameStartedEvent(played.getGameId(), 0, played.getPlayer1().getPlayerId(),
+                played.getPlayer2().getPlayerId(), played.getPlayer1().getPlayerId()));
+        GameEngine engine = new GameEngine();
+        GreedyPolicy policy = new GreedyPolicy(engine, EvaluationWeights.defaults());
+        HeadlessMatch.play(engine, played, policy, policy, events::add);
+        Instant now = Instant.now();
+        List<GameEventLog> logs = new ArrayList<>();
+        for (GameEvent event : events.subList(0, FORK_AT)) {
+            logs.add(new GameEventLog(played.getGameId(), logs.size(), now, event.getClass().getSimpleName(),
+                    BinaryEventCodec.encode(event, now.toEpochMilli())));
+        }
+        eventStore.append(logs);
+        Game atFork = new Game(played.getGameId(), catalogService.current());
+        events.subList(0, FORK_AT).forEach(atFork::apply);
+        return atFork;
+    }
+
+    private Game positionOf(Game game) {
+        return GameNotation.parse(GameNotation.write(game), catalogService.current());
+    }
+}
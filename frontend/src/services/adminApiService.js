@@ -58,10 +58,21 @@ export const getEffectOptions = async () => {
 };
 
 // --- Game API ---
+const GAME_ID_PAGE_SIZE = 500;
+
 export const getAllGameIds = async () => {
-    const response = await fetch(`${API_BASE}/games/ids`);
-    if (!response.ok) throw new Error('Failed to fetch game IDs');
-    return response.json();
+    const gameIds = [];
+    let after = null;
+    for (;;) {
+        const params = new URLSearchParams({ limit: GAME_ID_PAGE_SIZE });
+        if (after) params.set('after', after);
+        const response = await fetch(`${API_BASE}/games/ids?${params}`);
+        if (!response.ok) throw new Error('Failed to fetch game IDs');
+        const page = await response.json();
+        gameIds.push(...page);
+        if (page.length < GAME_ID_PAGE_SIZE) return gameIds;
+        after = page[page.length - 1];
+    }
 };
 
 export const getGameHistory = async (gameId) => {